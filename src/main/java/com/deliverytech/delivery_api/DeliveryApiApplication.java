@@ -5,10 +5,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.validation.annotation.Validated;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 @EntityScan(basePackages = "com.deliverytech.delivery_api.model")
 @EnableJpaRepositories(basePackages = "com.deliverytech.delivery_api.repository")
 @Validated
@@ -0,0 +1,255 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.service.ProdutoService;
+import com.deliverytech.delivery_api.service.RelatorioService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aquece os caches na subida, antes de a aplicação aceitar tráfego: o Spring Boot só publica a
+ * prontidão ({@code /actuator/health/readiness}) depois dos {@link ApplicationRunner}s. Carrega o
+ * cardápio dos {@code restaurantes} restaurantes com mais pedidos, a lista de disponíveis e os
+ * relatórios do dia anterior, pelos próprios serviços, então as entradas ficam com as mesmas chaves
+ * e dependências das leituras normais. Relatórios que incluem o dia corrente não entram no cache
+ * ({@link RelatorioEmCache}) e por isso não são aquecidos.
+ *
+ * <p>As cargas rodam em paralelo ({@code paralelismo} threads) dentro do {@code orcamento}: o que
+ * não terminou no prazo é cancelado e fica para a primeira leitura, sem segurar a subida. Falhas
+ * são registradas e não impedem a aplicação de subir. O andamento fica em {@link #situacao()},
+ * exposto pelo health indicator {@code aquecimentoCache}. {@link #aquecer(String)} repete as cargas
+ * de uma região sob demanda (endpoint {@code cachestats}).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cache.aquecimento", name = "enabled", havingValue = "true")
+public class AquecimentoCache implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(AquecimentoCache.class);
+
+  /** Limite usado pelo controller quando o cliente não informa {@code limite}. */
+  private static final int LIMITE_PADRAO_RELATORIO = 5;
+
+  /** {@code PARCIAL}: terminou com falhas ou cargas canceladas pelo orçamento. */
+  public enum Estado {
+    PENDENTE,
+    EM_ANDAMENTO,
+    CONCLUIDO,
+    PARCIAL
+  }
+
+  private final ProdutoService produtoService;
+  private final RelatorioService relatorioService;
+  private final PedidoRepository pedidoRepository;
+  private final int restaurantes;
+  private final Duration orcamento;
+  private final int paralelismo;
+
+  private volatile Estado estado = Estado.PENDENTE;
+  private volatile Instant inicio;
+  private volatile Instant fim;
+  private final AtomicInteger total = new AtomicInteger();
+  private final AtomicInteger concluidas = new AtomicInteger();
+  private final AtomicInteger falhas = new AtomicInteger();
+  private final AtomicInteger canceladas = new AtomicInteger();
+
+  public AquecimentoCache(
+      ProdutoService produtoService,
+      RelatorioService relatorioService,
+      PedidoRepository pedidoRepository,
+      @Value("${app.cache.aquecimento.restaurantes:20}") int restaurantes,
+      @Value("${app.cache.aquecimento.orcamento-ms:30000}") long orcamentoMs,
+      @Value("${app.cache.aquecimento.paralelismo:4}") int paralelismo) {
+    this.produtoService = produtoService;
+    this.relatorioService = relatorioService;
+    this.pedidoRepository = pedidoRepository;
+    this.restaurantes = restaurantes;
+    this.orcamento = Duration.ofMillis(orcamentoMs);
+    this.paralelismo = Math.max(1, paralelismo);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    aquecer();
+  }
+
+  /** Executa o aquecimento e bloqueia até terminar ou estourar o orçamento. */
+  public void aquecer() {
+    inicio = Instant.now();
+    estado = Estado.EM_ANDAMENTO;
+    try {
+      executar(cargas(), total, concluidas, falhas, canceladas);
+    } catch (RuntimeException ex) {
+      // Sem a lista de restaurantes não há o que aquecer; a aplicação sobe com o cache frio
+      log.warn("Aquecimento de cache abortado", ex);
+      falhas.incrementAndGet();
+    } finally {
+      fim = Instant.now();
+      estado =
+          falhas.get() == 0 && canceladas.get() == 0 && concluidas.get() == total.get()
+              ? Estado.CONCLUIDO
+              : Estado.PARCIAL;
+      log.info(
+          "Aquecimento de cache {}: {}/{} cargas em {} ms ({} falha(s), {} cancelada(s))",
+          estado,
+          concluidas.get(),
+          total.get(),
+          Duration.between(inicio, fim).toMillis(),
+          falhas.get(),
+          canceladas.get());
+    }
+  }
+
+  /**
+   * Repete só as cargas de uma região (ver {@link RegioesCache}), com o mesmo orçamento, sem mexer
+   * no estado do aquecimento da subida. Regiões sem carga conhecida devolvem {@code total} zero.
+   */
+  public Map<String, Object> aquecer(String regiao) {
+    Instant inicioRegiao = Instant.now();
+    AtomicInteger totalRegiao = new AtomicInteger();
+    AtomicInteger concluidasRegiao = new AtomicInteger();
+    AtomicInteger falhasRegiao = new AtomicInteger();
+    AtomicInteger canceladasRegiao = new AtomicInteger();
+    Map<String, Runnable> cargas = new LinkedHashMap<>();
+    cargas()
+        .forEach(
+            (nome, carga) -> {
+              if (regiao(nome).equals(regiao)) {
+                cargas.put(nome, carga);
+              }
+            });
+    executar(cargas, totalRegiao, concluidasRegiao, falhasRegiao, canceladasRegiao);
+    Map<String, Object> resultado = new LinkedHashMap<>();
+    resultado.put("regiao", regiao);
+    resultado.put("total", totalRegiao.get());
+    resultado.put("concluidas", concluidasRegiao.get());
+    resultado.put("falhas", falhasRegiao.get());
+    resultado.put("canceladas", canceladasRegiao.get());
+    resultado.put("duracaoMs", Duration.between(inicioRegiao, Instant.now()).toMillis());
+    return resultado;
+  }
+
+  /** Andamento do aquecimento, para o actuator. */
+  public Map<String, Object> situacao() {
+    Map<String, Object> situacao = new LinkedHashMap<>();
+    situacao.put("estado", estado);
+    situacao.put("total", total.get());
+    situacao.put("concluidas", concluidas.get());
+    situacao.put("falhas", falhas.get());
+    situacao.put("canceladas", canceladas.get());
+    if (inicio != null) {
+      Instant ate = fim != null ? fim : Instant.now();
+      situacao.put("duracaoMs", Duration.between(inicio, ate).toMillis());
+    }
+    situacao.put("orcamentoMs", orcamento.toMillis());
+    return situacao;
+  }
+
+  public Estado estado() {
+    return estado;
+  }
+
+  // Uma carga por chave de cache, com um nome legível para o log
+  private Map<String, Runnable> cargas() {
+    Map<String, Runnable> cargas = new LinkedHashMap<>();
+    cargas.put("disponiveis", produtoService::buscarDisponiveis);
+    for (Long restauranteId :
+        pedidoRepository.findRestauranteIdsComMaisPedidos(PageRequest.of(0, restaurantes))) {
+      cargas.put(
+          "cardapio:" + restauranteId,
+          () -> produtoService.buscarProdutosPorRestaurante(restauranteId));
+    }
+    // Último dia encerrado: também deixa o bloco dele em memória (VendasEmColunas)
+    LocalDate ontem = LocalDate.now().minusDays(1);
+    cargas.put("resumoVendas", () -> relatorioService.resumoVendas(ontem, ontem));
+    cargas.put(
+        "vendasPorRestaurante", () -> relatorioService.relatorioVendasPorRestaurante(ontem, ontem));
+    cargas.put(
+        "produtosMaisVendidos",
+        () ->
+            relatorioService.relatorioProdutosMaisVendidos(LIMITE_PADRAO_RELATORIO, ontem, ontem));
+    cargas.put(
+        "faturamentoPorCategoria", () -> relatorioService.faturamentoPorCategoria(ontem, ontem));
+    return cargas;
+  }
+
+  // Região de cada carga, pelo prefixo do nome dado em cargas()
+  private static String regiao(String carga) {
+    if (carga.equals("disponiveis")) {
+      return RegioesCache.PRODUTOS_DISPONIVEIS;
+    }
+    return carga.startsWith("cardapio:")
+        ? RegioesCache.PRODUTOS_POR_RESTAURANTE
+        : RegioesCache.RELATORIOS;
+  }
+
+  private void executar(
+      Map<String, Runnable> pendentes,
+      AtomicInteger total,
+      AtomicInteger concluidas,
+      AtomicInteger falhas,
+      AtomicInteger canceladas) {
+    Instant prazo = Instant.now().plus(orcamento);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            paralelismo,
+            tarefa -> {
+              Thread thread = new Thread(tarefa, "aquecimento-cache");
+              thread.setDaemon(true);
+              return thread;
+            });
+    try {
+      total.set(pendentes.size());
+      List<Future<?>> cargas = new ArrayList<>();
+      for (Map.Entry<String, Runnable> carga : pendentes.entrySet()) {
+        cargas.add(
+            executor.submit(() -> executar(carga.getKey(), carga.getValue(), concluidas, falhas)));
+      }
+      for (Future<?> carga : cargas) {
+        long restanteNanos = Duration.between(Instant.now(), prazo).toNanos();
+        try {
+          carga.get(Math.max(0L, restanteNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+          carga.cancel(true);
+          canceladas.incrementAndGet();
+        } catch (ExecutionException ex) {
+          // executar() já contabilizou e registrou a falha
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void executar(
+      String nome, Runnable carga, AtomicInteger concluidas, AtomicInteger falhas) {
+    try {
+      carga.run();
+      concluidas.incrementAndGet();
+    } catch (RuntimeException ex) {
+      falhas.incrementAndGet();
+      log.warn("Falha ao aquecer {}", nome, ex);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache negativo das buscas por id de produto e restaurante e por e-mail de cliente. Buscas que não
+ * encontram nada, ou encontram um registro excluído, ficam na região {@link RegioesCache#AUSENCIAS}
+ * (expiração curta) com o motivo, e a repetição responde o mesmo erro sem consultar o banco.
+ *
+ * <p>Para ids há também um {@link FiltroBloom} com todos os ids existentes, carregado na subida e a
+ * cada {@code app.cache.ausencias.recarga-ms}. Com {@code innodb_autoinc_lock_mode=2} um id menor
+ * que o maior já gravado ainda pode chegar num commit posterior, então o filtro só vale até um
+ * limite: o maior id lido por uma carga feita pelo menos {@code app.cache.ausencias.margem-ms}
+ * antes (todo id até ele foi gerado antes dela e, terminada a transação que o gerou, está na carga
+ * seguinte). Um id até o limite que o filtro não conhece nunca existiu e é recusado sem consulta
+ * nem entrada no cache. Ids acima dele sempre vão ao banco, e até a segunda carga não há limite.
+ *
+ * <p>{@link #registrarExistente} deve ser chamado por quem cria o registro (ou troca o e-mail):
+ * tira a ausência na hora e de novo após o commit, e adiciona o id ao filtro. O cadastro também vai
+ * para o {@link BarramentoInvalidacao}, e as outras instâncias fazem o mesmo.
+ */
+@Component
+public class AusenciasEmCache {
+
+  private static final Logger log = LoggerFactory.getLogger(AusenciasEmCache.class);
+
+  private static final double FALSOS_POSITIVOS = 0.01;
+
+  /** O que foi buscado; o tipo da dependência mantém as chaves separadas na região. */
+  public enum Recurso {
+    PRODUTO(Dependencia.Tipo.PRODUTO),
+    RESTAURANTE(Dependencia.Tipo.RESTAURANTE),
+    CLIENTE_EMAIL(Dependencia.Tipo.CLIENTE);
+
+    private final Dependencia.Tipo tipo;
+
+    Recurso(Dependencia.Tipo tipo) {
+      this.tipo = tipo;
+    }
+  }
+
+  /** Por que a busca falhou, para repetir o mesmo erro. */
+  public enum Motivo {
+    NAO_ENCONTRADO,
+    EXCLUIDO
+  }
+
+  private final Cache cache;
+  private final ProdutoRepository produtoRepository;
+  private final RestauranteRepository restauranteRepository;
+
+  private final Map<Recurso, IdsConhecidos> idsConhecidos = new EnumMap<>(Recurso.class);
+
+  private final AtomicLong recusadasPeloFiltro = new AtomicLong();
+
+  private final long margemMs;
+  private final LongSupplier relogio;
+
+  // Ausente só quando criado fora do Spring (testes)
+  private BarramentoInvalidacao barramento;
+
+  @Autowired
+  public AusenciasEmCache(
+      CacheManager cacheManager,
+      ProdutoRepository produtoRepository,
+      RestauranteRepository restauranteRepository,
+      @Value("${app.cache.ausencias.margem-ms:60000}") long margemMs) {
+    this(
+        cacheManager,
+        produtoRepository,
+        restauranteRepository,
+        margemMs,
+        System::currentTimeMillis);
+  }
+
+  AusenciasEmCache(
+      CacheManager cacheManager,
+      ProdutoRepository produtoRepository,
+      RestauranteRepository restauranteRepository,
+      long margemMs,
+      LongSupplier relogio) {
+    this.cache = cacheManager.getCache(RegioesCache.AUSENCIAS);
+    this.produtoRepository = produtoRepository;
+    this.restauranteRepository = restauranteRepository;
+    this.margemMs = margemMs;
+    this.relogio = relogio;
+  }
+
+  @Autowired(required = false)
+  void usarBarramento(BarramentoInvalidacao barramento) {
+    this.barramento = barramento;
+    barramento.assinar(
+        EventoInvalidacao.Tipo.EXISTENTE,
+        evento -> {
+          Recurso recurso = Recurso.valueOf(evento.alvo());
+          Object chave =
+              recurso == Recurso.CLIENTE_EMAIL ? evento.valor() : Long.valueOf(evento.valor());
+          esquecerAusencia(recurso, chave);
+        });
+  }
+
+  /**
+   * Carrega os filtros de ids, na subida e a cada {@code app.cache.ausencias.recarga-ms}. Até haver
+   * um limite, toda busca sem ausência em cache vai ao banco.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${app.cache.ausencias.recarga-ms:600000}",
+      fixedDelayString = "${app.cache.ausencias.recarga-ms:600000}")
+  public synchronized void carregar() {
+    carregar(Recurso.PRODUTO, produtoRepository::findAllIds);
+    carregar(Recurso.RESTAURANTE, restauranteRepository::findAllIds);
+  }
+
+  /**
+   * Motivo conhecido para a busca não encontrar nada, ou {@code null} se é preciso consultar o
+   * banco.
+   */
+  public Motivo consultar(Recurso recurso, Object chave) {
+    if (chave == null) {
+      return null;
+    }
+    IdsConhecidos ids = idsConhecidos(recurso);
+    if (ids != null && chave instanceof Long id && ids.nuncaExistiu(id)) {
+      recusadasPeloFiltro.incrementAndGet();
+      return Motivo.NAO_ENCONTRADO;
+    }
+    if (cache == null) {
+      return null;
+    }
+    Cache.ValueWrapper ausencia = cache.get(chave(recurso, chave));
+    return ausencia != null ? (Motivo) ausencia.get() : null;
+  }
+
+  public void registrarAusencia(Recurso recurso, Object chave, Motivo motivo) {
+    if (cache != null && chave != null) {
+      cache.put(chave(recurso, chave), motivo);
+    }
+  }
+
+  public void registrarExistente(Recurso recurso, Object chave) {
+    if (chave == null) {
+      return;
+    }
+    ChaveCache chaveCache = esquecerAusencia(recurso, chave);
+    // Uma busca concorrente pode ter gravado a ausência antes do commit
+    if (cache != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              cache.evict(chaveCache);
+            }
+          });
+    }
+    if (barramento != null) {
+      barramento.publicar(EventoInvalidacao.Tipo.EXISTENTE, recurso, chave);
+    }
+  }
+
+  private ChaveCache esquecerAusencia(Recurso recurso, Object chave) {
+    IdsConhecidos ids = idsConhecidos(recurso);
+    if (ids != null && chave instanceof Long id) {
+      ids.filtro().adicionar(id);
+    }
+    ChaveCache chaveCache = chave(recurso, chave);
+    if (cache != null) {
+      cache.evict(chaveCache);
+    }
+    return chaveCache;
+  }
+
+  long recusadasPeloFiltro() {
+    return recusadasPeloFiltro.get();
+  }
+
+  private void carregar(Recurso recurso, Supplier<List<Long>> ids) {
+    try {
+      long agora = relogio.getAsLong();
+      List<Long> existentes = ids.get();
+      FiltroBloom filtro =
+          new FiltroBloom(Math.max(1_024, existentes.size() * 2), FALSOS_POSITIVOS);
+      long maior = 0L;
+      for (Long id : existentes) {
+        filtro.adicionar(id);
+        maior = Math.max(maior, id);
+      }
+      IdsConhecidos anterior = idsConhecidos(recurso);
+      IdsConhecidos novo;
+      if (anterior == null) {
+        novo = new IdsConhecidos(filtro, 0L, maior, agora);
+      } else if (agora - anterior.lidoEm() >= margemMs) {
+        novo = new IdsConhecidos(filtro, anterior.maiorLido(), maior, agora);
+      } else {
+        // Carga anterior recente demais para virar limite: fica para a próxima
+        novo =
+            new IdsConhecidos(filtro, anterior.limite(), anterior.maiorLido(), anterior.lidoEm());
+      }
+      synchronized (idsConhecidos) {
+        idsConhecidos.put(recurso, novo);
+      }
+      log.info(
+          "Filtro de ids de {} carregado: {} id(s), válido até o id {}",
+          recurso,
+          existentes.size(),
+          novo.limite());
+    } catch (RuntimeException ex) {
+      // Sem filtro as buscas só vão ao banco; nada fica errado, apenas mais lento
+      log.warn("Falha ao carregar o filtro de ids de {}", recurso, ex);
+    }
+  }
+
+  private IdsConhecidos idsConhecidos(Recurso recurso) {
+    synchronized (idsConhecidos) {
+      return idsConhecidos.get(recurso);
+    }
+  }
+
+  // A collation do MySQL ignora maiúsculas ao comparar e-mails; a chave segue a mesma regra
+  private static ChaveCache chave(Recurso recurso, Object chave) {
+    return ChaveCache.de(
+        recurso.tipo,
+        recurso == Recurso.CLIENTE_EMAIL && chave instanceof String email
+            ? email.trim().toLowerCase(Locale.ROOT)
+            : chave);
+  }
+
+  /**
+   * Ids existentes na carga e até onde o filtro vale; {@code maiorLido} e {@code lidoEm} são o
+   * candidato a limite da próxima carga.
+   */
+  private record IdsConhecidos(FiltroBloom filtro, long limite, long maiorLido, long lidoEm) {
+    boolean nuncaExistiu(long id) {
+      return id > 0 && id <= limite && !filtro.podeConter(id);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Repete nas outras instâncias as invalidações feitas nesta: {@link InvalidacaoCache}, {@link
+ * VersoesCatalogo} e {@link AusenciasEmCache} publicam o que invalidaram e assinam o mesmo tipo de
+ * evento para aplicar o que veio de fora, sem publicar de novo.
+ *
+ * <p>Os eventos de uma transação são juntados (sem repetição) e enviados numa vez só; uma transação
+ * desfeita não publica nada. Um transporte {@link TransporteInvalidacao#naTransacao() na transação}
+ * grava no {@code beforeCommit}, com a conexão da própria escrita: escrita e eventos confirmam
+ * juntos, e falha no envio desfaz a escrita. Os demais enviam após o commit, e a falha só é
+ * registrada no log: as outras instâncias ficam com o valor antigo até a expiração da região. Fora
+ * de transação o envio é imediato.
+ */
+@Component
+public class BarramentoInvalidacao {
+
+  private static final Logger log = LoggerFactory.getLogger(BarramentoInvalidacao.class);
+
+  private final TransporteInvalidacao transporte;
+
+  private final String origem = UUID.randomUUID().toString();
+
+  private final Map<EventoInvalidacao.Tipo, List<Consumer<EventoInvalidacao>>> ouvintes =
+      new ConcurrentHashMap<>();
+
+  public BarramentoInvalidacao(TransporteInvalidacao transporte) {
+    this.transporte = transporte;
+    transporte.assinar(this::receber);
+  }
+
+  /** Aplica os eventos do tipo vindos de outras instâncias. */
+  public void assinar(EventoInvalidacao.Tipo tipo, Consumer<EventoInvalidacao> ouvinte) {
+    ouvintes.computeIfAbsent(tipo, t -> new CopyOnWriteArrayList<>()).add(ouvinte);
+  }
+
+  /** Publica a invalidação feita aqui, junto com o commit da transação corrente. */
+  public void publicar(EventoInvalidacao.Tipo tipo, Object alvo, Object valor) {
+    EventoInvalidacao evento = new EventoInvalidacao(origem, tipo, texto(alvo), texto(valor));
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      enviar(List.of(evento));
+      return;
+    }
+    // Uma sincronização por transação; numa REQUIRES_NEW a lista é outra
+    for (TransactionSynchronization sincronizacao :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      if (sincronizacao instanceof EnvioNoCommit envio && envio.barramento == this) {
+        envio.eventos.add(evento);
+        return;
+      }
+    }
+    EnvioNoCommit envio = new EnvioNoCommit(this);
+    envio.eventos.add(evento);
+    TransactionSynchronizationManager.registerSynchronization(envio);
+  }
+
+  String origem() {
+    return origem;
+  }
+
+  private void enviar(List<EventoInvalidacao> eventos) {
+    try {
+      transporte.enviar(eventos);
+    } catch (RuntimeException ex) {
+      log.warn("Falha ao publicar {} invalidação(ões) de cache", eventos.size(), ex);
+    }
+  }
+
+  private void receber(List<EventoInvalidacao> eventos) {
+    for (EventoInvalidacao evento : eventos) {
+      if (origem.equals(evento.origem())) {
+        continue;
+      }
+      for (Consumer<EventoInvalidacao> ouvinte : ouvintes.getOrDefault(evento.tipo(), List.of())) {
+        try {
+          ouvinte.accept(evento);
+        } catch (RuntimeException ex) {
+          log.warn("Falha ao aplicar invalidação de cache recebida: {}", evento, ex);
+        }
+      }
+    }
+  }
+
+  private static String texto(Object valor) {
+    return valor != null ? valor.toString() : null;
+  }
+
+  // Classe, não record: fica num Set do Spring enquanto a lista de eventos cresce
+  private static final class EnvioNoCommit implements TransactionSynchronization {
+
+    private final BarramentoInvalidacao barramento;
+    private final Set<EventoInvalidacao> eventos = new LinkedHashSet<>();
+
+    EnvioNoCommit(BarramentoInvalidacao barramento) {
+      this.barramento = barramento;
+    }
+
+    // Sem tratar a falha: exceção aqui desfaz a transação
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      if (barramento.transporte.naTransacao()) {
+        barramento.transporte.enviar(new ArrayList<>(eventos));
+      }
+    }
+
+    @Override
+    public void afterCommit() {
+      if (!barramento.transporte.naTransacao()) {
+        barramento.enviar(new ArrayList<>(eventos));
+      }
+    }
+  }
+}
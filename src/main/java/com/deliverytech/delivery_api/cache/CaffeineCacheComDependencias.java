@@ -0,0 +1,248 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * {@link CaffeineCache} que mantém o {@link InvalidacaoCache} em dia: gravações com {@link
+ * ChaveCache} ou {@link ChaveRelatorio} registram as dependências da entrada, e remoções explícitas
+ * as esquecem. Continua sendo um {@code CaffeineCache}, então as métricas do actuator seguem
+ * ligadas.
+ *
+ * <p>{@link #get(Object, Callable)}, usado por {@code @Cacheable(sync = true)}, carrega cada chave
+ * uma vez só: chamadas concorrentes para a mesma chave ausente esperam o {@link CompletableFuture}
+ * da carga em andamento. A carga roda na thread de quem chamou, fora dos locks do Caffeine, então
+ * uma consulta lenta não segura outras chaves. Entradas que passaram de {@code fracaoRenovacao} do
+ * {@code expirar-apos-escrita} são recarregadas pela primeira leitura; as leituras concorrentes
+ * continuam recebendo o valor atual até a troca, e a entrada quente não chega a expirar.
+ *
+ * <p>A carga pode ter lido o banco antes de um commit cuja invalidação terminou antes da gravação
+ * dela; a entrada gravada é conferida contra a geração de {@link InvalidacaoCache} lida antes da
+ * carga e sai se alguma dependência dela foi invalidada nesse meio tempo. Quem chamou recebe o
+ * valor lido do mesmo jeito.
+ *
+ * <p>Leituras e cargas são contadas por família de chave em {@link EstatisticasCache}.
+ */
+public class CaffeineCacheComDependencias extends CaffeineCache {
+
+  private static final Logger log = LoggerFactory.getLogger(CaffeineCacheComDependencias.class);
+
+  private final InvalidacaoCache invalidacao;
+
+  // Nulo nos caches criados fora do CacheConfig (testes)
+  private final EstatisticasCache estatisticas;
+
+  private final Map<Object, CompletableFuture<Object>> cargasEmAndamento =
+      new ConcurrentHashMap<>();
+
+  // Nulo quando a região não expira por escrita ou a renovação antecipada está desligada
+  private final Policy.FixedExpiration<Object, Object> expiracao;
+
+  // Idade, em nanos, a partir da qual a leitura renova a entrada
+  private final long idadeRenovacaoNanos;
+
+  public CaffeineCacheComDependencias(
+      String nome,
+      Cache<Object, Object> cache,
+      boolean permitirNulos,
+      InvalidacaoCache invalidacao) {
+    this(nome, cache, permitirNulos, invalidacao, 0);
+  }
+
+  public CaffeineCacheComDependencias(
+      String nome,
+      Cache<Object, Object> cache,
+      boolean permitirNulos,
+      InvalidacaoCache invalidacao,
+      double fracaoRenovacao) {
+    this(nome, cache, permitirNulos, invalidacao, fracaoRenovacao, null);
+  }
+
+  public CaffeineCacheComDependencias(
+      String nome,
+      Cache<Object, Object> cache,
+      boolean permitirNulos,
+      InvalidacaoCache invalidacao,
+      double fracaoRenovacao,
+      EstatisticasCache estatisticas) {
+    super(nome, cache, permitirNulos);
+    this.invalidacao = invalidacao;
+    this.estatisticas = estatisticas;
+    this.expiracao =
+        fracaoRenovacao > 0 && fracaoRenovacao < 1
+            ? cache.policy().expireAfterWrite().orElse(null)
+            : null;
+    this.idadeRenovacaoNanos =
+        expiracao != null
+            ? (long) (expiracao.getExpiresAfter(TimeUnit.NANOSECONDS) * fracaoRenovacao)
+            : 0L;
+    invalidacao.registrarCache(nome, cache);
+    if (estatisticas != null) {
+      estatisticas.registrarCache(nome, cache);
+    }
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    Object armazenado = super.lookup(key);
+    registrarLeitura(key, armazenado != null);
+    return armazenado;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    Object armazenado = getNativeCache().getIfPresent(key);
+    registrarLeitura(key, armazenado != null);
+    if (armazenado != null && !deveRenovar(key)) {
+      return (T) fromStoreValue(armazenado);
+    }
+    CompletableFuture<Object> carga = new CompletableFuture<>();
+    CompletableFuture<Object> emAndamento = cargasEmAndamento.putIfAbsent(key, carga);
+    if (emAndamento != null) {
+      // Renovação em andamento: segue com o valor atual; chave ausente: espera a carga
+      return (T) fromStoreValue(armazenado != null ? armazenado : aguardar(key, emAndamento));
+    }
+    try {
+      if (armazenado == null) {
+        // A carga anterior pode ter terminado entre a leitura e a reserva
+        Object recente = getNativeCache().policy().getIfPresentQuietly(key);
+        if (recente != null) {
+          carga.complete(recente);
+          return (T) fromStoreValue(recente);
+        }
+      }
+      T valor = carregar(key, valueLoader, armazenado);
+      carga.complete(toStoreValue(valor));
+      return valor;
+    } catch (RuntimeException ex) {
+      carga.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      cargasEmAndamento.remove(key, carga);
+    }
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    super.put(key, value);
+    registrar(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existente = super.putIfAbsent(key, value);
+    if (existente == null) {
+      registrar(key, value);
+    }
+    return existente;
+  }
+
+  @Override
+  public void evict(Object key) {
+    super.evict(key);
+    invalidacao.esquecer(getName(), key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean removida = super.evictIfPresent(key);
+    invalidacao.esquecer(getName(), key);
+    return removida;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    invalidacao.esquecerCache(getName());
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean havia = super.invalidate();
+    invalidacao.esquecerCache(getName());
+    return havia;
+  }
+
+  int cargasEmAndamento() {
+    return cargasEmAndamento.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T carregar(Object key, Callable<T> valueLoader, Object armazenado) {
+    T valor;
+    long geracao = invalidacao.geracao();
+    long inicio = System.nanoTime();
+    try {
+      valor = valueLoader.call();
+      if (estatisticas != null) {
+        estatisticas.registrarCarga(getName(), key, System.nanoTime() - inicio);
+      }
+    } catch (Exception ex) {
+      if (armazenado != null) {
+        // Falha na renovação não derruba a leitura: o valor atual ainda não expirou
+        log.warn("Falha ao renovar a entrada {} do cache {}", key, getName(), ex);
+        return (T) fromStoreValue(armazenado);
+      }
+      throw new ValueRetrievalException(key, valueLoader, ex);
+    }
+    put(key, valor);
+    descartarSeInvalidada(key, valor, geracao);
+    return valor;
+  }
+
+  // Só a entrada desta carga: uma gravação posterior, com outro valor, fica
+  private void descartarSeInvalidada(Object key, Object valor, long geracao) {
+    if (invalidacao.invalidadaDesde(geracao, getName(), key)
+        && getNativeCache().asMap().remove(key, toStoreValue(valor))) {
+      invalidacao.esquecer(getName(), key);
+    }
+  }
+
+  private Object aguardar(Object key, CompletableFuture<Object> carga) {
+    try {
+      return carga.get();
+    } catch (ExecutionException ex) {
+      Throwable causa = ex.getCause();
+      if (causa instanceof ValueRetrievalException falha) {
+        throw falha;
+      }
+      throw new ValueRetrievalException(key, null, causa);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ValueRetrievalException(key, null, ex);
+    }
+  }
+
+  private boolean deveRenovar(Object key) {
+    if (expiracao == null) {
+      return false;
+    }
+    OptionalLong idade = expiracao.ageOf(key, TimeUnit.NANOSECONDS);
+    return idade.isPresent() && idade.getAsLong() >= idadeRenovacaoNanos;
+  }
+
+  private void registrarLeitura(Object key, boolean acerto) {
+    if (estatisticas != null) {
+      estatisticas.registrarLeitura(getName(), key, acerto);
+    }
+  }
+
+  private void registrar(Object key, Object value) {
+    if (key instanceof ChaveCache chave) {
+      invalidacao.registrar(getName(), chave, value);
+    } else if (key instanceof ChaveRelatorio chave) {
+      invalidacao.registrar(getName(), chave, chave.dependencias());
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.model.StatusPedido;
+import java.util.Objects;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Chave das consultas em cache de produtos e pedidos: o tipo do filtro (restaurante, cliente,
+ * status...), o valor dele e, nas consultas paginadas, deslocamento, tamanho e ordenação da página.
+ * O tipo faz parte da igualdade, então cliente 5 e restaurante 5 nunca dividem a entrada; o nome da
+ * consulta não entra porque cada família de consulta tem a sua região (ver {@link RegioesCache}).
+ *
+ * <p>Imutável e com hash calculado uma vez na construção: a busca no Caffeine não recalcula nada e
+ * não há concatenação de strings por chamada. Gerada por {@link GeradorChaveCache}.
+ */
+public final class ChaveCache {
+
+  private static final long SEM_PAGINA = -1L;
+
+  private final Dependencia.Tipo tipo;
+  private final Object valor;
+  private final long deslocamento;
+  private final int tamanhoPagina;
+  private final Sort ordem;
+  private final int hash;
+
+  private ChaveCache(
+      Dependencia.Tipo tipo, Object valor, long deslocamento, int tamanhoPagina, Sort ordem) {
+    this.tipo = Objects.requireNonNull(tipo);
+    this.valor = valor;
+    this.deslocamento = deslocamento;
+    this.tamanhoPagina = tamanhoPagina;
+    this.ordem = ordem;
+    int h = tipo.ordinal();
+    h = 31 * h + Objects.hashCode(valor);
+    h = 31 * h + Long.hashCode(deslocamento);
+    h = 31 * h + tamanhoPagina;
+    h = 31 * h + Objects.hashCode(ordem);
+    this.hash = h;
+  }
+
+  public static ChaveCache de(Dependencia.Tipo tipo, Object valor) {
+    return new ChaveCache(tipo, valor, SEM_PAGINA, 0, null);
+  }
+
+  public static ChaveCache de(Dependencia.Tipo tipo, Object valor, Pageable pagina) {
+    if (pagina == null || pagina.isUnpaged()) {
+      return de(tipo, valor);
+    }
+    Sort ordem = pagina.getSort().isSorted() ? pagina.getSort() : null;
+    return new ChaveCache(tipo, valor, pagina.getOffset(), pagina.getPageSize(), ordem);
+  }
+
+  public static ChaveCache porRestaurante(Long restauranteId) {
+    return de(Dependencia.Tipo.RESTAURANTE, restauranteId);
+  }
+
+  public static ChaveCache porRestaurante(Long restauranteId, Pageable pagina) {
+    return de(Dependencia.Tipo.RESTAURANTE, restauranteId, pagina);
+  }
+
+  public static ChaveCache porCategoria(String categoria) {
+    return de(Dependencia.Tipo.CATEGORIA, categoria);
+  }
+
+  public static ChaveCache porCliente(Long clienteId) {
+    return de(Dependencia.Tipo.CLIENTE, clienteId);
+  }
+
+  public static ChaveCache porCliente(Long clienteId, Pageable pagina) {
+    return de(Dependencia.Tipo.CLIENTE, clienteId, pagina);
+  }
+
+  public static ChaveCache porStatus(StatusPedido status) {
+    return de(Dependencia.Tipo.STATUS, status);
+  }
+
+  public static ChaveCache disponiveis() {
+    return de(Dependencia.Tipo.DISPONIVEIS, "");
+  }
+
+  public static ChaveCache porNome(String nome) {
+    return de(Dependencia.Tipo.BUSCA_POR_NOME, nome);
+  }
+
+  /**
+   * Dependência do filtro, para o {@link InvalidacaoCache}. Buscas por nome e a lista de
+   * disponíveis dependem da família inteira, não do texto buscado: qualquer produto renomeado ou
+   * que fica disponível pode entrar em qualquer uma delas.
+   */
+  public Dependencia dependencia() {
+    return switch (tipo) {
+      case DISPONIVEIS -> Dependencia.DISPONIVEIS;
+      case BUSCA_POR_NOME -> Dependencia.BUSCA_POR_NOME;
+      default -> new Dependencia(tipo, valor);
+    };
+  }
+
+  public Dependencia.Tipo tipo() {
+    return tipo;
+  }
+
+  public Object valor() {
+    return valor;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof ChaveCache outra
+        && hash == outra.hash
+        && tipo == outra.tipo
+        && deslocamento == outra.deslocamento
+        && tamanhoPagina == outra.tamanhoPagina
+        && Objects.equals(valor, outra.valor)
+        && Objects.equals(ordem, outra.ordem);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    String base = tipo.name().toLowerCase() + ":" + valor;
+    return deslocamento == SEM_PAGINA
+        ? base
+        : base + "@" + deslocamento + "+" + tamanhoPagina + (ordem != null ? ":" + ordem : "");
+  }
+}
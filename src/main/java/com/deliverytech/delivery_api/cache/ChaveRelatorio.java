@@ -0,0 +1,37 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Chave dos relatórios na região {@link RegioesCache#RELATORIOS}: o nome do relatório, o parâmetro
+ * além do período (limite, status), se houver, e o período. Gerada por {@link
+ * GeradorChaveRelatorio}.
+ *
+ * <p>Só períodos já encerrados entram no cache ({@link RelatorioEmCache}), e cada entrada depende
+ * dos meses que o período cobre: quando a consolidação altera as vendas de um dia passado, saem só
+ * os relatórios cujo período passa pelo mês desse dia.
+ */
+public record ChaveRelatorio(String relatorio, Object parametro, LocalDate inicio, LocalDate fim) {
+
+  /** Um {@link Dependencia.Tipo#VENDAS_MES} por mês entre {@code inicio} e {@code fim}. */
+  public Set<Dependencia> dependencias() {
+    Set<Dependencia> dependencias = new HashSet<>();
+    if (fim.isBefore(inicio)) {
+      return dependencias;
+    }
+    for (YearMonth mes = YearMonth.from(inicio);
+        !mes.isAfter(YearMonth.from(fim));
+        mes = mes.plusMonths(1)) {
+      dependencias.add(Dependencia.vendasMes(mes));
+    }
+    return dependencias;
+  }
+
+  @Override
+  public String toString() {
+    return relatorio + ":" + (parametro != null ? parametro + ":" : "") + inicio + ":" + fim;
+  }
+}
@@ -0,0 +1,30 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.annotation.AliasFor;
+
+/**
+ * {@link Cacheable} de uma família de consulta: grava na região informada com chave {@link
+ * ChaveCache} montada por {@link GeradorChaveCache}. O primeiro parâmetro do método é o valor do
+ * filtro (uma entidade vale pelo id) e um {@link org.springframework.data.domain.Pageable}, se
+ * houver, entra na chave. Com {@code sync}, chamadas concorrentes para a mesma chave ausente
+ * executam o método uma vez só.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Cacheable(keyGenerator = GeradorChaveCache.NOME, sync = true)
+public @interface ConsultaEmCache {
+
+  /** Região da família, uma das constantes de {@link RegioesCache}. */
+  @AliasFor(annotation = Cacheable.class, attribute = "cacheNames")
+  String regiao();
+
+  /** Tipo do filtro, que vira a dependência da entrada no {@link InvalidacaoCache}. */
+  Dependencia.Tipo filtro();
+}
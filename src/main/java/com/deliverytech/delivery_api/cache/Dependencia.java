@@ -0,0 +1,80 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.model.StatusPedido;
+import java.time.YearMonth;
+
+/**
+ * Algo de que uma entrada de cache depende: um produto ou pedido presente no valor, ou o
+ * restaurante, a categoria, o cliente ou o status usados como filtro da consulta. Escritas
+ * invalidam as dependências que tocaram, e só as entradas ligadas a elas saem do cache.
+ */
+public record Dependencia(Tipo tipo, Object valor) {
+
+  public enum Tipo {
+    PRODUTO,
+    PEDIDO,
+    RESTAURANTE,
+    CATEGORIA,
+    CLIENTE,
+    STATUS,
+    // Consultas cujo conjunto de resultados muda com a disponibilidade ou o nome de qualquer
+    // produto
+    DISPONIVEIS,
+    BUSCA_POR_NOME,
+    // Listagens de restaurantes, que mudam com o cadastro ou a alteração de qualquer restaurante
+    RESTAURANTES,
+    // Relatórios de períodos encerrados, pelos meses que o período cobre
+    VENDAS_MES
+  }
+
+  public static final Dependencia DISPONIVEIS = new Dependencia(Tipo.DISPONIVEIS, "");
+
+  public static final Dependencia BUSCA_POR_NOME = new Dependencia(Tipo.BUSCA_POR_NOME, "");
+
+  public static final Dependencia RESTAURANTES = new Dependencia(Tipo.RESTAURANTES, "");
+
+  public static Dependencia produto(Long id) {
+    return new Dependencia(Tipo.PRODUTO, id);
+  }
+
+  public static Dependencia pedido(Long id) {
+    return new Dependencia(Tipo.PEDIDO, id);
+  }
+
+  public static Dependencia restaurante(Long id) {
+    return new Dependencia(Tipo.RESTAURANTE, id);
+  }
+
+  public static Dependencia categoria(String categoria) {
+    return new Dependencia(Tipo.CATEGORIA, categoria);
+  }
+
+  public static Dependencia cliente(Long id) {
+    return new Dependencia(Tipo.CLIENTE, id);
+  }
+
+  public static Dependencia status(StatusPedido status) {
+    return new Dependencia(Tipo.STATUS, status);
+  }
+
+  public static Dependencia vendasMes(YearMonth mes) {
+    return new Dependencia(Tipo.VENDAS_MES, mes);
+  }
+
+  /** Inverso de {@link #valorComoTexto()}, para dependências recebidas de outra instância. */
+  public static Dependencia de(Tipo tipo, String valor) {
+    return switch (tipo) {
+      case PRODUTO, PEDIDO, RESTAURANTE, CLIENTE -> new Dependencia(tipo, Long.valueOf(valor));
+      case STATUS -> status(StatusPedido.valueOf(valor));
+      case CATEGORIA -> categoria(valor);
+      case DISPONIVEIS -> DISPONIVEIS;
+      case BUSCA_POR_NOME -> BUSCA_POR_NOME;
+      case RESTAURANTES -> RESTAURANTES;
+      case VENDAS_MES -> vendasMes(YearMonth.parse(valor));
+    };
+  }
+
+  public String valorComoTexto() {
+    return String.valueOf(valor);
+  }
+}
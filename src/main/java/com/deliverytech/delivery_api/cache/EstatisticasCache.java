@@ -0,0 +1,307 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estatísticas das regiões de cache por família de chave: o tipo da {@link ChaveCache} ({@code
+ * restaurante}, {@code cliente}...), o nome do relatório nas chaves de {@code relatorios} e a rota
+ * nas URLs de {@code respostas}. Acertos, faltas e tempo de carga são contados por {@link
+ * CaffeineCacheComDependencias} e publicados no Micrometer como {@code cache.familia.gets} e {@code
+ * cache.familia.cargas}; o Caffeine não mede as cargas, já que elas rodam fora dele.
+ *
+ * <p>A memória de cada região é estimada por amostra (bytes guardados das respostas, JSON dos
+ * demais valores) e publicada em {@code cache.memoria.estimada}, que reaproveita a estimativa por
+ * até um minuto. As chaves mais quentes vêm da política de despejo do Caffeine e só aparecem no
+ * endpoint {@code cachestats}, para não criar uma série por chave.
+ */
+@Component
+public class EstatisticasCache {
+
+  /** Famílias distintas por região; o excedente é somado em {@code outras}. */
+  private static final int MAX_FAMILIAS = 32;
+
+  private static final String OUTRAS = "outras";
+
+  private static final int AMOSTRA_MEMORIA = 32;
+
+  private static final long VALIDADE_ESTIMATIVA_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final MeterRegistry meterRegistry;
+  private final ObjectMapper objectMapper;
+
+  private final Map<String, Regiao> regioes = new ConcurrentHashMap<>();
+
+  public EstatisticasCache(MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+    this.meterRegistry = meterRegistry;
+    this.objectMapper = objectMapper;
+  }
+
+  void registrarCache(String nome, Cache<Object, Object> cache) {
+    Regiao regiao = new Regiao(nome, cache);
+    if (regioes.putIfAbsent(nome, regiao) == null) {
+      Gauge.builder("cache.memoria.estimada", regiao, Regiao::memoriaEstimada)
+          .description("Memória estimada das entradas da região, por amostra")
+          .baseUnit("bytes")
+          .tag("cache", nome)
+          .register(meterRegistry);
+    }
+  }
+
+  void registrarLeitura(String cache, Object chave, boolean acerto) {
+    Regiao regiao = regioes.get(cache);
+    if (regiao != null) {
+      Familia familia = regiao.familia(chave);
+      (acerto ? familia.acertos : familia.faltas).increment();
+    }
+  }
+
+  void registrarCarga(String cache, Object chave, long nanos) {
+    Regiao regiao = regioes.get(cache);
+    if (regiao != null) {
+      Familia familia = regiao.familia(chave);
+      familia.cargas.increment();
+      familia.nanosCarga.add(nanos);
+    }
+  }
+
+  /** Nomes das regiões acompanhadas, em ordem alfabética. */
+  public List<String> regioes() {
+    return new ArrayList<>(new TreeMap<>(regioes).keySet());
+  }
+
+  /** Resumo de uma região, ou {@code null} se ela não existe. */
+  public Map<String, Object> resumo(String nome) {
+    Regiao regiao = regioes.get(nome);
+    return regiao != null ? regiao.resumo() : null;
+  }
+
+  /** Resumo da região com as {@code quantidade} chaves mais quentes. */
+  public Map<String, Object> detalhe(String nome, int quantidade) {
+    Regiao regiao = regioes.get(nome);
+    if (regiao == null) {
+      return null;
+    }
+    Map<String, Object> detalhe = regiao.resumo();
+    detalhe.put("chavesMaisQuentes", regiao.maisQuentes(quantidade));
+    return detalhe;
+  }
+
+  static String familia(Object chave) {
+    if (chave instanceof ChaveCache chaveCache) {
+      return chaveCache.tipo().name().toLowerCase(Locale.ROOT);
+    }
+    if (chave instanceof ChaveRelatorio chaveRelatorio) {
+      return chaveRelatorio.relatorio();
+    }
+    if (chave instanceof String texto) {
+      if (texto.startsWith("/")) {
+        return rota(texto);
+      }
+      int separador = texto.indexOf(':');
+      return separador > 0 ? texto.substring(0, separador) : texto;
+    }
+    return OUTRAS;
+  }
+
+  // "/api/restaurantes/7/produtos?page=1" -> "/api/restaurantes/{id}": três segmentos, sem ids
+  private static String rota(String url) {
+    int consulta = url.indexOf('?');
+    String caminho = consulta >= 0 ? url.substring(0, consulta) : url;
+    String[] segmentos = caminho.split("/");
+    StringBuilder rota = new StringBuilder();
+    for (int i = 1; i < segmentos.length && i <= 3; i++) {
+      rota.append('/')
+          .append(segmentos[i].chars().allMatch(Character::isDigit) ? "{id}" : segmentos[i]);
+    }
+    return rota.toString();
+  }
+
+  private static double taxa(long parte, long total) {
+    return total == 0 ? 0.0 : (double) parte / total;
+  }
+
+  private final class Regiao {
+
+    private final String nome;
+    private final Cache<Object, Object> cache;
+    private final Map<String, Familia> familias = new ConcurrentHashMap<>();
+
+    private volatile long memoriaEstimada;
+    private volatile long estimadaEm = System.nanoTime() - VALIDADE_ESTIMATIVA_NANOS;
+
+    Regiao(String nome, Cache<Object, Object> cache) {
+      this.nome = nome;
+      this.cache = cache;
+    }
+
+    Familia familia(Object chave) {
+      String nomeFamilia = EstatisticasCache.familia(chave);
+      Familia familia = familias.get(nomeFamilia);
+      if (familia != null) {
+        return familia;
+      }
+      if (familias.size() >= MAX_FAMILIAS) {
+        nomeFamilia = OUTRAS;
+      }
+      return familias.computeIfAbsent(nomeFamilia, f -> new Familia(nome, f));
+    }
+
+    Map<String, Object> resumo() {
+      CacheStats stats = cache.stats();
+      Map<String, Object> resumo = new LinkedHashMap<>();
+      resumo.put("entradas", cache.estimatedSize());
+      cache
+          .policy()
+          .eviction()
+          .ifPresent(despejo -> resumo.put("maxEntradas", despejo.getMaximum()));
+      resumo.put("acertos", stats.hitCount());
+      resumo.put("faltas", stats.missCount());
+      resumo.put("taxaAcerto", stats.hitRate());
+      resumo.put("taxaFalta", stats.missRate());
+      resumo.put("despejos", stats.evictionCount());
+      long cargas = 0;
+      long nanos = 0;
+      Map<String, Object> porFamilia = new TreeMap<>();
+      for (Map.Entry<String, Familia> familia : familias.entrySet()) {
+        cargas += familia.getValue().cargas.sum();
+        nanos += familia.getValue().nanosCarga.sum();
+        porFamilia.put(familia.getKey(), familia.getValue().resumo());
+      }
+      resumo.put("cargas", cargas);
+      resumo.put("tempoMedioCargaMs", cargas == 0 ? 0.0 : nanos / 1_000_000.0 / cargas);
+      resumo.put("memoriaEstimadaBytes", atualizarMemoria());
+      resumo.put("familias", porFamilia);
+      return resumo;
+    }
+
+    List<Map<String, Object>> maisQuentes(int quantidade) {
+      Map<Object, Object> quentes =
+          cache
+              .policy()
+              .eviction()
+              .map(despejo -> despejo.hottest(quantidade))
+              .orElseGet(
+                  () ->
+                      cache
+                          .policy()
+                          .expireAfterAccess()
+                          .map(expiracao -> expiracao.youngest(quantidade))
+                          .orElse(Map.of()));
+      List<Map<String, Object>> chaves = new ArrayList<>();
+      for (Object chave : quentes.keySet()) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("chave", String.valueOf(chave));
+        item.put("familia", EstatisticasCache.familia(chave));
+        chaves.add(item);
+      }
+      return chaves;
+    }
+
+    // Para o gauge, lido a cada coleta do Prometheus
+    long memoriaEstimada() {
+      return System.nanoTime() - estimadaEm >= VALIDADE_ESTIMATIVA_NANOS
+          ? atualizarMemoria()
+          : memoriaEstimada;
+    }
+
+    long atualizarMemoria() {
+      memoriaEstimada = estimarMemoria();
+      estimadaEm = System.nanoTime();
+      return memoriaEstimada;
+    }
+
+    private long estimarMemoria() {
+      long entradas = cache.estimatedSize();
+      if (entradas == 0) {
+        return 0L;
+      }
+      long bytes = 0;
+      int amostras = 0;
+      Iterator<Object> valores = cache.asMap().values().iterator();
+      while (valores.hasNext() && amostras < AMOSTRA_MEMORIA) {
+        Long tamanho = tamanho(valores.next());
+        if (tamanho != null) {
+          bytes += tamanho;
+          amostras++;
+        }
+      }
+      return amostras == 0 ? 0L : bytes / amostras * entradas;
+    }
+
+    private Long tamanho(Object valor) {
+      if (valor instanceof RespostasEmCache.Resposta resposta) {
+        return (long) resposta.corpo().length;
+      }
+      if (valor instanceof byte[] bytes) {
+        return (long) bytes.length;
+      }
+      try {
+        return (long) objectMapper.writeValueAsBytes(valor).length;
+      } catch (JsonProcessingException | RuntimeException ex) {
+        // Valor sem representação JSON fica fora da amostra
+        return null;
+      }
+    }
+  }
+
+  private final class Familia {
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder nanosCarga = new LongAdder();
+
+    Familia(String cache, String nome) {
+      FunctionCounter.builder("cache.familia.gets", acertos, LongAdder::sum)
+          .description("Leituras da região por família de chave")
+          .tags("cache", cache, "familia", nome, "result", "hit")
+          .register(meterRegistry);
+      FunctionCounter.builder("cache.familia.gets", faltas, LongAdder::sum)
+          .description("Leituras da região por família de chave")
+          .tags("cache", cache, "familia", nome, "result", "miss")
+          .register(meterRegistry);
+      FunctionTimer.builder(
+              "cache.familia.cargas",
+              this,
+              familia -> familia.cargas.sum(),
+              familia -> familia.nanosCarga.sum(),
+              TimeUnit.NANOSECONDS)
+          .description("Cargas executadas numa falta, por família de chave")
+          .tags("cache", cache, "familia", nome)
+          .register(meterRegistry);
+    }
+
+    Map<String, Object> resumo() {
+      long acertosAtuais = acertos.sum();
+      long faltasAtuais = faltas.sum();
+      long cargasAtuais = cargas.sum();
+      Map<String, Object> resumo = new LinkedHashMap<>();
+      resumo.put("acertos", acertosAtuais);
+      resumo.put("faltas", faltasAtuais);
+      resumo.put("taxaAcerto", taxa(acertosAtuais, acertosAtuais + faltasAtuais));
+      resumo.put("cargas", cargasAtuais);
+      resumo.put(
+          "tempoMedioCargaMs",
+          cargasAtuais == 0 ? 0.0 : nanosCarga.sum() / 1_000_000.0 / cargasAtuais);
+      return resumo;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/cachestats}: estatísticas de todas as regiões ({@code GET}), detalhe de uma
+ * região com as chaves mais quentes ({@code GET /{regiao}?top=N}), limpeza ({@code DELETE
+ * /{regiao}}) e aquecimento ({@code POST /{regiao}}) de uma região. O aquecimento usa as cargas de
+ * {@link AquecimentoCache} e só existe com {@code app.cache.aquecimento.enabled=true}.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class EstatisticasCacheEndpoint {
+
+  private static final int TOP_PADRAO = 10;
+
+  private static final int TOP_MAXIMO = 100;
+
+  private final EstatisticasCache estatisticas;
+  private final CacheManager cacheManager;
+  private final ObjectProvider<AquecimentoCache> aquecimento;
+
+  public EstatisticasCacheEndpoint(
+      EstatisticasCache estatisticas,
+      CacheManager cacheManager,
+      ObjectProvider<AquecimentoCache> aquecimento) {
+    this.estatisticas = estatisticas;
+    this.cacheManager = cacheManager;
+    this.aquecimento = aquecimento;
+  }
+
+  @ReadOperation
+  public Map<String, Object> regioes() {
+    Map<String, Object> regioes = new LinkedHashMap<>();
+    for (String nome : estatisticas.regioes()) {
+      regioes.put(nome, estatisticas.resumo(nome));
+    }
+    return Map.of("regioes", regioes);
+  }
+
+  @ReadOperation
+  public WebEndpointResponse<Map<String, Object>> regiao(
+      @Selector String regiao, @Nullable Integer top) {
+    int quantidade = Math.max(1, Math.min(TOP_MAXIMO, top != null ? top : TOP_PADRAO));
+    Map<String, Object> detalhe = estatisticas.detalhe(regiao, quantidade);
+    return detalhe != null
+        ? new WebEndpointResponse<>(detalhe)
+        : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+  }
+
+  @DeleteOperation
+  public WebEndpointResponse<Map<String, Object>> limpar(@Selector String regiao) {
+    Cache cache = estatisticas.regioes().contains(regiao) ? cacheManager.getCache(regiao) : null;
+    if (cache == null) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    // Pela abstração do Spring, para esquecer também as dependências das entradas
+    cache.clear();
+    return new WebEndpointResponse<>(Map.of("regiao", regiao, "limpa", true));
+  }
+
+  @WriteOperation
+  public WebEndpointResponse<Map<String, Object>> aquecer(@Selector String regiao) {
+    if (!estatisticas.regioes().contains(regiao)) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    AquecimentoCache atual = aquecimento.getIfAvailable();
+    if (atual == null) {
+      return new WebEndpointResponse<>(
+          Map.of("regiao", regiao, "erro", "Aquecimento de cache desligado"),
+          WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+    }
+    return new WebEndpointResponse<>(atual.aquecer(regiao));
+  }
+}
@@ -0,0 +1,23 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um GET cujo ETag vem do contador de {@link VersoesCatalogo} do agregado identificado pela
+ * variável de caminho {@code variavel}. Um {@code If-None-Match} com a versão atual recebe {@code
+ * 304} antes de chegar ao controller, sem consulta ao banco nem serialização.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EtagPorVersao {
+
+  VersoesCatalogo.Agregado agregado();
+
+  /** Variável de caminho com o id do restaurante ou a categoria. */
+  String variavel();
+}
@@ -0,0 +1,49 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.dto.response.ApiResult;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Envia o ETag calculado por {@link EtagPorVersaoInterceptor} nas respostas de sucesso. Roda antes
+ * de {@link RespostasEmCacheAdvice}, que guarda o cabeçalho junto com os bytes da resposta; erros
+ * seguem sem ETag para não serem revalidados como se fossem o recurso.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EtagPorVersaoAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(
+      @NonNull MethodParameter returnType,
+      @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+    return returnType.hasMethodAnnotation(EtagPorVersao.class);
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      @NonNull MethodParameter returnType,
+      @NonNull MediaType selectedContentType,
+      @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      @NonNull ServerHttpRequest request,
+      @NonNull ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest servletRequest
+        && body instanceof ApiResult<?> resultado
+        && resultado.success()
+        && servletRequest.getServletRequest().getAttribute(EtagPorVersaoInterceptor.ATRIBUTO_ETAG)
+            instanceof String etag) {
+      response.getHeaders().setETag(etag);
+    }
+    return body;
+  }
+}
@@ -0,0 +1,91 @@
+package com.deliverytech.delivery_api.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Responde {@code 304 Not Modified} aos GETs com {@link EtagPorVersao} cujo {@code If-None-Match}
+ * traz a versão atual do agregado. Roda antes de {@link RespostasEmCacheInterceptor}: a revalidação
+ * não lê o cache, o banco nem serializa nada. Nos demais casos deixa o ETag calculado no atributo
+ * {@link #ATRIBUTO_ETAG}, e {@link EtagPorVersaoAdvice} o envia se a resposta for de sucesso.
+ *
+ * <p>A versão é lida antes da consulta, então o corpo nunca é mais antigo que o ETag que o
+ * acompanha.
+ */
+@Component
+public class EtagPorVersaoInterceptor implements HandlerInterceptor {
+
+  static final String ATRIBUTO_ETAG = EtagPorVersaoInterceptor.class.getName() + ".etag";
+
+  private final VersoesCatalogo versoes;
+
+  public EtagPorVersaoInterceptor(VersoesCatalogo versoes) {
+    this.versoes = versoes;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean preHandle(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull Object handler) {
+    if (!("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+        || !(handler instanceof HandlerMethod metodo)) {
+      return true;
+    }
+    EtagPorVersao anotacao = metodo.getMethodAnnotation(EtagPorVersao.class);
+    if (anotacao == null) {
+      return true;
+    }
+    Map<String, String> variaveis =
+        (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    Object valor = valor(anotacao.agregado(), variaveis.get(anotacao.variavel()));
+    if (valor == null) {
+      return true;
+    }
+    String etag = versoes.etag(anotacao.agregado(), valor);
+    if (coincide(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      response.setHeader(HttpHeaders.ETAG, etag);
+      return false;
+    }
+    request.setAttribute(ATRIBUTO_ETAG, etag);
+    return true;
+  }
+
+  // Ids chegam como texto na rota; um id inválido segue sem ETag e o controller responde o erro
+  private static Object valor(VersoesCatalogo.Agregado agregado, String texto) {
+    if (texto == null || agregado == VersoesCatalogo.Agregado.CATEGORIA) {
+      return texto;
+    }
+    try {
+      return Long.valueOf(texto);
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  // If-None-Match usa comparação fraca: W/"x" vale o mesmo que "x"
+  static boolean coincide(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidato : ifNoneMatch.split(",")) {
+      String limpo = candidato.trim();
+      if (limpo.startsWith("W/")) {
+        limpo = limpo.substring(2);
+      }
+      if (limpo.equals("*") || limpo.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
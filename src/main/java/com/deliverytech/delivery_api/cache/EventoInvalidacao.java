@@ -0,0 +1,34 @@
+package com.deliverytech.delivery_api.cache;
+
+/**
+ * Invalidação feita por uma instância e repetida pelas demais via {@link TransporteInvalidacao}.
+ * {@code alvo} e {@code valor} são texto para atravessar qualquer transporte; o significado depende
+ * do tipo.
+ *
+ * @param origem instância que publicou; quem recebe ignora os próprios eventos
+ */
+public record EventoInvalidacao(String origem, Tipo tipo, String alvo, String valor) {
+
+  public enum Tipo {
+    /**
+     * {@code alvo}: {@link Dependencia.Tipo}; {@code valor}: {@link Dependencia#valorComoTexto()}.
+     */
+    DEPENDENCIA,
+    /** {@code valor}: id do restaurante alterado ({@link VersoesCatalogo#restauranteAlterado}). */
+    VERSAO_RESTAURANTE,
+    /** {@code alvo}: id do restaurante; {@code valor}: categoria do produto alterado. */
+    VERSAO_PRODUTO,
+    /** {@code alvo}: {@link AusenciasEmCache.Recurso}; {@code valor}: id ou e-mail cadastrado. */
+    EXISTENTE,
+    /**
+     * {@code valor}: dia (ISO) cujas vendas mudaram na consolidação; nulo quando todos foram
+     * recalculados.
+     */
+    VENDAS_DIA,
+    /**
+     * Gerado localmente pelo transporte quando pode ter perdido eventos: tudo o que está em cache
+     * deixa de ser confiável.
+     */
+    TUDO
+  }
+}
@@ -0,0 +1,63 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para ids numéricos: {@link #podeConter} nunca devolve {@code false} para um id
+ * adicionado, e devolve {@code true} para um id nunca adicionado com a probabilidade informada na
+ * criação. Seguro para leituras e adições concorrentes; não há remoção.
+ */
+final class FiltroBloom {
+
+  private final AtomicLongArray bits;
+  private final int totalBits;
+  private final int funcoes;
+
+  FiltroBloom(int elementosEsperados, double falsosPositivos) {
+    int n = Math.max(1, elementosEsperados);
+    double ln2 = Math.log(2);
+    long m = (long) Math.ceil(-n * Math.log(falsosPositivos) / (ln2 * ln2));
+    this.totalBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+    this.funcoes = Math.max(1, (int) Math.round((double) totalBits / n * ln2));
+    this.bits = new AtomicLongArray((totalBits + 63) / 64);
+  }
+
+  void adicionar(long valor) {
+    long h1 = misturar(valor);
+    long h2 = misturar(h1);
+    for (int i = 0; i < funcoes; i++) {
+      int bit = posicao(h1, h2, i);
+      long mascara = 1L << bit;
+      int palavra = bit >>> 6;
+      long atual = bits.get(palavra);
+      while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+        atual = bits.get(palavra);
+      }
+    }
+  }
+
+  boolean podeConter(long valor) {
+    long h1 = misturar(valor);
+    long h2 = misturar(h1);
+    for (int i = 0; i < funcoes; i++) {
+      int bit = posicao(h1, h2, i);
+      if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Hashing duplo (Kirsch-Mitzenmacher): h1 + i*h2 dá as k posições a partir de dois hashes
+  private int posicao(long h1, long h2, int i) {
+    return (int) Long.remainderUnsigned(h1 + i * h2, totalBits);
+  }
+
+  // Finalizador do SplitMix64: ids sequenciais viram bits bem espalhados
+  private static long misturar(long valor) {
+    long z = valor + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,73 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.model.Restaurante;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link KeyGenerator} dos métodos com {@link ConsultaEmCache}. O que cada método precisa (tipo do
+ * filtro e posição do {@link Pageable}) é resolvido na primeira chamada e guardado por método;
+ * depois disso cada chave custa uma alocação, sem SpEL. Consultas sem parâmetro reusam sempre a
+ * mesma chave.
+ */
+@Component(GeradorChaveCache.NOME)
+public class GeradorChaveCache implements KeyGenerator {
+
+  public static final String NOME = "geradorChaveCache";
+
+  private final Map<Method, Receita> receitas = new ConcurrentHashMap<>();
+
+  @Override
+  public Object generate(Object alvo, Method metodo, Object... parametros) {
+    Receita receita =
+        receitas.computeIfAbsent(metodo, m -> Receita.de(m, alvo != null ? alvo.getClass() : null));
+    if (receita.chaveFixa() != null) {
+      return receita.chaveFixa();
+    }
+    Object valor = valorDoFiltro(parametros[0]);
+    if (receita.posicaoPagina() < 0) {
+      return ChaveCache.de(receita.tipo(), valor);
+    }
+    return ChaveCache.de(receita.tipo(), valor, (Pageable) parametros[receita.posicaoPagina()]);
+  }
+
+  private static Object valorDoFiltro(Object parametro) {
+    if (parametro instanceof Restaurante restaurante) {
+      return restaurante.getId();
+    }
+    return parametro;
+  }
+
+  private record Receita(Dependencia.Tipo tipo, int posicaoPagina, ChaveCache chaveFixa) {
+
+    static Receita de(Method metodo, Class<?> classeAlvo) {
+      Method especifico =
+          classeAlvo != null ? AopUtils.getMostSpecificMethod(metodo, classeAlvo) : metodo;
+      ConsultaEmCache consulta =
+          AnnotatedElementUtils.findMergedAnnotation(especifico, ConsultaEmCache.class);
+      if (consulta == null) {
+        throw new IllegalStateException(
+            GeradorChaveCache.class.getSimpleName()
+                + " usado sem @ConsultaEmCache em "
+                + especifico);
+      }
+      Class<?>[] tipos = metodo.getParameterTypes();
+      if (tipos.length == 0) {
+        return new Receita(consulta.filtro(), -1, ChaveCache.de(consulta.filtro(), ""));
+      }
+      int posicaoPagina = -1;
+      for (int i = 1; i < tipos.length; i++) {
+        if (Pageable.class.isAssignableFrom(tipos[i])) {
+          posicaoPagina = i;
+        }
+      }
+      return new Receita(consulta.filtro(), posicaoPagina, null);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link KeyGenerator} dos métodos com {@link RelatorioEmCache}. O nome do relatório e as posições
+ * do período e do parâmetro extra são resolvidos na primeira chamada e guardados por método.
+ */
+@Component(GeradorChaveRelatorio.NOME)
+public class GeradorChaveRelatorio implements KeyGenerator {
+
+  public static final String NOME = "geradorChaveRelatorio";
+
+  private final Map<Method, Receita> receitas = new ConcurrentHashMap<>();
+
+  @Override
+  public Object generate(Object alvo, Method metodo, Object... parametros) {
+    Receita receita =
+        receitas.computeIfAbsent(metodo, m -> Receita.de(m, alvo != null ? alvo.getClass() : null));
+    return new ChaveRelatorio(
+        receita.relatorio(),
+        receita.posicaoParametro() >= 0 ? parametros[receita.posicaoParametro()] : null,
+        (LocalDate) parametros[receita.posicaoInicio()],
+        (LocalDate) parametros[receita.posicaoFim()]);
+  }
+
+  private record Receita(
+      String relatorio, int posicaoInicio, int posicaoFim, int posicaoParametro) {
+
+    static Receita de(Method metodo, Class<?> classeAlvo) {
+      Method especifico =
+          classeAlvo != null ? AopUtils.getMostSpecificMethod(metodo, classeAlvo) : metodo;
+      RelatorioEmCache relatorio =
+          AnnotatedElementUtils.findMergedAnnotation(especifico, RelatorioEmCache.class);
+      if (relatorio == null) {
+        throw new IllegalStateException(
+            GeradorChaveRelatorio.class.getSimpleName()
+                + " usado sem @RelatorioEmCache em "
+                + especifico);
+      }
+      int[] datas = {-1, -1};
+      int quantidadeDatas = 0;
+      int posicaoParametro = -1;
+      Class<?>[] tipos = metodo.getParameterTypes();
+      for (int i = 0; i < tipos.length; i++) {
+        if (LocalDate.class.equals(tipos[i]) && quantidadeDatas < 2) {
+          datas[quantidadeDatas++] = i;
+        } else if (posicaoParametro < 0) {
+          posicaoParametro = i;
+        } else {
+          throw new IllegalStateException("Parâmetros demais para @RelatorioEmCache em " + metodo);
+        }
+      }
+      if (quantidadeDatas < 2) {
+        throw new IllegalStateException("@RelatorioEmCache sem o período em " + metodo);
+      }
+      return new Receita(relatorio.value(), datas[0], datas[1], posicaoParametro);
+    }
+  }
+}
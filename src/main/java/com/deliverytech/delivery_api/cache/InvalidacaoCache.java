@@ -0,0 +1,287 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
+import com.deliverytech.delivery_api.dto.response.RestauranteResponse;
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.model.Restaurante;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Índice de dependências das entradas de cache com chave {@link ChaveCache}. Cada entrada gravada é
+ * ligada à dependência da chave (restaurante, categoria, cliente, status...) e aos produtos,
+ * pedidos e restaurantes presentes no valor. Respostas serializadas ({@link RespostasEmCache})
+ * registram as dependências explicitamente. {@link #invalidar} remove só as entradas ligadas às
+ * dependências informadas, em vez de esvaziar a região inteira.
+ *
+ * <p>As entradas saem na hora e de novo após o commit da transação corrente. Uma carga que leu o
+ * banco antes do commit pode terminar depois da remoção e gravar o estado anterior; por isso quem
+ * carrega lê a {@link #geracao()} antes e, depois de gravar e registrar a entrada, pergunta a
+ * {@link #invalidadaDesde} se alguma dependência dela foi removida nesse meio tempo, e nesse caso a
+ * tira. As dependências invalidadas também vão para o {@link BarramentoInvalidacao}, e as recebidas
+ * de outras instâncias saem daqui do mesmo jeito.
+ */
+@Component
+public class InvalidacaoCache {
+
+  private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+  private final Map<Entrada, Set<Dependencia>> dependenciasPorEntrada = new ConcurrentHashMap<>();
+
+  private final Map<Dependencia, Set<Entrada>> entradasPorDependencia = new ConcurrentHashMap<>();
+
+  // Dependências lembradas em removidas antes de esquecer todas e subir o piso
+  private static final int LIMITE_REMOVIDAS = 10_000;
+
+  private final AtomicLong geracao = new AtomicLong();
+
+  // Geração da última remoção de cada dependência e de cada tipo removido inteiro
+  private final Map<Dependencia, Long> removidas = new ConcurrentHashMap<>();
+
+  private final Map<Dependencia.Tipo, Long> tiposRemovidos = new ConcurrentHashMap<>();
+
+  // Cargas com geração menor são descartadas sem olhar as dependências
+  private volatile long piso;
+
+  // Ausente só quando o índice é criado fora do Spring (testes)
+  private BarramentoInvalidacao barramento;
+
+  @Autowired(required = false)
+  void usarBarramento(BarramentoInvalidacao barramento) {
+    this.barramento = barramento;
+    barramento.assinar(
+        EventoInvalidacao.Tipo.DEPENDENCIA,
+        evento ->
+            remover(
+                List.of(Dependencia.de(Dependencia.Tipo.valueOf(evento.alvo()), evento.valor()))));
+    barramento.assinar(EventoInvalidacao.Tipo.TUDO, evento -> limparTudo());
+  }
+
+  void registrarCache(String nome, Cache<Object, Object> cache) {
+    caches.put(nome, cache);
+  }
+
+  void registrar(String cache, ChaveCache chave, Object valor) {
+    Set<Dependencia> dependencias = new HashSet<>();
+    dependencias.add(chave.dependencia());
+    adicionarDependenciasDoConteudo(valor, dependencias);
+    registrar(cache, (Object) chave, dependencias);
+  }
+
+  void registrar(String cache, Object chave, Set<Dependencia> dependencias) {
+    Entrada entrada = new Entrada(cache, chave);
+    Set<Dependencia> anteriores = dependenciasPorEntrada.put(entrada, dependencias);
+    if (anteriores != null) {
+      desvincular(entrada, anteriores);
+    }
+    for (Dependencia dependencia : dependencias) {
+      entradasPorDependencia.compute(
+          dependencia,
+          (d, entradas) -> {
+            Set<Entrada> resultado = entradas != null ? entradas : ConcurrentHashMap.newKeySet();
+            resultado.add(entrada);
+            return resultado;
+          });
+    }
+  }
+
+  void esquecer(String cache, Object chave) {
+    Entrada entrada = new Entrada(cache, chave);
+    Set<Dependencia> dependencias = dependenciasPorEntrada.remove(entrada);
+    if (dependencias != null) {
+      desvincular(entrada, dependencias);
+    }
+  }
+
+  void esquecerCache(String cache) {
+    for (Entrada entrada : List.copyOf(dependenciasPorEntrada.keySet())) {
+      if (entrada.cache().equals(cache)) {
+        esquecer(entrada.cache(), entrada.chave());
+      }
+    }
+  }
+
+  /** Geração corrente; quem carrega uma entrada lê antes da consulta ao banco. */
+  public long geracao() {
+    return geracao.get();
+  }
+
+  /**
+   * Se alguma dependência da entrada, já gravada e registrada, foi removida depois de {@code
+   * geracao}: a carga pode ter lido o estado anterior a um commit cuja remoção já passou.
+   */
+  public boolean invalidadaDesde(long geracao, String cache, Object chave) {
+    if (geracao < piso) {
+      return true;
+    }
+    Set<Dependencia> dependencias = dependenciasPorEntrada.get(new Entrada(cache, chave));
+    if (dependencias == null) {
+      return false;
+    }
+    for (Dependencia dependencia : dependencias) {
+      if (removidas.getOrDefault(dependencia, 0L) > geracao
+          || tiposRemovidos.getOrDefault(dependencia.tipo(), 0L) > geracao) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void invalidar(Dependencia... dependencias) {
+    invalidar(List.of(dependencias));
+  }
+
+  public void invalidar(Collection<Dependencia> dependencias) {
+    if (dependencias.isEmpty()) {
+      return;
+    }
+    List<Dependencia> copia = List.copyOf(dependencias);
+    remover(copia);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              remover(copia);
+            }
+          });
+    }
+    if (barramento != null) {
+      for (Dependencia dependencia : copia) {
+        barramento.publicar(
+            EventoInvalidacao.Tipo.DEPENDENCIA, dependencia.tipo(), dependencia.valorComoTexto());
+      }
+    }
+  }
+
+  /**
+   * Remove as entradas ligadas às dependências só nesta instância, sem publicar no barramento: para
+   * quem já avisa as outras instâncias com um evento próprio.
+   */
+  public void invalidarLocalmente(Collection<Dependencia> dependencias) {
+    remover(dependencias);
+  }
+
+  /** Como {@link #invalidarLocalmente(Collection)}, para todas as dependências do tipo. */
+  public void invalidarLocalmente(Dependencia.Tipo tipo) {
+    tiposRemovidos.merge(tipo, geracao.incrementAndGet(), Math::max);
+    remover(entradasPorDependencia.keySet().stream().filter(d -> d.tipo() == tipo).toList());
+  }
+
+  /**
+   * Ouvinte de despejo por tamanho ou expiração, para o índice não guardar entradas que já saíram.
+   */
+  public RemovalListener<Object, Object> ouvinteDeDespejo(String cache) {
+    return (chave, valor, causa) -> esquecer(cache, chave);
+  }
+
+  // Eventos perdidos: nenhuma entrada de nenhuma região é confiável
+  private void limparTudo() {
+    piso = geracao.incrementAndGet();
+    for (Map.Entry<String, Cache<Object, Object>> cache : caches.entrySet()) {
+      cache.getValue().invalidateAll();
+      esquecerCache(cache.getKey());
+    }
+  }
+
+  int tamanho() {
+    return dependenciasPorEntrada.size();
+  }
+
+  // A geração é gravada antes de procurar as entradas: ou a carga concorrente a vê, ou a entrada
+  // dela já está registrada e sai aqui
+  private void remover(Collection<Dependencia> dependencias) {
+    long atual = geracao.incrementAndGet();
+    for (Dependencia dependencia : dependencias) {
+      removidas.merge(dependencia, atual, Math::max);
+    }
+    if (removidas.size() > LIMITE_REMOVIDAS) {
+      podarRemovidas();
+    }
+    for (Dependencia dependencia : dependencias) {
+      Set<Entrada> entradas = entradasPorDependencia.get(dependencia);
+      if (entradas == null) {
+        continue;
+      }
+      for (Entrada entrada : new ArrayList<>(entradas)) {
+        esquecer(entrada.cache(), entrada.chave());
+        Cache<Object, Object> cache = caches.get(entrada.cache());
+        if (cache != null) {
+          cache.invalidate(entrada.chave());
+        }
+      }
+    }
+  }
+
+  // Esquece as gerações e sobe o piso depois: cargas anteriores a qualquer geração esquecida caem
+  private synchronized void podarRemovidas() {
+    removidas.clear();
+    piso = Math.max(piso, geracao.get());
+  }
+
+  private void desvincular(Entrada entrada, Set<Dependencia> dependencias) {
+    for (Dependencia dependencia : dependencias) {
+      entradasPorDependencia.computeIfPresent(
+          dependencia,
+          (d, entradas) -> {
+            entradas.remove(entrada);
+            return entradas.isEmpty() ? null : entradas;
+          });
+    }
+  }
+
+  /** Produtos, pedidos e restaurantes presentes no valor, seja ele uma lista ou um elemento só. */
+  static void adicionarDependenciasDoConteudo(Object valor, Set<Dependencia> destino) {
+    if (valor instanceof Iterable<?> elementos) {
+      for (Object elemento : elementos) {
+        Dependencia dependencia = dependenciaDoElemento(elemento);
+        if (dependencia != null) {
+          destino.add(dependencia);
+        }
+      }
+      return;
+    }
+    Dependencia dependencia = dependenciaDoElemento(valor);
+    if (dependencia != null) {
+      destino.add(dependencia);
+    }
+  }
+
+  private static Dependencia dependenciaDoElemento(Object elemento) {
+    if (elemento instanceof Produto produto) {
+      return Dependencia.produto(produto.getId());
+    }
+    if (elemento instanceof ProdutoResponse produto) {
+      return Dependencia.produto(produto.getId());
+    }
+    if (elemento instanceof Pedido pedido) {
+      return Dependencia.pedido(pedido.getId());
+    }
+    if (elemento instanceof PedidoResponse pedido) {
+      return Dependencia.pedido(pedido.getId());
+    }
+    if (elemento instanceof Restaurante restaurante) {
+      return Dependencia.restaurante(restaurante.getId());
+    }
+    if (elemento instanceof RestauranteResponse restaurante) {
+      return Dependencia.restaurante(restaurante.getId());
+    }
+    return null;
+  }
+
+  private record Entrada(String cache, Object chave) {}
+}
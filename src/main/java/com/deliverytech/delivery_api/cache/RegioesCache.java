@@ -0,0 +1,30 @@
+package com.deliverytech.delivery_api.cache;
+
+/**
+ * Nomes das regiões de cache. Cada família de consulta tem a sua região, com limite e expiração
+ * próprios em {@code app.cache.regioes.<nome>} e métricas separadas no actuator. Só DTOs e bytes de
+ * resposta vão para o cache, nunca entidades JPA gerenciadas.
+ */
+public final class RegioesCache {
+
+  public static final String PRODUTOS_POR_RESTAURANTE = "produtos-por-restaurante";
+  public static final String PRODUTOS_POR_CATEGORIA = "produtos-por-categoria";
+  public static final String PRODUTOS_DISPONIVEIS = "produtos-disponiveis";
+  public static final String PRODUTOS_POR_NOME = "produtos-por-nome";
+
+  public static final String PEDIDOS_POR_CLIENTE = "pedidos-por-cliente";
+  public static final String PEDIDOS_POR_CLIENTE_PAGINADO = "pedidos-por-cliente-paginado";
+  public static final String PEDIDOS_POR_RESTAURANTE = "pedidos-por-restaurante";
+  public static final String PEDIDOS_POR_RESTAURANTE_PAGINADO = "pedidos-por-restaurante-paginado";
+  public static final String PEDIDOS_POR_STATUS = "pedidos-por-status";
+
+  public static final String RELATORIOS = "relatorios";
+
+  /** Corpos JSON já serializados dos GETs de catálogo ({@link RespostasEmCache}). */
+  public static final String RESPOSTAS = "respostas";
+
+  /** Buscas por id ou e-mail que não encontraram nada ({@link AusenciasEmCache}). */
+  public static final String AUSENCIAS = "ausencias";
+
+  private RegioesCache() {}
+}
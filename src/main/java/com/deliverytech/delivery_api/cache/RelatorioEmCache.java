@@ -0,0 +1,32 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.cache.annotation.Cacheable;
+
+/**
+ * {@link Cacheable} de um relatório por período na região {@link RegioesCache#RELATORIOS}, com
+ * chave {@link ChaveRelatorio} montada por {@link GeradorChaveRelatorio}. O método recebe o período
+ * como os dois parâmetros {@link java.time.LocalDate} ({@code dataInicio} antes de {@code dataFim})
+ * e no máximo um parâmetro a mais.
+ *
+ * <p>Só períodos que terminam antes de hoje são guardados: o dia corrente muda a cada pedido, e um
+ * período que o inclui é somado de novo a cada chamada sobre os dias encerrados já em memória (ver
+ * {@link com.deliverytech.delivery_api.service.VendasEmColunas}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Cacheable(
+    cacheNames = RegioesCache.RELATORIOS,
+    keyGenerator = GeradorChaveRelatorio.NOME,
+    condition = "#dataFim.isBefore(T(java.time.LocalDate).now())",
+    sync = true)
+public @interface RelatorioEmCache {
+
+  /** Nome do relatório, início da chave e família nas estatísticas do cache. */
+  String value();
+}
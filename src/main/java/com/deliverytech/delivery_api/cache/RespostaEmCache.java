@@ -0,0 +1,27 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um GET cujo {@code ApiResult} de sucesso é guardado já serializado em {@link
+ * RespostasEmCache}. Acertos são escritos direto na resposta, sem passar pelo controller, pelo
+ * serviço nem pelo Jackson.
+ *
+ * <p>A entrada depende do filtro da rota ({@code filtro}, com o valor da variável de caminho {@code
+ * variavel}, ou a família inteira quando {@code variavel} fica vazia) e dos produtos e restaurantes
+ * presentes no corpo.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RespostaEmCache {
+
+  Dependencia.Tipo filtro();
+
+  /** Variável de caminho com o valor do filtro. */
+  String variavel() default "";
+}
@@ -0,0 +1,222 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.dto.response.ApiResult;
+import com.deliverytech.delivery_api.dto.response.PagedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Cache de respostas JSON dos GETs de catálogo marcados com {@link RespostaEmCache}, na região
+ * {@link RegioesCache#RESPOSTAS}. Guarda os bytes finais do {@code ApiResult}, compactados com gzip
+ * a partir de {@code app.cache.respostas.gzip-a-partir-de} bytes; clientes sem {@code
+ * Accept-Encoding: gzip} recebem o corpo descompactado na hora.
+ *
+ * <p>A chave é o caminho com a consulta, sem o {@code Host}: um cabeçalho escolhido pelo cliente
+ * não pode gerar entradas nem links que outros recebam. Por isso os links de paginação das rotas em
+ * cache são relativos ({@link #urlDaRequisicao()}). As entradas entram no {@link InvalidacaoCache}
+ * e saem com as mesmas escritas que invalidam os caches de produtos e restaurantes; uma resposta
+ * gerada antes de uma invalidação concluída durante a requisição é entregue mas não fica no cache.
+ * Nas rotas com {@link EtagPorVersao} o ETag é guardado com os bytes, e uma entrada de versão
+ * anterior à atual é tratada como falta. {@code app.cache.respostas.habilitado=false} desliga o
+ * cache sem tirar as anotações (útil em testes de controller com serviços simulados).
+ */
+@Component
+public class RespostasEmCache {
+
+  /**
+   * Cabeçalho que indica se a resposta veio do cache ({@code HIT}) ou foi gerada ({@code MISS}).
+   */
+  public static final String CABECALHO_SITUACAO = "X-Cache";
+
+  // Geração de InvalidacaoCache lida na falta, antes do controller
+  static final String ATRIBUTO_GERACAO = RespostasEmCache.class.getName() + ".geracao";
+
+  private final Cache cache;
+  private final InvalidacaoCache invalidacao;
+  private final ObjectMapper objectMapper;
+  private final int gzipAPartirDe;
+  private final boolean habilitado;
+
+  public RespostasEmCache(
+      CacheManager cacheManager,
+      InvalidacaoCache invalidacao,
+      ObjectMapper objectMapper,
+      @Value("${app.cache.respostas.gzip-a-partir-de:1024}") int gzipAPartirDe,
+      @Value("${app.cache.respostas.habilitado:true}") boolean habilitado) {
+    this.cache = cacheManager.getCache(RegioesCache.RESPOSTAS);
+    this.habilitado = habilitado && cache != null;
+    this.invalidacao = invalidacao;
+    this.objectMapper = objectMapper;
+    this.gzipAPartirDe = gzipAPartirDe;
+  }
+
+  /** Caminho e consulta da requisição corrente, sem esquema nem host, para links do corpo. */
+  public static UriComponentsBuilder urlDaRequisicao() {
+    UriComponents atual = ServletUriComponentsBuilder.fromCurrentRequest().build();
+    return UriComponentsBuilder.newInstance().path(atual.getPath()).query(atual.getQuery());
+  }
+
+  /** Escreve a resposta guardada para a requisição, se houver. */
+  public boolean responder(HttpServletRequest requisicao, ServerHttpResponse resposta)
+      throws IOException {
+    if (!habilitado) {
+      return false;
+    }
+    Cache.ValueWrapper guardada = cache.get(chave(requisicao));
+    if (guardada == null || desatualizada((Resposta) guardada.get(), requisicao)) {
+      // Antes do controller consultar o banco; conferida ao gravar
+      requisicao.setAttribute(ATRIBUTO_GERACAO, invalidacao.geracao());
+      return false;
+    }
+    escrever((Resposta) guardada.get(), requisicao, resposta, "HIT");
+    return true;
+  }
+
+  /**
+   * Serializa o corpo, guarda e escreve na resposta. Só respostas 200 com {@code success} entram no
+   * cache; as demais devolvem {@code false} e seguem o caminho normal do Jackson.
+   */
+  public boolean gravarEResponder(
+      Object corpo,
+      RespostaEmCache anotacao,
+      HttpServletRequest requisicao,
+      int status,
+      ServerHttpResponse resposta)
+      throws IOException {
+    if (!habilitado
+        || !(requisicao.getAttribute(ATRIBUTO_GERACAO) instanceof Long geracao)
+        || status != 200
+        || !(corpo instanceof ApiResult<?> resultado)
+        || !resultado.success()) {
+      return false;
+    }
+    byte[] json = objectMapper.writeValueAsBytes(corpo);
+    // O ETag (se houver) descreve estes bytes e volta com eles em cada acerto
+    String etag = resposta.getHeaders().getETag();
+    Resposta guardada =
+        json.length >= gzipAPartirDe
+            ? new Resposta(compactar(json), true, etag)
+            : new Resposta(json, false, etag);
+    String chave = chave(requisicao);
+    cache.put(chave, guardada);
+    invalidacao.registrar(
+        RegioesCache.RESPOSTAS, chave, dependencias(anotacao, requisicao, resultado.data()));
+    // O corpo foi lido antes de uma invalidação que já passou: responde, mas não fica
+    if (invalidacao.invalidadaDesde(geracao, RegioesCache.RESPOSTAS, chave)) {
+      cache.evict(chave);
+    }
+    escrever(guardada, requisicao, resposta, "MISS");
+    return true;
+  }
+
+  private void escrever(
+      Resposta guardada,
+      HttpServletRequest requisicao,
+      ServerHttpResponse resposta,
+      String situacao)
+      throws IOException {
+    byte[] corpo = guardada.corpo();
+    HttpHeaders cabecalhos = resposta.getHeaders();
+    cabecalhos.setContentType(MediaType.APPLICATION_JSON);
+    cabecalhos.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    cabecalhos.set(CABECALHO_SITUACAO, situacao);
+    if (guardada.etag() != null) {
+      cabecalhos.setETag(guardada.etag());
+    }
+    if (guardada.gzip()) {
+      if (aceitaGzip(requisicao)) {
+        cabecalhos.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      } else {
+        corpo = descompactar(corpo);
+      }
+    }
+    cabecalhos.setContentLength(corpo.length);
+    resposta.getBody().write(corpo);
+    resposta.flush();
+  }
+
+  // Bytes gerados numa versão anterior do agregado (ver VersoesCatalogo) não servem mais
+  private static boolean desatualizada(Resposta guardada, HttpServletRequest requisicao) {
+    Object etagAtual = requisicao.getAttribute(EtagPorVersaoInterceptor.ATRIBUTO_ETAG);
+    return etagAtual != null && !etagAtual.equals(guardada.etag());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Set<Dependencia> dependencias(
+      RespostaEmCache anotacao, HttpServletRequest requisicao, Object dados) {
+    Set<Dependencia> dependencias = new HashSet<>();
+    Dependencia.Tipo filtro = anotacao.filtro();
+    if (anotacao.variavel().isEmpty()) {
+      dependencias.add(new Dependencia(filtro, ""));
+    } else {
+      Map<String, String> variaveis =
+          (Map<String, String>)
+              requisicao.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+      String valor = variaveis != null ? variaveis.get(anotacao.variavel()) : null;
+      if (valor != null) {
+        dependencias.add(new Dependencia(filtro, valorDoFiltro(filtro, valor)));
+      }
+    }
+    Object conteudo = dados instanceof PagedResponse<?> pagina ? pagina.items() : dados;
+    InvalidacaoCache.adicionarDependenciasDoConteudo(conteudo, dependencias);
+    return dependencias;
+  }
+
+  // Ids chegam como texto na rota, mas as dependências usam o mesmo tipo das entidades
+  private static Object valorDoFiltro(Dependencia.Tipo filtro, String valor) {
+    return switch (filtro) {
+      case PRODUTO, PEDIDO, RESTAURANTE, CLIENTE -> Long.valueOf(valor);
+      default -> valor;
+    };
+  }
+
+  private static String chave(HttpServletRequest requisicao) {
+    String consulta = requisicao.getQueryString();
+    String caminho = requisicao.getRequestURI();
+    return consulta != null ? caminho + '?' + consulta : caminho;
+  }
+
+  private static boolean aceitaGzip(HttpServletRequest requisicao) {
+    String aceitas = requisicao.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return aceitas != null && aceitas.toLowerCase().contains("gzip");
+  }
+
+  private static byte[] compactar(byte[] json) {
+    ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+      gzip.write(json);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return saida.toByteArray();
+  }
+
+  private static byte[] descompactar(byte[] compactado) throws IOException {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+      return gzip.readAllBytes();
+    }
+  }
+
+  /** Corpo final da resposta, compactado ou não, e o ETag enviado com ele. */
+  record Resposta(byte[] corpo, boolean gzip, String etag) {}
+}
@@ -0,0 +1,64 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Grava no {@link RespostasEmCache} o corpo dos GETs com {@link RespostaEmCache} que não vieram do
+ * cache. O corpo é serializado uma vez, escrito pela própria gravação, e o advice devolve {@code
+ * null} para o conversor do Spring não escrever de novo.
+ */
+@ControllerAdvice
+public class RespostasEmCacheAdvice implements ResponseBodyAdvice<Object> {
+
+  private final RespostasEmCache respostas;
+
+  public RespostasEmCacheAdvice(RespostasEmCache respostas) {
+    this.respostas = respostas;
+  }
+
+  @Override
+  public boolean supports(
+      @NonNull MethodParameter returnType,
+      @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+    return returnType.hasMethodAnnotation(RespostaEmCache.class);
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      @NonNull MethodParameter returnType,
+      @NonNull MediaType selectedContentType,
+      @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      @NonNull ServerHttpRequest request,
+      @NonNull ServerHttpResponse response) {
+    if (!(request instanceof ServletServerHttpRequest servletRequest)
+        || !(response instanceof ServletServerHttpResponse servletResponse)
+        || !"GET".equals(servletRequest.getServletRequest().getMethod())) {
+      return body;
+    }
+    RespostaEmCache anotacao = returnType.getMethodAnnotation(RespostaEmCache.class);
+    try {
+      boolean escrita =
+          respostas.gravarEResponder(
+              body,
+              anotacao,
+              servletRequest.getServletRequest(),
+              servletResponse.getServletResponse().getStatus(),
+              response);
+      return escrita ? null : body;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.deliverytech.delivery_api.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Responde do {@link RespostasEmCache} os GETs com {@link RespostaEmCache} antes de chegar ao
+ * controller. Em caso de falta, {@link RespostasEmCacheAdvice} grava o corpo gerado.
+ */
+@Component
+public class RespostasEmCacheInterceptor implements HandlerInterceptor {
+
+  private final RespostasEmCache respostas;
+
+  public RespostasEmCacheInterceptor(RespostasEmCache respostas) {
+    this.respostas = respostas;
+  }
+
+  @Override
+  public boolean preHandle(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull Object handler)
+      throws Exception {
+    if (!"GET".equals(request.getMethod())
+        || !(handler instanceof HandlerMethod metodo)
+        || !metodo.hasMethodAnnotation(RespostaEmCache.class)) {
+      return true;
+    }
+    return !respostas.responder(request, new ServletServerHttpResponse(response));
+  }
+}
@@ -0,0 +1,31 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Entrega das invalidações de cache entre instâncias, usada por {@link BarramentoInvalidacao}.
+ * Escolhido por {@code app.cache.invalidacao.transporte}: {@code local} (padrão, só o próprio
+ * processo) ou {@code jdbc} (tabela {@code cache_invalidacao}, consultada por todas as instâncias a
+ * cada {@code app.cache.invalidacao.intervalo-ms}).
+ */
+public interface TransporteInvalidacao {
+
+  /**
+   * Publica os eventos de uma transação: antes do commit, nela mesma, se {@link #naTransacao()};
+   * senão já confirmada. Pode entregar os eventos também a quem publicou; a origem é filtrada por
+   * quem recebe.
+   */
+  void enviar(List<EventoInvalidacao> eventos);
+
+  /**
+   * {@code true} se {@link #enviar} grava na transação de quem invalidou: o barramento chama no
+   * {@code beforeCommit}, e a escrita não confirma sem os seus eventos.
+   */
+  default boolean naTransacao() {
+    return false;
+  }
+
+  /** Passa a entregar ao ouvinte os eventos publicados, na ordem de publicação. */
+  void assinar(Consumer<List<EventoInvalidacao>> ouvinte);
+}
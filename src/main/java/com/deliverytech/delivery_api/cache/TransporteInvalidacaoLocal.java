@@ -0,0 +1,35 @@
+package com.deliverytech.delivery_api.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link TransporteInvalidacao} em memória: entrega os eventos, na thread de quem publicou, a todos
+ * os barramentos assinantes do mesmo processo. Com uma instância só não há outros assinantes e nada
+ * é repetido; nos testes, dois barramentos no mesmo transporte fazem o papel de duas instâncias.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.cache.invalidacao",
+    name = "transporte",
+    havingValue = "local",
+    matchIfMissing = true)
+public class TransporteInvalidacaoLocal implements TransporteInvalidacao {
+
+  private final List<Consumer<List<EventoInvalidacao>>> ouvintes = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void enviar(List<EventoInvalidacao> eventos) {
+    for (Consumer<List<EventoInvalidacao>> ouvinte : ouvintes) {
+      ouvinte.accept(eventos);
+    }
+  }
+
+  @Override
+  public void assinar(Consumer<List<EventoInvalidacao>> ouvinte) {
+    ouvintes.add(ouvinte);
+  }
+}
@@ -0,0 +1,209 @@
+package com.deliverytech.delivery_api.cache;
+
+import com.deliverytech.delivery_api.repository.VersaoCatalogoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Versões do catálogo, uma por restaurante, por cardápio (produtos de um restaurante) e por
+ * categoria de produto, guardadas em {@code catalogo_versao}. Só crescem: as escritas de {@code
+ * RestauranteServiceImpl} e {@code ProdutoServiceImpl} incrementam os agregados afetados na própria
+ * transação, e {@link EtagPorVersaoInterceptor} monta o ETag forte a partir delas. Como a versão
+ * vem do banco, todas as instâncias dão o mesmo ETag para os mesmos dados, inclusive depois de um
+ * restart.
+ *
+ * <p>Os incrementos de uma transação são juntados e gravados no {@code beforeCommit}, em ordem de
+ * agregado e chave, numa fatia sorteada de cada um: escritas concorrentes no mesmo cardápio travem
+ * linhas diferentes e por pouco tempo, sem ciclo de espera entre eles. A leitura soma as fatias e
+ * fica em memória até o commit de uma escrita aqui ou o evento dela no {@link
+ * BarramentoInvalidacao}; o carregamento e a remoção da mesma chave não se intercalam, então uma
+ * leitura anterior ao commit nunca sobrevive à remoção. Até o evento chegar, outra instância
+ * continua com a versão antiga, assim como com as respostas em cache. Uma leitura que pegou a
+ * versão antes da escrita e os dados depois dela só marca os dados novos com a versão antiga, o que
+ * custa no máximo uma resposta completa a mais.
+ *
+ * <p>Os produtos da categoria trazem o resumo do restaurante, então toda escrita em restaurante
+ * também avança a geração geral de restaurantes, que entra no ETag das categorias.
+ */
+@Component
+public class VersoesCatalogo {
+
+  /** Agregado versionado; o valor da chave vem da variável da rota. */
+  public enum Agregado {
+    RESTAURANTE,
+    CARDAPIO,
+    CATEGORIA
+  }
+
+  // Linhas por agregado em catalogo_versao
+  static final int FATIAS = 8;
+
+  private static final Versao GERACAO_RESTAURANTES = new Versao("RESTAURANTES", "*");
+
+  private final VersaoCatalogoRepository repository;
+
+  private final Cache<Versao, Long> versoes = Caffeine.newBuilder().maximumSize(10_000).build();
+
+  // Ausente só quando criado fora do Spring (testes)
+  private BarramentoInvalidacao barramento;
+
+  public VersoesCatalogo(VersaoCatalogoRepository repository) {
+    this.repository = repository;
+  }
+
+  @Autowired(required = false)
+  void usarBarramento(BarramentoInvalidacao barramento) {
+    this.barramento = barramento;
+    barramento.assinar(
+        EventoInvalidacao.Tipo.VERSAO_RESTAURANTE,
+        evento -> versoes.invalidateAll(restaurante(Long.valueOf(evento.valor()))));
+    barramento.assinar(
+        EventoInvalidacao.Tipo.VERSAO_PRODUTO,
+        evento ->
+            versoes.invalidateAll(
+                produto(
+                    evento.alvo() != null ? Long.valueOf(evento.alvo()) : null, evento.valor())));
+    barramento.assinar(EventoInvalidacao.Tipo.TUDO, evento -> versoes.invalidateAll());
+  }
+
+  /** ETag forte do agregado, já entre aspas. */
+  public String etag(Agregado agregado, Object valor) {
+    StringBuilder etag =
+        new StringBuilder("\"")
+            .append(agregado.name().charAt(0))
+            .append('-')
+            .append(versao(agregado, valor));
+    if (agregado == Agregado.CATEGORIA) {
+      etag.append('.').append(ler(GERACAO_RESTAURANTES));
+    }
+    return etag.append('"').toString();
+  }
+
+  long versao(Agregado agregado, Object valor) {
+    return ler(Versao.de(agregado, valor));
+  }
+
+  /** Dados do restaurante mudaram: ficha, cardápio e categorias que mostram o resumo dele. */
+  public void restauranteAlterado(Long restauranteId) {
+    incrementar(restaurante(restauranteId));
+    publicar(EventoInvalidacao.Tipo.VERSAO_RESTAURANTE, null, restauranteId);
+  }
+
+  /**
+   * Um produto do restaurante e da categoria mudou (dados ou disponibilidade). Estoque não conta: o
+   * cardápio e a categoria não o mostram, e nenhum pedido passa por aqui.
+   */
+  public void produtoAlterado(Long restauranteId, String categoria) {
+    incrementar(produto(restauranteId, categoria));
+    publicar(EventoInvalidacao.Tipo.VERSAO_PRODUTO, restauranteId, categoria);
+  }
+
+  private long ler(Versao versao) {
+    return versoes.get(versao, v -> repository.versao(v.agregado(), v.chave()));
+  }
+
+  private static Set<Versao> restaurante(Long restauranteId) {
+    Set<Versao> afetadas = new TreeSet<>();
+    if (restauranteId != null) {
+      afetadas.add(Versao.de(Agregado.RESTAURANTE, restauranteId));
+      afetadas.add(Versao.de(Agregado.CARDAPIO, restauranteId));
+    }
+    afetadas.add(GERACAO_RESTAURANTES);
+    return afetadas;
+  }
+
+  private static Set<Versao> produto(Long restauranteId, String categoria) {
+    Set<Versao> afetadas = new TreeSet<>();
+    if (restauranteId != null) {
+      afetadas.add(Versao.de(Agregado.CARDAPIO, restauranteId));
+    }
+    if (categoria != null) {
+      afetadas.add(Versao.de(Agregado.CATEGORIA, categoria));
+    }
+    return afetadas;
+  }
+
+  private void publicar(EventoInvalidacao.Tipo tipo, Object alvo, Object valor) {
+    if (barramento != null) {
+      barramento.publicar(tipo, alvo, valor);
+    }
+  }
+
+  private void incrementar(Set<Versao> afetadas) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      gravar(afetadas);
+      versoes.invalidateAll(afetadas);
+      return;
+    }
+    // Uma sincronização por transação; numa REQUIRES_NEW a lista é outra
+    for (TransactionSynchronization sincronizacao :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      if (sincronizacao instanceof IncrementoNoCommit incremento && incremento.dono == this) {
+        incremento.afetadas.addAll(afetadas);
+        return;
+      }
+    }
+    IncrementoNoCommit incremento = new IncrementoNoCommit(this);
+    incremento.afetadas.addAll(afetadas);
+    TransactionSynchronizationManager.registerSynchronization(incremento);
+  }
+
+  // Em ordem (TreeSet), para que duas transações nunca esperem uma pela outra em ciclo
+  private void gravar(Set<Versao> afetadas) {
+    for (Versao versao : afetadas) {
+      repository.incrementar(
+          versao.agregado(), versao.chave(), ThreadLocalRandom.current().nextInt(FATIAS));
+    }
+  }
+
+  /** Agregado e chave como gravados em {@code catalogo_versao}. */
+  record Versao(String agregado, String chave) implements Comparable<Versao> {
+
+    private static final Comparator<Versao> ORDEM =
+        Comparator.comparing(Versao::agregado).thenComparing(Versao::chave);
+
+    // A collation do MySQL ignora maiúsculas ao comparar categorias; a versão segue a mesma regra
+    static Versao de(Agregado agregado, Object valor) {
+      String chave = valor.toString();
+      if (agregado == Agregado.CATEGORIA) {
+        chave = chave.trim().toLowerCase(Locale.ROOT);
+      }
+      return new Versao(agregado.name(), chave);
+    }
+
+    @Override
+    public int compareTo(Versao outra) {
+      return ORDEM.compare(this, outra);
+    }
+  }
+
+  // Classe, não record: fica num Set do Spring enquanto o conjunto de versões cresce
+  private static final class IncrementoNoCommit implements TransactionSynchronization {
+
+    private final VersoesCatalogo dono;
+    private final Set<Versao> afetadas = new TreeSet<>();
+
+    IncrementoNoCommit(VersoesCatalogo dono) {
+      this.dono = dono;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      dono.gravar(afetadas);
+    }
+
+    @Override
+    public void afterCommit() {
+      dono.versoes.invalidateAll(afetadas);
+    }
+  }
+}
@@ -1,17 +1,91 @@
 package com.deliverytech.delivery_api.config;
 
+import com.deliverytech.delivery_api.cache.CaffeineCacheComDependencias;
+import com.deliverytech.delivery_api.cache.EstatisticasCache;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Caches do Spring em Caffeine: cada região tem limite de entradas (despejo W-TinyLFU) e expiração
+ * próprios, configurados em {@code app.cache}. As estatísticas ficam ligadas para que o actuator
+ * publique {@code cache.gets}, {@code cache.evictions}, {@code cache.size} etc. no registry do
+ * Micrometer para todas as regiões declaradas; {@link EstatisticasCache} completa com as contagens
+ * por família de chave, o tempo de carga e a memória estimada.
+ *
+ * <p>As regiões declaradas alimentam o {@link InvalidacaoCache}, que permite às escritas remover só
+ * as entradas afetadas. Leituras com {@code sync = true} carregam cada chave uma vez e renovam
+ * entradas perto de expirar (ver {@link CaffeineCacheComDependencias}).
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheRegioesProperties.class)
 public class CacheConfig {
 
   @Bean
-  public CacheManager cacheManager() {
-    return new ConcurrentMapCacheManager("produtos", "pedidos", "relatorios");
+  public CacheManager cacheManager(
+      CacheRegioesProperties propriedades,
+      InvalidacaoCache invalidacaoCache,
+      EstatisticasCache estatisticasCache) {
+    return criarCacheManager(
+        propriedades, Ticker.systemTicker(), invalidacaoCache, estatisticasCache);
+  }
+
+  static CaffeineCacheManager criarCacheManager(
+      CacheRegioesProperties propriedades, Ticker ticker, InvalidacaoCache invalidacao) {
+    return criarCacheManager(propriedades, ticker, invalidacao, null);
+  }
+
+  static CaffeineCacheManager criarCacheManager(
+      CacheRegioesProperties propriedades,
+      Ticker ticker,
+      InvalidacaoCache invalidacao,
+      EstatisticasCache estatisticas) {
+    CaffeineCacheManager cacheManager =
+        new CaffeineCacheManager() {
+          @Override
+          protected org.springframework.cache.Cache adaptCaffeineCache(
+              String nome, Cache<Object, Object> cache) {
+            return new CaffeineCacheComDependencias(
+                nome,
+                cache,
+                isAllowNullValues(),
+                invalidacao,
+                propriedades.getRenovacaoAntecipada(),
+                estatisticas);
+          }
+        };
+    // Caches pedidos por nome fora das regiões declaradas também ficam limitados
+    cacheManager.setCaffeine(construtor(propriedades.getPadrao(), ticker));
+    for (String nome : propriedades.getRegioes().keySet()) {
+      cacheManager.registerCustomCache(
+          nome,
+          construtor(propriedades.resolver(nome), ticker)
+              .evictionListener(invalidacao.ouvinteDeDespejo(nome))
+              .build());
+    }
+    return cacheManager;
+  }
+
+  private static Caffeine<Object, Object> construtor(
+      CacheRegioesProperties.Regiao regiao, Ticker ticker) {
+    Caffeine<Object, Object> construtor = Caffeine.newBuilder().ticker(ticker).recordStats();
+    if (regiao.getMaxEntradas() != null) {
+      construtor.maximumSize(regiao.getMaxEntradas());
+    }
+    if (regiao.getExpirarAposEscrita() != null) {
+      construtor.expireAfterWrite(regiao.getExpirarAposEscrita());
+    }
+    if (regiao.getExpirarAposAcesso() != null) {
+      construtor.expireAfterAccess(regiao.getExpirarAposAcesso());
+    }
+    return construtor;
   }
 }
@@ -0,0 +1,133 @@
+package com.deliverytech.delivery_api.config;
+
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limite de entradas e expiração de cada cache ({@code app.cache.regioes.<nome>}). Campos não
+ * informados numa região herdam de {@code app.cache.padrao}, que também vale para caches sem região
+ * declarada. Os nomes das regiões estão em {@link RegioesCache}.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheRegioesProperties {
+
+  private Regiao padrao = new Regiao(1_000L, Duration.ofMinutes(10), null);
+
+  private Map<String, Regiao> regioes = new LinkedHashMap<>();
+
+  /**
+   * Fração do {@code expirar-apos-escrita} a partir da qual a próxima leitura recarrega a entrada
+   * antes de ela expirar. 0 desliga a renovação antecipada.
+   */
+  private double renovacaoAntecipada = 0.8;
+
+  public CacheRegioesProperties() {
+    Duration dezMinutos = Duration.ofMinutes(10);
+    regioes.put(RegioesCache.PRODUTOS_POR_RESTAURANTE, new Regiao(1_000L, dezMinutos, null));
+    regioes.put(RegioesCache.PRODUTOS_POR_CATEGORIA, new Regiao(200L, dezMinutos, null));
+    // Uma única chave: a lista inteira de disponíveis
+    regioes.put(RegioesCache.PRODUTOS_DISPONIVEIS, new Regiao(1L, dezMinutos, null));
+    // Texto livre: muitas chaves de pouco reuso, mantidas por menos tempo
+    Duration cincoMinutos = Duration.ofMinutes(5);
+    regioes.put(RegioesCache.PRODUTOS_POR_NOME, new Regiao(1_000L, cincoMinutos, null));
+
+    Duration doisMinutos = Duration.ofMinutes(2);
+    regioes.put(RegioesCache.PEDIDOS_POR_CLIENTE, new Regiao(5_000L, cincoMinutos, doisMinutos));
+    regioes.put(
+        RegioesCache.PEDIDOS_POR_CLIENTE_PAGINADO, new Regiao(5_000L, cincoMinutos, doisMinutos));
+    regioes.put(
+        RegioesCache.PEDIDOS_POR_RESTAURANTE, new Regiao(1_000L, cincoMinutos, doisMinutos));
+    regioes.put(
+        RegioesCache.PEDIDOS_POR_RESTAURANTE_PAGINADO,
+        new Regiao(2_000L, cincoMinutos, doisMinutos));
+    // Listas por status mudam a cada transição de qualquer pedido
+    regioes.put(RegioesCache.PEDIDOS_POR_STATUS, new Regiao(20L, Duration.ofMinutes(1), null));
+
+    regioes.put(RegioesCache.RELATORIOS, new Regiao(200L, Duration.ofMinutes(30), null));
+    regioes.put(RegioesCache.RESPOSTAS, new Regiao(2_000L, cincoMinutos, null));
+    // Ausências ficam pouco tempo: outra instância pode cadastrar o que aqui não existia
+    regioes.put(RegioesCache.AUSENCIAS, new Regiao(10_000L, Duration.ofMinutes(1), null));
+  }
+
+  public Regiao getPadrao() {
+    return padrao;
+  }
+
+  public void setPadrao(Regiao padrao) {
+    this.padrao = padrao;
+  }
+
+  public double getRenovacaoAntecipada() {
+    return renovacaoAntecipada;
+  }
+
+  public void setRenovacaoAntecipada(double renovacaoAntecipada) {
+    this.renovacaoAntecipada = renovacaoAntecipada;
+  }
+
+  public Map<String, Regiao> getRegioes() {
+    return regioes;
+  }
+
+  public void setRegioes(Map<String, Regiao> regioes) {
+    this.regioes = regioes;
+  }
+
+  /** Configuração efetiva da região: o que não foi informado vem do padrão. */
+  public Regiao resolver(String nome) {
+    Regiao regiao = regioes.get(nome);
+    if (regiao == null) {
+      return padrao;
+    }
+    return new Regiao(
+        regiao.getMaxEntradas() != null ? regiao.getMaxEntradas() : padrao.getMaxEntradas(),
+        regiao.getExpirarAposEscrita() != null
+            ? regiao.getExpirarAposEscrita()
+            : padrao.getExpirarAposEscrita(),
+        regiao.getExpirarAposAcesso() != null
+            ? regiao.getExpirarAposAcesso()
+            : padrao.getExpirarAposAcesso());
+  }
+
+  public static class Regiao {
+
+    private Long maxEntradas;
+    private Duration expirarAposEscrita;
+    private Duration expirarAposAcesso;
+
+    public Regiao() {}
+
+    public Regiao(Long maxEntradas, Duration expirarAposEscrita, Duration expirarAposAcesso) {
+      this.maxEntradas = maxEntradas;
+      this.expirarAposEscrita = expirarAposEscrita;
+      this.expirarAposAcesso = expirarAposAcesso;
+    }
+
+    public Long getMaxEntradas() {
+      return maxEntradas;
+    }
+
+    public void setMaxEntradas(Long maxEntradas) {
+      this.maxEntradas = maxEntradas;
+    }
+
+    public Duration getExpirarAposEscrita() {
+      return expirarAposEscrita;
+    }
+
+    public void setExpirarAposEscrita(Duration expirarAposEscrita) {
+      this.expirarAposEscrita = expirarAposEscrita;
+    }
+
+    public Duration getExpirarAposAcesso() {
+      return expirarAposAcesso;
+    }
+
+    public void setExpirarAposAcesso(Duration expirarAposAcesso) {
+      this.expirarAposAcesso = expirarAposAcesso;
+    }
+  }
+}
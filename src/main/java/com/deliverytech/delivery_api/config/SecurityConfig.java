@@ -75,6 +75,9 @@ public class SecurityConfig {
                     // Admin-only endpoints
                     .requestMatchers("/api/pedidos")
                     .hasRole("ADMIN")
+                    // Exportações trazem todos os pedidos e vendas do período
+                    .requestMatchers("/api/pedidos/export", "/api/relatorios/export/**")
+                    .hasRole("ADMIN")
                     // Swagger/OpenAPI endpoints - Documentation access
                     .requestMatchers(
                         "/v3/api-docs",
@@ -1,13 +1,34 @@
 package com.deliverytech.delivery_api.config;
 
+import com.deliverytech.delivery_api.cache.EtagPorVersaoInterceptor;
+import com.deliverytech.delivery_api.cache.RespostasEmCacheInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+  private final EtagPorVersaoInterceptor etagPorVersaoInterceptor;
+
+  private final RespostasEmCacheInterceptor respostasEmCacheInterceptor;
+
+  public WebConfig(
+      EtagPorVersaoInterceptor etagPorVersaoInterceptor,
+      RespostasEmCacheInterceptor respostasEmCacheInterceptor) {
+    this.etagPorVersaoInterceptor = etagPorVersaoInterceptor;
+    this.respostasEmCacheInterceptor = respostasEmCacheInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(@NonNull InterceptorRegistry registry) {
+    // Revalidação primeiro: um 304 não precisa nem do cache de respostas
+    registry.addInterceptor(etagPorVersaoInterceptor);
+    registry.addInterceptor(respostasEmCacheInterceptor);
+  }
+
   @Override
   public void configurePathMatch(@NonNull PathMatchConfigurer configurer) {
     // Use default path matching strategy
@@ -4,10 +4,16 @@ import com.deliverytech.delivery_api.dto.request.PedidoRequest;
 import com.deliverytech.delivery_api.dto.request.StatusUpdateRequest;
 import com.deliverytech.delivery_api.dto.response.ApiResult;
 import com.deliverytech.delivery_api.dto.response.ItemPedidoResponse;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
 import com.deliverytech.delivery_api.dto.response.PedidoResponse;
 import com.deliverytech.delivery_api.dto.response.PedidoResumoResponse;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.model.Pedido;
 import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.service.ExportacaoService;
+import com.deliverytech.delivery_api.service.IdempotenciaPedidos;
 import com.deliverytech.delivery_api.service.PedidoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,13 +23,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -39,10 +52,20 @@ public class PedidoController {
 
   private static final Logger logger = LoggerFactory.getLogger(PedidoController.class);
 
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
   private final PedidoService pedidoService;
+  private final IdempotenciaPedidos idempotenciaPedidos;
+  private final ExportacaoService exportacaoService;
 
-  public PedidoController(PedidoService pedidoService) {
+  public PedidoController(
+      PedidoService pedidoService,
+      IdempotenciaPedidos idempotenciaPedidos,
+      ExportacaoService exportacaoService) {
     this.pedidoService = pedidoService;
+    this.idempotenciaPedidos = idempotenciaPedidos;
+    this.exportacaoService = exportacaoService;
   }
 
   @Operation(
@@ -189,6 +212,42 @@ public class PedidoController {
     }
   }
 
+  @Operation(
+      summary = "Exportar pedidos",
+      description =
+          "Envia os pedidos do período em CSV ou NDJSON à medida que são lidos do banco, sem"
+              + " paginação; com Accept-Encoding: gzip a resposta sai compactada.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Pedidos do período, um por linha",
+        content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")}),
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+  })
+  @GetMapping(value = "/export", produces = MediaType.ALL_VALUE)
+  public void exportar(
+      @Parameter(description = "Data inicial do período", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate inicio,
+      @Parameter(description = "Data final do período (inclusive)", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate fim,
+      @Parameter(description = "Só pedidos neste status") @RequestParam(required = false)
+          StatusPedido status,
+      @Parameter(description = "csv ou ndjson") @RequestParam(defaultValue = "csv") String formato,
+      HttpServletRequest requisicao,
+      HttpServletResponse resposta)
+      throws IOException {
+    var formatoExportacao = RespostaExportacao.formato(formato);
+    try (OutputStream saida =
+        RespostaExportacao.abrir(
+            requisicao, resposta, formatoExportacao, "pedidos-" + inicio + "-" + fim)) {
+      exportacaoService.exportarPedidos(inicio, fim, status, formatoExportacao, saida);
+    }
+  }
+
   @Operation(
       summary = "Buscar pedido por ID",
       description = "Retorna um pedido pelo seu identificador.")
@@ -215,6 +274,24 @@ public class PedidoController {
     }
   }
 
+  @Operation(
+      summary = "Buscar pedido por número",
+      description = "Retorna um pedido pelo número público (numeroPedido).")
+  @GetMapping("/numero/{numero}")
+  public ResponseEntity<ApiResult<PedidoResponse>> buscarPorNumero(@PathVariable String numero) {
+    try {
+      Pedido pedido = pedidoService.buscarPorNumero(numero);
+      return ResponseEntity.ok(
+          new ApiResult<>(mapToResponse(pedido), "Pedido obtido com sucesso", true));
+    } catch (EntityNotFoundException ex) {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND)
+          .body(new ApiResult<>(null, "Pedido não encontrado", false));
+    } catch (Exception ex) {
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(new ApiResult<>(null, "Erro interno: " + ex.getMessage(), false));
+    }
+  }
+
   @Operation(
       summary = "Criar novo pedido",
       description = "Cria um novo pedido para um cliente em um restaurante.")
@@ -237,22 +314,26 @@ public class PedidoController {
   })
   @PostMapping
   public ResponseEntity<ApiResult<PedidoResponse>> criar(
-      @Valid @RequestBody PedidoRequest pedidoRequest) {
+      @Valid @RequestBody PedidoRequest pedidoRequest,
+      @Parameter(description = "Chave para repetir a resposta em retentativas do mesmo pedido")
+          @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+          String idempotencyKey) {
     try {
       logger.debug("Recebido PedidoRequest: {}", pedidoRequest);
-      Pedido pedido = mapToEntity(pedidoRequest);
-      logger.debug("Pedido mapeado: {}", pedido);
-      Pedido novo = pedidoService.criar(pedido);
-      PedidoResponse response = mapToResponse(novo);
-      logger.info(
-          "Pedido criado com sucesso: id={} status= {}", response.getId(), response.getStatus());
-      URI location =
-          ServletUriComponentsBuilder.fromCurrentRequest()
-              .path("/{id}")
-              .buildAndExpand(response.getId())
-              .toUri();
-      return ResponseEntity.created(location)
-          .body(new ApiResult<>(response, "Pedido criado com sucesso", true));
+      var resultado =
+          idempotenciaPedidos.executar(
+              idempotencyKey,
+              pedidoRequest,
+              () -> {
+                Pedido pedido = mapToEntity(pedidoRequest);
+                logger.debug("Pedido mapeado: {}", pedido);
+                return mapToResponse(pedidoService.criar(pedido));
+              });
+      return criado(resultado);
+    } catch (ConflictException ex) {
+      logger.warn("Conflito de Idempotency-Key ao criar pedido: {}", ex.getMessage());
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(new ApiResult<>(null, ex.getMessage(), false));
     } catch (RuntimeException ex) {
       logger.error("Erro de negócio ao criar pedido: {}", ex.getMessage(), ex);
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -269,19 +350,19 @@ public class PedidoController {
       description = "Cria um novo pedido para um cliente em um restaurante usando DTO.")
   @PostMapping("/dto")
   public ResponseEntity<ApiResult<PedidoResponse>> criarPedido(
-      @Valid @RequestBody PedidoRequest pedidoRequest) {
+      @Valid @RequestBody PedidoRequest pedidoRequest,
+      @Parameter(description = "Chave para repetir a resposta em retentativas do mesmo pedido")
+          @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+          String idempotencyKey) {
     try {
       logger.debug("Recebido PedidoRequest: {}", pedidoRequest);
-      PedidoResponse response = pedidoService.criarPedido(pedidoRequest);
-      logger.info(
-          "Pedido criado com sucesso: id={} status= {}", response.getId(), response.getStatus());
-      URI location =
-          ServletUriComponentsBuilder.fromCurrentRequest()
-              .path("/{id}")
-              .buildAndExpand(response.getId())
-              .toUri();
-      return ResponseEntity.created(location)
-          .body(new ApiResult<>(response, "Pedido criado com sucesso", true));
+      return criado(
+          idempotenciaPedidos.executar(
+              idempotencyKey, pedidoRequest, () -> pedidoService.criarPedido(pedidoRequest)));
+    } catch (ConflictException ex) {
+      logger.warn("Conflito de Idempotency-Key ao criar pedido: {}", ex.getMessage());
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(new ApiResult<>(null, ex.getMessage(), false));
     } catch (RuntimeException ex) {
       logger.error("Erro de negócio ao criar pedido: {}", ex.getMessage(), ex);
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -293,6 +374,43 @@ public class PedidoController {
     }
   }
 
+  @Operation(
+      summary = "Criar pedidos em lote",
+      description =
+          "Cria até app.pedidos.lote.max-pedidos pedidos numa única chamada, para integrações de"
+              + " parceiros. Cada pedido recebe seu próprio resultado: um pedido inválido ou sem"
+              + " estoque é recusado sem afetar os demais.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Lote processado; ver o resultado de cada pedido"),
+    @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do limite"),
+    @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+  })
+  @PostMapping("/batch")
+  public ResponseEntity<ApiResult<List<PedidoLoteResultadoResponse>>> criarPedidosEmLote(
+      @RequestBody List<PedidoRequest> pedidoRequests) {
+    try {
+      List<PedidoLoteResultadoResponse> resultados = pedidoService.criarPedidos(pedidoRequests);
+      long criados = resultados.stream().filter(PedidoLoteResultadoResponse::sucesso).count();
+      logger.info("Lote de pedidos: {} de {} criados", criados, resultados.size());
+      return ResponseEntity.ok(
+          new ApiResult<>(
+              resultados,
+              String.format(
+                  "%d pedido(s) criado(s), %d recusado(s)", criados, resultados.size() - criados),
+              true));
+    } catch (RuntimeException ex) {
+      logger.error("Erro de negócio ao criar lote de pedidos: {}", ex.getMessage(), ex);
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+          .body(new ApiResult<>(null, "Erro de negócio: " + ex.getMessage(), false));
+    } catch (Exception ex) {
+      logger.error("Erro inesperado ao criar lote de pedidos: {}", ex.getMessage(), ex);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body(new ApiResult<>(null, "Erro interno: " + ex.getMessage(), false));
+    }
+  }
+
   @Operation(
       summary = "Atualizar status do pedido",
       description = "Atualiza o status de um pedido existente (ex: CRIADO, ENTREGUE, CANCELADO).")
@@ -327,8 +445,13 @@ public class PedidoController {
                         value =
                             "{\"data\": {\"id\": 1, \"status\": \"ENTREGUE\"}, \"message\":"
                                 + " \"Status atualizado\", \"success\": true}"))),
-    @ApiResponse(responseCode = "400", description = "Status inválido ou requisição inválida"),
+    @ApiResponse(
+        responseCode = "400",
+        description = "Status inválido ou transição de status não permitida"),
     @ApiResponse(responseCode = "404", description = "Pedido não encontrado"),
+    @ApiResponse(
+        responseCode = "409",
+        description = "Status do pedido alterado por outra requisição"),
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
   })
   @PatchMapping("/{id}/status")
@@ -341,9 +464,15 @@ public class PedidoController {
           new ApiResult<>(mapToResponse(pedidoAtualizado), "Status atualizado", true));
     } catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(new ApiResult<>(null, "Status inválido", false));
-    } catch (RuntimeException e) {
+    } catch (ConflictException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(new ApiResult<>(null, e.getMessage(), false));
+    } catch (EntityNotFoundException e) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND)
           .body(new ApiResult<>(null, "Pedido não encontrado", false));
+    } catch (BusinessException e) {
+      // Transição recusada (pedido cancelado, entregue ou fora da sequência)
+      return ResponseEntity.badRequest().body(new ApiResult<>(null, e.getMessage(), false));
     }
   }
 
@@ -361,6 +490,9 @@ public class PedidoController {
                             "{\"data\": {\"id\": 1, \"status\": \"CANCELADO\"}, \"message\":"
                                 + " \"Pedido cancelado\", \"success\": true}"))),
     @ApiResponse(responseCode = "400", description = "Erro de negócio ao cancelar pedido"),
+    @ApiResponse(
+        responseCode = "409",
+        description = "Status do pedido alterado por outra requisição"),
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
   })
   @DeleteMapping("/{id}")
@@ -369,6 +501,9 @@ public class PedidoController {
       Pedido cancelado = pedidoService.cancelar(id);
       PedidoResponse response = mapToResponse(cancelado);
       return ResponseEntity.ok(new ApiResult<>(response, "Pedido cancelado", true));
+    } catch (ConflictException ex) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(new ApiResult<>(null, ex.getMessage(), false));
     } catch (RuntimeException ex) {
       logger.error("Erro ao cancelar pedido {}: {}", id, ex.getMessage(), ex);
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -405,6 +540,23 @@ public class PedidoController {
     }
   }
 
+  private ResponseEntity<ApiResult<PedidoResponse>> criado(
+      IdempotenciaPedidos.Resultado resultado) {
+    PedidoResponse response = resultado.resposta();
+    logger.info(
+        "Pedido criado com sucesso: id={} status= {}", response.getId(), response.getStatus());
+    URI location =
+        ServletUriComponentsBuilder.fromCurrentRequest()
+            .path("/{id}")
+            .buildAndExpand(response.getId())
+            .toUri();
+    var builder = ResponseEntity.created(location);
+    if (resultado.repetida()) {
+      builder.header(IDEMPOTENT_REPLAYED, "true");
+    }
+    return builder.body(new ApiResult<>(response, "Pedido criado com sucesso", true));
+  }
+
   // Métodos utilitários de mapeamento
   private Pedido mapToEntity(PedidoRequest dto) {
     Pedido pedido = new Pedido();
@@ -1,5 +1,10 @@
 package com.deliverytech.delivery_api.controller;
 
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.EtagPorVersao;
+import com.deliverytech.delivery_api.cache.RespostaEmCache;
+import com.deliverytech.delivery_api.cache.RespostasEmCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.dto.request.ProdutoRequest;
 import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
 import com.deliverytech.delivery_api.service.ProdutoService;
@@ -93,6 +98,7 @@ public class ProdutoController {
     @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
   })
+  @RespostaEmCache(filtro = Dependencia.Tipo.DISPONIVEIS)
   @GetMapping
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -112,7 +118,7 @@ public class ProdutoController {
     var pageResult = produtoService.buscarDisponiveis(pageable);
 
     // Construir links de navegação
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -146,6 +152,7 @@ public class ProdutoController {
   @Operation(
       summary = "Buscar produto por ID",
       description = "Consulta um produto pelo seu identificador único.")
+  @RespostaEmCache(filtro = Dependencia.Tipo.PRODUTO, variavel = "id")
   @GetMapping("/{id}")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -288,6 +295,7 @@ public class ProdutoController {
     @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
   })
+  @RespostaEmCache(filtro = Dependencia.Tipo.BUSCA_POR_NOME)
   @GetMapping("/buscar")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -305,7 +313,7 @@ public class ProdutoController {
             com.deliverytech.delivery_api.util.SortableProperties.PRODUTO);
     var pageResult = produtoService.buscarProdutosPorNome(nome, pageable);
 
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -359,6 +367,8 @@ public class ProdutoController {
     @ApiResponse(responseCode = "400", description = "Parâmetros inválidos"),
     @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
   })
+  @EtagPorVersao(agregado = VersoesCatalogo.Agregado.CATEGORIA, variavel = "categoria")
+  @RespostaEmCache(filtro = Dependencia.Tipo.CATEGORIA, variavel = "categoria")
   @GetMapping("/categoria/{categoria}")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -374,9 +384,13 @@ public class ProdutoController {
             size,
             (String) null,
             com.deliverytech.delivery_api.util.SortableProperties.PRODUTO);
-    var pageResult = produtoService.buscarProdutosPorCategoria(categoria, pageable);
+    // Sem o estoque: a versão da categoria não muda a cada pedido
+    var pageResult =
+        produtoService
+            .buscarProdutosPorCategoria(categoria, pageable)
+            .map(com.deliverytech.delivery_api.dto.response.ProdutoResponse::semEstoque);
 
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -1,8 +1,11 @@
 package com.deliverytech.delivery_api.controller;
 
+import com.deliverytech.delivery_api.exception.ValidationException;
 import com.deliverytech.delivery_api.projection.RelatorioVendas;
 import com.deliverytech.delivery_api.projection.RelatorioVendasClientes;
 import com.deliverytech.delivery_api.projection.RelatorioVendasProdutos;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Dimensao;
+import com.deliverytech.delivery_api.service.ExportacaoService;
 import com.deliverytech.delivery_api.service.RelatorioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,11 +16,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 // OffsetDateTime/List não utilizados neste controlador
+import java.util.Locale;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +37,7 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Relatórios", description = "Relatórios e estatísticas de vendas e pedidos")
 public class RelatorioController {
   @Autowired private RelatorioService relatorioService;
+  @Autowired private ExportacaoService exportacaoService;
 
   @GetMapping("/vendas-por-restaurante")
   @Operation(
@@ -448,4 +458,55 @@ public class RelatorioController {
         new com.deliverytech.delivery_api.dto.response.ApiResult<>(
             data, "Resumo gerado com sucesso", true));
   }
+
+  @GetMapping(value = "/export/vendas-diarias/{dimensao}", produces = MediaType.ALL_VALUE)
+  @Operation(
+      summary = "Exportar vendas por dia",
+      description =
+          "Envia as vendas de cada dia do período por restaurante (e status), cliente ou produto"
+              + " em CSV ou NDJSON, à medida que são lidas do banco; com Accept-Encoding: gzip a"
+              + " resposta sai compactada.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Uma linha por dia e chave",
+        content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")}),
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+  })
+  public void exportarVendasDiarias(
+      @Parameter(description = "restaurante, cliente ou produto", required = true) @PathVariable
+          String dimensao,
+      @Parameter(description = "Data inicial do período", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate inicio,
+      @Parameter(description = "Data final do período", required = true)
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate fim,
+      @Parameter(description = "csv ou ndjson") @RequestParam(defaultValue = "csv") String formato,
+      HttpServletRequest requisicao,
+      HttpServletResponse resposta)
+      throws IOException {
+    Dimensao dimensaoVendas = dimensao(dimensao);
+    var formatoExportacao = RespostaExportacao.formato(formato);
+    try (OutputStream saida =
+        RespostaExportacao.abrir(
+            requisicao,
+            resposta,
+            formatoExportacao,
+            "vendas-" + dimensao.toLowerCase(Locale.ROOT) + "-" + inicio + "-" + fim)) {
+      exportacaoService.exportarVendasDiarias(
+          dimensaoVendas, inicio, fim, formatoExportacao, saida);
+    }
+  }
+
+  private static Dimensao dimensao(String valor) {
+    for (Dimensao dimensao : Dimensao.values()) {
+      if (dimensao.name().equalsIgnoreCase(valor)) {
+        return dimensao;
+      }
+    }
+    throw new ValidationException("Dimensão inválida: use restaurante, cliente ou produto");
+  }
 }
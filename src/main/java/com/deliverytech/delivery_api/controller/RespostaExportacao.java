@@ -0,0 +1,54 @@
+package com.deliverytech.delivery_api.controller;
+
+import com.deliverytech.delivery_api.exception.ValidationException;
+import com.deliverytech.delivery_api.util.ExportacaoTabular.Formato;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Cabeçalhos e stream de saída das exportações: tipo do formato, nome do arquivo para download e
+ * gzip quando o cliente aceita. O gzip usa sync flush, para cada flush da exportação chegar ao
+ * cliente mesmo compactado.
+ */
+final class RespostaExportacao {
+
+  private RespostaExportacao() {}
+
+  static Formato formato(String valor) {
+    Formato formato = Formato.de(valor);
+    if (formato == null) {
+      throw new ValidationException("Formato de exportação inválido: use csv ou ndjson");
+    }
+    return formato;
+  }
+
+  /** Prepara a resposta; quem chama escreve e fecha o stream devolvido. */
+  static OutputStream abrir(
+      HttpServletRequest requisicao,
+      HttpServletResponse resposta,
+      Formato formato,
+      String nomeArquivo)
+      throws IOException {
+    resposta.setContentType(formato.contentType() + ";charset=UTF-8");
+    resposta.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"" + nomeArquivo + "." + formato.extensao() + "\"");
+    resposta.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    resposta.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+    if (aceitaGzip(requisicao)) {
+      resposta.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      return new GZIPOutputStream(resposta.getOutputStream(), 8192, true);
+    }
+    return resposta.getOutputStream();
+  }
+
+  private static boolean aceitaGzip(HttpServletRequest requisicao) {
+    String aceitas = requisicao.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    return aceitas != null && aceitas.toLowerCase(Locale.ROOT).contains("gzip");
+  }
+}
@@ -1,5 +1,10 @@
 package com.deliverytech.delivery_api.controller;
 
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.EtagPorVersao;
+import com.deliverytech.delivery_api.cache.RespostaEmCache;
+import com.deliverytech.delivery_api.cache.RespostasEmCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.dto.request.RestauranteRequest;
 import com.deliverytech.delivery_api.dto.request.StatusRequest;
 import com.deliverytech.delivery_api.model.Restaurante;
@@ -115,6 +120,7 @@ public class RestauranteController {
         responseCode = "500",
         description = "Erro interno do servidor")
   })
+  @RespostaEmCache(filtro = Dependencia.Tipo.RESTAURANTES)
   @GetMapping
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -131,7 +137,7 @@ public class RestauranteController {
             com.deliverytech.delivery_api.util.SortableProperties.RESTAURANTE);
     var pageResult = restauranteService.buscarRestaurantesDisponiveis(pageable);
 
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -165,6 +171,8 @@ public class RestauranteController {
   @Operation(
       summary = "Buscar restaurante por ID",
       description = "Consulta um restaurante pelo seu identificador único.")
+  @EtagPorVersao(agregado = VersoesCatalogo.Agregado.RESTAURANTE, variavel = "id")
+  @RespostaEmCache(filtro = Dependencia.Tipo.RESTAURANTE, variavel = "id")
   @GetMapping("/{id}")
   public ResponseEntity<com.deliverytech.delivery_api.dto.response.ApiResult<Restaurante>>
       buscarPorId(@PathVariable Long id) {
@@ -252,6 +260,7 @@ public class RestauranteController {
         responseCode = "500",
         description = "Erro interno do servidor")
   })
+  @RespostaEmCache(filtro = Dependencia.Tipo.RESTAURANTES)
   @GetMapping("/categoria/{categoria}")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -269,7 +278,7 @@ public class RestauranteController {
             com.deliverytech.delivery_api.util.SortableProperties.RESTAURANTE);
     var pageResult = restauranteService.buscarRestaurantesPorCategoria(categoria, pageable);
 
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -386,6 +395,7 @@ public class RestauranteController {
         responseCode = "500",
         description = "Erro interno do servidor")
   })
+  @RespostaEmCache(filtro = Dependencia.Tipo.RESTAURANTES)
   @GetMapping("/proximos/{cep}")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -403,7 +413,7 @@ public class RestauranteController {
             com.deliverytech.delivery_api.util.SortableProperties.RESTAURANTE);
     var pageResult = restauranteService.buscarProximos(cep, pageable);
 
-    var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+    var uriBuilder = RespostasEmCache.urlDaRequisicao();
     java.util.Map<String, String> links = new java.util.HashMap<>();
     links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
     int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -554,6 +564,8 @@ public class RestauranteController {
         responseCode = "500",
         description = "Erro interno do servidor")
   })
+  @EtagPorVersao(agregado = VersoesCatalogo.Agregado.CARDAPIO, variavel = "restauranteId")
+  @RespostaEmCache(filtro = Dependencia.Tipo.RESTAURANTE, variavel = "restauranteId")
   @GetMapping("/{restauranteId}/produtos")
   public ResponseEntity<
           com.deliverytech.delivery_api.dto.response.ApiResult<
@@ -573,9 +585,13 @@ public class RestauranteController {
               size,
               (String) null,
               com.deliverytech.delivery_api.util.SortableProperties.PRODUTO);
-      var pageResult = produtoService.buscarProdutosPorRestaurante(restauranteId, pageable);
+      // Sem o estoque: a versão do cardápio não muda a cada pedido
+      var pageResult =
+          produtoService
+              .buscarProdutosPorRestaurante(restauranteId, pageable)
+              .map(com.deliverytech.delivery_api.dto.response.ProdutoResponse::semEstoque);
 
-      var uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+      var uriBuilder = RespostasEmCache.urlDaRequisicao();
       java.util.Map<String, String> links = new java.util.HashMap<>();
       links.put("first", uriBuilder.replaceQueryParam("page", 0).build().toUriString());
       int lastPage = Math.max(0, pageResult.getTotalPages() - 1);
@@ -0,0 +1,25 @@
+package com.deliverytech.delivery_api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de um pedido dentro de {@code POST /api/pedidos/batch}, na posição em que foi enviado.
+ */
+@Schema(
+    name = "PedidoLoteResultado",
+    description = "Resultado individual de um pedido enviado em lote")
+public record PedidoLoteResultadoResponse(
+    @Schema(description = "Posição do pedido na lista enviada (0-based)", example = "0") int indice,
+    @Schema(description = "Indica se o pedido foi criado") boolean sucesso,
+    @Schema(description = "Pedido criado", nullable = true) PedidoResponse pedido,
+    @Schema(description = "Motivo da recusa", nullable = true, example = "Estoque insuficiente")
+        String erro) {
+
+  public static PedidoLoteResultadoResponse criado(int indice, PedidoResponse pedido) {
+    return new PedidoLoteResultadoResponse(indice, true, pedido, null);
+  }
+
+  public static PedidoLoteResultadoResponse recusado(int indice, String erro) {
+    return new PedidoLoteResultadoResponse(indice, false, null, erro);
+  }
+}
@@ -1,5 +1,6 @@
 package com.deliverytech.delivery_api.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
@@ -36,6 +37,17 @@ public class ProdutoResponse {
   @Schema(description = "Indica se o produto está disponível para venda.", example = "true")
   private Boolean disponivel;
 
-  @Schema(description = "Quantidade disponível em estoque.", example = "10")
+  @Schema(
+      description =
+          "Quantidade disponível em estoque. Ausente no cardápio do restaurante e na listagem por"
+              + " categoria, cujo ETag não acompanha o estoque.",
+      example = "10")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   private Integer quantidadeEstoque;
+
+  /** Cópia sem {@code quantidadeEstoque}, para as listas com ETag por versão. */
+  public ProdutoResponse semEstoque() {
+    return new ProdutoResponse(
+        id, nome, categoria, descricao, preco, restaurante, disponivel, null);
+  }
 }
@@ -39,6 +39,13 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
       return;
     }
 
+    // Exportações escrevem direto na resposta: o wrapper guardaria o arquivo inteiro em memória
+    if (requestURI.equals("/api/pedidos/export")
+        || requestURI.startsWith("/api/relatorios/export/")) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
     // Wrap request and response to enable content caching
     ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
     ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
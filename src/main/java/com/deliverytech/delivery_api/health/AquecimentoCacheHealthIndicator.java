@@ -0,0 +1,37 @@
+package com.deliverytech.delivery_api.health;
+
+import com.deliverytech.delivery_api.cache.AquecimentoCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Andamento do aquecimento de cache em {@code /actuator/health}. Fica fora de serviço enquanto o
+ * aquecimento roda e volta a UP ao terminar, mesmo parcial: cache frio deixa a aplicação mais
+ * lenta, não indisponível. Faz parte do grupo {@code readiness}, por isso existe mesmo com o
+ * aquecimento desligado.
+ */
+@Component
+public class AquecimentoCacheHealthIndicator implements HealthIndicator {
+
+  private final ObjectProvider<AquecimentoCache> aquecimento;
+
+  public AquecimentoCacheHealthIndicator(ObjectProvider<AquecimentoCache> aquecimento) {
+    this.aquecimento = aquecimento;
+  }
+
+  @Override
+  public Health health() {
+    AquecimentoCache atual = aquecimento.getIfAvailable();
+    if (atual == null) {
+      return Health.up().withDetail("estado", "DESLIGADO").build();
+    }
+    AquecimentoCache.Estado estado = atual.estado();
+    Health.Builder builder =
+        estado == AquecimentoCache.Estado.CONCLUIDO || estado == AquecimentoCache.Estado.PARCIAL
+            ? Health.up()
+            : Health.outOfService();
+    return builder.withDetails(atual.situacao()).build();
+  }
+}
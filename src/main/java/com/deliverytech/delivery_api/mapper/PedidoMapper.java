@@ -10,7 +10,10 @@ import com.deliverytech.delivery_api.model.*;
 import com.deliverytech.delivery_api.repository.ClienteRepository;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.service.ProdutosPedido;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -25,6 +28,15 @@ public class PedidoMapper {
   private final DtoMapper dtoMapper;
 
   public Pedido toEntity(PedidoRequest dto) {
+    Set<Long> produtoIds = new LinkedHashSet<>();
+    if (dto.getItens() != null) {
+      dto.getItens().forEach(item -> produtoIds.add(item.getProdutoId()));
+    }
+    return toEntity(dto, new ProdutosPedido(produtoRepository.findAllById(produtoIds)));
+  }
+
+  /** Mapeia o pedido reaproveitando os produtos já carregados para o pedido. */
+  public Pedido toEntity(PedidoRequest dto, ProdutosPedido produtos) {
     Cliente cliente =
         clienteRepository
             .findById(dto.getClienteId())
@@ -35,6 +47,12 @@ public class PedidoMapper {
             .findById(dto.getRestauranteId())
             .orElseThrow(() -> new RuntimeException("Restaurante não encontrado"));
 
+    return toEntity(dto, cliente, restaurante, produtos);
+  }
+
+  /** Mapeia o pedido com cliente, restaurante e produtos já carregados (criação em lote). */
+  public Pedido toEntity(
+      PedidoRequest dto, Cliente cliente, Restaurante restaurante, ProdutosPedido produtos) {
     // Convert EnderecoRequest to Endereco
     com.deliverytech.delivery_api.model.Endereco endereco =
         new com.deliverytech.delivery_api.model.Endereco();
@@ -58,7 +76,7 @@ public class PedidoMapper {
     if (dto.getItens() != null && !dto.getItens().isEmpty()) {
       List<ItemPedido> itens =
           dto.getItens().stream()
-              .map(itemDto -> toItemEntity(itemDto, pedido))
+              .map(itemDto -> toItemEntity(itemDto, pedido, produtos))
               .collect(Collectors.toList());
       pedido.setItens(itens);
     }
@@ -66,11 +84,8 @@ public class PedidoMapper {
     return pedido;
   }
 
-  private ItemPedido toItemEntity(ItemPedidoRequest dto, Pedido pedido) {
-    Produto produto =
-        produtoRepository
-            .findById(dto.getProdutoId())
-            .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
+  private ItemPedido toItemEntity(ItemPedidoRequest dto, Pedido pedido, ProdutosPedido produtos) {
+    Produto produto = produtos.get(dto.getProdutoId());
 
     ItemPedido item = new ItemPedido();
     item.setPedido(pedido);
@@ -0,0 +1,43 @@
+package com.deliverytech.delivery_api.metrics;
+
+import com.deliverytech.delivery_api.retry.MotivoRetentativa;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LockRetryMetrics {
+
+  private final Map<MotivoRetentativa, Counter> retryCounters =
+      new EnumMap<>(MotivoRetentativa.class);
+  private final Map<MotivoRetentativa, Counter> exhaustedCounters =
+      new EnumMap<>(MotivoRetentativa.class);
+
+  public LockRetryMetrics(MeterRegistry meterRegistry) {
+    // Lock retry counters by reason
+    for (MotivoRetentativa motivo : MotivoRetentativa.values()) {
+      retryCounters.put(
+          motivo,
+          Counter.builder("db.lock.retries")
+              .description("Number of transactions retried after a lock failure")
+              .tag("reason", motivo.getTag())
+              .register(meterRegistry));
+      exhaustedCounters.put(
+          motivo,
+          Counter.builder("db.lock.retries.exhausted")
+              .description("Number of transactions that failed after all lock retries")
+              .tag("reason", motivo.getTag())
+              .register(meterRegistry));
+    }
+  }
+
+  public void incrementRetry(MotivoRetentativa motivo) {
+    retryCounters.get(motivo).increment();
+  }
+
+  public void incrementExhausted(MotivoRetentativa motivo) {
+    exhaustedCounters.get(motivo).increment();
+  }
+}
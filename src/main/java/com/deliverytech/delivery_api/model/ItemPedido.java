@@ -14,8 +14,17 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 public class ItemPedido {
+  // Ids alocados em blocos pela tabela id_sequencia (otimizador pooled): sem IDENTITY o Hibernate
+  // consegue agrupar os INSERTs do pedido e dos itens em lotes JDBC
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_pedido_id")
+  @TableGenerator(
+      name = "item_pedido_id",
+      table = "id_sequencia",
+      pkColumnName = "nome",
+      valueColumnName = "proximo_valor",
+      pkColumnValue = "item_pedido",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -15,8 +15,17 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 public class Pedido {
+  // Ids alocados em blocos pela tabela id_sequencia (otimizador pooled): sem IDENTITY o Hibernate
+  // consegue agrupar os INSERTs do pedido e dos itens em lotes JDBC
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "pedido_id")
+  @TableGenerator(
+      name = "pedido_id",
+      table = "id_sequencia",
+      pkColumnName = "nome",
+      valueColumnName = "proximo_valor",
+      pkColumnValue = "pedido",
+      allocationSize = 50)
   private Long id;
 
   @ManyToOne
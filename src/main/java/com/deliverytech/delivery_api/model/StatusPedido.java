@@ -1,5 +1,11 @@
 package com.deliverytech.delivery_api.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum StatusPedido {
   CRIADO("Criado"),
   PENDENTE("Pendente"),
@@ -9,6 +15,21 @@ public enum StatusPedido {
   ENTREGUE("Entregue"),
   CANCELADO("Cancelado");
 
+  // Tabela de transições permitidas: status atual -> próximos status possíveis.
+  // ENTREGUE e CANCELADO são finais.
+  private static final Map<StatusPedido, Set<StatusPedido>> PROXIMOS =
+      new EnumMap<>(StatusPedido.class);
+
+  static {
+    permitir(CRIADO, PENDENTE, CONFIRMADO, PREPARANDO, CANCELADO);
+    permitir(PENDENTE, CONFIRMADO, PREPARANDO, CANCELADO);
+    permitir(CONFIRMADO, PREPARANDO, SAIU_PARA_ENTREGA, CANCELADO);
+    permitir(PREPARANDO, SAIU_PARA_ENTREGA, CANCELADO);
+    permitir(SAIU_PARA_ENTREGA, ENTREGUE, CANCELADO);
+    permitir(ENTREGUE);
+    permitir(CANCELADO);
+  }
+
   private final String descricao;
 
   StatusPedido(String descricao) {
@@ -18,4 +39,14 @@ public enum StatusPedido {
   public String getDescricao() {
     return descricao;
   }
+
+  public boolean podeIrPara(StatusPedido destino) {
+    return PROXIMOS.get(this).contains(destino);
+  }
+
+  private static void permitir(StatusPedido origem, StatusPedido... destinos) {
+    Set<StatusPedido> proximos = EnumSet.noneOf(StatusPedido.class);
+    Collections.addAll(proximos, destinos);
+    PROXIMOS.put(origem, Collections.unmodifiableSet(proximos));
+  }
 }
@@ -0,0 +1,7 @@
+package com.deliverytech.delivery_api.projection;
+
+public interface EstoqueProdutoProjection {
+  Long getId();
+
+  Integer getQuantidadeEstoque();
+}
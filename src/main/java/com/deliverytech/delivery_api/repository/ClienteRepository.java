@@ -33,5 +33,20 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
       @Param("fim") java.time.LocalDateTime fim,
       Pageable pageable);
 
+  /** Mesmo resultado da consulta acima, somando as vendas diárias dos clientes. */
+  @Query(
+      value =
+          "SELECT c.id AS idCliente, c.nome AS nomeCliente, SUM(v.valor_total) AS totalCompras,"
+              + " SUM(v.quantidade_pedidos) AS quantidadePedidos FROM ("
+              + VendaDiariaRepository.CLIENTES_NO_PERIODO
+              + ") v JOIN cliente c ON c.id = v.cliente_id WHERE c.excluido = false"
+              + " GROUP BY c.id, c.nome HAVING SUM(v.quantidade_pedidos) > 0"
+              + " ORDER BY quantidadePedidos DESC",
+      nativeQuery = true)
+  List<RelatorioVendasClientes> somarComprasPorCliente(
+      @Param("inicio") java.time.LocalDate inicio,
+      @Param("fim") java.time.LocalDate fim,
+      Pageable pageable);
+
   Page<Cliente> findByAtivoTrueAndExcluidoFalse(org.springframework.data.domain.Pageable pageable);
 }
@@ -0,0 +1,120 @@
+package com.deliverytech.delivery_api.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Acesso à tabela {@code produto_estoque_shard}: o estoque de um produto dividido em K linhas
+ * (buckets {@code 0..K-1}), para que reservas concorrentes travem linhas diferentes.
+ */
+@Repository
+public class EstoqueShardRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public EstoqueShardRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Quantidade de buckets por produto fragmentado. */
+  public Map<Long, Integer> contarBucketsPorProduto() {
+    Map<Long, Integer> buckets = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT produto_id, COUNT(*) FROM produto_estoque_shard GROUP BY produto_id",
+        rs -> {
+          buckets.put(rs.getLong(1), rs.getInt(2));
+        });
+    return buckets;
+  }
+
+  /** Saldo de cada bucket, em ordem de bucket, sem lock. */
+  public List<Integer> buscarBuckets(Long produtoId) {
+    return jdbcTemplate.queryForList(
+        "SELECT quantidade FROM produto_estoque_shard WHERE produto_id = ? ORDER BY bucket",
+        Integer.class,
+        produtoId);
+  }
+
+  /** Saldo de cada bucket, em ordem de bucket, com {@code FOR UPDATE} em todas as linhas. */
+  public List<Integer> bloquearBuckets(Long produtoId) {
+    return jdbcTemplate.queryForList(
+        "SELECT quantidade FROM produto_estoque_shard WHERE produto_id = ? ORDER BY bucket"
+            + " FOR UPDATE",
+        Integer.class,
+        produtoId);
+  }
+
+  /**
+   * Baixa {@code quantidade} de um único bucket se ele tiver saldo.
+   *
+   * @return {@code false} se o bucket não tem saldo suficiente
+   */
+  public boolean decrementar(Long produtoId, int bucket, int quantidade) {
+    return jdbcTemplate.update(
+            "UPDATE produto_estoque_shard SET quantidade = quantidade - ?"
+                + " WHERE produto_id = ? AND bucket = ? AND quantidade >= ?",
+            quantidade,
+            produtoId,
+            bucket,
+            quantidade)
+        == 1;
+  }
+
+  public void incrementar(Long produtoId, int bucket, int quantidade) {
+    jdbcTemplate.update(
+        "UPDATE produto_estoque_shard SET quantidade = quantidade + ?"
+            + " WHERE produto_id = ? AND bucket = ?",
+        quantidade,
+        produtoId,
+        bucket);
+  }
+
+  /** Grava o saldo de cada bucket (índice da lista = bucket) num único lote. */
+  public void definirBuckets(Long produtoId, List<Integer> quantidades) {
+    jdbcTemplate.batchUpdate(
+        "UPDATE produto_estoque_shard SET quantidade = ? WHERE produto_id = ? AND bucket = ?",
+        porBucket(produtoId, quantidades));
+  }
+
+  /** Cria os buckets do produto (índice da lista = bucket) num único lote. */
+  public void criarBuckets(Long produtoId, List<Integer> quantidades) {
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO produto_estoque_shard (quantidade, produto_id, bucket) VALUES (?, ?, ?)",
+        porBucket(produtoId, quantidades));
+  }
+
+  public void removerBuckets(Long produtoId) {
+    jdbcTemplate.update("DELETE FROM produto_estoque_shard WHERE produto_id = ?", produtoId);
+  }
+
+  /** Atualiza {@code produto.quantidade_estoque} com a soma dos buckets, só se mudou. */
+  public void espelharTotal(Long produtoId, int total) {
+    jdbcTemplate.update(
+        "UPDATE produto SET quantidade_estoque = ? WHERE id = ? AND quantidade_estoque <> ?",
+        total,
+        produtoId,
+        total);
+  }
+
+  private static BatchPreparedStatementSetter porBucket(Long produtoId, List<Integer> quantidades) {
+    return new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int bucket) throws SQLException {
+        ps.setInt(1, quantidades.get(bucket));
+        ps.setLong(2, produtoId);
+        ps.setInt(3, bucket);
+      }
+
+      @Override
+      public int getBatchSize() {
+        return quantidades.size();
+      }
+    };
+  }
+}
@@ -0,0 +1,125 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Dimensao;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Consultas das exportações, lidas por cursor somente para frente: o {@link ResultSetExtractor}
+ * recebe as linhas à medida que chegam do banco, sem lista intermediária. No MySQL o fetch size
+ * {@link Integer#MIN_VALUE} liga o streaming do Connector/J (uma linha por vez, a conexão fica
+ * presa à consulta até o fim); nos demais bancos vale {@code app.exportacao.fetch-size}.
+ *
+ * <p>Os rótulos das colunas são o nome de cada campo na exportação.
+ */
+@Repository
+public class ExportacaoRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int fetchSize;
+
+  public ExportacaoRepository(
+      JdbcTemplate jdbcTemplate, @Value("${app.exportacao.fetch-size:500}") int fetchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.fetchSize = fetchSize;
+  }
+
+  /**
+   * Pedidos feitos entre {@code inicio} e {@code fim} (dias inteiros), em ordem de id, com os nomes
+   * de cliente e restaurante; {@code status} nulo traz todos.
+   */
+  public <T> T pedidos(
+      LocalDate inicio, LocalDate fim, StatusPedido status, ResultSetExtractor<T> extrator) {
+    StringBuilder sql =
+        new StringBuilder(
+            "SELECT p.id AS id, p.numero_pedido AS numero_pedido, p.data_pedido AS data_pedido,"
+                + " p.status AS status, p.cliente_id AS cliente_id, c.nome AS cliente,"
+                + " p.restaurante_id AS restaurante_id, r.nome AS restaurante,"
+                + " p.subtotal AS subtotal, p.desconto AS desconto, p.valor_total AS valor_total"
+                + " FROM pedido p JOIN cliente c ON c.id = p.cliente_id"
+                + " JOIN restaurante r ON r.id = p.restaurante_id"
+                + " WHERE p.data_pedido >= ? AND p.data_pedido < ?");
+    List<Object> parametros = new ArrayList<>();
+    parametros.add(Timestamp.valueOf(inicio.atStartOfDay()));
+    parametros.add(Timestamp.valueOf(fim.plusDays(1).atStartOfDay()));
+    if (status != null) {
+      sql.append(" AND p.status = ?");
+      parametros.add(status.name());
+    }
+    sql.append(" ORDER BY p.id");
+    return jdbcTemplate.query(cursor(sql.toString(), parametros), extrator);
+  }
+
+  /**
+   * Vendas por dia da dimensão entre {@code inicio} e {@code fim}, já somados os lançamentos
+   * pendentes, em ordem de dia e chave.
+   */
+  public <T> T vendasDiarias(
+      Dimensao dimensao, LocalDate inicio, LocalDate fim, ResultSetExtractor<T> extrator) {
+    String status = dimensao.porStatus() ? ", v.status" : "";
+    String sql =
+        "SELECT v.dia AS dia, v.chave_id AS "
+            + dimensao.chave()
+            + ", k.nome AS nome"
+            + (dimensao.porStatus() ? ", v.status AS status" : "")
+            + ", SUM(v.quantidade) AS "
+            + dimensao.quantidade()
+            + ", SUM(v.valor_total) AS valor_total FROM (SELECT dia, "
+            + dimensao.chave()
+            + " AS chave_id, "
+            + (dimensao.porStatus() ? "status" : "NULL AS status")
+            + ", "
+            + dimensao.quantidade()
+            + " AS quantidade, valor_total FROM "
+            + dimensao.tabela()
+            + " WHERE dia BETWEEN ? AND ?"
+            + " UNION ALL SELECT dia, chave_id, status, quantidade, valor_total"
+            + " FROM venda_diaria_pendente WHERE dimensao = ? AND dia BETWEEN ? AND ?) v"
+            + " JOIN "
+            + dimensao.tabelaCadastro()
+            + " k ON k.id = v.chave_id GROUP BY v.dia, v.chave_id, k.nome"
+            + status
+            + " HAVING SUM(v.quantidade) <> 0 OR SUM(v.valor_total) <> 0"
+            + " ORDER BY v.dia, v.chave_id"
+            + status;
+    return jdbcTemplate.query(
+        cursor(
+            sql,
+            List.of(
+                Date.valueOf(inicio),
+                Date.valueOf(fim),
+                dimensao.name(),
+                Date.valueOf(inicio),
+                Date.valueOf(fim))),
+        extrator);
+  }
+
+  private PreparedStatementCreator cursor(String sql, List<Object> parametros) {
+    return conexao -> {
+      PreparedStatement ps =
+          conexao.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(mysql(conexao) ? Integer.MIN_VALUE : fetchSize);
+      for (int i = 0; i < parametros.size(); i++) {
+        ps.setObject(i + 1, parametros.get(i));
+      }
+      return ps;
+    };
+  }
+
+  private static boolean mysql(Connection conexao) throws SQLException {
+    return "MySQL".equalsIgnoreCase(conexao.getMetaData().getDatabaseProductName());
+  }
+}
@@ -0,0 +1,156 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.service.IdempotenciaStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@link IdempotenciaStore} na tabela {@code idempotencia_pedido}, compartilhada entre instâncias.
+ * A reserva é o INSERT da chave com {@code resposta} nula; duplicatas consultam a linha a cada
+ * {@code app.pedidos.idempotencia.intervalo-consulta-ms} até a resposta aparecer.
+ *
+ * <p>Uma reserva sem resposta há mais de {@code app.pedidos.idempotencia.processamento-max-ms} é
+ * tratada como abandonada (instância que caiu no meio do pedido) e pode ser retomada.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.pedidos.idempotencia", name = "store", havingValue = "jdbc")
+public class IdempotenciaStoreJdbc implements IdempotenciaStore {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final long ttlMs;
+  private final long processamentoMaxMs;
+  private final long intervaloConsultaMs;
+
+  public IdempotenciaStoreJdbc(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      @Value("${app.pedidos.idempotencia.ttl-ms:86400000}") long ttlMs,
+      @Value("${app.pedidos.idempotencia.processamento-max-ms:30000}") long processamentoMaxMs,
+      @Value("${app.pedidos.idempotencia.intervalo-consulta-ms:50}") long intervaloConsultaMs) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.ttlMs = ttlMs;
+    this.processamentoMaxMs = processamentoMaxMs;
+    this.intervaloConsultaMs = intervaloConsultaMs;
+  }
+
+  @Override
+  public Optional<PedidoResponse> reservar(String chave, String impressao, long esperaMs) {
+    long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+    while (true) {
+      long agora = System.currentTimeMillis();
+      if (inserir(chave, impressao, agora)) {
+        return Optional.empty();
+      }
+      List<Registro> registros =
+          jdbcTemplate.query(
+              "SELECT impressao, resposta, criado_em, expira_em FROM idempotencia_pedido"
+                  + " WHERE chave = ?",
+              (rs, i) ->
+                  new Registro(
+                      rs.getString(1),
+                      rs.getString(2),
+                      rs.getTimestamp(3).getTime(),
+                      rs.getTimestamp(4).getTime()),
+              chave);
+      if (registros.isEmpty()) {
+        continue; // liberada entre o INSERT e o SELECT
+      }
+      Registro registro = registros.get(0);
+      if (registro.expiraEm() <= agora
+          || (registro.resposta() == null && registro.criadoEm() + processamentoMaxMs <= agora)) {
+        // Vencida ou abandonada: só quem apagar a linha que leu tenta reservar de novo
+        jdbcTemplate.update(
+            "DELETE FROM idempotencia_pedido WHERE chave = ? AND criado_em = ?",
+            chave,
+            new Timestamp(registro.criadoEm()));
+        continue;
+      }
+      if (!registro.impressao().equals(impressao)) {
+        throw new ConflictException("Idempotency-Key já utilizada com outra requisição");
+      }
+      if (registro.resposta() != null) {
+        return Optional.of(ler(registro.resposta()));
+      }
+      if (System.nanoTime() >= limite) {
+        throw new ConflictException(
+            "Requisição com a mesma Idempotency-Key ainda em processamento");
+      }
+      try {
+        Thread.sleep(intervaloConsultaMs);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new ConflictException(
+            "Requisição com a mesma Idempotency-Key ainda em processamento", ex);
+      }
+    }
+  }
+
+  @Override
+  public void concluir(String chave, PedidoResponse resposta) {
+    jdbcTemplate.update(
+        "UPDATE idempotencia_pedido SET resposta = ? WHERE chave = ? AND resposta IS NULL",
+        escrever(resposta),
+        chave);
+  }
+
+  @Override
+  public void liberar(String chave) {
+    jdbcTemplate.update(
+        "DELETE FROM idempotencia_pedido WHERE chave = ? AND resposta IS NULL", chave);
+  }
+
+  /** Remove as chaves vencidas. */
+  @Scheduled(fixedDelayString = "${app.pedidos.idempotencia.expurgo-intervalo-ms:600000}")
+  public void expurgar() {
+    jdbcTemplate.update(
+        "DELETE FROM idempotencia_pedido WHERE expira_em <= ?",
+        new Timestamp(System.currentTimeMillis()));
+  }
+
+  private boolean inserir(String chave, String impressao, long agora) {
+    try {
+      jdbcTemplate.update(
+          "INSERT INTO idempotencia_pedido (chave, impressao, criado_em, expira_em)"
+              + " VALUES (?, ?, ?, ?)",
+          chave,
+          impressao,
+          new Timestamp(agora),
+          new Timestamp(agora + ttlMs));
+      return true;
+    } catch (DuplicateKeyException ex) {
+      return false;
+    }
+  }
+
+  private String escrever(PedidoResponse resposta) {
+    try {
+      return objectMapper.writeValueAsString(resposta);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Falha ao serializar resposta idempotente", ex);
+    }
+  }
+
+  private PedidoResponse ler(String resposta) {
+    try {
+      return objectMapper.readValue(resposta, PedidoResponse.class);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Falha ao ler resposta idempotente", ex);
+    }
+  }
+
+  private record Registro(String impressao, String resposta, long criadoEm, long expiraEm) {}
+}
@@ -0,0 +1,95 @@
+package com.deliverytech.delivery_api.repository;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Acesso à tabela {@code numero_pedido_no}: a concessão de cada nó do gerador de números de pedido
+ * a uma instância ({@code dono}) e o horizonte, o maior instante (ms desde 1970) que o dono pode
+ * usar num número. Uma concessão vence {@code concessaoMs} após a última renovação, pelo relógio do
+ * banco; um nó sem dono ou vencido pode ser tomado por outra instância.
+ */
+@Repository
+public class NoNumeroPedidoRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public NoNumeroPedidoRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Menor nó livre (sem dono ou vencido); se não houver, o primeiro ainda sem linha. Só uma
+   * sugestão: {@link #conceder} decide.
+   */
+  public int noLivre(long concessaoMs) {
+    Integer vencido =
+        jdbcTemplate.queryForObject(
+            "SELECT MIN(no_id) FROM numero_pedido_no WHERE dono IS NULL"
+                + " OR renovado_em < TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))",
+            Integer.class,
+            -TimeUnit.MILLISECONDS.toMicros(concessaoMs));
+    if (vencido != null) {
+      return vencido;
+    }
+    Integer proximo =
+        jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(no_id) + 1, 0) FROM numero_pedido_no", Integer.class);
+    return proximo != null ? proximo : 0;
+  }
+
+  /**
+   * Toma o nó para {@code dono} se ele estiver livre, vencido ou já for dele.
+   *
+   * @return o horizonte do dono anterior (0 para um nó novo), ou {@code null} se o nó está em uso
+   */
+  public Long conceder(int no, String dono, long concessaoMs) {
+    int tomadas =
+        jdbcTemplate.update(
+            "UPDATE numero_pedido_no SET dono = ?, renovado_em = CURRENT_TIMESTAMP(3)"
+                + " WHERE no_id = ? AND (dono IS NULL OR dono = ?"
+                + " OR renovado_em < TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)))",
+            dono,
+            no,
+            dono,
+            -TimeUnit.MILLISECONDS.toMicros(concessaoMs));
+    if (tomadas == 1) {
+      return jdbcTemplate.queryForObject(
+          "SELECT horizonte_ms FROM numero_pedido_no WHERE no_id = ?", Long.class, no);
+    }
+    try {
+      jdbcTemplate.update(
+          "INSERT INTO numero_pedido_no (no_id, dono, renovado_em, horizonte_ms)"
+              + " VALUES (?, ?, CURRENT_TIMESTAMP(3), 0)",
+          no,
+          dono);
+      return 0L;
+    } catch (DuplicateKeyException ex) {
+      // A linha existe e está com outro dono
+      return null;
+    }
+  }
+
+  /**
+   * Renova a concessão e grava o novo horizonte (que nunca diminui).
+   *
+   * @return {@code false} se o nó já não é de {@code dono}
+   */
+  public boolean renovar(int no, String dono, long horizonteMs) {
+    return jdbcTemplate.update(
+            "UPDATE numero_pedido_no SET renovado_em = CURRENT_TIMESTAMP(3),"
+                + " horizonte_ms = GREATEST(horizonte_ms, ?) WHERE no_id = ? AND dono = ?",
+            horizonteMs,
+            no,
+            dono)
+        == 1;
+  }
+
+  /** Devolve o nó na parada; o horizonte fica para o próximo dono. */
+  public void liberar(int no, String dono) {
+    jdbcTemplate.update(
+        "UPDATE numero_pedido_no SET dono = NULL WHERE no_id = ? AND dono = ?", no, dono);
+  }
+}
@@ -3,12 +3,16 @@ package com.deliverytech.delivery_api.repository;
 import com.deliverytech.delivery_api.model.Pedido;
 import com.deliverytech.delivery_api.model.StatusPedido;
 import com.deliverytech.delivery_api.projection.RelatorioVendas;
+import com.deliverytech.delivery_api.projection.VendasPorStatusProjection;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -19,6 +23,22 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
 
   List<Pedido> findByStatus(StatusPedido status);
 
+  Optional<Pedido> findByNumeroPedido(String numeroPedido);
+
+  @Query("SELECT p.status FROM Pedido p WHERE p.id = :id")
+  Optional<StatusPedido> findStatusById(@Param("id") Long id);
+
+  /**
+   * Troca o status só se o atual estiver em {@code origens}, num único UPDATE. Retorna 0 quando o
+   * pedido não existe ou outra transação já mudou o status.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Pedido p SET p.status = :destino WHERE p.id = :id AND p.status IN :origens")
+  int atualizarStatusSe(
+      @Param("id") Long id,
+      @Param("destino") StatusPedido destino,
+      @Param("origens") Collection<StatusPedido> origens);
+
   List<Pedido> findByDataPedidoBetween(LocalDateTime inicio, LocalDateTime fim);
 
   List<Pedido> findTop10ByOrderByDataPedidoDesc();
@@ -63,6 +83,35 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
   List<RelatorioVendas> calcularTotalVendasPorRestaurante(
       @Param("inicio") java.time.LocalDateTime inicio, @Param("fim") java.time.LocalDateTime fim);
 
+  /** Mesmo resultado da consulta acima, somando as vendas diárias dos restaurantes. */
+  @Query(
+      value =
+          "SELECT r.nome AS nomeRestaurante, SUM(v.valor_total) AS totalVendas,"
+              + " SUM(v.quantidade_pedidos) AS quantidadePedidos FROM ("
+              + VendaDiariaRepository.RESTAURANTES_NO_PERIODO
+              + ") v JOIN restaurante r ON r.id = v.restaurante_id GROUP BY r.nome"
+              + " HAVING SUM(v.quantidade_pedidos) > 0 ORDER BY totalVendas DESC",
+      nativeQuery = true)
+  List<RelatorioVendas> somarVendasPorRestaurante(
+      @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+  /** Quantidade e valor dos pedidos do período em cada status, pelas vendas diárias. */
+  @Query(
+      value =
+          "SELECT v.status AS status, SUM(v.quantidade_pedidos) AS quantidadePedidos,"
+              + " SUM(v.valor_total) AS valorTotal FROM ("
+              + VendaDiariaRepository.RESTAURANTES_NO_PERIODO
+              + ") v GROUP BY v.status",
+      nativeQuery = true)
+  List<VendasPorStatusProjection> somarVendasPorStatus(
+      @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+  /** Ids dos restaurantes com mais pedidos, do maior para o menor; a página limita quantos. */
+  @Query(
+      "SELECT p.restaurante.id FROM Pedido p WHERE p.excluido = false"
+          + " GROUP BY p.restaurante.id ORDER BY COUNT(p.id) DESC")
+  List<Long> findRestauranteIdsComMaisPedidos(Pageable pageable);
+
   @Query("SELECT p FROM Pedido p WHERE p.valorTotal > :valor ORDER BY p.valorTotal DESC")
   List<Pedido> buscarPedidosComValorAcimaDe(@Param("valor") java.math.BigDecimal valor);
 
@@ -1,9 +1,11 @@
 package com.deliverytech.delivery_api.repository;
 
 import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.projection.EstoqueProdutoProjection;
 import com.deliverytech.delivery_api.projection.FaturamentoPorCategoriaProjection;
 import com.deliverytech.delivery_api.projection.RelatorioVendasProdutos;
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
@@ -14,7 +16,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProdutoRepository extends JpaRepository<Produto, Long> {
+public interface ProdutoRepository extends JpaRepository<Produto, Long>, ProdutoRepositoryCustom {
 
   List<Produto> findByNomeContainingIgnoreCaseAndExcluidoFalse(String nome);
 
@@ -43,6 +45,10 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
 
   List<Produto> findByPrecoLessThanEqualAndExcluidoFalse(java.math.BigDecimal preco);
 
+  /** Todos os ids, inclusive excluídos, para o filtro de ids conhecidos. */
+  @Query("SELECT p.id FROM Produto p")
+  List<Long> findAllIds();
+
   // === CONSULTA NATIVA: Produtos mais vendidos ===
   @Query(
       value =
@@ -69,7 +75,46 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
   List<FaturamentoPorCategoriaProjection> faturamentoPorCategoria(
       @Param("inicio") java.time.LocalDateTime inicio, @Param("fim") java.time.LocalDateTime fim);
 
+  /** Mesmo resultado de {@link #produtosMaisVendidos}, somando as vendas diárias dos produtos. */
+  @Query(
+      value =
+          "SELECT p.id AS idProduto, p.nome AS nomeProduto, SUM(v.valor_total) AS totalVendas,"
+              + " SUM(v.quantidade_itens) AS quantidadeItemPedido FROM ("
+              + VendaDiariaRepository.PRODUTOS_NO_PERIODO
+              + ") v JOIN produto p ON p.id = v.produto_id WHERE p.excluido = false"
+              + " GROUP BY p.id, p.nome HAVING SUM(v.quantidade_itens) > 0"
+              + " ORDER BY totalVendas DESC",
+      nativeQuery = true)
+  List<RelatorioVendasProdutos> somarVendasPorProduto(
+      @Param("inicio") java.time.LocalDate inicio,
+      @Param("fim") java.time.LocalDate fim,
+      Pageable pageable);
+
+  /**
+   * Mesmo resultado de {@link #faturamentoPorCategoria}, somando as vendas diárias dos produtos
+   * pela categoria atual de cada um.
+   */
+  @Query(
+      value =
+          "SELECT p.categoria AS categoria, SUM(v.valor_total) AS totalFaturado FROM ("
+              + VendaDiariaRepository.PRODUTOS_NO_PERIODO
+              + ") v JOIN produto p ON p.id = v.produto_id WHERE p.excluido = false"
+              + " GROUP BY p.categoria HAVING SUM(v.quantidade_itens) > 0"
+              + " ORDER BY totalFaturado DESC",
+      nativeQuery = true)
+  List<FaturamentoPorCategoriaProjection> somarFaturamentoPorCategoria(
+      @Param("inicio") java.time.LocalDate inicio, @Param("fim") java.time.LocalDate fim);
+
   @Query("SELECT p FROM Produto p WHERE p.id = :id")
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   Optional<Produto> findByIdWithLock(@Param("id") Long id);
+
+  // Lê o estoque atual já com lock de escrita, sempre em ordem crescente de id; devolve valores
+  // escalares para não reaproveitar entidades carregadas antes do lock no contexto de persistência
+  @Query(
+      value =
+          "SELECT id AS id, quantidade_estoque AS quantidadeEstoque FROM produto WHERE id IN"
+              + " (:ids) ORDER BY id FOR UPDATE",
+      nativeQuery = true)
+  List<EstoqueProdutoProjection> findEstoqueByIdInForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,25 @@
+package com.deliverytech.delivery_api.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProdutoRepositoryCustom {
+
+  /**
+   * Baixa o estoque de cada produto com um UPDATE condicional ({@code quantidade_estoque >= ?}),
+   * enviado como um único lote JDBC. Não usa lock de leitura: a própria linha do UPDATE é o ponto
+   * de serialização.
+   *
+   * @param quantidades quantidade a baixar por id de produto
+   * @return ids cujo UPDATE não afetou nenhuma linha (estoque insuficiente ou produto inexistente)
+   */
+  List<Long> decrementarEstoqueCondicional(Map<Long, Integer> quantidades);
+
+  /**
+   * Soma um delta ao estoque de cada produto ({@code quantidade_estoque + ?}) num único lote JDBC,
+   * na ordem de iteração do mapa. Produtos com estoque infinito não são alterados.
+   *
+   * @param deltas delta por id de produto (negativo para baixa)
+   */
+  void aplicarDeltasEstoque(Map<Long, Integer> deltas);
+}
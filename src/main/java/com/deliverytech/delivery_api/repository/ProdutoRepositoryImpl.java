@@ -0,0 +1,83 @@
+package com.deliverytech.delivery_api.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ProdutoRepositoryImpl implements ProdutoRepositoryCustom {
+
+  private static final String DECREMENTO_CONDICIONAL =
+      "UPDATE produto SET quantidade_estoque = quantidade_estoque - ?"
+          + " WHERE id = ? AND quantidade_estoque >= ?";
+
+  private static final String APLICAR_DELTA =
+      "UPDATE produto SET quantidade_estoque = quantidade_estoque + ?"
+          + " WHERE id = ? AND quantidade_estoque >= 0";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ProdutoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public List<Long> decrementarEstoqueCondicional(Map<Long, Integer> quantidades) {
+    if (quantidades.isEmpty()) {
+      return List.of();
+    }
+    List<Map.Entry<Long, Integer>> itens = new ArrayList<>(quantidades.entrySet());
+    int[] afetados =
+        jdbcTemplate.batchUpdate(
+            DECREMENTO_CONDICIONAL,
+            new BatchPreparedStatementSetter() {
+              @Override
+              public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> item = itens.get(i);
+                ps.setInt(1, item.getValue());
+                ps.setLong(2, item.getKey());
+                ps.setInt(3, item.getValue());
+              }
+
+              @Override
+              public int getBatchSize() {
+                return itens.size();
+              }
+            });
+
+    // 0 linhas afetadas = condição do WHERE não satisfeita
+    List<Long> semEstoque = new ArrayList<>();
+    for (int i = 0; i < afetados.length; i++) {
+      if (afetados[i] == 0) {
+        semEstoque.add(itens.get(i).getKey());
+      }
+    }
+    return semEstoque;
+  }
+
+  @Override
+  public void aplicarDeltasEstoque(Map<Long, Integer> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<Long, Integer>> itens = new ArrayList<>(deltas.entrySet());
+    jdbcTemplate.batchUpdate(
+        APLICAR_DELTA,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Map.Entry<Long, Integer> item = itens.get(i);
+            ps.setInt(1, item.getValue());
+            ps.setLong(2, item.getKey());
+          }
+
+          @Override
+          public int getBatchSize() {
+            return itens.size();
+          }
+        });
+  }
+}
@@ -4,6 +4,7 @@ import com.deliverytech.delivery_api.model.Restaurante;
 import java.math.BigDecimal;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface RestauranteRepository extends JpaRepository<Restaurante, Long> {
   List<Restaurante> findByNomeContainingIgnoreCaseAndExcluidoFalse(String nome);
@@ -24,6 +25,10 @@ public interface RestauranteRepository extends JpaRepository<Restaurante, Long>
 
   List<Restaurante> findByTaxaEntregaLessThanEqualAndExcluidoFalse(BigDecimal taxa);
 
+  /** Todos os ids, inclusive excluídos, para o filtro de ids conhecidos. */
+  @Query("SELECT r.id FROM Restaurante r")
+  List<Long> findAllIds();
+
   List<Restaurante> findByAtivoFalseAndExcluidoFalse();
 
   List<Restaurante> findByCategoriaAndAtivoAndExcluidoFalse(String categoria, Boolean ativo);
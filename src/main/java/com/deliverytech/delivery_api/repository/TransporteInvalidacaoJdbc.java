@@ -0,0 +1,163 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.cache.EventoInvalidacao;
+import com.deliverytech.delivery_api.cache.TransporteInvalidacao;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@link TransporteInvalidacao} na tabela {@code cache_invalidacao}, compartilhada entre
+ * instâncias. Cada envio é um INSERT em lote na própria transação que invalidou, no {@code
+ * beforeCommit}: não ocupa uma segunda conexão e não há janela entre o commit da escrita e a
+ * gravação do evento em que uma queda o perca. Cada instância consulta a tabela a cada {@code
+ * app.cache.invalidacao.intervalo-ms}, então as outras aplicam a invalidação em até um intervalo
+ * mais o tempo da consulta.
+ *
+ * <p>A consulta pega as linhas a partir da mais recente já vista menos {@code margem-ms}, pelo
+ * {@code criado_em} gravado pelo banco (um relógio só), e ignora ids já entregues: uma linha com id
+ * menor que confirma depois de uma com id maior não se perde. Linhas mais velhas que {@code
+ * retencao-ms} são apagadas; uma instância que passou mais que isso sem conseguir consultar pode
+ * ter perdido eventos e entrega um {@link EventoInvalidacao.Tipo#TUDO}.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.cache.invalidacao", name = "transporte", havingValue = "jdbc")
+public class TransporteInvalidacaoJdbc implements TransporteInvalidacao {
+
+  private static final Logger log = LoggerFactory.getLogger(TransporteInvalidacaoJdbc.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final long margemMs;
+  private final long retencaoMs;
+
+  private final List<Consumer<List<EventoInvalidacao>>> ouvintes = new CopyOnWriteArrayList<>();
+
+  // id -> criado_em das linhas já entregues dentro da margem
+  private final Map<Long, Long> entregues = new ConcurrentHashMap<>();
+
+  // criado_em da linha mais recente já vista; nulo até a primeira consulta
+  private Long marca;
+
+  private long ultimaConsultaNanos = System.nanoTime();
+
+  public TransporteInvalidacaoJdbc(
+      JdbcTemplate jdbcTemplate,
+      @Value("${app.cache.invalidacao.margem-ms:2000}") long margemMs,
+      @Value("${app.cache.invalidacao.retencao-ms:600000}") long retencaoMs) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.margemMs = margemMs;
+    this.retencaoMs = retencaoMs;
+  }
+
+  @Override
+  public void enviar(List<EventoInvalidacao> eventos) {
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO cache_invalidacao (origem, tipo, alvo, valor) VALUES (?, ?, ?, ?)",
+        eventos,
+        eventos.size(),
+        (ps, evento) -> {
+          ps.setString(1, evento.origem());
+          ps.setString(2, evento.tipo().name());
+          ps.setString(3, evento.alvo());
+          ps.setString(4, evento.valor());
+        });
+  }
+
+  @Override
+  public boolean naTransacao() {
+    return true;
+  }
+
+  @Override
+  public void assinar(Consumer<List<EventoInvalidacao>> ouvinte) {
+    ouvintes.add(ouvinte);
+  }
+
+  /** Entrega aos ouvintes as linhas novas. */
+  @Scheduled(
+      fixedDelayString = "${app.cache.invalidacao.intervalo-ms:1000}",
+      initialDelayString = "${app.cache.invalidacao.intervalo-ms:1000}")
+  public synchronized void consultar() {
+    long agora = System.nanoTime();
+    List<EventoInvalidacao> novos = new ArrayList<>();
+    try {
+      if (marca == null) {
+        // Na subida os caches estão vazios: o que já está na tabela não interessa
+        Timestamp maisRecente =
+            jdbcTemplate.queryForObject(
+                "SELECT MAX(criado_em) FROM cache_invalidacao", Timestamp.class);
+        marca = maisRecente != null ? maisRecente.getTime() : 0L;
+        // ...e as linhas dentro da margem contam como entregues
+        for (Linha linha : linhasDesde(marca - margemMs)) {
+          entregues.put(linha.id(), linha.criadoEm());
+        }
+        ultimaConsultaNanos = agora;
+        return;
+      }
+      if (agora - ultimaConsultaNanos > TimeUnit.MILLISECONDS.toNanos(retencaoMs)) {
+        novos.add(new EventoInvalidacao(null, EventoInvalidacao.Tipo.TUDO, null, null));
+      }
+      List<Linha> linhas = linhasDesde(marca - margemMs);
+      for (Linha linha : linhas) {
+        if (entregues.putIfAbsent(linha.id(), linha.criadoEm()) == null) {
+          novos.add(linha.evento());
+        }
+        marca = Math.max(marca, linha.criadoEm());
+      }
+      long limite = marca - margemMs;
+      entregues.values().removeIf(criadoEm -> criadoEm < limite);
+      ultimaConsultaNanos = agora;
+    } catch (DataAccessException ex) {
+      log.warn("Falha ao consultar invalidações de cache", ex);
+      return;
+    }
+    if (!novos.isEmpty()) {
+      for (Consumer<List<EventoInvalidacao>> ouvinte : ouvintes) {
+        ouvinte.accept(novos);
+      }
+    }
+  }
+
+  /**
+   * Remove as linhas que todas as instâncias já tiveram tempo de ler. O limite vem do relógio do
+   * banco, o mesmo que grava {@code criado_em}.
+   */
+  @Scheduled(fixedDelayString = "${app.cache.invalidacao.expurgo-intervalo-ms:60000}")
+  public void expurgar() {
+    jdbcTemplate.update(
+        "DELETE FROM cache_invalidacao"
+            + " WHERE criado_em < TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))",
+        -TimeUnit.MILLISECONDS.toMicros(retencaoMs));
+  }
+
+  private List<Linha> linhasDesde(long criadoEm) {
+    return jdbcTemplate.query(
+        "SELECT id, origem, tipo, alvo, valor, criado_em FROM cache_invalidacao"
+            + " WHERE criado_em >= ? ORDER BY id",
+        (rs, i) ->
+            new Linha(
+                rs.getLong(1),
+                rs.getTimestamp(6).getTime(),
+                new EventoInvalidacao(
+                    rs.getString(2),
+                    EventoInvalidacao.Tipo.valueOf(rs.getString(3)),
+                    rs.getString(4),
+                    rs.getString(5))),
+        new Timestamp(criadoEm));
+  }
+
+  private record Linha(long id, long criadoEm, EventoInvalidacao evento) {}
+}
@@ -0,0 +1,401 @@
+package com.deliverytech.delivery_api.repository;
+
+import com.deliverytech.delivery_api.model.StatusPedido;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Acesso às tabelas de vendas por dia: {@code venda_diaria_restaurante} (por status), {@code
+ * venda_diaria_cliente} e {@code venda_diaria_produto}, mais {@code venda_diaria_pendente}, onde a
+ * transação do pedido só acrescenta lançamentos (nunca atualiza linha compartilhada).
+ *
+ * <p>As consultas de relatório em {@link PedidoRepository}, {@link ProdutoRepository} e {@link
+ * ClienteRepository} somam as tabelas diárias com os lançamentos ainda pendentes, então o resultado
+ * não depende de quando eles são consolidados.
+ *
+ * <p>{@code venda_diaria_versao} guarda uma versão por dia, avançada na transação que altera as
+ * tabelas diárias do dia (consolidação ou recálculo): quem guarda um dia lido compara a versão dele
+ * com a do seu snapshot para saber se ainda bate com os pendentes que está vendo.
+ */
+@Repository
+public class VendaDiariaRepository {
+
+  // Linhas do período de cada dimensão, já somadas aos pendentes; usadas como subconsulta pelas
+  // consultas de relatório, com os parâmetros :inicio e :fim (datas)
+  static final String RESTAURANTES_NO_PERIODO =
+      "SELECT restaurante_id, status, quantidade_pedidos, valor_total"
+          + " FROM venda_diaria_restaurante WHERE dia BETWEEN :inicio AND :fim"
+          + " UNION ALL SELECT chave_id, status, quantidade, valor_total FROM venda_diaria_pendente"
+          + " WHERE dimensao = 'RESTAURANTE' AND dia BETWEEN :inicio AND :fim";
+
+  static final String CLIENTES_NO_PERIODO =
+      "SELECT cliente_id, quantidade_pedidos, valor_total"
+          + " FROM venda_diaria_cliente WHERE dia BETWEEN :inicio AND :fim"
+          + " UNION ALL SELECT chave_id, quantidade, valor_total FROM venda_diaria_pendente"
+          + " WHERE dimensao = 'CLIENTE' AND dia BETWEEN :inicio AND :fim";
+
+  static final String PRODUTOS_NO_PERIODO =
+      "SELECT produto_id, quantidade_itens, valor_total"
+          + " FROM venda_diaria_produto WHERE dia BETWEEN :inicio AND :fim"
+          + " UNION ALL SELECT chave_id, quantidade, valor_total FROM venda_diaria_pendente"
+          + " WHERE dimensao = 'PRODUTO' AND dia BETWEEN :inicio AND :fim";
+
+  // Limite de ids por IN (...) na leitura dos cadastros
+  private static final int IDS_POR_CONSULTA = 1000;
+
+  /** Tabela diária, coluna-chave e cadastro de cada dimensão. */
+  public enum Dimensao {
+    RESTAURANTE(
+        "venda_diaria_restaurante",
+        "restaurante_id",
+        "quantidade_pedidos",
+        "SELECT id, nome, NULL, FALSE FROM restaurante"),
+    CLIENTE(
+        "venda_diaria_cliente",
+        "cliente_id",
+        "quantidade_pedidos",
+        "SELECT id, nome, NULL, excluido FROM cliente"),
+    PRODUTO(
+        "venda_diaria_produto",
+        "produto_id",
+        "quantidade_itens",
+        "SELECT id, nome, categoria, excluido FROM produto");
+
+    private final String tabela;
+    private final String chave;
+    private final String quantidade;
+    private final String cadastro;
+
+    Dimensao(String tabela, String chave, String quantidade, String cadastro) {
+      this.tabela = tabela;
+      this.chave = chave;
+      this.quantidade = quantidade;
+      this.cadastro = cadastro;
+    }
+
+    // Só a dimensão de restaurante separa por status
+    boolean porStatus() {
+      return this == RESTAURANTE;
+    }
+
+    String tabela() {
+      return tabela;
+    }
+
+    String chave() {
+      return chave;
+    }
+
+    String quantidade() {
+      return quantidade;
+    }
+
+    // Tabela de cadastro da chave: restaurante, cliente ou produto
+    String tabelaCadastro() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * Variação de uma linha diária. {@code quantidade} conta pedidos (restaurante, cliente) ou itens
+   * (produto); {@code status} só existe na dimensão de restaurante.
+   */
+  public record Lancamento(
+      Dimensao dimensao,
+      LocalDate dia,
+      Long chaveId,
+      StatusPedido status,
+      long quantidade,
+      BigDecimal valor) {}
+
+  /** Lançamento pendente, com o id da linha para removê-lo depois de consolidado. */
+  public record Pendente(long id, Lancamento lancamento) {}
+
+  /** Recebe as linhas de {@link #percorrerDiarias} e {@link #percorrerPendentes} uma a uma. */
+  @FunctionalInterface
+  public interface Linha {
+    /** {@code status} só na dimensão de restaurante; o valor vem em centavos. */
+    void aceitar(LocalDate dia, long chaveId, StatusPedido status, long quantidade, long centavos);
+  }
+
+  /** Nome e filtros de cadastro de uma chave; {@code categoria} só existe para produto. */
+  public record Cadastro(String nome, String categoria, boolean excluido) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public VendaDiariaRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Acrescenta os lançamentos num único lote. */
+  public void lancar(List<Lancamento> lancamentos) {
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO venda_diaria_pendente (dimensao, dia, chave_id, status, quantidade,"
+            + " valor_total) VALUES (?, ?, ?, ?, ?, ?)",
+        lancamentos,
+        lancamentos.size(),
+        (ps, lancamento) -> {
+          ps.setString(1, lancamento.dimensao().name());
+          ps.setDate(2, Date.valueOf(lancamento.dia()));
+          ps.setLong(3, lancamento.chaveId());
+          ps.setString(4, lancamento.status() != null ? lancamento.status().name() : null);
+          ps.setLong(5, lancamento.quantidade());
+          ps.setBigDecimal(6, lancamento.valor());
+        });
+  }
+
+  /** Os {@code limite} lançamentos pendentes mais antigos, com lock de escrita. */
+  public List<Pendente> bloquearPendentes(int limite) {
+    return jdbcTemplate.query(
+        "SELECT id, dimensao, dia, chave_id, status, quantidade, valor_total"
+            + " FROM venda_diaria_pendente ORDER BY id LIMIT ? FOR UPDATE",
+        (rs, i) -> {
+          String status = rs.getString(5);
+          return new Pendente(
+              rs.getLong(1),
+              new Lancamento(
+                  Dimensao.valueOf(rs.getString(2)),
+                  rs.getDate(3).toLocalDate(),
+                  rs.getLong(4),
+                  status != null ? StatusPedido.valueOf(status) : null,
+                  rs.getLong(6),
+                  rs.getBigDecimal(7)));
+        },
+        limite);
+  }
+
+  /** Soma o lançamento à linha diária, criando-a se ainda não existe. */
+  public void acumular(Lancamento lancamento) {
+    if (somar(lancamento) == 0) {
+      try {
+        inserir(lancamento);
+      } catch (DuplicateKeyException ex) {
+        // Outra instância criou a linha entre o UPDATE e o INSERT
+        somar(lancamento);
+      }
+    }
+  }
+
+  /** Versão de cada dia do período que já teve a linha criada; os demais valem 0. */
+  public Map<LocalDate, Long> versoes(LocalDate inicio, LocalDate fim) {
+    Map<LocalDate, Long> versoes = new HashMap<>();
+    jdbcTemplate.query(
+        "SELECT dia, versao FROM venda_diaria_versao WHERE dia BETWEEN ? AND ?",
+        rs -> {
+          versoes.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+        },
+        Date.valueOf(inicio),
+        Date.valueOf(fim));
+    return versoes;
+  }
+
+  /** Avança a versão dos dias, em ordem de dia (como as linhas diárias, sem deadlock). */
+  public void versionar(Collection<LocalDate> dias) {
+    for (LocalDate dia : new TreeSet<>(dias)) {
+      if (avancarVersao(dia) == 0) {
+        try {
+          jdbcTemplate.update(
+              "INSERT INTO venda_diaria_versao (dia, versao) VALUES (?, 1)", Date.valueOf(dia));
+        } catch (DuplicateKeyException ex) {
+          // Outra instância criou a linha entre o UPDATE e o INSERT
+          avancarVersao(dia);
+        }
+      }
+    }
+  }
+
+  public void removerPendentes(List<Long> ids) {
+    jdbcTemplate.batchUpdate(
+        "DELETE FROM venda_diaria_pendente WHERE id = ?",
+        ids,
+        ids.size(),
+        (ps, id) -> ps.setLong(1, id));
+  }
+
+  /**
+   * Refaz as tabelas diárias a partir de {@code pedido} e {@code item_pedido}, descartando os
+   * pendentes. Para a carga inicial ou depois de alterações feitas direto no banco.
+   */
+  public void recalcular() {
+    // Todo dia muda de versão, inclusive os que ganham a primeira linha agora
+    jdbcTemplate.update("UPDATE venda_diaria_versao SET versao = versao + 1");
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_versao (dia, versao) SELECT DISTINCT CAST(data_pedido AS DATE),"
+            + " 1 FROM pedido p WHERE NOT EXISTS (SELECT 1 FROM venda_diaria_versao v"
+            + " WHERE v.dia = CAST(p.data_pedido AS DATE))");
+    jdbcTemplate.update("DELETE FROM venda_diaria_pendente");
+    for (Dimensao dimensao : Dimensao.values()) {
+      jdbcTemplate.update("DELETE FROM " + dimensao.tabela);
+    }
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante (dia, restaurante_id, status, quantidade_pedidos,"
+            + " valor_total) SELECT CAST(data_pedido AS DATE), restaurante_id, status, COUNT(*),"
+            + " SUM(valor_total) FROM pedido GROUP BY CAST(data_pedido AS DATE), restaurante_id,"
+            + " status");
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_cliente (dia, cliente_id, quantidade_pedidos, valor_total)"
+            + " SELECT CAST(data_pedido AS DATE), cliente_id, COUNT(*), SUM(valor_total)"
+            + " FROM pedido GROUP BY CAST(data_pedido AS DATE), cliente_id");
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_produto (dia, produto_id, quantidade_itens, valor_total)"
+            + " SELECT CAST(p.data_pedido AS DATE), ip.produto_id, COUNT(*),"
+            + " SUM(ip.quantidade * ip.preco_unitario) FROM item_pedido ip"
+            + " JOIN pedido p ON p.id = ip.pedido_id"
+            + " GROUP BY CAST(p.data_pedido AS DATE), ip.produto_id");
+  }
+
+  /** Linhas da tabela diária da dimensão com dia entre {@code inicio} e {@code fim}. */
+  public void percorrerDiarias(Dimensao dimensao, LocalDate inicio, LocalDate fim, Linha destino) {
+    jdbcTemplate.query(
+        "SELECT dia, "
+            + dimensao.chave
+            + ", "
+            + (dimensao.porStatus() ? "status" : "NULL")
+            + ", "
+            + dimensao.quantidade
+            + ", valor_total FROM "
+            + dimensao.tabela
+            + " WHERE dia BETWEEN ? AND ?",
+        rs -> {
+          String status = rs.getString(3);
+          destino.aceitar(
+              rs.getDate(1).toLocalDate(),
+              rs.getLong(2),
+              status != null ? StatusPedido.valueOf(status) : null,
+              rs.getLong(4),
+              centavos(rs.getBigDecimal(5)));
+        },
+        Date.valueOf(inicio),
+        Date.valueOf(fim));
+  }
+
+  /** Lançamentos ainda não consolidados da dimensão com dia entre {@code inicio} e {@code fim}. */
+  public void percorrerPendentes(
+      Dimensao dimensao, LocalDate inicio, LocalDate fim, Linha destino) {
+    jdbcTemplate.query(
+        "SELECT dia, chave_id, status, quantidade, valor_total FROM venda_diaria_pendente"
+            + " WHERE dimensao = ? AND dia BETWEEN ? AND ?",
+        rs -> {
+          String status = rs.getString(3);
+          destino.aceitar(
+              rs.getDate(1).toLocalDate(),
+              rs.getLong(2),
+              status != null ? StatusPedido.valueOf(status) : null,
+              rs.getLong(4),
+              centavos(rs.getBigDecimal(5)));
+        },
+        dimensao.name(),
+        Date.valueOf(inicio),
+        Date.valueOf(fim));
+  }
+
+  /** Cadastro atual das chaves da dimensão; ids inexistentes ficam de fora do mapa. */
+  public Map<Long, Cadastro> cadastros(Dimensao dimensao, Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<Long, Cadastro> cadastros = new HashMap<>();
+    List<Long> lista = List.copyOf(ids);
+    for (int i = 0; i < lista.size(); i += IDS_POR_CONSULTA) {
+      List<Long> parte = lista.subList(i, Math.min(lista.size(), i + IDS_POR_CONSULTA));
+      jdbcTemplate.query(
+          dimensao.cadastro
+              + " WHERE id IN ("
+              + String.join(", ", Collections.nCopies(parte.size(), "?"))
+              + ")",
+          rs -> {
+            cadastros.put(
+                rs.getLong(1), new Cadastro(rs.getString(2), rs.getString(3), rs.getBoolean(4)));
+          },
+          parte.toArray());
+    }
+    return cadastros;
+  }
+
+  private static long centavos(BigDecimal valor) {
+    return valor.movePointRight(2).longValueExact();
+  }
+
+  private int avancarVersao(LocalDate dia) {
+    return jdbcTemplate.update(
+        "UPDATE venda_diaria_versao SET versao = versao + 1 WHERE dia = ?", Date.valueOf(dia));
+  }
+
+  private int somar(Lancamento lancamento) {
+    Dimensao dimensao = lancamento.dimensao();
+    if (dimensao.porStatus()) {
+      return jdbcTemplate.update(
+          "UPDATE "
+              + dimensao.tabela
+              + " SET "
+              + dimensao.quantidade
+              + " = "
+              + dimensao.quantidade
+              + " + ?, valor_total = valor_total + ? WHERE dia = ? AND "
+              + dimensao.chave
+              + " = ? AND status = ?",
+          lancamento.quantidade(),
+          lancamento.valor(),
+          Date.valueOf(lancamento.dia()),
+          lancamento.chaveId(),
+          lancamento.status().name());
+    }
+    return jdbcTemplate.update(
+        "UPDATE "
+            + dimensao.tabela
+            + " SET "
+            + dimensao.quantidade
+            + " = "
+            + dimensao.quantidade
+            + " + ?, valor_total = valor_total + ? WHERE dia = ? AND "
+            + dimensao.chave
+            + " = ?",
+        lancamento.quantidade(),
+        lancamento.valor(),
+        Date.valueOf(lancamento.dia()),
+        lancamento.chaveId());
+  }
+
+  private void inserir(Lancamento lancamento) {
+    Dimensao dimensao = lancamento.dimensao();
+    if (dimensao.porStatus()) {
+      jdbcTemplate.update(
+          "INSERT INTO "
+              + dimensao.tabela
+              + " (dia, "
+              + dimensao.chave
+              + ", status, "
+              + dimensao.quantidade
+              + ", valor_total) VALUES (?, ?, ?, ?, ?)",
+          Date.valueOf(lancamento.dia()),
+          lancamento.chaveId(),
+          lancamento.status().name(),
+          lancamento.quantidade(),
+          lancamento.valor());
+      return;
+    }
+    jdbcTemplate.update(
+        "INSERT INTO "
+            + dimensao.tabela
+            + " (dia, "
+            + dimensao.chave
+            + ", "
+            + dimensao.quantidade
+            + ", valor_total) VALUES (?, ?, ?, ?)",
+        Date.valueOf(lancamento.dia()),
+        lancamento.chaveId(),
+        lancamento.quantidade(),
+        lancamento.valor());
+  }
+}
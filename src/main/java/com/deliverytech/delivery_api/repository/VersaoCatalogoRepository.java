@@ -0,0 +1,55 @@
+package com.deliverytech.delivery_api.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Acesso à tabela {@code catalogo_versao}: a versão de cada agregado do catálogo dividida em linhas
+ * (fatias), para que escritas concorrentes no mesmo cardápio ou categoria travem linhas diferentes.
+ * A versão é a soma das fatias, e cada fatia só cresce.
+ */
+@Repository
+public class VersaoCatalogoRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public VersaoCatalogoRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Soma das fatias; {@code 0} se o agregado nunca foi alterado. */
+  public long versao(String agregado, String chave) {
+    Long versao =
+        jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(versao), 0) FROM catalogo_versao WHERE agregado = ? AND chave = ?",
+            Long.class,
+            agregado,
+            chave);
+    return versao != null ? versao : 0L;
+  }
+
+  public void incrementar(String agregado, String chave, int fatia) {
+    if (somar(agregado, chave, fatia) == 0) {
+      try {
+        jdbcTemplate.update(
+            "INSERT INTO catalogo_versao (agregado, chave, fatia, versao) VALUES (?, ?, ?, 1)",
+            agregado,
+            chave,
+            fatia);
+      } catch (DuplicateKeyException ex) {
+        // Outra instância criou a fatia entre o UPDATE e o INSERT
+        somar(agregado, chave, fatia);
+      }
+    }
+  }
+
+  private int somar(String agregado, String chave, int fatia) {
+    return jdbcTemplate.update(
+        "UPDATE catalogo_versao SET versao = versao + 1"
+            + " WHERE agregado = ? AND chave = ? AND fatia = ?",
+        agregado,
+        chave,
+        fatia);
+  }
+}
@@ -0,0 +1,50 @@
+package com.deliverytech.delivery_api.retry;
+
+import jakarta.persistence.LockTimeoutException;
+import java.sql.SQLException;
+import java.util.Optional;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+public enum MotivoRetentativa {
+  DEADLOCK("deadlock"),
+  LOCK_TIMEOUT("lock_timeout");
+
+  // MySQL: ER_LOCK_DEADLOCK / ER_LOCK_WAIT_TIMEOUT
+  private static final int MYSQL_DEADLOCK = 1213;
+  private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+  private static final String SQLSTATE_DEADLOCK = "40001";
+  private static final String SQLSTATE_H2_LOCK_TIMEOUT = "HYT00";
+
+  private final String tag;
+
+  MotivoRetentativa(String tag) {
+    this.tag = tag;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+
+  /** Identifica se a falha é transitória de lock; percorre a cadeia de causas. */
+  public static Optional<MotivoRetentativa> de(Throwable erro) {
+    boolean falhaDeLock = false;
+    for (Throwable t = erro; t != null; t = t.getCause()) {
+      if (t instanceof SQLException sql) {
+        if (sql.getErrorCode() == MYSQL_DEADLOCK || SQLSTATE_DEADLOCK.equals(sql.getSQLState())) {
+          return Optional.of(DEADLOCK);
+        }
+        if (sql.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+            || SQLSTATE_H2_LOCK_TIMEOUT.equals(sql.getSQLState())) {
+          return Optional.of(LOCK_TIMEOUT);
+        }
+      }
+      if (t instanceof PessimisticLockingFailureException
+          || t instanceof CannotAcquireLockException
+          || t instanceof LockTimeoutException) {
+        falhaDeLock = true;
+      }
+    }
+    return falhaDeLock ? Optional.of(LOCK_TIMEOUT) : Optional.empty();
+  }
+}
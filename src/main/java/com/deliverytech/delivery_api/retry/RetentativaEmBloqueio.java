@@ -0,0 +1,17 @@
+package com.deliverytech.delivery_api.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reexecuta a transação inteira quando o banco reporta deadlock ou timeout de lock. Só tem efeito
+ * quando o método abre a transação: dentro de uma transação já existente a falha é propagada para
+ * quem a iniciou.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetentativaEmBloqueio {}
@@ -0,0 +1,82 @@
+package com.deliverytech.delivery_api.retry;
+
+import com.deliverytech.delivery_api.metrics.LockRetryMetrics;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Precedência máxima para envolver o interceptor de {@code @Transactional}. */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RetentativaEmBloqueioAspect {
+  private static final Logger log = LoggerFactory.getLogger(RetentativaEmBloqueioAspect.class);
+
+  private final LockRetryMetrics lockRetryMetrics;
+  private final int maxTentativas;
+  private final long backoffInicialMs;
+  private final long backoffMaximoMs;
+
+  public RetentativaEmBloqueioAspect(
+      LockRetryMetrics lockRetryMetrics,
+      @Value("${app.transacao.retentativa.max-tentativas:3}") int maxTentativas,
+      @Value("${app.transacao.retentativa.backoff-inicial-ms:20}") long backoffInicialMs,
+      @Value("${app.transacao.retentativa.backoff-maximo-ms:500}") long backoffMaximoMs) {
+    this.lockRetryMetrics = lockRetryMetrics;
+    this.maxTentativas = Math.max(1, maxTentativas);
+    this.backoffInicialMs = backoffInicialMs;
+    this.backoffMaximoMs = backoffMaximoMs;
+  }
+
+  @Around("@annotation(com.deliverytech.delivery_api.retry.RetentativaEmBloqueio)")
+  public Object executar(ProceedingJoinPoint joinPoint) throws Throwable {
+    // A transação externa já foi revertida pelo banco; só quem a abriu pode repeti-la
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return joinPoint.proceed();
+    }
+    for (int tentativa = 1; ; tentativa++) {
+      try {
+        return joinPoint.proceed();
+      } catch (RuntimeException ex) {
+        Optional<MotivoRetentativa> motivo = MotivoRetentativa.de(ex);
+        if (motivo.isEmpty()) {
+          throw ex;
+        }
+        if (tentativa >= maxTentativas) {
+          lockRetryMetrics.incrementExhausted(motivo.get());
+          throw ex;
+        }
+        lockRetryMetrics.incrementRetry(motivo.get());
+        long espera = backoff(tentativa);
+        log.warn(
+            "{} em {} (tentativa {}/{}); repetindo em {} ms",
+            motivo.get(),
+            joinPoint.getSignature().toShortString(),
+            tentativa,
+            maxTentativas,
+            espera);
+        try {
+          Thread.sleep(espera);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw ex;
+        }
+      }
+    }
+  }
+
+  // Exponencial com jitter para que as transações que colidiram não voltem juntas
+  private long backoff(int tentativa) {
+    long teto = Math.min(backoffMaximoMs, backoffInicialMs << Math.min(tentativa - 1, 20));
+    return ThreadLocalRandom.current().nextLong(teto / 2, teto + 1);
+  }
+}
@@ -0,0 +1,324 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.exception.EstoqueInsuficienteException;
+import com.deliverytech.delivery_api.projection.EstoqueProdutoProjection;
+import com.deliverytech.delivery_api.repository.EstoqueShardRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Estoque fragmentado em K linhas de {@code produto_estoque_shard}, habilitado por {@code
+ * app.estoque.shards.enabled} para os ids de {@code app.estoque.shards.produto-ids}.
+ *
+ * <p>A reserva lê os saldos sem lock e baixa, com um UPDATE condicional, um bucket sorteado entre
+ * os que parecem atender o pedido; se outro pedido o esvaziou antes, tenta os seguintes. Só quando
+ * nenhum bucket sozinho atende todos são travados e o saldo é somado. Com K buckets a disputa pelo
+ * lock de linha cai em torno de K vezes. Tudo acontece na transação do pedido, então o rollback
+ * desfaz a reserva.
+ *
+ * <p>Os locks de um produto são sempre pedidos em ordem crescente de bucket, como os produtos em
+ * ordem de id: no REPEATABLE READ do InnoDB o UPDATE que não baixa nada continua travando a linha,
+ * então a reserva só segue para buckets maiores que os já tentados e trava todos só quando ainda
+ * não tentou nenhum. Se todos os candidatos se esgotaram durante a reserva, travar os buckets
+ * menores quebraria a ordem: a transação falha com {@link CannotAcquireLockException} e é repetida
+ * por {@code @RetentativaEmBloqueio}, já vendo os saldos novos.
+ *
+ * <p>Um rebalanceador periódico redistribui o saldo quando algum bucket fica abaixo de metade da
+ * parte justa e espelha a soma em {@code produto.quantidade_estoque}, que é o valor visto pela
+ * entidade {@code Produto}. A validação usa a soma em cache local por {@code
+ * app.estoque.shards.agregado-ttl-ms}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.estoque.shards", name = "enabled", havingValue = "true")
+public class EstoqueFragmentado {
+
+  private static final Logger log = LoggerFactory.getLogger(EstoqueFragmentado.class);
+
+  private final EstoqueShardRepository shardRepository;
+  private final ProdutoRepository produtoRepository;
+  private final TransactionOperations transactionOperations;
+  private final Set<Long> produtosHabilitados;
+  private final int bucketsPorProduto;
+  private final long agregadoTtlMs;
+
+  // Quantidade de buckets por produto fragmentado; relida do banco a cada rebalanceamento
+  private volatile Map<Long, Integer> buckets = Map.of();
+  private final Map<Long, Agregado> agregados = new ConcurrentHashMap<>();
+
+  public EstoqueFragmentado(
+      EstoqueShardRepository shardRepository,
+      ProdutoRepository produtoRepository,
+      TransactionOperations transactionOperations,
+      @Value("${app.estoque.shards.produto-ids:}") List<Long> produtoIds,
+      @Value("${app.estoque.shards.buckets:8}") int bucketsPorProduto,
+      @Value("${app.estoque.shards.agregado-ttl-ms:1000}") long agregadoTtlMs) {
+    this.shardRepository = shardRepository;
+    this.produtoRepository = produtoRepository;
+    this.transactionOperations = transactionOperations;
+    this.produtosHabilitados = Set.copyOf(produtoIds);
+    this.bucketsPorProduto = bucketsPorProduto;
+    this.agregadoTtlMs = agregadoTtlMs;
+  }
+
+  /** Fragmenta os produtos habilitados que ainda não têm buckets. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void inicializar() {
+    for (Long produtoId : new TreeSet<>(produtosHabilitados)) {
+      transactionOperations.executeWithoutResult(status -> fragmentar(produtoId));
+    }
+    buckets = Map.copyOf(shardRepository.contarBucketsPorProduto());
+    log.info("Estoque fragmentado em buckets para o(s) produto(s): {}", buckets.keySet());
+  }
+
+  private void fragmentar(Long produtoId) {
+    List<EstoqueProdutoProjection> estoque =
+        produtoRepository.findEstoqueByIdInForUpdate(List.of(produtoId));
+    if (estoque.isEmpty() || !shardRepository.buscarBuckets(produtoId).isEmpty()) {
+      return;
+    }
+    int quantidade = estoque.get(0).getQuantidadeEstoque();
+    // Estoque infinito não é fragmentado
+    if (quantidade >= 0) {
+      shardRepository.criarBuckets(produtoId, distribuir(quantidade, bucketsPorProduto));
+    }
+  }
+
+  public boolean controla(Long produtoId) {
+    return produtoId != null && buckets.containsKey(produtoId);
+  }
+
+  /** Soma dos buckets, em cache por até o TTL; {@code null} se o produto não é fragmentado. */
+  public Integer total(Long produtoId) {
+    if (!controla(produtoId)) {
+      return null;
+    }
+    long agora = System.currentTimeMillis();
+    Agregado agregado = agregados.get(produtoId);
+    if (agregado == null || agregado.expiraEm() < agora) {
+      agregado = atualizarAgregado(produtoId, soma(shardRepository.buscarBuckets(produtoId)));
+    }
+    return agregado.total();
+  }
+
+  /**
+   * Reserva as quantidades na transação corrente.
+   *
+   * @param quantidades quantidade por id de produto fragmentado
+   * @return ids sem saldo suficiente (vazio = tudo reservado); a transação deve ser revertida
+   */
+  public List<Long> reservar(Map<Long, Integer> quantidades) {
+    List<Long> semEstoque = new ArrayList<>();
+    quantidades.forEach(
+        (produtoId, quantidade) -> {
+          if (!reservar(produtoId, quantidade)) {
+            semEstoque.add(produtoId);
+          }
+        });
+    return semEstoque;
+  }
+
+  private boolean reservar(Long produtoId, int quantidade) {
+    List<Integer> lidos = shardRepository.buscarBuckets(produtoId);
+    List<Integer> candidatos = new ArrayList<>();
+    for (int bucket = 0; bucket < lidos.size(); bucket++) {
+      if (lidos.get(bucket) >= quantidade) {
+        candidatos.add(bucket);
+      }
+    }
+    if (!candidatos.isEmpty()) {
+      // Sorteia onde começar e segue só para cima: os buckets já tentados ficam travados
+      int inicio = ThreadLocalRandom.current().nextInt(candidatos.size());
+      for (int bucket : candidatos.subList(inicio, candidatos.size())) {
+        if (shardRepository.decrementar(produtoId, bucket, quantidade)) {
+          ajustarAgregado(produtoId, -quantidade);
+          return true;
+        }
+      }
+      throw new CannotAcquireLockException(
+          "Buckets de estoque do produto " + produtoId + " esgotados durante a reserva");
+    }
+
+    // Nenhum bucket sozinho atende: trava todos, em ordem, e junta o saldo dos irmãos
+    List<Integer> saldos = new ArrayList<>(shardRepository.bloquearBuckets(produtoId));
+    if (soma(saldos) < quantidade) {
+      atualizarAgregado(produtoId, soma(saldos));
+      return false;
+    }
+    retirar(saldos, quantidade);
+    shardRepository.definirBuckets(produtoId, saldos);
+    ajustarAgregado(produtoId, -quantidade);
+    return true;
+  }
+
+  /** Devolve quantidades (cancelamento de pedido), cada uma a um bucket sorteado. */
+  public void liberar(Map<Long, Integer> quantidades) {
+    quantidades.forEach(
+        (produtoId, quantidade) -> {
+          if (controla(produtoId)) {
+            incrementar(produtoId, quantidade);
+          }
+        });
+  }
+
+  /**
+   * Ajuste relativo de estoque para um produto fragmentado.
+   *
+   * @return {@code false} se o produto não é fragmentado e o ajuste deve ir para {@code produto}
+   * @throws EstoqueInsuficienteException se a baixa é maior que a soma dos buckets
+   */
+  public boolean ajustar(Long produtoId, int quantidade) {
+    if (!controla(produtoId)) {
+      return false;
+    }
+    if (quantidade >= 0) {
+      incrementar(produtoId, quantidade);
+      return true;
+    }
+    List<Integer> saldos = new ArrayList<>(shardRepository.bloquearBuckets(produtoId));
+    if (soma(saldos) < -quantidade) {
+      throw new EstoqueInsuficienteException(
+          String.format(
+              "Estoque insuficiente para o produto %d. Disponível: %d, Solicitado: %d",
+              produtoId, soma(saldos), -quantidade));
+    }
+    retirar(saldos, -quantidade);
+    shardRepository.definirBuckets(produtoId, saldos);
+    ajustarAgregado(produtoId, quantidade);
+    return true;
+  }
+
+  /**
+   * Novo saldo absoluto, redistribuído igualmente entre os buckets. Estoque infinito remove os
+   * buckets e o produto volta a usar só {@code produto.quantidade_estoque}.
+   */
+  public void definir(Long produtoId, int novaQuantidade) {
+    if (!controla(produtoId)) {
+      return;
+    }
+    if (novaQuantidade < 0) {
+      shardRepository.removerBuckets(produtoId);
+      // Até o commit os buckets continuam no banco e valendo para os outros pedidos
+      aposCommit(
+          () -> {
+            Map<Long, Integer> restantes = new HashMap<>(buckets);
+            restantes.remove(produtoId);
+            buckets = Map.copyOf(restantes);
+            agregados.remove(produtoId);
+          });
+      return;
+    }
+    List<Integer> saldos = shardRepository.bloquearBuckets(produtoId);
+    shardRepository.definirBuckets(produtoId, distribuir(novaQuantidade, saldos.size()));
+    atualizarAgregado(produtoId, novaQuantidade);
+  }
+
+  /**
+   * Rebalanceia os buckets desequilibrados e espelha a soma em {@code produto.quantidade_estoque},
+   * um produto por transação.
+   */
+  @Scheduled(fixedDelayString = "${app.estoque.shards.rebalancear-intervalo-ms:5000}")
+  public void rebalancear() {
+    buckets = Map.copyOf(shardRepository.contarBucketsPorProduto());
+    for (Long produtoId : new TreeSet<>(buckets.keySet())) {
+      try {
+        transactionOperations.executeWithoutResult(status -> rebalancear(produtoId));
+      } catch (RuntimeException ex) {
+        log.warn("Falha ao rebalancear buckets de estoque do produto {}", produtoId, ex);
+      }
+    }
+  }
+
+  private void rebalancear(Long produtoId) {
+    List<Integer> saldos = shardRepository.buscarBuckets(produtoId);
+    if (saldos.isEmpty()) {
+      return;
+    }
+    if (desequilibrado(saldos)) {
+      saldos = shardRepository.bloquearBuckets(produtoId);
+      shardRepository.definirBuckets(produtoId, distribuir(soma(saldos), saldos.size()));
+    }
+    int total = soma(saldos);
+    shardRepository.espelharTotal(produtoId, total);
+    atualizarAgregado(produtoId, total);
+  }
+
+  private void incrementar(Long produtoId, int quantidade) {
+    int k = buckets.get(produtoId);
+    shardRepository.incrementar(produtoId, ThreadLocalRandom.current().nextInt(k), quantidade);
+    ajustarAgregado(produtoId, quantidade);
+  }
+
+  private Agregado atualizarAgregado(Long produtoId, int total) {
+    Agregado agregado = new Agregado(total, System.currentTimeMillis() + agregadoTtlMs);
+    agregados.put(produtoId, agregado);
+    return agregado;
+  }
+
+  // Mantém o cache próximo do banco entre as releituras; desvios (rollback, outras instâncias)
+  // duram no máximo um TTL
+  private void ajustarAgregado(Long produtoId, int delta) {
+    agregados.computeIfPresent(
+        produtoId, (id, agregado) -> new Agregado(agregado.total() + delta, agregado.expiraEm()));
+  }
+
+  private static void aposCommit(Runnable acao) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              acao.run();
+            }
+          });
+    } else {
+      acao.run();
+    }
+  }
+
+  static List<Integer> distribuir(int total, int k) {
+    List<Integer> saldos = new ArrayList<>(k);
+    for (int bucket = 0; bucket < k; bucket++) {
+      saldos.add(total / k + (bucket < total % k ? 1 : 0));
+    }
+    return saldos;
+  }
+
+  static boolean desequilibrado(List<Integer> saldos) {
+    int parteJusta = soma(saldos) / saldos.size();
+    return saldos.stream().anyMatch(saldo -> saldo < parteJusta / 2);
+  }
+
+  private static void retirar(List<Integer> saldos, int quantidade) {
+    int restante = quantidade;
+    for (int bucket = 0; bucket < saldos.size() && restante > 0; bucket++) {
+      int retirado = Math.min(saldos.get(bucket), restante);
+      saldos.set(bucket, saldos.get(bucket) - retirado);
+      restante -= retirado;
+    }
+  }
+
+  private static int soma(List<Integer> saldos) {
+    return saldos.stream().mapToInt(Integer::intValue).sum();
+  }
+
+  private record Agregado(int total, long expiraEm) {}
+}
@@ -0,0 +1,351 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Estoque em memória para produtos de alta disputa (promoções relâmpago), habilitado por {@code
+ * app.estoque.ledger.enabled} para os ids listados em {@code app.estoque.ledger.produto-ids}.
+ *
+ * <p>Cada produto tem um saldo disponível reservado por CAS e um {@link LongAdder} com o delta já
+ * confirmado e ainda não gravado. O delta líquido vai para {@code produto.quantidade_estoque} em
+ * lotes periódicos ({@code quantidade_estoque + ?}), então a linha do produto deixa de ser travada
+ * a cada pedido. O saldo é reconstruído do banco na inicialização; deltas ainda não gravados se
+ * perdem se o processo morrer antes do próximo descarregamento. Produtos com estoque infinito nunca
+ * entram no ledger.
+ *
+ * <p>O saldo é de uma instância só: com várias, cada uma reconstruiria o estoque inteiro e poderia
+ * vendê-lo sozinha. Por isso o ledger se recusa a subir com {@code
+ * app.cache.invalidacao.transporte} diferente de {@code local}, a configuração das implantações com
+ * mais de uma instância; nelas os produtos disputados usam {@link EstoqueFragmentado}, cujo saldo
+ * fica no banco.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.estoque.ledger", name = "enabled", havingValue = "true")
+public class EstoqueLedger {
+
+  private static final Logger log = LoggerFactory.getLogger(EstoqueLedger.class);
+
+  private final ProdutoRepository produtoRepository;
+  private final TransactionOperations transactionOperations;
+  private final Set<Long> produtosHabilitados;
+  private final Map<Long, Saldo> saldos = new ConcurrentHashMap<>();
+
+  public EstoqueLedger(
+      ProdutoRepository produtoRepository,
+      TransactionOperations transactionOperations,
+      @Value("${app.estoque.ledger.produto-ids:}") List<Long> produtoIds,
+      @Value("${app.cache.invalidacao.transporte:local}") String transporte) {
+    if (!"local".equals(transporte)) {
+      throw new IllegalStateException(
+          "app.estoque.ledger.enabled exige uma instância só (app.cache.invalidacao.transporte="
+              + "local); com "
+              + transporte
+              + " use app.estoque.shards");
+    }
+    this.produtoRepository = produtoRepository;
+    this.transactionOperations = transactionOperations;
+    this.produtosHabilitados = Set.copyOf(produtoIds);
+  }
+
+  /** Reconstrói os saldos a partir do banco. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void carregar() {
+    saldos.clear();
+    for (Produto produto : produtoRepository.findAllById(produtosHabilitados)) {
+      if (!produto.isInfiniteStock() && produto.getQuantidadeEstoque() != null) {
+        saldos.put(produto.getId(), new Saldo(produto.getQuantidadeEstoque()));
+      }
+    }
+    log.info("Ledger de estoque carregado com {} produto(s): {}", saldos.size(), saldos.keySet());
+  }
+
+  public boolean controla(Long produtoId) {
+    return produtoId != null && saldos.containsKey(produtoId);
+  }
+
+  /** Saldo disponível em memória, ou {@code null} se o produto não está no ledger. */
+  public Integer disponivel(Long produtoId) {
+    Saldo saldo = produtoId == null ? null : saldos.get(produtoId);
+    return saldo == null ? null : (int) saldo.disponivel.get();
+  }
+
+  /**
+   * Reserva todas as quantidades ou nenhuma. Dentro de uma transação o delta só é contabilizado no
+   * commit e o rollback devolve o saldo; sem transação o delta é contabilizado na hora.
+   *
+   * @param quantidades quantidade por id de produto controlado pelo ledger
+   * @return a reserva (recusada se algum produto não tem saldo), para {@link Reserva#desfazer()} se
+   *     o restante do pedido falhar
+   * @throws IllegalStateException se algum produto não está no ledger
+   */
+  public Reserva reservar(Map<Long, Integer> quantidades) {
+    Map<Long, Integer> reservados = new TreeMap<>();
+    for (Map.Entry<Long, Integer> item : quantidades.entrySet()) {
+      if (!saldo(item.getKey()).reservar(item.getValue())) {
+        reservados.forEach((id, quantidade) -> saldos.get(id).devolver(quantidade));
+        return new Reserva(item.getKey());
+      }
+      reservados.put(item.getKey(), item.getValue());
+    }
+
+    Reserva reserva = new Reserva(reservados);
+    aoConfirmar(reserva::confirmar, reserva::desfazer);
+    return reserva;
+  }
+
+  /** Devolve quantidades ao saldo (cancelamento de pedido), efetivado no commit. */
+  public void liberar(Map<Long, Integer> quantidades) {
+    aoConfirmar(
+        () ->
+            quantidades.forEach(
+                (id, quantidade) -> {
+                  Saldo saldo = saldos.get(id);
+                  if (saldo != null) {
+                    saldo.ajustar(quantidade);
+                  }
+                }),
+        () -> {});
+  }
+
+  /**
+   * Ajuste relativo de estoque para um produto do ledger, efetivado no commit.
+   *
+   * @return {@code false} se o produto não está no ledger e o ajuste deve ir direto ao banco
+   */
+  public boolean ajustar(Long produtoId, int quantidade) {
+    if (!controla(produtoId)) {
+      return false;
+    }
+    aoConfirmar(
+        () -> {
+          Saldo saldo = saldos.get(produtoId);
+          if (saldo != null) {
+            saldo.ajustar(quantidade);
+          }
+        },
+        () -> {});
+    return true;
+  }
+
+  /**
+   * Novo saldo absoluto, efetivado no commit. Para um produto do ledger o valor vira um delta sobre
+   * o estoque confirmado (banco mais deltas ainda não gravados), para não sobrescrever esses
+   * deltas; reservas ainda em andamento são descontadas do novo saldo se confirmadas. Estoque
+   * infinito tira o produto do ledger; um produto habilitado fora do ledger volta a ser controlado.
+   *
+   * @return {@code true} se o ledger grava o novo valor; {@code false} se o chamador deve gravar o
+   *     valor absoluto no banco
+   */
+  public boolean definir(Long produtoId, int novaQuantidade) {
+    if (controla(produtoId) && novaQuantidade >= 0) {
+      aoConfirmar(
+          () -> {
+            Saldo saldo = saldos.get(produtoId);
+            if (saldo != null) {
+              saldo.definir(novaQuantidade);
+            }
+          },
+          () -> {});
+      return true;
+    }
+    if (controla(produtoId)) {
+      aoConfirmar(() -> saldos.remove(produtoId), () -> {});
+    } else if (produtosHabilitados.contains(produtoId) && novaQuantidade >= 0) {
+      aoConfirmar(() -> saldos.put(produtoId, new Saldo(novaQuantidade)), () -> {});
+    }
+    return false;
+  }
+
+  /**
+   * Grava os deltas pendentes num único lote, em ordem crescente de id. Em caso de falha os deltas
+   * voltam para o próximo ciclo.
+   */
+  @Scheduled(fixedDelayString = "${app.estoque.ledger.flush-intervalo-ms:200}")
+  public synchronized void descarregar() {
+    Map<Long, Integer> deltas = new TreeMap<>();
+    saldos.forEach(
+        (id, saldo) -> {
+          long delta = saldo.pendente.sumThenReset();
+          if (delta != 0) {
+            deltas.put(id, (int) delta);
+          }
+        });
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    try {
+      transactionOperations.executeWithoutResult(
+          status -> produtoRepository.aplicarDeltasEstoque(deltas));
+    } catch (RuntimeException ex) {
+      log.warn("Falha ao gravar deltas do ledger de estoque, nova tentativa no próximo ciclo", ex);
+      deltas.forEach(
+          (id, delta) -> {
+            Saldo saldo = saldos.get(id);
+            if (saldo != null) {
+              saldo.pendente.add(delta);
+            }
+          });
+    }
+  }
+
+  @PreDestroy
+  public void encerrar() {
+    descarregar();
+  }
+
+  private Saldo saldo(Long produtoId) {
+    Saldo saldo = saldos.get(produtoId);
+    if (saldo == null) {
+      throw new IllegalStateException("Produto fora do ledger de estoque: " + produtoId);
+    }
+    return saldo;
+  }
+
+  private void aoConfirmar(Runnable commit, Runnable rollback) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      commit.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+              commit.run();
+            } else {
+              rollback.run();
+            }
+          }
+        });
+  }
+
+  private static final class Saldo {
+
+    // Saldo para novas reservas: confirmado menos as reservas em andamento
+    private final AtomicLong disponivel;
+    // Estoque após as reservas confirmadas: o do banco mais pendente
+    private final AtomicLong confirmado;
+    private final LongAdder pendente = new LongAdder();
+
+    private Saldo(long inicial) {
+      this.disponivel = new AtomicLong(inicial);
+      this.confirmado = new AtomicLong(inicial);
+    }
+
+    private boolean reservar(int quantidade) {
+      long atual;
+      do {
+        atual = disponivel.get();
+        if (atual < quantidade) {
+          return false;
+        }
+      } while (!disponivel.compareAndSet(atual, atual - quantidade));
+      return true;
+    }
+
+    private void devolver(int quantidade) {
+      disponivel.addAndGet(quantidade);
+    }
+
+    private void confirmar(int quantidade) {
+      confirmado.addAndGet(-quantidade);
+      pendente.add(-quantidade);
+    }
+
+    private void ajustar(int quantidade) {
+      disponivel.addAndGet(quantidade);
+      confirmado.addAndGet(quantidade);
+      pendente.add(quantidade);
+    }
+
+    private void definir(int novaQuantidade) {
+      long delta = novaQuantidade - confirmado.getAndSet(novaQuantidade);
+      disponivel.addAndGet(delta);
+      pendente.add(delta);
+    }
+  }
+
+  /** Reserva feita no ledger. */
+  public final class Reserva {
+
+    private final Map<Long, Integer> quantidades;
+    private final Long produtoSemEstoque;
+    private boolean confirmada;
+    private boolean desfeita;
+
+    private Reserva(Map<Long, Integer> quantidades) {
+      this.quantidades = quantidades;
+      this.produtoSemEstoque = null;
+    }
+
+    private Reserva(Long produtoSemEstoque) {
+      this.quantidades = Map.of();
+      this.produtoSemEstoque = produtoSemEstoque;
+      this.desfeita = true;
+    }
+
+    public boolean isAceita() {
+      return produtoSemEstoque == null;
+    }
+
+    /** Id do produto sem saldo suficiente quando a reserva foi recusada. */
+    public Long getProdutoSemEstoque() {
+      return produtoSemEstoque;
+    }
+
+    private synchronized void confirmar() {
+      if (desfeita || confirmada) {
+        return;
+      }
+      confirmada = true;
+      quantidades.forEach(
+          (id, quantidade) -> {
+            Saldo saldo = saldos.get(id);
+            if (saldo != null) {
+              saldo.confirmar(quantidade);
+            }
+          });
+    }
+
+    /** Devolve o saldo reservado; idempotente. */
+    public synchronized void desfazer() {
+      if (desfeita) {
+        return;
+      }
+      desfeita = true;
+      quantidades.forEach(
+          (id, quantidade) -> {
+            Saldo saldo = saldos.get(id);
+            if (saldo == null) {
+              return;
+            }
+            if (confirmada) {
+              saldo.ajustar(quantidade);
+            } else {
+              saldo.devolver(quantidade);
+            }
+          });
+    }
+  }
+}
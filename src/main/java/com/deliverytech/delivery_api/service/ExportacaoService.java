@@ -0,0 +1,44 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.repository.ExportacaoRepository;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Dimensao;
+import com.deliverytech.delivery_api.util.ExportacaoTabular;
+import com.deliverytech.delivery_api.util.ExportacaoTabular.Formato;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Exportações de pedidos e vendas por dia em CSV ou NDJSON. Cada linha lida do cursor de {@link
+ * ExportacaoRepository} é escrita na saída antes da próxima, então a memória usada não depende do
+ * período; a cada {@code app.exportacao.flush-linhas} linhas o conteúdo segue para o cliente.
+ */
+@Service
+public class ExportacaoService {
+
+  private final ExportacaoRepository exportacaoRepository;
+  private final int flushLinhas;
+
+  public ExportacaoService(
+      ExportacaoRepository exportacaoRepository,
+      @Value("${app.exportacao.flush-linhas:1000}") int flushLinhas) {
+    this.exportacaoRepository = exportacaoRepository;
+    this.flushLinhas = flushLinhas;
+  }
+
+  /** Escreve os pedidos do período (e do status, se informado); devolve quantos foram. */
+  public long exportarPedidos(
+      LocalDate inicio, LocalDate fim, StatusPedido status, Formato formato, OutputStream saida) {
+    return exportacaoRepository.pedidos(
+        inicio, fim, status, new ExportacaoTabular(formato, saida, flushLinhas));
+  }
+
+  /** Escreve as vendas por dia da dimensão no período; devolve quantas linhas foram. */
+  public long exportarVendasDiarias(
+      Dimensao dimensao, LocalDate inicio, LocalDate fim, Formato formato, OutputStream saida) {
+    return exportacaoRepository.vendasDiarias(
+        dimensao, inicio, fim, new ExportacaoTabular(formato, saida, flushLinhas));
+  }
+}
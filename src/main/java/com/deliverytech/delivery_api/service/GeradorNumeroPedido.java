@@ -0,0 +1,196 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.repository.NoNumeroPedidoRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gera {@code Pedido.numeroPedido} sem ida ao banco e sem lock global, no formato snowflake: 41
+ * bits de milissegundos desde 2025-01-01, 10 bits de nó e 12 bits de sequência, renderizados em
+ * base 32 (Crockford) com largura fixa, de modo que a ordem alfabética acompanha a ordem de
+ * criação.
+ *
+ * <p>O estado (milissegundo + sequência do último id) avança por CAS e nunca volta: se a sequência
+ * do milissegundo se esgota ou o relógio anda para trás, o gerador segue à frente do relógio até
+ * ele alcançar.
+ *
+ * <p>O nó é concedido pela tabela {@code numero_pedido_no} no primeiro número: o de {@code
+ * app.pedidos.numero.no-id}, que falha se outra instância o usa, ou, com {@code -1}, o primeiro
+ * livre. A concessão grava um horizonte, o maior milissegundo que a instância pode usar, e é
+ * renovada a cada {@code renovacao-ms} empurrando o horizonte {@code concessao-ms} à frente. O
+ * gerador nunca passa do horizonte gravado, e quem recebe o nó depois (outra instância ou a mesma
+ * após um restart) começa depois dele: não há número repetido mesmo com relógios diferentes entre
+ * as máquinas. Sem renovar (banco fora do ar), a instância para de gerar números quando o horizonte
+ * chega.
+ */
+@Component
+public class GeradorNumeroPedido {
+
+  private static final Logger log = LoggerFactory.getLogger(GeradorNumeroPedido.class);
+
+  static final long EPOCA = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+  static final String PREFIXO = "PED-";
+  static final int MAX_NO = (1 << 10) - 1;
+
+  private static final int BITS_SEQUENCIA = 12;
+  private static final int BITS_NO = 10;
+  private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+  private static final int CARACTERES = 13; // 63 bits / 5 bits por caractere, arredondado para cima
+  private static final int TENTATIVAS_CONCESSAO = 10;
+
+  // Nulo quando o nó é fixo (testes)
+  private final NoNumeroPedidoRepository nos;
+  private final String dono = UUID.randomUUID().toString();
+  private final int noConfigurado;
+  private final long concessaoMs;
+  private final LongSupplier relogio;
+  // (milissegundo desde a época << BITS_SEQUENCIA) | sequência do último id emitido
+  private final AtomicLong ultimo = new AtomicLong();
+  // Nulo até o primeiro número
+  private volatile Concessao concessao;
+
+  @Autowired
+  public GeradorNumeroPedido(
+      NoNumeroPedidoRepository nos,
+      @Value("${app.pedidos.numero.no-id:-1}") int noId,
+      @Value("${app.pedidos.numero.concessao-ms:60000}") long concessaoMs) {
+    this(nos, noId, concessaoMs, System::currentTimeMillis);
+  }
+
+  GeradorNumeroPedido(
+      NoNumeroPedidoRepository nos, int noId, long concessaoMs, LongSupplier relogio) {
+    if (noId < -1 || noId > MAX_NO) {
+      throw new IllegalArgumentException(
+          "app.pedidos.numero.no-id deve estar entre 0 e " + MAX_NO + ", ou -1");
+    }
+    this.nos = nos;
+    this.noConfigurado = noId;
+    this.concessaoMs = concessaoMs;
+    this.relogio = relogio;
+  }
+
+  GeradorNumeroPedido(long no, LongSupplier relogio) {
+    if (no < 0 || no > MAX_NO) {
+      throw new IllegalArgumentException("app.pedidos.numero.no-id deve estar entre 0 e " + MAX_NO);
+    }
+    this.nos = null;
+    this.noConfigurado = (int) no;
+    this.concessaoMs = 0;
+    this.relogio = relogio;
+    this.concessao = new Concessao((int) no, Long.MAX_VALUE);
+  }
+
+  /** Próximo número de pedido, por exemplo {@code PED-00C4N8ZK0G001}. */
+  public String proximo() {
+    return PREFIXO + base32(proximoId());
+  }
+
+  long proximoId() {
+    Concessao atual = concessao();
+    long agora = (relogio.getAsLong() - EPOCA) << BITS_SEQUENCIA;
+    long estado = ultimo.updateAndGet(anterior -> Math.max(anterior + 1, agora));
+    long milissegundo = estado >>> BITS_SEQUENCIA;
+    if (milissegundo > atual.horizonte()) {
+      throw new IllegalStateException(
+          "Concessão do nó " + atual.no() + " não renovada: números de pedido suspensos");
+    }
+    long sequencia = estado & ((1L << BITS_SEQUENCIA) - 1);
+    return (milissegundo << (BITS_NO + BITS_SEQUENCIA))
+        | ((long) atual.no() << BITS_SEQUENCIA)
+        | sequencia;
+  }
+
+  /** Renova a concessão; se outra instância tomou o nó, pede outro. */
+  @Scheduled(fixedDelayString = "${app.pedidos.numero.renovacao-ms:10000}")
+  public synchronized void renovar() {
+    Concessao atual = concessao;
+    if (nos == null || atual == null) {
+      return;
+    }
+    try {
+      long horizonte = proximoHorizonte();
+      if (nos.renovar(atual.no(), dono, horizonte + EPOCA)) {
+        concessao = new Concessao(atual.no(), horizonte);
+      } else {
+        log.error("Nó {} dos números de pedido tomado por outra instância", atual.no());
+        concessao = conceder();
+      }
+    } catch (DataAccessException ex) {
+      log.warn("Falha ao renovar o nó {} dos números de pedido", atual.no(), ex);
+    }
+  }
+
+  @PreDestroy
+  public synchronized void liberar() {
+    Concessao atual = concessao;
+    if (nos != null && atual != null) {
+      nos.liberar(atual.no(), dono);
+    }
+  }
+
+  static String base32(long valor) {
+    char[] caracteres = new char[CARACTERES];
+    for (int i = CARACTERES - 1; i >= 0; i--) {
+      caracteres[i] = ALFABETO[(int) (valor & 31)];
+      valor >>>= 5;
+    }
+    return new String(caracteres);
+  }
+
+  private Concessao concessao() {
+    Concessao atual = concessao;
+    if (atual != null) {
+      return atual;
+    }
+    synchronized (this) {
+      if (concessao == null) {
+        concessao = conceder();
+      }
+      return concessao;
+    }
+  }
+
+  private Concessao conceder() {
+    for (int tentativa = 0; tentativa < TENTATIVAS_CONCESSAO; tentativa++) {
+      int no = noConfigurado >= 0 ? noConfigurado : nos.noLivre(concessaoMs);
+      if (no > MAX_NO) {
+        throw new IllegalStateException(
+            "Todos os " + (MAX_NO + 1) + " nós dos números de pedido estão em uso");
+      }
+      Long anterior = nos.conceder(no, dono, concessaoMs);
+      if (anterior == null) {
+        if (noConfigurado >= 0) {
+          throw new IllegalStateException(
+              "app.pedidos.numero.no-id " + no + " está em uso por outra instância");
+        }
+        continue;
+      }
+      // Começa depois de tudo que o dono anterior podia emitir
+      long inicio = Math.max(anterior - EPOCA, 0) + 1;
+      ultimo.accumulateAndGet((inicio << BITS_SEQUENCIA) - 1, Math::max);
+      long horizonte = proximoHorizonte();
+      if (nos.renovar(no, dono, horizonte + EPOCA)) {
+        log.info("Números de pedido com o nó {}", no);
+        return new Concessao(no, horizonte);
+      }
+    }
+    throw new IllegalStateException("Não foi possível obter um nó para os números de pedido");
+  }
+
+  // Em ms desde a época: concessaoMs à frente do relógio ou do último id, o que vier depois
+  private long proximoHorizonte() {
+    return Math.max(ultimo.get() >>> BITS_SEQUENCIA, relogio.getAsLong() - EPOCA) + concessaoMs;
+  }
+
+  private record Concessao(int no, long horizonte) {}
+}
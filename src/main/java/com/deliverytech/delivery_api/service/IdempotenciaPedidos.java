@@ -0,0 +1,85 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executa a criação de pedido no máximo uma vez por {@code Idempotency-Key}. Retentativas do
+ * cliente (timeout no app, por exemplo) recebem a resposta da primeira execução sem reprocessar o
+ * pedido nem reservar estoque de novo. A chave vale por cliente e fica presa ao hash do corpo da
+ * requisição.
+ */
+@Component
+public class IdempotenciaPedidos {
+
+  private static final Logger log = LoggerFactory.getLogger(IdempotenciaPedidos.class);
+
+  static final int TAMANHO_MAXIMO_CHAVE = 128;
+
+  private final IdempotenciaStore store;
+  private final ObjectMapper objectMapper;
+  private final long esperaMs;
+
+  public IdempotenciaPedidos(
+      IdempotenciaStore store,
+      ObjectMapper objectMapper,
+      @Value("${app.pedidos.idempotencia.espera-ms:10000}") long esperaMs) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+    this.esperaMs = esperaMs;
+  }
+
+  /**
+   * @param chave valor do header {@code Idempotency-Key}; sem chave a criação sempre executa
+   * @return a resposta e se ela foi repetida de uma execução anterior
+   * @throws IllegalArgumentException se a chave é vazia ou longa demais
+   */
+  public Resultado executar(
+      String chave, PedidoRequest requisicao, Supplier<PedidoResponse> criar) {
+    if (chave == null) {
+      return new Resultado(criar.get(), false);
+    }
+    if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+      throw new IllegalArgumentException(
+          "Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+    }
+    String escopo = requisicao.getClienteId() + ":" + chave;
+    Optional<PedidoResponse> registrada = store.reservar(escopo, impressao(requisicao), esperaMs);
+    if (registrada.isPresent()) {
+      log.info("Pedido {} repetido para a Idempotency-Key {}", registrada.get().getId(), chave);
+      return new Resultado(registrada.get(), true);
+    }
+    PedidoResponse resposta;
+    try {
+      resposta = criar.get();
+    } catch (RuntimeException | Error ex) {
+      store.liberar(escopo);
+      throw ex;
+    }
+    store.concluir(escopo, resposta);
+    return new Resultado(resposta, false);
+  }
+
+  private String impressao(PedidoRequest requisicao) {
+    try {
+      byte[] corpo = objectMapper.writeValueAsString(requisicao).getBytes(StandardCharsets.UTF_8);
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo));
+    } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("Falha ao calcular hash da requisição", ex);
+    }
+  }
+
+  public record Resultado(PedidoResponse resposta, boolean repetida) {}
+}
@@ -0,0 +1,32 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import java.util.Optional;
+
+/**
+ * Registro das respostas de criação de pedido por {@code Idempotency-Key}. Escolhido por {@code
+ * app.pedidos.idempotencia.store}: {@code memoria} (padrão, por instância) ou {@code jdbc} (tabela
+ * {@code idempotencia_pedido}, compartilhada entre instâncias).
+ */
+public interface IdempotenciaStore {
+
+  /**
+   * Reserva a chave para quem chama ou devolve a resposta já registrada para ela. Se outra execução
+   * com a mesma chave está em andamento, espera até ela terminar; se essa execução falha, tenta
+   * reservar de novo.
+   *
+   * @param impressao hash da requisição; a mesma chave com outro corpo é recusada
+   * @param esperaMs tempo máximo de espera por uma execução em andamento
+   * @return vazio se a chave foi reservada (quem chama deve {@link #concluir} ou {@link #liberar});
+   *     senão a resposta registrada
+   * @throws ConflictException se a chave foi usada com outra requisição ou a espera se esgotou
+   */
+  Optional<PedidoResponse> reservar(String chave, String impressao, long esperaMs);
+
+  /** Registra a resposta da chave reservada e libera quem está esperando por ela. */
+  void concluir(String chave, PedidoResponse resposta);
+
+  /** Desfaz a reserva após uma falha, permitindo que a chave seja usada de novo. */
+  void liberar(String chave);
+}
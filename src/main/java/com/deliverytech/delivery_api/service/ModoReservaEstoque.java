@@ -0,0 +1,9 @@
+package com.deliverytech.delivery_api.service;
+
+/** Estratégia usada por {@link ProdutoService#reservarEstoque} para baixar o estoque. */
+public enum ModoReservaEstoque {
+  /** SELECT ... FOR UPDATE seguido de alteração e save da entidade. */
+  PESSIMISTA,
+  /** UPDATE condicional em lote, sem lock de leitura. */
+  CONDICIONAL
+}
@@ -2,6 +2,7 @@ package com.deliverytech.delivery_api.service;
 
 import com.deliverytech.delivery_api.dto.request.ItemPedidoRequest;
 import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
 import com.deliverytech.delivery_api.dto.response.PedidoResponse;
 import com.deliverytech.delivery_api.model.Pedido;
 import com.deliverytech.delivery_api.model.StatusPedido;
@@ -17,6 +18,8 @@ public interface PedidoService {
 
   Pedido buscarPorId(Long id);
 
+  Pedido buscarPorNumero(String numeroPedido);
+
   List<Pedido> buscarPorCliente(Long clienteId);
 
   List<Pedido> buscarPorRestaurante(Long restauranteId);
@@ -66,6 +69,14 @@ public interface PedidoService {
   // Novos métodos com DTOs
   PedidoResponse criarPedido(PedidoRequest pedidoRequest);
 
+  /**
+   * Cria vários pedidos numa única transação, com clientes, restaurantes e produtos carregados em
+   * lote. Um pedido inválido ou sem estoque é recusado sem afetar os demais.
+   *
+   * @return um resultado por pedido, na ordem recebida
+   */
+  List<PedidoLoteResultadoResponse> criarPedidos(List<PedidoRequest> pedidoRequests);
+
   // Métodos para controle de estoque
   void validarEstoqueItens(Pedido pedido);
 }
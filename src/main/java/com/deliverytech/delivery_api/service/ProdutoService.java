@@ -6,6 +6,7 @@ import com.deliverytech.delivery_api.model.Produto;
 import com.deliverytech.delivery_api.model.Restaurante;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface ProdutoService {
   // Métodos existentes com Entity
@@ -71,6 +72,17 @@ public interface ProdutoService {
 
   void reservarEstoque(com.deliverytech.delivery_api.model.Pedido pedido);
 
+  void reservarEstoque(com.deliverytech.delivery_api.model.Pedido pedido, ProdutosPedido produtos);
+
+  /**
+   * Reserva o estoque de vários pedidos com um único lock ordenado dos produtos. Pedidos sem
+   * estoque suficiente são recusados individualmente; os demais seguem reservados.
+   *
+   * @return mensagem de recusa por posição do pedido recusado em {@code pedidos}
+   */
+  Map<Integer, String> reservarEstoqueEmLote(
+      List<com.deliverytech.delivery_api.model.Pedido> pedidos, ProdutosPedido produtos);
+
   void confirmarEstoque(com.deliverytech.delivery_api.model.Pedido pedido);
 
   void cancelarReservaEstoque(com.deliverytech.delivery_api.model.Pedido pedido);
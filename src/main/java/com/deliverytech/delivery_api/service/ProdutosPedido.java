@@ -0,0 +1,64 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
+import com.deliverytech.delivery_api.model.ItemPedido;
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.Produto;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Produtos de um pedido carregados uma única vez (um {@code WHERE id IN (...)}) e compartilhados
+ * entre validação, mapeamento, precificação e reserva de estoque.
+ */
+public final class ProdutosPedido {
+
+  private final Map<Long, Produto> porId = new HashMap<>();
+
+  public ProdutosPedido(Collection<Produto> produtos) {
+    for (Produto produto : produtos) {
+      porId.put(produto.getId(), produto);
+    }
+  }
+
+  /** Ids dos produtos referenciados pelos itens do pedido, ignorando itens sem produto. */
+  public static Set<Long> idsDosItens(Pedido pedido) {
+    return pedido.getItens() != null ? idsDosItens(pedido.getItens()) : new TreeSet<>();
+  }
+
+  /** Ids dos produtos referenciados pelos itens, em ordem crescente. */
+  public static Set<Long> idsDosItens(Collection<ItemPedido> itens) {
+    Set<Long> ids = new TreeSet<>();
+    for (ItemPedido item : itens) {
+      if (item.getProduto() != null && item.getProduto().getId() != null) {
+        ids.add(item.getProduto().getId());
+      }
+    }
+    return ids;
+  }
+
+  public Produto get(Long produtoId) {
+    Produto produto = porId.get(produtoId);
+    if (produto == null) {
+      throw new EntityNotFoundException("Produto", "ID", String.valueOf(produtoId));
+    }
+    return produto;
+  }
+
+  public boolean contem(Long produtoId) {
+    return porId.containsKey(produtoId);
+  }
+
+  /** Ids em ordem crescente. */
+  public List<Long> ids() {
+    return List.copyOf(new TreeSet<>(porId.keySet()));
+  }
+
+  public Collection<Produto> produtos() {
+    return porId.values();
+  }
+}
@@ -0,0 +1,226 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.model.ItemPedido;
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Dimensao;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Lancamento;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Pendente;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Mantém as vendas por dia de cada restaurante (por status), cliente e produto que alimentam o
+ * {@code RelatorioService}, para que um relatório leia algumas linhas por dia do período em vez de
+ * todos os pedidos dele.
+ *
+ * <p>Criação, troca de status, inclusão de item e remoção de pedido gravam, na mesma transação,
+ * lançamentos com a variação em {@code venda_diaria_pendente}: só INSERTs, sem disputar a linha do
+ * dia com os outros pedidos do mesmo restaurante ou produto. A cada {@code
+ * app.relatorios.vendas-diarias.consolidar-intervalo-ms} os pendentes são somados às tabelas
+ * diárias e removidos numa transação só; as consultas somam os dois lados, então enxergam o pedido
+ * assim que ele é confirmado no banco.
+ */
+@Component
+public class VendasDiarias {
+
+  private static final Logger log = LoggerFactory.getLogger(VendasDiarias.class);
+
+  // Ordem fixa das linhas diárias: instâncias consolidando ao mesmo tempo não entram em deadlock
+  private static final Comparator<Lancamento> ORDEM_LINHA =
+      Comparator.comparing(Lancamento::dimensao)
+          .thenComparing(Lancamento::dia)
+          .thenComparing(Lancamento::chaveId)
+          .thenComparing(
+              Lancamento::status, Comparator.nullsFirst(Comparator.<StatusPedido>naturalOrder()));
+
+  private final VendaDiariaRepository vendaDiariaRepository;
+  private final VendasEmColunas vendasEmColunas;
+  private final TransactionTemplate consolidacao;
+  private final int lote;
+
+  public VendasDiarias(
+      VendaDiariaRepository vendaDiariaRepository,
+      VendasEmColunas vendasEmColunas,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.relatorios.vendas-diarias.lote:1000}") int lote) {
+    this.vendaDiariaRepository = vendaDiariaRepository;
+    this.vendasEmColunas = vendasEmColunas;
+    this.consolidacao = new TransactionTemplate(transactionManager);
+    // Sem gap locks do REPEATABLE READ: a leitura com lock não segura os INSERTs dos pedidos novos
+    this.consolidacao.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    this.lote = lote;
+  }
+
+  public void pedidosCriados(Collection<Pedido> pedidos) {
+    List<Lancamento> lancamentos = new ArrayList<>();
+    for (Pedido pedido : pedidos) {
+      LocalDate dia = pedido.getDataPedido().toLocalDate();
+      BigDecimal valor = valorTotal(pedido);
+      lancamentos.add(
+          new Lancamento(
+              Dimensao.RESTAURANTE,
+              dia,
+              pedido.getRestaurante().getId(),
+              pedido.getStatus(),
+              1,
+              valor));
+      lancamentos.add(
+          new Lancamento(Dimensao.CLIENTE, dia, pedido.getCliente().getId(), null, 1, valor));
+      for (ItemPedido item : pedido.getItens()) {
+        lancamentos.add(item(dia, item, 1));
+      }
+    }
+    lancar(lancamentos);
+  }
+
+  /** O pedido sai da linha do status anterior e entra na do atual. */
+  public void statusAlterado(Pedido pedido, StatusPedido anterior, StatusPedido atual) {
+    LocalDate dia = pedido.getDataPedido().toLocalDate();
+    Long restauranteId = pedido.getRestaurante().getId();
+    BigDecimal valor = valorTotal(pedido);
+    lancar(
+        List.of(
+            new Lancamento(Dimensao.RESTAURANTE, dia, restauranteId, anterior, -1, valor.negate()),
+            new Lancamento(Dimensao.RESTAURANTE, dia, restauranteId, atual, 1, valor)));
+  }
+
+  /** Item incluído num pedido existente; {@code valorAnterior} é o total antes da inclusão. */
+  public void itemAdicionado(Pedido pedido, ItemPedido item, BigDecimal valorAnterior) {
+    LocalDate dia = pedido.getDataPedido().toLocalDate();
+    BigDecimal diferenca =
+        valorTotal(pedido).subtract(valorAnterior != null ? valorAnterior : BigDecimal.ZERO);
+    lancar(
+        List.of(
+            new Lancamento(
+                Dimensao.RESTAURANTE,
+                dia,
+                pedido.getRestaurante().getId(),
+                pedido.getStatus(),
+                0,
+                diferenca),
+            new Lancamento(Dimensao.CLIENTE, dia, pedido.getCliente().getId(), null, 0, diferenca),
+            item(dia, item, 1)));
+  }
+
+  public void pedidoRemovido(Pedido pedido) {
+    LocalDate dia = pedido.getDataPedido().toLocalDate();
+    BigDecimal valor = valorTotal(pedido).negate();
+    List<Lancamento> lancamentos = new ArrayList<>();
+    lancamentos.add(
+        new Lancamento(
+            Dimensao.RESTAURANTE,
+            dia,
+            pedido.getRestaurante().getId(),
+            pedido.getStatus(),
+            -1,
+            valor));
+    lancamentos.add(
+        new Lancamento(Dimensao.CLIENTE, dia, pedido.getCliente().getId(), null, -1, valor));
+    for (ItemPedido item : pedido.getItens()) {
+      lancamentos.add(item(dia, item, -1));
+    }
+    lancar(lancamentos);
+  }
+
+  /** Soma os lançamentos pendentes às tabelas diárias, em lotes de {@code lote}. */
+  @Scheduled(
+      fixedDelayString = "${app.relatorios.vendas-diarias.consolidar-intervalo-ms:5000}",
+      initialDelayString = "${app.relatorios.vendas-diarias.consolidar-intervalo-ms:5000}")
+  public void consolidar() {
+    try {
+      int consolidados;
+      do {
+        consolidados = consolidacao.execute(status -> consolidarLote());
+      } while (consolidados == lote);
+    } catch (RuntimeException ex) {
+      // Os pendentes continuam valendo nas consultas; a próxima rodada tenta de novo
+      log.warn("Falha ao consolidar vendas diárias", ex);
+    }
+  }
+
+  /** Refaz as tabelas diárias a partir dos pedidos gravados. */
+  public void recalcular() {
+    consolidacao.executeWithoutResult(
+        status -> {
+          vendaDiariaRepository.recalcular();
+          vendasEmColunas.diasAlterados(null);
+        });
+  }
+
+  private int consolidarLote() {
+    List<Pendente> pendentes = vendaDiariaRepository.bloquearPendentes(lote);
+    if (pendentes.isEmpty()) {
+      return 0;
+    }
+    Map<Lancamento, Lancamento> porLinha = new TreeMap<>(ORDEM_LINHA);
+    List<Long> ids = new ArrayList<>(pendentes.size());
+    Set<LocalDate> dias = new HashSet<>();
+    for (Pendente pendente : pendentes) {
+      porLinha.merge(pendente.lancamento(), pendente.lancamento(), VendasDiarias::somar);
+      ids.add(pendente.id());
+      dias.add(pendente.lancamento().dia());
+    }
+    for (Lancamento linha : porLinha.values()) {
+      if (linha.quantidade() != 0 || linha.valor().signum() != 0) {
+        vendaDiariaRepository.acumular(linha);
+      }
+    }
+    vendaDiariaRepository.removerPendentes(ids);
+    vendaDiariaRepository.versionar(dias);
+    vendasEmColunas.diasAlterados(dias);
+    return pendentes.size();
+  }
+
+  private void lancar(List<Lancamento> lancamentos) {
+    if (!lancamentos.isEmpty()) {
+      vendaDiariaRepository.lancar(lancamentos);
+    }
+  }
+
+  // Mesmo valor das consultas sobre item_pedido: quantidade * preço unitário
+  private static Lancamento item(LocalDate dia, ItemPedido item, int sinal) {
+    BigDecimal valor =
+        item.getPrecoUnitario() != null && item.getQuantidade() != null
+            ? item.getPrecoUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()))
+            : BigDecimal.ZERO;
+    return new Lancamento(
+        Dimensao.PRODUTO,
+        dia,
+        item.getProduto().getId(),
+        null,
+        sinal,
+        sinal < 0 ? valor.negate() : valor);
+  }
+
+  private static BigDecimal valorTotal(Pedido pedido) {
+    return pedido.getValorTotal() != null ? pedido.getValorTotal() : BigDecimal.ZERO;
+  }
+
+  private static Lancamento somar(Lancamento a, Lancamento b) {
+    return new Lancamento(
+        a.dimensao(),
+        a.dia(),
+        a.chaveId(),
+        a.status(),
+        a.quantidade() + b.quantidade(),
+        a.valor().add(b.valor()));
+  }
+}
@@ -0,0 +1,722 @@
+package com.deliverytech.delivery_api.service;
+
+import com.deliverytech.delivery_api.cache.BarramentoInvalidacao;
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.EventoInvalidacao;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.projection.FaturamentoPorCategoriaProjection;
+import com.deliverytech.delivery_api.projection.RelatorioVendas;
+import com.deliverytech.delivery_api.projection.RelatorioVendasClientes;
+import com.deliverytech.delivery_api.projection.RelatorioVendasProdutos;
+import com.deliverytech.delivery_api.projection.VendasPorStatusProjection;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Cadastro;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository.Dimensao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Vendas por dia dos dias já encerrados guardadas em memória em colunas de tipos primitivos (chave,
+ * status, quantidade, valor em centavos), um bloco por dia. Um relatório de período qualquer soma
+ * os blocos dos dias em laços simples sobre os arrays e só vai ao banco pelo dia corrente, pelos
+ * lançamentos ainda pendentes e pelos nomes das chaves que aparecem no resultado.
+ *
+ * <p>Os blocos saem das tabelas de {@link VendasDiarias}, não de {@code pedido}/{@code
+ * item_pedido}: a memória cresce com dias × chaves e não com a quantidade de itens, e cada
+ * instância não precisa carregar o histórico inteiro para subir.
+ *
+ * <p>Cada bloco guarda a versão do dia ({@code venda_diaria_versao}) lida no mesmo snapshot das
+ * linhas. O relatório lê as versões do período na sua transação, a mesma em que lê os lançamentos
+ * pendentes, e só usa um bloco cuja versão seja a dessa leitura; os demais são lidos de novo ali.
+ * Assim a consolidação feita em qualquer instância nunca conta um lançamento duas vezes nem
+ * nenhuma. Quando a consolidação é local, o bloco ainda é descartado após o commit aqui e, via
+ * {@link BarramentoInvalidacao}, nas outras instâncias, junto com os relatórios guardados de
+ * períodos que passam pelo mês do dia ({@link com.deliverytech.delivery_api.cache.ChaveRelatorio}).
+ *
+ * <p>Num período longo os dias ausentes são lidos em partições de meses inteiros, no máximo {@code
+ * app.relatorios.colunas.paralelismo} delas ao mesmo tempo, cada uma numa conexão e transação
+ * somente leitura próprias.
+ */
+@Component
+public class VendasEmColunas {
+
+  private static final StatusPedido[] STATUS = StatusPedido.values();
+
+  private static final Comparator<Totais> MAIOR_VALOR =
+      Comparator.comparingLong(Totais::centavos).reversed().thenComparing(Totais::chave);
+
+  private final VendaDiariaRepository vendaDiariaRepository;
+
+  private final Cache<LocalDate, Bloco> blocos;
+
+  private final int paralelismo;
+
+  // Limitado a paralelismo threads, e portanto a paralelismo conexões além da do relatório
+  private final ExecutorService particoes;
+
+  // Versões e linhas de uma partição no mesmo snapshot
+  private final TransactionTemplate leitura;
+
+  // Ausentes só quando criado fora do Spring (testes)
+  private BarramentoInvalidacao barramento;
+  private InvalidacaoCache invalidacaoCache;
+
+  public VendasEmColunas(
+      VendaDiariaRepository vendaDiariaRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.relatorios.colunas.max-dias:800}") long maxDias,
+      @Value("${app.relatorios.colunas.expirar-apos-escrita:6h}") Duration expirarAposEscrita,
+      @Value("${app.relatorios.colunas.paralelismo:4}") int paralelismo) {
+    this.vendaDiariaRepository = vendaDiariaRepository;
+    this.blocos =
+        Caffeine.newBuilder().maximumSize(maxDias).expireAfterWrite(expirarAposEscrita).build();
+    this.paralelismo = Math.max(1, paralelismo);
+    this.particoes =
+        Executors.newFixedThreadPool(
+            this.paralelismo,
+            tarefa -> {
+              Thread thread = new Thread(tarefa, "relatorios-particao");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.leitura = new TransactionTemplate(transactionManager);
+    this.leitura.setReadOnly(true);
+    this.leitura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  @PreDestroy
+  public void encerrar() {
+    particoes.shutdownNow();
+  }
+
+  @Autowired(required = false)
+  void usarBarramento(BarramentoInvalidacao barramento) {
+    this.barramento = barramento;
+    barramento.assinar(
+        EventoInvalidacao.Tipo.VENDAS_DIA,
+        evento -> descartar(evento.valor() != null ? LocalDate.parse(evento.valor()) : null));
+    barramento.assinar(EventoInvalidacao.Tipo.TUDO, evento -> descartar(null));
+  }
+
+  @Autowired(required = false)
+  void usarInvalidacaoCache(InvalidacaoCache invalidacaoCache) {
+    this.invalidacaoCache = invalidacaoCache;
+  }
+
+  /** Mesmo resultado de {@code PedidoRepository.somarVendasPorRestaurante}. */
+  public List<RelatorioVendas> vendasPorRestaurante(LocalDate inicio, LocalDate fim) {
+    Acumulador porRestaurante = new Acumulador();
+    for (Bloco bloco : blocos(inicio, fim)) {
+      porRestaurante.somar(bloco.restaurantes);
+    }
+    Map<Long, Cadastro> cadastros =
+        vendaDiariaRepository.cadastros(Dimensao.RESTAURANTE, porRestaurante.chaves());
+    // Como a consulta, agrupa pelo nome
+    Map<String, Totais> porNome = new HashMap<>();
+    for (Totais totais : porRestaurante.totais()) {
+      Cadastro cadastro = cadastros.get(totais.chave());
+      if (cadastro != null) {
+        porNome.merge(cadastro.nome(), totais, Totais::somar);
+      }
+    }
+    List<RelatorioVendas> resultado = new ArrayList<>();
+    porNome.entrySet().stream()
+        .filter(e -> e.getValue().quantidade() > 0)
+        .sorted(Map.Entry.comparingByValue(MAIOR_VALOR))
+        .forEach(
+            e ->
+                resultado.add(
+                    new VendasRestaurante(
+                        e.getKey(), reais(e.getValue().centavos()), e.getValue().quantidade())));
+    return resultado;
+  }
+
+  /** Mesmo resultado de {@code PedidoRepository.somarVendasPorStatus}. */
+  public List<VendasPorStatusProjection> vendasPorStatus(LocalDate inicio, LocalDate fim) {
+    long[] quantidades = new long[STATUS.length];
+    long[] centavos = new long[STATUS.length];
+    boolean[] presentes = new boolean[STATUS.length];
+    for (Bloco bloco : blocos(inicio, fim)) {
+      Colunas colunas = bloco.restaurantes;
+      for (int i = 0; i < colunas.tamanho; i++) {
+        int status = colunas.status[i];
+        quantidades[status] += colunas.quantidade[i];
+        centavos[status] += colunas.centavos[i];
+        presentes[status] = true;
+      }
+    }
+    List<VendasPorStatusProjection> resultado = new ArrayList<>();
+    for (int i = 0; i < STATUS.length; i++) {
+      if (presentes[i]) {
+        resultado.add(new VendasStatus(STATUS[i].name(), quantidades[i], reais(centavos[i])));
+      }
+    }
+    return resultado;
+  }
+
+  /**
+   * Mesmo resultado de {@code ProdutoRepository.somarVendasPorProduto}, limitado a {@code limite}.
+   */
+  public List<RelatorioVendasProdutos> vendasPorProduto(
+      LocalDate inicio, LocalDate fim, int limite) {
+    Acumulador porProduto = produtos(inicio, fim);
+    Map<Long, Cadastro> cadastros =
+        vendaDiariaRepository.cadastros(Dimensao.PRODUTO, porProduto.chaves());
+    List<RelatorioVendasProdutos> resultado = new ArrayList<>();
+    porProduto.totais().stream()
+        .filter(t -> t.quantidade() > 0 && ativo(cadastros.get(t.chave())))
+        .sorted(MAIOR_VALOR)
+        .limit(limite)
+        .forEach(
+            t ->
+                resultado.add(
+                    new VendasProduto(
+                        t.chave(),
+                        cadastros.get(t.chave()).nome(),
+                        reais(t.centavos()),
+                        t.quantidade())));
+    return resultado;
+  }
+
+  /** Mesmo resultado de {@code ProdutoRepository.somarFaturamentoPorCategoria}. */
+  public List<FaturamentoPorCategoriaProjection> faturamentoPorCategoria(
+      LocalDate inicio, LocalDate fim) {
+    Acumulador porProduto = produtos(inicio, fim);
+    Map<Long, Cadastro> cadastros =
+        vendaDiariaRepository.cadastros(Dimensao.PRODUTO, porProduto.chaves());
+    // Pela categoria atual do produto, como a consulta
+    Map<String, Totais> porCategoria = new HashMap<>();
+    for (Totais totais : porProduto.totais()) {
+      Cadastro cadastro = cadastros.get(totais.chave());
+      if (ativo(cadastro)) {
+        porCategoria.merge(cadastro.categoria(), totais, Totais::somar);
+      }
+    }
+    List<FaturamentoPorCategoriaProjection> resultado = new ArrayList<>();
+    porCategoria.entrySet().stream()
+        .filter(e -> e.getValue().quantidade() > 0)
+        .sorted(Map.Entry.comparingByValue(MAIOR_VALOR))
+        .forEach(
+            e ->
+                resultado.add(
+                    new FaturamentoCategoria(e.getKey(), reais(e.getValue().centavos()))));
+    return resultado;
+  }
+
+  /**
+   * Mesmo resultado de {@code ClienteRepository.somarComprasPorCliente}, limitado a {@code limite}.
+   */
+  public List<RelatorioVendasClientes> comprasPorCliente(
+      LocalDate inicio, LocalDate fim, int limite) {
+    Acumulador porCliente = new Acumulador();
+    for (Bloco bloco : blocos(inicio, fim)) {
+      porCliente.somar(bloco.clientes);
+    }
+    Map<Long, Cadastro> cadastros =
+        vendaDiariaRepository.cadastros(Dimensao.CLIENTE, porCliente.chaves());
+    List<RelatorioVendasClientes> resultado = new ArrayList<>();
+    porCliente.totais().stream()
+        .filter(t -> t.quantidade() > 0 && ativo(cadastros.get(t.chave())))
+        .sorted(
+            Comparator.comparingLong(Totais::quantidade).reversed().thenComparing(Totais::chave))
+        .limit(limite)
+        .forEach(
+            t ->
+                resultado.add(
+                    new ComprasCliente(
+                        t.chave(),
+                        cadastros.get(t.chave()).nome(),
+                        reais(t.centavos()),
+                        t.quantidade())));
+    return resultado;
+  }
+
+  /**
+   * A consolidação alterou as vendas desses dias; {@code null} para todos. Os blocos são
+   * descartados após o commit da transação corrente.
+   */
+  public void diasAlterados(Collection<LocalDate> dias) {
+    if (dias == null) {
+      aposCommit(() -> descartar(null));
+      publicar(null);
+      return;
+    }
+    LocalDate hoje = LocalDate.now();
+    for (LocalDate dia : dias) {
+      // O dia corrente nunca vira bloco
+      if (dia.isBefore(hoje)) {
+        aposCommit(() -> descartar(dia));
+        publicar(dia);
+      }
+    }
+  }
+
+  long diasEmMemoria() {
+    blocos.cleanUp();
+    return blocos.estimatedSize();
+  }
+
+  private Acumulador produtos(LocalDate inicio, LocalDate fim) {
+    Acumulador porProduto = new Acumulador();
+    for (Bloco bloco : blocos(inicio, fim)) {
+      porProduto.somar(bloco.produtos);
+    }
+    return porProduto;
+  }
+
+  /**
+   * Blocos do período: um por dia encerrado (da memória ou lidos do banco os que faltam) e um com o
+   * dia corrente e todos os lançamentos pendentes do período.
+   */
+  private List<Bloco> blocos(LocalDate inicio, LocalDate fim) {
+    List<Bloco> resultado = new ArrayList<>();
+    if (fim.isBefore(inicio)) {
+      return resultado;
+    }
+    LocalDate hoje = LocalDate.now();
+    LocalDate ultimoEncerrado = fim.isBefore(hoje) ? fim : hoje.minusDays(1);
+    if (!ultimoEncerrado.isBefore(inicio)) {
+      Map<LocalDate, Long> versoes = vendaDiariaRepository.versoes(inicio, ultimoEncerrado);
+      // Dias ausentes ou de outra versão agrupados por mês
+      List<List<LocalDate>> meses = new ArrayList<>();
+      List<LocalDate> mes = null;
+      for (LocalDate dia = inicio; !dia.isAfter(ultimoEncerrado); dia = dia.plusDays(1)) {
+        Bloco bloco = blocos.getIfPresent(dia);
+        if (bloco != null && bloco.versao == versoes.getOrDefault(dia, 0L)) {
+          resultado.add(bloco);
+        } else {
+          if (mes == null || !YearMonth.from(dia).equals(YearMonth.from(mes.get(0)))) {
+            mes = new ArrayList<>();
+            meses.add(mes);
+          }
+          mes.add(dia);
+        }
+      }
+      if (!meses.isEmpty()) {
+        resultado.addAll(carregar(meses, versoes));
+      }
+    }
+    Bloco recente = new Bloco(0);
+    LocalDate inicioRecente = inicio.isAfter(hoje) ? inicio : hoje;
+    if (!fim.isBefore(inicioRecente)) {
+      lerDiarias(inicioRecente, fim, dia -> recente);
+    }
+    for (Dimensao dimensao : Dimensao.values()) {
+      vendaDiariaRepository.percorrerPendentes(
+          dimensao,
+          inicio,
+          fim,
+          (dia, chaveId, status, quantidade, centavos) ->
+              recente.colunas(dimensao).adicionar(chaveId, status, quantidade, centavos));
+    }
+    resultado.add(recente);
+    return resultado;
+  }
+
+  /**
+   * Lê os dias ausentes em até {@code paralelismo} partições de meses consecutivos. Com uma só, a
+   * leitura é feita aqui mesmo, na transação do relatório; os dias de uma partição que saírem com
+   * versão diferente de {@code versoes} são lidos de novo aqui.
+   */
+  private List<Bloco> carregar(List<List<LocalDate>> meses, Map<LocalDate, Long> versoes) {
+    int quantidade = Math.min(meses.size(), paralelismo);
+    List<List<LocalDate>> partes = new ArrayList<>(quantidade);
+    for (int i = 0; i < quantidade; i++) {
+      List<LocalDate> dias = new ArrayList<>();
+      meses
+          .subList(i * meses.size() / quantidade, (i + 1) * meses.size() / quantidade)
+          .forEach(dias::addAll);
+      partes.add(dias);
+    }
+    List<Bloco> resultado = new ArrayList<>();
+    if (quantidade == 1) {
+      resultado.addAll(carregarParticao(partes.get(0)).values());
+      return resultado;
+    }
+    List<Future<Map<LocalDate, Bloco>>> cargas = new ArrayList<>(quantidade);
+    List<LocalDate> divergentes = new ArrayList<>();
+    try {
+      for (List<LocalDate> dias : partes) {
+        cargas.add(particoes.submit(() -> leitura.execute(status -> carregarParticao(dias))));
+      }
+      for (Future<Map<LocalDate, Bloco>> carga : cargas) {
+        carga
+            .get()
+            .forEach(
+                (dia, bloco) -> {
+                  if (bloco.versao == versoes.getOrDefault(dia, 0L)) {
+                    resultado.add(bloco);
+                  } else {
+                    // Consolidado entre a leitura das versões pelo relatório e a da partição
+                    divergentes.add(dia);
+                  }
+                });
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException causa) {
+        throw causa;
+      }
+      throw new IllegalStateException("Falha ao ler vendas por dia", ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Leitura de vendas por dia interrompida", ex);
+    } finally {
+      cargas.forEach(carga -> carga.cancel(true));
+    }
+    if (!divergentes.isEmpty()) {
+      divergentes.sort(null);
+      resultado.addAll(carregarParticao(divergentes).values());
+    }
+    return resultado;
+  }
+
+  /**
+   * Dias encerrados (em ordem) com a versão lida antes das linhas, guardando-os. Um bloco lido de
+   * uma versão mais antiga que a do já guardado não o substitui.
+   */
+  private Map<LocalDate, Bloco> carregarParticao(List<LocalDate> dias) {
+    LocalDate inicio = dias.get(0);
+    LocalDate fim = dias.get(dias.size() - 1);
+    Map<LocalDate, Long> versoes = vendaDiariaRepository.versoes(inicio, fim);
+    Map<LocalDate, Bloco> porDia = new HashMap<>();
+    for (LocalDate dia : dias) {
+      // Dia sem vendas também vira bloco (vazio), para não ser lido de novo
+      porDia.put(dia, new Bloco(versoes.getOrDefault(dia, 0L)));
+    }
+    lerDiarias(inicio, fim, porDia::get);
+    porDia.forEach(
+        (dia, bloco) -> {
+          bloco.compactar();
+          blocos
+              .asMap()
+              .merge(dia, bloco, (atual, lido) -> atual.versao > lido.versao ? atual : lido);
+        });
+    return porDia;
+  }
+
+  // destino devolve o bloco que recebe as linhas do dia, ou null para ignorá-las
+  private void lerDiarias(LocalDate inicio, LocalDate fim, Function<LocalDate, Bloco> destino) {
+    for (Dimensao dimensao : Dimensao.values()) {
+      vendaDiariaRepository.percorrerDiarias(
+          dimensao,
+          inicio,
+          fim,
+          (dia, chaveId, status, quantidade, centavos) -> {
+            Bloco bloco = destino.apply(dia);
+            if (bloco != null) {
+              bloco.colunas(dimensao).adicionar(chaveId, status, quantidade, centavos);
+            }
+          });
+    }
+  }
+
+  private void descartar(LocalDate dia) {
+    if (dia != null) {
+      blocos.invalidate(dia);
+    } else {
+      blocos.invalidateAll();
+    }
+    // As outras instâncias fazem o mesmo ao receber o VENDAS_DIA
+    if (invalidacaoCache != null) {
+      if (dia != null) {
+        invalidacaoCache.invalidarLocalmente(List.of(Dependencia.vendasMes(YearMonth.from(dia))));
+      } else {
+        invalidacaoCache.invalidarLocalmente(Dependencia.Tipo.VENDAS_MES);
+      }
+    }
+  }
+
+  private void publicar(LocalDate dia) {
+    if (barramento != null) {
+      barramento.publicar(EventoInvalidacao.Tipo.VENDAS_DIA, null, dia);
+    }
+  }
+
+  private static boolean ativo(Cadastro cadastro) {
+    return cadastro != null && !cadastro.excluido();
+  }
+
+  private static BigDecimal reais(long centavos) {
+    return BigDecimal.valueOf(centavos, 2);
+  }
+
+  private static void aposCommit(Runnable acao) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              acao.run();
+            }
+          });
+    } else {
+      acao.run();
+    }
+  }
+
+  /** Vendas de um dia (ou do trecho recente) nas três dimensões. */
+  private static final class Bloco {
+
+    final long versao;
+    final Colunas restaurantes = new Colunas();
+    final Colunas clientes = new Colunas();
+    final Colunas produtos = new Colunas();
+
+    Bloco(long versao) {
+      this.versao = versao;
+    }
+
+    Colunas colunas(Dimensao dimensao) {
+      return switch (dimensao) {
+        case RESTAURANTE -> restaurantes;
+        case CLIENTE -> clientes;
+        case PRODUTO -> produtos;
+      };
+    }
+
+    void compactar() {
+      restaurantes.compactar();
+      clientes.compactar();
+      produtos.compactar();
+    }
+  }
+
+  /** Uma linha por posição; {@code status} é o ordinal de {@link StatusPedido} (ou -1). */
+  private static final class Colunas {
+
+    int tamanho;
+    long[] chave = new long[8];
+    byte[] status = new byte[8];
+    long[] quantidade = new long[8];
+    long[] centavos = new long[8];
+
+    void adicionar(long chaveId, StatusPedido statusPedido, long qtd, long valor) {
+      if (tamanho == chave.length) {
+        redimensionar(tamanho * 2);
+      }
+      chave[tamanho] = chaveId;
+      status[tamanho] = statusPedido != null ? (byte) statusPedido.ordinal() : -1;
+      quantidade[tamanho] = qtd;
+      centavos[tamanho] = valor;
+      tamanho++;
+    }
+
+    // Blocos guardados não crescem mais: corta a folga dos arrays
+    void compactar() {
+      redimensionar(tamanho);
+    }
+
+    private void redimensionar(int capacidade) {
+      chave = Arrays.copyOf(chave, capacidade);
+      status = Arrays.copyOf(status, capacidade);
+      quantidade = Arrays.copyOf(quantidade, capacidade);
+      centavos = Arrays.copyOf(centavos, capacidade);
+    }
+  }
+
+  /** Soma quantidade e valor por chave (endereçamento aberto, sem um objeto por chave). */
+  private static final class Acumulador {
+
+    private long[] chaves = new long[64];
+    private long[] quantidades = new long[64];
+    private long[] centavos = new long[64];
+    private boolean[] ocupadas = new boolean[64];
+    private int tamanho;
+
+    void somar(Colunas colunas) {
+      for (int i = 0; i < colunas.tamanho; i++) {
+        int posicao = posicao(colunas.chave[i]);
+        quantidades[posicao] += colunas.quantidade[i];
+        centavos[posicao] += colunas.centavos[i];
+      }
+    }
+
+    List<Long> chaves() {
+      List<Long> resultado = new ArrayList<>(tamanho);
+      for (int i = 0; i < chaves.length; i++) {
+        if (ocupadas[i]) {
+          resultado.add(chaves[i]);
+        }
+      }
+      return resultado;
+    }
+
+    List<Totais> totais() {
+      List<Totais> resultado = new ArrayList<>(tamanho);
+      for (int i = 0; i < chaves.length; i++) {
+        if (ocupadas[i]) {
+          resultado.add(new Totais(chaves[i], quantidades[i], centavos[i]));
+        }
+      }
+      return resultado;
+    }
+
+    private int posicao(long chave) {
+      if (tamanho * 2 >= chaves.length) {
+        crescer();
+      }
+      int mascara = chaves.length - 1;
+      int posicao = Long.hashCode(chave * 0x9E3779B97F4A7C15L) & mascara;
+      while (ocupadas[posicao] && chaves[posicao] != chave) {
+        posicao = (posicao + 1) & mascara;
+      }
+      if (!ocupadas[posicao]) {
+        ocupadas[posicao] = true;
+        chaves[posicao] = chave;
+        tamanho++;
+      }
+      return posicao;
+    }
+
+    private void crescer() {
+      long[] antigasChaves = chaves;
+      long[] antigasQuantidades = quantidades;
+      long[] antigosCentavos = centavos;
+      boolean[] antigasOcupadas = ocupadas;
+      int capacidade = antigasChaves.length * 2;
+      chaves = new long[capacidade];
+      quantidades = new long[capacidade];
+      centavos = new long[capacidade];
+      ocupadas = new boolean[capacidade];
+      tamanho = 0;
+      for (int i = 0; i < antigasChaves.length; i++) {
+        if (antigasOcupadas[i]) {
+          int posicao = posicao(antigasChaves[i]);
+          quantidades[posicao] = antigasQuantidades[i];
+          centavos[posicao] = antigosCentavos[i];
+        }
+      }
+    }
+  }
+
+  private record Totais(long chave, long quantidade, long centavos) {
+    Totais somar(Totais outro) {
+      return new Totais(
+          Math.min(chave, outro.chave), quantidade + outro.quantidade, centavos + outro.centavos);
+    }
+  }
+
+  private record VendasRestaurante(
+      String nomeRestaurante, BigDecimal totalVendas, Long quantidadePedidos)
+      implements RelatorioVendas {
+    @Override
+    public String getNomeRestaurante() {
+      return nomeRestaurante;
+    }
+
+    @Override
+    public BigDecimal getTotalVendas() {
+      return totalVendas;
+    }
+
+    @Override
+    public Long getQuantidadePedidos() {
+      return quantidadePedidos;
+    }
+  }
+
+  private record VendasStatus(String status, Long quantidadePedidos, BigDecimal valorTotal)
+      implements VendasPorStatusProjection {
+    @Override
+    public String getStatus() {
+      return status;
+    }
+
+    @Override
+    public Long getQuantidadePedidos() {
+      return quantidadePedidos;
+    }
+
+    @Override
+    public BigDecimal getValorTotal() {
+      return valorTotal;
+    }
+  }
+
+  private record VendasProduto(
+      Long idProduto, String nomeProduto, BigDecimal totalVendas, Long quantidadeItemPedido)
+      implements RelatorioVendasProdutos {
+    @Override
+    public Long getIdProduto() {
+      return idProduto;
+    }
+
+    @Override
+    public String getNomeProduto() {
+      return nomeProduto;
+    }
+
+    @Override
+    public BigDecimal getTotalVendas() {
+      return totalVendas;
+    }
+
+    @Override
+    public Long getQuantidadeItemPedido() {
+      return quantidadeItemPedido;
+    }
+  }
+
+  private record FaturamentoCategoria(String categoria, BigDecimal totalFaturado)
+      implements FaturamentoPorCategoriaProjection {
+    @Override
+    public String getCategoria() {
+      return categoria;
+    }
+
+    @Override
+    public BigDecimal getTotalFaturado() {
+      return totalFaturado;
+    }
+  }
+
+  private record ComprasCliente(
+      Long idCliente, String nomeCliente, BigDecimal totalCompras, Long quantidadePedidos)
+      implements RelatorioVendasClientes {
+    @Override
+    public Long getIdCliente() {
+      return idCliente;
+    }
+
+    @Override
+    public String getNomeCliente() {
+      return nomeCliente;
+    }
+
+    @Override
+    public BigDecimal getTotalCompras() {
+      return totalCompras;
+    }
+
+    @Override
+    public Long getQuantidadePedidos() {
+      return quantidadePedidos;
+    }
+  }
+}
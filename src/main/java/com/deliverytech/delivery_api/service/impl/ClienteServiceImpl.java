@@ -1,5 +1,6 @@
 package com.deliverytech.delivery_api.service.impl;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
 import com.deliverytech.delivery_api.dto.request.ClienteRequest;
 import com.deliverytech.delivery_api.dto.response.ClienteResponse;
 import com.deliverytech.delivery_api.exception.EntityNotFoundException;
@@ -21,10 +22,15 @@ public class ClienteServiceImpl implements ClienteService {
   private static final Logger log = LoggerFactory.getLogger(ClienteServiceImpl.class);
   private final ClienteRepository clienteRepository;
   private final ClienteMapper clienteMapper;
+  private final AusenciasEmCache ausenciasEmCache;
 
-  public ClienteServiceImpl(ClienteRepository clienteRepository, ClienteMapper clienteMapper) {
+  public ClienteServiceImpl(
+      ClienteRepository clienteRepository,
+      ClienteMapper clienteMapper,
+      AusenciasEmCache ausenciasEmCache) {
     this.clienteRepository = clienteRepository;
     this.clienteMapper = clienteMapper;
+    this.ausenciasEmCache = ausenciasEmCache;
   }
 
   @Deprecated
@@ -32,7 +38,9 @@ public class ClienteServiceImpl implements ClienteService {
     if (clienteRepository.findByEmailAndExcluidoFalse(cliente.getEmail()).isPresent()) {
       throw new com.deliverytech.delivery_api.exception.EmailDuplicadoException(cliente.getEmail());
     }
-    return clienteRepository.save(cliente);
+    Cliente salvo = clienteRepository.save(cliente);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.CLIENTE_EMAIL, salvo.getEmail());
+    return salvo;
   }
 
   @Override
@@ -42,6 +50,7 @@ public class ClienteServiceImpl implements ClienteService {
       throw new com.deliverytech.delivery_api.exception.EmailDuplicadoException(cliente.getEmail());
     }
     Cliente salvo = clienteRepository.save(cliente);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.CLIENTE_EMAIL, salvo.getEmail());
     return clienteMapper.toResponse(salvo);
   }
 
@@ -64,7 +73,15 @@ public class ClienteServiceImpl implements ClienteService {
   @Override
   @Transactional(readOnly = true)
   public Optional<ClienteResponse> buscarPorEmail(String email) {
-    return clienteRepository.findByEmailAndExcluidoFalse(email).map(clienteMapper::toResponse);
+    if (ausenciasEmCache.consultar(AusenciasEmCache.Recurso.CLIENTE_EMAIL, email) != null) {
+      return Optional.empty();
+    }
+    Optional<Cliente> cliente = clienteRepository.findByEmailAndExcluidoFalse(email);
+    if (cliente.isEmpty()) {
+      ausenciasEmCache.registrarAusencia(
+          AusenciasEmCache.Recurso.CLIENTE_EMAIL, email, AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+    }
+    return cliente.map(clienteMapper::toResponse);
   }
 
   @Transactional(readOnly = true)
@@ -103,7 +120,9 @@ public class ClienteServiceImpl implements ClienteService {
     if (!clienteRepository.existsById(cliente.getId())) {
       throw new EntityNotFoundException("Cliente", cliente.getId());
     }
-    return clienteRepository.save(cliente);
+    Cliente salvo = clienteRepository.save(cliente);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.CLIENTE_EMAIL, salvo.getEmail());
+    return salvo;
   }
 
   @Override
@@ -121,6 +140,8 @@ public class ClienteServiceImpl implements ClienteService {
     existente.setEndereco(updatedEntity.getEndereco());
 
     Cliente atualizado = clienteRepository.save(existente);
+    ausenciasEmCache.registrarExistente(
+        AusenciasEmCache.Recurso.CLIENTE_EMAIL, atualizado.getEmail());
     return clienteMapper.toResponse(atualizado);
   }
 
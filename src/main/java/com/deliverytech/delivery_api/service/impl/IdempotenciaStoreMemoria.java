@@ -0,0 +1,141 @@
+package com.deliverytech.delivery_api.service.impl;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.service.IdempotenciaStore;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IdempotenciaStore} em memória, limitado a {@code app.pedidos.idempotencia.max-chaves}
+ * chaves mantidas por {@code app.pedidos.idempotencia.ttl-ms}. Duplicatas concorrentes esperam no
+ * {@link CompletableFuture} da primeira execução, sem ida ao banco.
+ *
+ * <p>Vale só para a instância local; com mais de uma instância atrás do balanceador use {@code
+ * app.pedidos.idempotencia.store=jdbc}.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "app.pedidos.idempotencia",
+    name = "store",
+    havingValue = "memoria",
+    matchIfMissing = true)
+public class IdempotenciaStoreMemoria implements IdempotenciaStore {
+
+  private final long ttlMs;
+  private final int maxChaves;
+  private final LongSupplier relogio;
+
+  // Ordem de inserção = ordem de expiração, já que o TTL é fixo; guardado pelo próprio mapa
+  private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+  @Autowired
+  public IdempotenciaStoreMemoria(
+      @Value("${app.pedidos.idempotencia.ttl-ms:86400000}") long ttlMs,
+      @Value("${app.pedidos.idempotencia.max-chaves:10000}") int maxChaves) {
+    this(ttlMs, maxChaves, System::currentTimeMillis);
+  }
+
+  IdempotenciaStoreMemoria(long ttlMs, int maxChaves, LongSupplier relogio) {
+    this.ttlMs = ttlMs;
+    this.maxChaves = maxChaves;
+    this.relogio = relogio;
+  }
+
+  @Override
+  public Optional<PedidoResponse> reservar(String chave, String impressao, long esperaMs) {
+    long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+    while (true) {
+      Entrada existente;
+      synchronized (entradas) {
+        long agora = relogio.getAsLong();
+        expurgar(agora);
+        existente = entradas.get(chave);
+        if (existente == null) {
+          entradas.put(chave, new Entrada(impressao, agora + ttlMs));
+          return Optional.empty();
+        }
+      }
+      if (!existente.impressao().equals(impressao)) {
+        throw new ConflictException("Idempotency-Key já utilizada com outra requisição");
+      }
+      try {
+        return Optional.of(
+            existente.resposta().get(limite - System.nanoTime(), TimeUnit.NANOSECONDS));
+      } catch (ExecutionException | CancellationException ex) {
+        // A execução original falhou e liberou a chave: tenta reservar de novo
+      } catch (TimeoutException ex) {
+        throw new ConflictException(
+            "Requisição com a mesma Idempotency-Key ainda em processamento");
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new ConflictException(
+            "Requisição com a mesma Idempotency-Key ainda em processamento", ex);
+      }
+    }
+  }
+
+  @Override
+  public void concluir(String chave, PedidoResponse resposta) {
+    Entrada entrada;
+    synchronized (entradas) {
+      entrada = entradas.get(chave);
+    }
+    if (entrada != null) {
+      entrada.resposta().complete(resposta);
+    }
+  }
+
+  @Override
+  public void liberar(String chave) {
+    Entrada entrada;
+    synchronized (entradas) {
+      entrada = entradas.get(chave);
+      if (entrada == null || entrada.resposta().isDone()) {
+        return;
+      }
+      entradas.remove(chave);
+    }
+    entrada.resposta().cancel(false);
+  }
+
+  int tamanho() {
+    synchronized (entradas) {
+      return entradas.size();
+    }
+  }
+
+  // Remove as entradas concluídas e vencidas e, acima do limite, as concluídas mais antigas.
+  // Entradas em andamento nunca são removidas aqui: isso abriria espaço para uma duplicata.
+  private void expurgar(long agora) {
+    Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+    while (it.hasNext()) {
+      Entrada entrada = it.next().getValue();
+      if (entrada.expiraEm() > agora && entradas.size() < maxChaves) {
+        break;
+      }
+      if (entrada.resposta().isDone()) {
+        it.remove();
+      }
+    }
+  }
+
+  private record Entrada(
+      String impressao, long expiraEm, CompletableFuture<PedidoResponse> resposta) {
+    Entrada(String impressao, long expiraEm) {
+      this(impressao, expiraEm, new CompletableFuture<>());
+    }
+  }
+}
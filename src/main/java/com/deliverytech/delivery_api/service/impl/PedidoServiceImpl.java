@@ -1,9 +1,15 @@
 package com.deliverytech.delivery_api.service.impl;
 
+import com.deliverytech.delivery_api.cache.ConsultaEmCache;
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.RegioesCache;
 import com.deliverytech.delivery_api.dto.request.ItemPedidoRequest;
 import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
 import com.deliverytech.delivery_api.dto.response.PedidoResponse;
 import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.ConflictException;
 import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.mapper.PedidoMapper;
 import com.deliverytech.delivery_api.model.*;
@@ -11,18 +17,31 @@ import com.deliverytech.delivery_api.repository.ClienteRepository;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.retry.RetentativaEmBloqueio;
+import com.deliverytech.delivery_api.service.GeradorNumeroPedido;
 import com.deliverytech.delivery_api.service.PedidoService;
 import com.deliverytech.delivery_api.service.ProdutoService;
+import com.deliverytech.delivery_api.service.ProdutosPedido;
+import com.deliverytech.delivery_api.service.VendasDiarias;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +55,13 @@ public class PedidoServiceImpl implements PedidoService {
   private final RestauranteRepository restauranteRepository;
   private final PedidoMapper pedidoMapper;
   private final ProdutoService produtoService;
+  private final GeradorNumeroPedido geradorNumeroPedido;
+  private final Validator validator;
+  private final InvalidacaoCache invalidacaoCache;
+  private final VendasDiarias vendasDiarias;
+
+  @Value("${app.pedidos.lote.max-pedidos:500}")
+  private int maxPedidosLote = 500;
 
   public PedidoServiceImpl(
       PedidoRepository pedidoRepository,
@@ -43,21 +69,32 @@ public class PedidoServiceImpl implements PedidoService {
       ClienteRepository clienteRepository,
       RestauranteRepository restauranteRepository,
       PedidoMapper pedidoMapper,
-      ProdutoService produtoService) {
+      ProdutoService produtoService,
+      GeradorNumeroPedido geradorNumeroPedido,
+      Validator validator,
+      InvalidacaoCache invalidacaoCache,
+      VendasDiarias vendasDiarias) {
     this.pedidoRepository = pedidoRepository;
     this.produtoRepository = produtoRepository;
     this.clienteRepository = clienteRepository;
     this.restauranteRepository = restauranteRepository;
     this.pedidoMapper = pedidoMapper;
     this.produtoService = produtoService;
+    this.geradorNumeroPedido = geradorNumeroPedido;
+    this.validator = validator;
+    this.invalidacaoCache = invalidacaoCache;
+    this.vendasDiarias = vendasDiarias;
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public Pedido criar(Pedido pedido) {
+    return criar(pedido, carregarProdutos(ProdutosPedido.idsDosItens(pedido)));
+  }
+
+  private Pedido criar(Pedido pedido, ProdutosPedido produtos) {
     try {
-      pedido.setStatus(StatusPedido.CRIADO);
-      pedido.setDataPedido(LocalDateTime.now());
+      prepararNovo(pedido);
       if (pedido.getItens() == null || pedido.getItens().isEmpty()) {
         log.warn(
             "Tentativa de criar pedido sem itens. ClienteId={}, RestauranteId= {}",
@@ -67,72 +104,83 @@ public class PedidoServiceImpl implements PedidoService {
       }
 
       // Validate stock for all items before processing
-      validarEstoqueItens(pedido);
-
-      BigDecimal total = BigDecimal.ZERO;
-      for (ItemPedido item : pedido.getItens()) {
-        Long produtoId = item.getProduto() != null ? item.getProduto().getId() : null;
-        if (produtoId == null) {
-          log.warn("ID do produto é nulo ao criar pedido.");
-          throw new BusinessException("ID do produto não pode ser nulo.");
-        }
-        Produto produto =
-            produtoRepository
-                .findById(produtoId)
-                .orElseThrow(
-                    () -> {
-                      log.warn(
-                          "Produto não encontrado ao criar pedido:" + " produtoId={}", produtoId);
-                      return new RuntimeException("Produto não encontrado: ID " + produtoId);
-                    });
-        if (Boolean.TRUE.equals(produto.getExcluido())
-            || !Boolean.TRUE.equals(produto.getDisponivel())) {
-          log.warn(
-              "Produto indisponível ou excluído ao criar pedido: produtoId={}", produto.getId());
-          throw new RuntimeException("Produto indisponível ou excluído: ID " + produto.getId());
-        }
-        item.setProduto(produto);
-        item.setPrecoUnitario(produto.getPreco());
-        // assume ItemPedido has método setSubtotal() or compute internally
-        try {
-          item.setSubtotal();
-        } catch (Exception ignore) {
-          // se não existir, calcular via campos
-        }
-        BigDecimal itemSubtotal =
-            item.getSubtotal() != null
-                ? item.getSubtotal()
-                : item.getPrecoUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()));
-        total = total.add(itemSubtotal);
-        item.setPedido(pedido);
-      }
-
-      // Add delivery fee to total
-      if (pedido.getRestaurante() != null && pedido.getRestaurante().getTaxaEntrega() != null) {
-        total = total.add(pedido.getRestaurante().getTaxaEntrega());
-      }
-
-      // Apply discount if available
-      if (pedido.getDesconto() != null) {
-        total = total.subtract(pedido.getDesconto());
-        // Ensure total doesn't go negative
-        if (total.compareTo(BigDecimal.ZERO) < 0) {
-          total = BigDecimal.ZERO;
-        }
-      }
+      validarEstoqueItens(pedido, produtos);
 
-      pedido.setValorTotal(total);
+      precificar(pedido, produtos);
 
       // Reserve stock for all items
-      produtoService.reservarEstoque(pedido);
+      produtoService.reservarEstoque(pedido, produtos);
 
-      return pedidoRepository.save(pedido);
+      Pedido salvo = pedidoRepository.save(pedido);
+      invalidacaoCache.invalidar(dependenciasDoNovo(salvo));
+      vendasDiarias.pedidosCriados(List.of(salvo));
+      return salvo;
     } catch (Exception e) {
       log.error("Erro ao criar pedido: {}", e.getMessage(), e);
       throw e;
     }
   }
 
+  private void prepararNovo(Pedido pedido) {
+    pedido.setStatus(StatusPedido.CRIADO);
+    pedido.setDataPedido(LocalDateTime.now());
+    if (pedido.getNumeroPedido() == null) {
+      pedido.setNumeroPedido(geradorNumeroPedido.proximo());
+    }
+  }
+
+  /** Preço dos itens a partir dos produtos carregados, taxa de entrega e desconto. */
+  private void precificar(Pedido pedido, ProdutosPedido produtos) {
+    BigDecimal total = BigDecimal.ZERO;
+    for (ItemPedido item : pedido.getItens()) {
+      Long produtoId = item.getProduto() != null ? item.getProduto().getId() : null;
+      if (produtoId == null) {
+        log.warn("ID do produto é nulo ao criar pedido.");
+        throw new BusinessException("ID do produto não pode ser nulo.");
+      }
+      if (!produtos.contem(produtoId)) {
+        log.warn("Produto não encontrado ao criar pedido:" + " produtoId={}", produtoId);
+        throw new RuntimeException("Produto não encontrado: ID " + produtoId);
+      }
+      Produto produto = produtos.get(produtoId);
+      if (Boolean.TRUE.equals(produto.getExcluido())
+          || !Boolean.TRUE.equals(produto.getDisponivel())) {
+        log.warn("Produto indisponível ou excluído ao criar pedido: produtoId={}", produto.getId());
+        throw new RuntimeException("Produto indisponível ou excluído: ID " + produto.getId());
+      }
+      item.setProduto(produto);
+      item.setPrecoUnitario(produto.getPreco());
+      // assume ItemPedido has método setSubtotal() or compute internally
+      try {
+        item.setSubtotal();
+      } catch (Exception ignore) {
+        // se não existir, calcular via campos
+      }
+      BigDecimal itemSubtotal =
+          item.getSubtotal() != null
+              ? item.getSubtotal()
+              : item.getPrecoUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()));
+      total = total.add(itemSubtotal);
+      item.setPedido(pedido);
+    }
+
+    // Add delivery fee to total
+    if (pedido.getRestaurante() != null && pedido.getRestaurante().getTaxaEntrega() != null) {
+      total = total.add(pedido.getRestaurante().getTaxaEntrega());
+    }
+
+    // Apply discount if available
+    if (pedido.getDesconto() != null) {
+      total = total.subtract(pedido.getDesconto());
+      // Ensure total doesn't go negative
+      if (total.compareTo(BigDecimal.ZERO) < 0) {
+        total = BigDecimal.ZERO;
+      }
+    }
+
+    pedido.setValorTotal(total);
+  }
+
   @Override
   @Transactional(readOnly = true)
   public Pedido buscarPorId(Long id) {
@@ -143,7 +191,15 @@ public class PedidoServiceImpl implements PedidoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "pedidos", key = "#clienteId")
+  public Pedido buscarPorNumero(String numeroPedido) {
+    return pedidoRepository
+        .findByNumeroPedido(numeroPedido)
+        .orElseThrow(() -> new EntityNotFoundException("Pedido", "número", numeroPedido));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  @ConsultaEmCache(regiao = RegioesCache.PEDIDOS_POR_CLIENTE, filtro = Dependencia.Tipo.CLIENTE)
   public List<Pedido> buscarPorCliente(Long clienteId) {
     List<Pedido> pedidos = pedidoRepository.findByClienteId(clienteId);
     if (pedidos == null) {
@@ -162,7 +218,9 @@ public class PedidoServiceImpl implements PedidoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "pedidos", key = "#restauranteId")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PEDIDOS_POR_RESTAURANTE,
+      filtro = Dependencia.Tipo.RESTAURANTE)
   public List<Pedido> buscarPorRestaurante(Long restauranteId) {
     return pedidoRepository.findByRestauranteId(restauranteId);
   }
@@ -176,81 +234,89 @@ public class PedidoServiceImpl implements PedidoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "pedidos", key = "#status")
+  @ConsultaEmCache(regiao = RegioesCache.PEDIDOS_POR_STATUS, filtro = Dependencia.Tipo.STATUS)
   public List<Pedido> buscarPorStatus(StatusPedido status) {
     return pedidoRepository.findByStatus(status);
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public Pedido atualizarStatus(Long id, StatusPedido status) {
-    Pedido pedido =
-        pedidoRepository
-            .findById(id)
-            .orElseThrow(
-                () -> {
-                  log.warn(
-                      "Tentativa de atualizar status de pedido inexistente:" + " pedidoId={}", id);
-                  return new EntityNotFoundException("Pedido", id);
-                });
-    if (pedido.getStatus() == StatusPedido.CANCELADO) {
-      log.warn("Tentativa de atualizar status de pedido já cancelado: pedidoId={}", id);
-      throw new BusinessException("Pedido já está cancelado");
-    }
-    if (pedido.getStatus() == StatusPedido.ENTREGUE) {
-      log.warn("Tentativa de atualizar status de pedido já entregue: pedidoId={}", id);
-      throw new BusinessException("Não é possível atualizar um pedido já entregue");
-    }
-
-    // If canceling a confirmed order, restore stock
-    if (status == StatusPedido.CANCELADO && pedido.getStatus() == StatusPedido.CONFIRMADO) {
-      produtoService.cancelarReservaEstoque(pedido);
-    }
-
-    pedido.setStatus(status);
-    return pedidoRepository.save(pedido);
+    return transicionar(id, status);
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public Pedido confirmar(Long id) {
-    Pedido pedido =
-        pedidoRepository
-            .findById(id)
-            .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
-    pedido.setStatus(StatusPedido.CONFIRMADO);
-
-    // Confirm stock reduction (in this implementation, stock is already reduced during reservation)
-    produtoService.confirmarEstoque(pedido);
-
-    return pedidoRepository.save(pedido);
+    return transicionar(id, StatusPedido.CONFIRMADO);
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public Pedido cancelar(Long pedidoId) {
-    Pedido pedido =
-        pedidoRepository
-            .findById(pedidoId)
-            .orElseThrow(() -> new EntityNotFoundException("Pedido", pedidoId));
-    if (pedido.getStatus() == StatusPedido.ENTREGUE) {
-      throw new BusinessException("Não é possível cancelar um pedido já entregue");
+    return transicionar(pedidoId, StatusPedido.CANCELADO);
+  }
+
+  // Troca o status com um único UPDATE ... WHERE status = anterior, sem lock na leitura: duas
+  // atualizações concorrentes não se sobrescrevem, pois só uma encontra o status lido. Esse status
+  // é o anterior de onde o pedido sai nas vendas diárias. Se o UPDATE não altera a linha, outra
+  // transação trocou o status depois da leitura; repetir aqui leria o mesmo snapshot, então a
+  // troca é recusada. Os efeitos no estoque rodam apenas quando o UPDATE de fato alterou a linha.
+  private Pedido transicionar(Long id, StatusPedido destino) {
+    StatusPedido anterior = pedidoRepository.findStatusById(id).orElse(null);
+    if (anterior == null || !anterior.podeIrPara(destino)) {
+      throw transicaoRecusada(id, anterior, destino);
     }
-    if (pedido.getStatus() == StatusPedido.CANCELADO) {
-      throw new BusinessException("Pedido já está cancelado");
+    if (pedidoRepository.atualizarStatusSe(id, destino, Set.of(anterior)) == 0) {
+      throw new ConflictException("Status do pedido " + id + " foi alterado por outra requisição");
     }
-
-    // Restore stock if order was confirmed
-    if (pedido.getStatus() == StatusPedido.CONFIRMADO) {
+    // Listas que já contêm o pedido saem por ele; a lista do novo status, pelo status
+    invalidacaoCache.invalidar(Dependencia.pedido(id), Dependencia.status(destino));
+
+    if (destino == StatusPedido.CANCELADO) {
+      // O estoque é reservado na criação, então qualquer cancelamento o devolve
+      Pedido pedido =
+          pedidoRepository
+              .findByIdWithItens(id)
+              .orElseThrow(() -> new EntityNotFoundException("Pedido", id));
       produtoService.cancelarReservaEstoque(pedido);
+      vendasDiarias.statusAlterado(pedido, anterior, destino);
+      return pedido;
     }
 
-    pedido.setStatus(StatusPedido.CANCELADO);
-    return pedidoRepository.save(pedido);
+    Pedido pedido =
+        pedidoRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Pedido", id));
+    vendasDiarias.statusAlterado(pedido, anterior, destino);
+    if (destino == StatusPedido.CONFIRMADO) {
+      // Confirm stock reduction (in this implementation, stock is already reduced during
+      // reservation)
+      produtoService.confirmarEstoque(pedido);
+    }
+    return pedido;
+  }
+
+  // Só no caminho de falha: o erro adequado para o status lido (null = pedido inexistente)
+  private RuntimeException transicaoRecusada(Long id, StatusPedido status, StatusPedido destino) {
+    if (status == null) {
+      log.warn("Tentativa de atualizar status de pedido inexistente: pedidoId={}", id);
+      return new EntityNotFoundException("Pedido", id);
+    }
+    if (status == StatusPedido.CANCELADO) {
+      log.warn("Tentativa de atualizar status de pedido já cancelado: pedidoId={}", id);
+      return new BusinessException("Pedido já está cancelado");
+    }
+    if (status == StatusPedido.ENTREGUE) {
+      log.warn("Tentativa de atualizar status de pedido já entregue: pedidoId={}", id);
+      return new BusinessException(
+          destino == StatusPedido.CANCELADO
+              ? "Não é possível cancelar um pedido já entregue"
+              : "Não é possível atualizar um pedido já entregue");
+    }
+    return new BusinessException("Transição de status inválida: " + status + " -> " + destino);
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public Pedido adicionarItem(Long pedidoId, Long produtoId, Integer quantidade) {
     Pedido pedido =
         pedidoRepository
@@ -273,13 +339,17 @@ public class PedidoServiceImpl implements PedidoService {
       pedido.setItens(new ArrayList<>());
     }
     pedido.getItens().add(item);
+    BigDecimal valorAnterior = pedido.getValorTotal();
     BigDecimal novoTotal = calcularTotal(pedido);
     pedido.setValorTotal(novoTotal);
 
     // Reserve stock for the new item
     produtoService.reservarEstoque(pedido);
 
-    return pedidoRepository.save(pedido);
+    Pedido salvo = pedidoRepository.save(pedido);
+    invalidacaoCache.invalidar(Dependencia.pedido(pedidoId));
+    vendasDiarias.itemAdicionado(salvo, item, valorAnterior);
+    return salvo;
   }
 
   @Override
@@ -299,13 +369,13 @@ public class PedidoServiceImpl implements PedidoService {
     if (itens == null || itens.isEmpty()) {
       return BigDecimal.ZERO;
     }
+    ProdutosPedido produtos = carregarProdutos(idsDosItens(itens));
     BigDecimal total = BigDecimal.ZERO;
     for (ItemPedidoRequest itemRequest : itens) {
-      Produto produto =
-          produtoRepository
-              .findById(itemRequest.getProdutoId())
-              .orElseThrow(
-                  () -> new EntityNotFoundException("Produto", itemRequest.getProdutoId()));
+      if (!produtos.contem(itemRequest.getProdutoId())) {
+        throw new EntityNotFoundException("Produto", itemRequest.getProdutoId());
+      }
+      Produto produto = produtos.get(itemRequest.getProdutoId());
       if (!Boolean.TRUE.equals(produto.getDisponivel())) {
         throw new RuntimeException(
             "Produto não está disponível - ID: " + itemRequest.getProdutoId());
@@ -383,9 +453,9 @@ public class PedidoServiceImpl implements PedidoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(
-      value = "pedidos",
-      key = "#clienteId + ':' + #pageable.offset + ':' + #pageable.pageSize")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PEDIDOS_POR_CLIENTE_PAGINADO,
+      filtro = Dependencia.Tipo.CLIENTE)
   public org.springframework.data.domain.Page<PedidoResponse> buscarPedidosPorCliente(
       Long clienteId, org.springframework.data.domain.Pageable pageable) {
     var page = pedidoRepository.findByClienteId(clienteId, pageable);
@@ -394,9 +464,9 @@ public class PedidoServiceImpl implements PedidoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(
-      value = "pedidos",
-      key = "#restauranteId + ':' + #pageable.offset + ':' + #pageable.pageSize")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PEDIDOS_POR_RESTAURANTE_PAGINADO,
+      filtro = Dependencia.Tipo.RESTAURANTE)
   public org.springframework.data.domain.Page<PedidoResponse> buscarPedidosPorRestaurante(
       Long restauranteId, org.springframework.data.domain.Pageable pageable) {
     var page = pedidoRepository.findByRestauranteId(restauranteId, pageable);
@@ -404,17 +474,18 @@ public class PedidoServiceImpl implements PedidoService {
   }
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
   public void deletar(Long id) {
     Pedido pedido =
         pedidoRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Pedido", id));
+    vendasDiarias.pedidoRemovido(pedido);
     pedidoRepository.delete(pedido);
+    invalidacaoCache.invalidar(Dependencia.pedido(id));
   }
 
   // ===== NOVO MÉTODO COM DTO =====
 
   @Override
-  @CacheEvict(value = "pedidos", allEntries = true)
+  @RetentativaEmBloqueio
   public PedidoResponse criarPedido(PedidoRequest pedidoRequest) {
     try {
       // Validate cliente exists and not excluded
@@ -424,9 +495,7 @@ public class PedidoServiceImpl implements PedidoService {
               .orElseThrow(
                   () -> new EntityNotFoundException("Cliente", pedidoRequest.getClienteId()));
 
-      if (Boolean.TRUE.equals(cliente.getExcluido()) || !cliente.isAtivo()) {
-        throw new BusinessException("Cliente inativo ou excluído do sistema");
-      }
+      validarCliente(cliente);
 
       // Validate delivery address is provided
       if (pedidoRequest.getEnderecoEntrega() == null) {
@@ -441,45 +510,28 @@ public class PedidoServiceImpl implements PedidoService {
                   () ->
                       new EntityNotFoundException("Restaurante", pedidoRequest.getRestauranteId()));
 
-      if (Boolean.TRUE.equals(restaurante.getExcluido()) || !restaurante.isAtivo()) {
-        throw new BusinessException("Restaurante inativo ou excluído do sistema");
-      }
+      validarRestaurante(restaurante);
 
       // Validate itens
       if (pedidoRequest.getItens() == null || pedidoRequest.getItens().isEmpty()) {
         throw new BusinessException("Pedido deve conter ao menos um item");
       }
 
-      // Validate all produtos are available and not excluded
-      for (ItemPedidoRequest itemRequest : pedidoRequest.getItens()) {
-        Produto produto =
-            produtoRepository
-                .findById(itemRequest.getProdutoId())
-                .orElseThrow(
-                    () ->
-                        new EntityNotFoundException(
-                            "Produto", "ID", itemRequest.getProdutoId().toString()));
-
-        if (Boolean.TRUE.equals(produto.getExcluido())
-            || !Boolean.TRUE.equals(produto.getDisponivel())) {
-          throw new BusinessException("Produto indisponível ou excluído: " + produto.getNome());
-        }
-
-        // Validate produto belongs to the same restaurant
-        if (!produto.getRestaurante().getId().equals(pedidoRequest.getRestauranteId())) {
-          throw new BusinessException(
-              "Produto não pertence ao restaurante selecionado: " + produto.getNome());
-        }
+      // Load every produto of the order once and share it with mapping, pricing and reservation
+      ProdutosPedido produtos = carregarProdutos(idsDosItens(pedidoRequest.getItens()));
 
+      validarProdutos(pedidoRequest, produtos);
+      for (ItemPedidoRequest itemRequest : pedidoRequest.getItens()) {
         // Validate stock for the item
-        produtoService.validarEstoque(produto, itemRequest.getQuantidade());
+        produtoService.validarEstoque(
+            produtos.get(itemRequest.getProdutoId()), itemRequest.getQuantidade());
       }
 
       // Convert DTO to Entity
-      Pedido pedido = pedidoMapper.toEntity(pedidoRequest);
+      Pedido pedido = pedidoMapper.toEntity(pedidoRequest, cliente, restaurante, produtos);
 
       // Create the pedido using existing business logic
-      Pedido pedidoCriado = criar(pedido);
+      Pedido pedidoCriado = criar(pedido, produtos);
 
       // Convert back to DTO response
       return pedidoMapper.toResponse(pedidoCriado);
@@ -490,21 +542,196 @@ public class PedidoServiceImpl implements PedidoService {
     }
   }
 
+  // ===== CRIAÇÃO EM LOTE =====
+
+  @Override
+  @RetentativaEmBloqueio
+  public List<PedidoLoteResultadoResponse> criarPedidos(List<PedidoRequest> pedidoRequests) {
+    if (pedidoRequests == null || pedidoRequests.isEmpty()) {
+      throw new BusinessException("Lote deve conter ao menos um pedido");
+    }
+    if (pedidoRequests.size() > maxPedidosLote) {
+      throw new BusinessException(
+          "Lote excede o limite de " + maxPedidosLote + " pedidos: " + pedidoRequests.size());
+    }
+
+    // Três consultas IN para o lote inteiro, em vez de três por pedido
+    Set<Long> clienteIds = new TreeSet<>();
+    Set<Long> restauranteIds = new TreeSet<>();
+    Set<Long> produtoIds = new TreeSet<>();
+    for (PedidoRequest pedidoRequest : pedidoRequests) {
+      if (pedidoRequest == null) {
+        continue;
+      }
+      if (pedidoRequest.getClienteId() != null) {
+        clienteIds.add(pedidoRequest.getClienteId());
+      }
+      if (pedidoRequest.getRestauranteId() != null) {
+        restauranteIds.add(pedidoRequest.getRestauranteId());
+      }
+      if (pedidoRequest.getItens() != null) {
+        produtoIds.addAll(idsDosItens(pedidoRequest.getItens()));
+      }
+    }
+    Map<Long, Cliente> clientes = new HashMap<>();
+    clienteRepository.findAllById(clienteIds).forEach(c -> clientes.put(c.getId(), c));
+    Map<Long, Restaurante> restaurantes = new HashMap<>();
+    restauranteRepository.findAllById(restauranteIds).forEach(r -> restaurantes.put(r.getId(), r));
+    ProdutosPedido produtos = carregarProdutos(produtoIds);
+
+    PedidoLoteResultadoResponse[] resultados =
+        new PedidoLoteResultadoResponse[pedidoRequests.size()];
+    List<Pedido> montados = new ArrayList<>();
+    List<Integer> posicoes = new ArrayList<>();
+    for (int i = 0; i < pedidoRequests.size(); i++) {
+      try {
+        montados.add(montarPedidoDoLote(pedidoRequests.get(i), clientes, restaurantes, produtos));
+        posicoes.add(i);
+      } catch (RuntimeException ex) {
+        log.warn("Pedido {} do lote recusado: {}", i, ex.getMessage());
+        resultados[i] = PedidoLoteResultadoResponse.recusado(i, ex.getMessage());
+      }
+    }
+
+    // Reserva de todos os pedidos montados sob um único lock ordenado dos produtos
+    Map<Integer, String> semEstoque = produtoService.reservarEstoqueEmLote(montados, produtos);
+    List<Pedido> aceitos = new ArrayList<>();
+    for (int j = 0; j < montados.size(); j++) {
+      int posicao = posicoes.get(j);
+      if (semEstoque.containsKey(j)) {
+        resultados[posicao] = PedidoLoteResultadoResponse.recusado(posicao, semEstoque.get(j));
+      } else {
+        aceitos.add(montados.get(j));
+      }
+    }
+
+    // Ids vêm dos blocos do TableGenerator; os INSERTs saem em lotes de hibernate.jdbc.batch_size
+    pedidoRepository.saveAll(aceitos);
+    Set<Dependencia> dependencias = new HashSet<>();
+    aceitos.forEach(pedido -> dependencias.addAll(dependenciasDoNovo(pedido)));
+    invalidacaoCache.invalidar(dependencias);
+    vendasDiarias.pedidosCriados(aceitos);
+    for (int j = 0; j < montados.size(); j++) {
+      int posicao = posicoes.get(j);
+      if (resultados[posicao] == null) {
+        resultados[posicao] =
+            PedidoLoteResultadoResponse.criado(posicao, pedidoMapper.toResponse(montados.get(j)));
+      }
+    }
+    log.info(
+        "Lote de pedidos processado: {} criados, {} recusados",
+        aceitos.size(),
+        pedidoRequests.size() - aceitos.size());
+    return List.of(resultados);
+  }
+
+  private Pedido montarPedidoDoLote(
+      PedidoRequest pedidoRequest,
+      Map<Long, Cliente> clientes,
+      Map<Long, Restaurante> restaurantes,
+      ProdutosPedido produtos) {
+    if (pedidoRequest == null) {
+      throw new BusinessException("Pedido vazio");
+    }
+    // Sem @Valid no corpo do lote: um pedido inválido não pode derrubar os demais
+    Set<ConstraintViolation<PedidoRequest>> violacoes = validator.validate(pedidoRequest);
+    if (!violacoes.isEmpty()) {
+      throw new BusinessException(
+          violacoes.stream()
+              .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+              .sorted()
+              .collect(Collectors.joining("; ")));
+    }
+    Cliente cliente = clientes.get(pedidoRequest.getClienteId());
+    if (cliente == null) {
+      throw new EntityNotFoundException("Cliente", pedidoRequest.getClienteId());
+    }
+    validarCliente(cliente);
+    Restaurante restaurante = restaurantes.get(pedidoRequest.getRestauranteId());
+    if (restaurante == null) {
+      throw new EntityNotFoundException("Restaurante", pedidoRequest.getRestauranteId());
+    }
+    validarRestaurante(restaurante);
+    validarProdutos(pedidoRequest, produtos);
+
+    Pedido pedido = pedidoMapper.toEntity(pedidoRequest, cliente, restaurante, produtos);
+    prepararNovo(pedido);
+    precificar(pedido, produtos);
+    return pedido;
+  }
+
+  // Um pedido novo entra nas listas do seu cliente, do seu restaurante e do status CRIADO
+  private static List<Dependencia> dependenciasDoNovo(Pedido pedido) {
+    return List.of(
+        Dependencia.cliente(pedido.getCliente() != null ? pedido.getCliente().getId() : null),
+        Dependencia.restaurante(
+            pedido.getRestaurante() != null ? pedido.getRestaurante().getId() : null),
+        Dependencia.status(pedido.getStatus()));
+  }
+
+  private static void validarCliente(Cliente cliente) {
+    if (Boolean.TRUE.equals(cliente.getExcluido()) || !cliente.isAtivo()) {
+      throw new BusinessException("Cliente inativo ou excluído do sistema");
+    }
+  }
+
+  private static void validarRestaurante(Restaurante restaurante) {
+    if (Boolean.TRUE.equals(restaurante.getExcluido()) || !restaurante.isAtivo()) {
+      throw new BusinessException("Restaurante inativo ou excluído do sistema");
+    }
+  }
+
+  /** Produtos existentes, disponíveis e do restaurante do pedido; o estoque é visto à parte. */
+  private static void validarProdutos(PedidoRequest pedidoRequest, ProdutosPedido produtos) {
+    for (ItemPedidoRequest itemRequest : pedidoRequest.getItens()) {
+      Produto produto = produtos.get(itemRequest.getProdutoId());
+
+      if (Boolean.TRUE.equals(produto.getExcluido())
+          || !Boolean.TRUE.equals(produto.getDisponivel())) {
+        throw new BusinessException("Produto indisponível ou excluído: " + produto.getNome());
+      }
+
+      // Validate produto belongs to the same restaurant
+      if (!produto.getRestaurante().getId().equals(pedidoRequest.getRestauranteId())) {
+        throw new BusinessException(
+            "Produto não pertence ao restaurante selecionado: " + produto.getNome());
+      }
+    }
+  }
+
   // ===== MÉTODO PARA VALIDAÇÃO DE ESTOQUE =====
 
   @Override
   public void validarEstoqueItens(Pedido pedido) {
+    validarEstoqueItens(pedido, carregarProdutos(ProdutosPedido.idsDosItens(pedido)));
+  }
+
+  private void validarEstoqueItens(Pedido pedido, ProdutosPedido produtos) {
     for (ItemPedido item : pedido.getItens()) {
       Long produtoId = item.getProduto() != null ? item.getProduto().getId() : null;
       if (produtoId == null) {
         throw new BusinessException("ID do produto não pode ser nulo.");
       }
-      Produto produto =
-          produtoRepository
-              .findById(produtoId)
-              .orElseThrow(
-                  () -> new EntityNotFoundException("Produto", "ID", produtoId.toString()));
-      produtoService.validarEstoque(produto, item.getQuantidade());
+      produtoService.validarEstoque(produtos.get(produtoId), item.getQuantidade());
+    }
+  }
+
+  // ===== CARGA EM LOTE DOS PRODUTOS DO PEDIDO =====
+
+  private ProdutosPedido carregarProdutos(Collection<Long> produtoIds) {
+    if (produtoIds.isEmpty()) {
+      return new ProdutosPedido(List.of());
+    }
+    return new ProdutosPedido(produtoRepository.findAllById(produtoIds));
+  }
+
+  private static Set<Long> idsDosItens(List<ItemPedidoRequest> itens) {
+    Set<Long> ids = new LinkedHashSet<>();
+    for (ItemPedidoRequest item : itens) {
+      if (item.getProdutoId() != null) {
+        ids.add(item.getProdutoId());
+      }
     }
+    return ids;
   }
 }
@@ -1,5 +1,11 @@
 package com.deliverytech.delivery_api.service.impl;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
+import com.deliverytech.delivery_api.cache.ConsultaEmCache;
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.dto.request.ProdutoRequest;
 import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
 import com.deliverytech.delivery_api.exception.BusinessException;
@@ -10,13 +16,26 @@ import com.deliverytech.delivery_api.mapper.ProdutoMapper;
 import com.deliverytech.delivery_api.model.ItemPedido;
 import com.deliverytech.delivery_api.model.Produto;
 import com.deliverytech.delivery_api.model.Restaurante;
+import com.deliverytech.delivery_api.projection.EstoqueProdutoProjection;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.retry.RetentativaEmBloqueio;
+import com.deliverytech.delivery_api.service.EstoqueFragmentado;
+import com.deliverytech.delivery_api.service.EstoqueLedger;
+import com.deliverytech.delivery_api.service.ModoReservaEstoque;
 import com.deliverytech.delivery_api.service.ProdutoService;
+import com.deliverytech.delivery_api.service.ProdutosPedido;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,14 +44,35 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProdutoServiceImpl implements ProdutoService {
   private final ProdutoRepository produtoRepository;
   private final ProdutoMapper produtoMapper;
-
-  public ProdutoServiceImpl(ProdutoRepository produtoRepository, ProdutoMapper produtoMapper) {
+  private final InvalidacaoCache invalidacaoCache;
+  private final VersoesCatalogo versoesCatalogo;
+  private final AusenciasEmCache ausenciasEmCache;
+
+  @Value("${app.estoque.modo-reserva:PESSIMISTA}")
+  private ModoReservaEstoque modoReserva = ModoReservaEstoque.PESSIMISTA;
+
+  // Presente só com app.estoque.ledger.enabled=true
+  @Autowired(required = false)
+  private EstoqueLedger estoqueLedger;
+
+  // Presente só com app.estoque.shards.enabled=true
+  @Autowired(required = false)
+  private EstoqueFragmentado estoqueFragmentado;
+
+  public ProdutoServiceImpl(
+      ProdutoRepository produtoRepository,
+      ProdutoMapper produtoMapper,
+      InvalidacaoCache invalidacaoCache,
+      VersoesCatalogo versoesCatalogo,
+      AusenciasEmCache ausenciasEmCache) {
     this.produtoRepository = produtoRepository;
     this.produtoMapper = produtoMapper;
+    this.invalidacaoCache = invalidacaoCache;
+    this.versoesCatalogo = versoesCatalogo;
+    this.ausenciasEmCache = ausenciasEmCache;
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public Produto cadastrar(Produto produto) {
     if (produto.getCategoria() == null || produto.getCategoria().isEmpty()) {
       throw new BusinessException("Categoria obrigatória");
@@ -47,19 +87,20 @@ public class ProdutoServiceImpl implements ProdutoService {
     if (produto.getQuantidadeEstoque() == null) {
       throw new BusinessException("Quantidade em estoque é obrigatória");
     }
-    return produtoRepository.save(produto);
+    Produto salvo = produtoRepository.save(produto);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.PRODUTO, salvo.getId());
+    invalidarCatalogo(salvo, null);
+    return salvo;
   }
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#restaurante.id")
   public List<Produto> buscarPorRestaurante(Restaurante restaurante) {
     return produtoRepository.findByRestauranteAndExcluidoFalse(restaurante);
   }
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "'disponiveis'")
   public List<Produto> buscarDisponiveisEntities() {
     return produtoRepository.findByDisponivelTrueAndExcluidoFalse();
   }
@@ -77,37 +118,37 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public Produto atualizar(Long id, Produto produtoAtualizado) {
     Produto existente =
-        produtoRepository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Produto", id));
+        buscarParaAtualizar(id).orElseThrow(() -> new EntityNotFoundException("Produto", id));
+    EstadoCatalogo antes = EstadoCatalogo.de(existente);
     existente.setNome(produtoAtualizado.getNome());
     existente.setCategoria(produtoAtualizado.getCategoria());
     existente.setDisponivel(produtoAtualizado.getDisponivel());
     existente.setRestaurante(produtoAtualizado.getRestaurante());
     // Update stock quantity if provided
     if (produtoAtualizado.getQuantidadeEstoque() != null) {
-      existente.setQuantidadeEstoque(produtoAtualizado.getQuantidadeEstoque());
+      definirEstoque(existente, produtoAtualizado.getQuantidadeEstoque());
     }
     // Adicione outros campos conforme necessário
-    return produtoRepository.save(existente);
+    Produto salvo = produtoRepository.save(existente);
+    invalidarCatalogo(salvo, antes);
+    return salvo;
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public void inativar(Long id) {
     Produto produto =
         produtoRepository
             .findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Produto", id));
+    EstadoCatalogo antes = EstadoCatalogo.de(produto);
     produto.setDisponivel(false);
     produtoRepository.save(produto);
+    invalidarCatalogo(produto, antes);
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public void deletar(Long id) {
     Produto produto =
         produtoRepository
@@ -116,18 +157,19 @@ public class ProdutoServiceImpl implements ProdutoService {
     produto.setDisponivel(false);
     produto.setExcluido(true);
     produtoRepository.save(produto);
+    // Sai de todas as listas; as que o contêm estão ligadas ao próprio produto
+    invalidacaoCache.invalidar(Dependencia.produto(id));
+    versionar(produto);
   }
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#categoria")
   public List<Produto> buscarPorCategoria(String categoria) {
     return produtoRepository.findByCategoriaAndExcluidoFalse(categoria);
   }
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#nome")
   public List<Produto> buscarPorNome(String nome) {
     // Se existir método customizado, usar:
     // return produtoRepository.findByNomeContainingIgnoreCaseAndExcluidoFalse(nome);
@@ -138,14 +180,15 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public void alterarDisponibilidade(Long id, boolean disponivel) {
     Produto produto =
         produtoRepository
             .findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Produto", id));
+    EstadoCatalogo antes = EstadoCatalogo.de(produto);
     produto.setDisponivel(disponivel);
     produtoRepository.save(produto);
+    invalidarCatalogo(produto, antes);
   }
 
   @Override
@@ -158,7 +201,6 @@ public class ProdutoServiceImpl implements ProdutoService {
   // ===== NOVOS MÉTODOS COM DTOs =====
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public ProdutoResponse cadastrar(ProdutoRequest produtoRequest) {
     Produto produto = produtoMapper.toEntity(produtoRequest);
     // Verifica duplicidade de nome no mesmo restaurante
@@ -171,19 +213,33 @@ public class ProdutoServiceImpl implements ProdutoService {
     }
 
     Produto salvo = produtoRepository.save(produto);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.PRODUTO, salvo.getId());
+    invalidarCatalogo(salvo, null);
     return produtoMapper.toResponse(salvo);
   }
 
   @Override
   @Transactional(readOnly = true)
   public ProdutoResponse buscarProdutoPorId(Long id) {
-    Produto produto =
-        produtoRepository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Produto", id));
+    AusenciasEmCache.Motivo ausencia =
+        ausenciasEmCache.consultar(AusenciasEmCache.Recurso.PRODUTO, id);
+    if (ausencia == AusenciasEmCache.Motivo.EXCLUIDO) {
+      throw new BusinessException("Produto foi excluído do sistema");
+    }
+    if (ausencia == AusenciasEmCache.Motivo.NAO_ENCONTRADO) {
+      throw new EntityNotFoundException("Produto", id);
+    }
+    Produto produto = produtoRepository.findById(id).orElse(null);
+    if (produto == null) {
+      ausenciasEmCache.registrarAusencia(
+          AusenciasEmCache.Recurso.PRODUTO, id, AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+      throw new EntityNotFoundException("Produto", id);
+    }
 
-    // Validate not soft deleted
+    // Validate not soft deleted; exclusão não tem volta, então o motivo pode ficar em cache
     if (Boolean.TRUE.equals(produto.getExcluido())) {
+      ausenciasEmCache.registrarAusencia(
+          AusenciasEmCache.Recurso.PRODUTO, id, AusenciasEmCache.Motivo.EXCLUIDO);
       throw new BusinessException("Produto foi excluído do sistema");
     }
 
@@ -192,7 +248,9 @@ public class ProdutoServiceImpl implements ProdutoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#restauranteId")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PRODUTOS_POR_RESTAURANTE,
+      filtro = Dependencia.Tipo.RESTAURANTE)
   public List<ProdutoResponse> buscarProdutosPorRestaurante(Long restauranteId) {
     List<Produto> produtos = produtoRepository.findByRestauranteIdAndExcluidoFalse(restauranteId);
     return produtos.stream().map(produtoMapper::toResponse).collect(Collectors.toList());
@@ -207,18 +265,17 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   public ProdutoResponse atualizar(Long id, ProdutoRequest produtoRequest) {
     Produto existente =
-        produtoRepository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Produto", id));
+        buscarParaAtualizar(id).orElseThrow(() -> new EntityNotFoundException("Produto", id));
 
     // Validate not soft deleted
     if (Boolean.TRUE.equals(existente.getExcluido())) {
       throw new BusinessException("Não é possível atualizar produto excluído");
     }
 
+    EstadoCatalogo antes = EstadoCatalogo.de(existente);
+
     // Update fields
     existente.setNome(produtoRequest.getNome());
     existente.setCategoria(produtoRequest.getCategoria());
@@ -226,7 +283,7 @@ public class ProdutoServiceImpl implements ProdutoService {
     existente.setPreco(produtoRequest.getPreco());
     existente.setDisponivel(produtoRequest.getDisponivel());
     // Update stock quantity
-    existente.setQuantidadeEstoque(produtoRequest.getQuantidadeEstoque());
+    definirEstoque(existente, produtoRequest.getQuantidadeEstoque());
 
     // Update restaurant if changed
     if (!existente.getRestaurante().getId().equals(produtoRequest.getRestauranteId())) {
@@ -235,12 +292,15 @@ public class ProdutoServiceImpl implements ProdutoService {
     }
 
     Produto atualizado = produtoRepository.save(existente);
+    invalidarCatalogo(atualizado, antes);
     return produtoMapper.toResponse(atualizado);
   }
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#categoria")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PRODUTOS_POR_CATEGORIA,
+      filtro = Dependencia.Tipo.CATEGORIA)
   public List<ProdutoResponse> buscarProdutosPorCategoria(String categoria) {
     List<Produto> produtos = produtoRepository.findByCategoriaAndExcluidoFalse(categoria);
     return produtos.stream().map(produtoMapper::toResponse).collect(Collectors.toList());
@@ -248,7 +308,9 @@ public class ProdutoServiceImpl implements ProdutoService {
 
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "'disponiveis'")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PRODUTOS_DISPONIVEIS,
+      filtro = Dependencia.Tipo.DISPONIVEIS)
   public List<ProdutoResponse> buscarDisponiveis() {
     List<Produto> produtos = produtoRepository.findByDisponivelTrueAndExcluidoFalse();
     return produtos.stream().map(produtoMapper::toResponse).collect(Collectors.toList());
@@ -282,6 +344,22 @@ public class ProdutoServiceImpl implements ProdutoService {
 
   @Override
   public void validarEstoque(Produto produto, Integer quantidadeSolicitada) {
+    // Products in the in-memory ledger or in stock buckets are validated against that balance,
+    // since the entity's quantity only catches up on the next flush or rebalance
+    Integer saldo = saldoForaDaEntidade(produto.getId());
+    if (saldo != null) {
+      if (!Boolean.TRUE.equals(produto.getDisponivel())) {
+        throw new ProdutoIndisponivelException("Produto não está disponível: " + produto.getNome());
+      }
+      if (quantidadeSolicitada > saldo) {
+        throw new EstoqueInsuficienteException(
+            String.format(
+                "Estoque insuficiente para o produto %s. Disponível: %d, Solicitado: %d",
+                produto.getNome(), saldo, quantidadeSolicitada));
+      }
+      return;
+    }
+
     // If product is not available, throw exception
     if (!produto.isDisponivel()) {
       throw new ProdutoIndisponivelException("Produto não está disponível: " + produto.getNome());
@@ -307,20 +385,21 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
+  @RetentativaEmBloqueio
   @Transactional
   public void atualizarEstoque(Long produtoId, Integer novaQuantidade) {
     Produto produto =
         produtoRepository
             .findByIdWithLock(produtoId)
             .orElseThrow(() -> new EntityNotFoundException("Produto", produtoId));
+    invalidacaoCache.invalidar(Dependencia.produto(produtoId));
 
-    produto.setQuantidadeEstoque(novaQuantidade);
+    definirEstoque(produto, novaQuantidade);
     produtoRepository.save(produto);
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
+  @RetentativaEmBloqueio
   @Transactional
   public void ajustarEstoque(Long produtoId, Integer quantidade) {
     // Buscar produto com lock pessimista para evitar race conditions
@@ -328,8 +407,15 @@ public class ProdutoServiceImpl implements ProdutoService {
         produtoRepository
             .findByIdWithLock(produtoId)
             .orElseThrow(() -> new EntityNotFoundException("Produto", produtoId));
+    invalidacaoCache.invalidar(Dependencia.produto(produtoId));
 
     // Only adjust stock for non-infinite stock products
+    if (estoqueLedger != null && estoqueLedger.ajustar(produtoId, quantidade)) {
+      return;
+    }
+    if (estoqueFragmentado != null && estoqueFragmentado.ajustar(produtoId, quantidade)) {
+      return;
+    }
     if (!produto.isInfiniteStock()) {
       produto.setQuantidadeEstoque(produto.getQuantidadeEstoque() + quantidade);
       produtoRepository.save(produto);
@@ -337,16 +423,69 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
+  @RetentativaEmBloqueio
   @Transactional
   public void reservarEstoque(com.deliverytech.delivery_api.model.Pedido pedido) {
+    reservarEstoque(
+        pedido,
+        new ProdutosPedido(produtoRepository.findAllById(ProdutosPedido.idsDosItens(pedido))));
+  }
+
+  @Override
+  @RetentativaEmBloqueio
+  @Transactional
+  public void reservarEstoque(
+      com.deliverytech.delivery_api.model.Pedido pedido, ProdutosPedido produtos) {
+    if (pedido.getItens() == null || pedido.getItens().isEmpty()) {
+      return;
+    }
+    List<ItemPedido> itens = pedido.getItens();
+    invalidarProdutos(itens);
+
+    // Hot products are reserved in memory first; the rest goes through the database
+    EstoqueLedger.Reserva reserva = null;
+    if (estoqueLedger != null) {
+      Map<Long, Integer> noLedger = new TreeMap<>();
+      itens = separarItens(itens, estoqueLedger::controla, noLedger);
+      verificarDisponiveis(noLedger.keySet(), produtos);
+      reserva = estoqueLedger.reservar(noLedger);
+      if (!reserva.isAceita()) {
+        lancarSemEstoque(List.of(reserva.getProdutoSemEstoque()), produtos);
+      }
+    }
+    try {
+      reservarEstoqueNoBanco(itens, produtos);
+    } catch (RuntimeException ex) {
+      if (reserva != null) {
+        reserva.desfazer();
+      }
+      throw ex;
+    }
+  }
+
+  private void reservarEstoqueNoBanco(List<ItemPedido> itens, ProdutosPedido produtos) {
+    // Produtos fragmentados baixam um bucket; a transação desfaz a baixa se algo falhar depois
+    if (estoqueFragmentado != null) {
+      Map<Long, Integer> nosBuckets = new TreeMap<>();
+      itens = separarItens(itens, estoqueFragmentado::controla, nosBuckets);
+      verificarDisponiveis(nosBuckets.keySet(), produtos);
+      lancarSemEstoque(estoqueFragmentado.reservar(nosBuckets), produtos);
+    }
+    if (itens.isEmpty()) {
+      return;
+    }
+    if (modoReserva == ModoReservaEstoque.CONDICIONAL) {
+      reservarEstoqueCondicional(itens, produtos);
+      return;
+    }
+
+    bloquearEstoque(itens, produtos);
+
     // Reserve stock for all items in the order
-    for (ItemPedido item : pedido.getItens()) {
-      // Buscar produto com lock pessimista para evitar race conditions
-      Produto produto =
-          produtoRepository
-              .findByIdWithLock(item.getProduto().getId())
-              .orElseThrow(() -> new EntityNotFoundException("Produto", item.getProduto().getId()));
+    Map<Long, Produto> alterados = new LinkedHashMap<>();
+    for (ItemPedido item : itens) {
+      Produto produto = produtos.get(item.getProduto().getId());
+      item.setProduto(produto);
 
       // Validate stock availability
       validarEstoque(produto, item.getQuantidade());
@@ -355,13 +494,152 @@ public class ProdutoServiceImpl implements ProdutoService {
       // Only for non-infinite stock products
       if (!produto.isInfiniteStock()) {
         produto.reduzirEstoque(item.getQuantidade());
-        produtoRepository.save(produto);
+        alterados.put(produto.getId(), produto);
+      }
+    }
+    produtoRepository.saveAll(alterados.values());
+  }
+
+  private void reservarEstoqueCondicional(List<ItemPedido> itens, ProdutosPedido produtos) {
+    // Quantidade total por produto, em ordem crescente de id para que lotes concorrentes travem as
+    // linhas na mesma ordem; estoque infinito não passa pelo UPDATE condicional
+    Map<Long, Integer> quantidades = new TreeMap<>();
+    for (ItemPedido item : itens) {
+      Produto produto = produtos.get(item.getProduto().getId());
+      item.setProduto(produto);
+      if (!produto.isDisponivel()) {
+        throw new ProdutoIndisponivelException("Produto não está disponível: " + produto.getNome());
+      }
+      if (!produto.isInfiniteStock()) {
+        quantidades.merge(produto.getId(), item.getQuantidade(), Integer::sum);
+      }
+    }
+
+    // A entidade não é alterada: um save gravaria o valor absoluto lido antes do UPDATE
+    lancarSemEstoque(produtoRepository.decrementarEstoqueCondicional(quantidades), produtos);
+  }
+
+  private void lancarSemEstoque(List<Long> semEstoque, ProdutosPedido produtos) {
+    if (!semEstoque.isEmpty()) {
+      String nomes =
+          semEstoque.stream()
+              .map(id -> produtos.get(id).getNome())
+              .collect(Collectors.joining(", "));
+      throw new EstoqueInsuficienteException("Estoque insuficiente para o(s) produto(s): " + nomes);
+    }
+  }
+
+  private void verificarDisponiveis(Iterable<Long> produtoIds, ProdutosPedido produtos) {
+    for (Long produtoId : produtoIds) {
+      Produto produto = produtos.get(produtoId);
+      if (!Boolean.TRUE.equals(produto.getDisponivel())) {
+        throw new ProdutoIndisponivelException("Produto não está disponível: " + produto.getNome());
+      }
+    }
+  }
+
+  @Override
+  @Transactional
+  public Map<Integer, String> reservarEstoqueEmLote(
+      List<com.deliverytech.delivery_api.model.Pedido> pedidos, ProdutosPedido produtos) {
+    // Um único SELECT ... FOR UPDATE, em ordem de id, para os produtos de todos os pedidos cujo
+    // estoque está na coluna; a partir daí cada pedido é decidido sobre o saldo em memória
+    List<ItemPedido> noBanco = new ArrayList<>();
+    for (com.deliverytech.delivery_api.model.Pedido pedido : pedidos) {
+      if (pedido.getItens() != null) {
+        noBanco.addAll(
+            separarItens(pedido.getItens(), this::estoqueForaDaEntidade, new TreeMap<>()));
+      }
+    }
+    if (!noBanco.isEmpty()) {
+      bloquearEstoque(noBanco, produtos);
+    }
+
+    Map<Integer, String> recusados = new TreeMap<>();
+    Map<Long, Produto> alterados = new LinkedHashMap<>();
+    for (int i = 0; i < pedidos.size(); i++) {
+      try {
+        reservarPedidoDoLote(pedidos.get(i), produtos, alterados);
+      } catch (EstoqueInsuficienteException | ProdutoIndisponivelException ex) {
+        recusados.put(i, ex.getMessage());
       }
     }
+    // Um UPDATE por produto, com o saldo somado de todos os pedidos aceitos
+    produtoRepository.saveAll(alterados.values());
+    for (com.deliverytech.delivery_api.model.Pedido pedido : pedidos) {
+      if (pedido.getItens() != null) {
+        invalidarProdutos(pedido.getItens());
+      }
+    }
+    return recusados;
+  }
+
+  /**
+   * Reserva um pedido do lote ou lança sem ter alterado nada: o saldo da coluna é validado antes, e
+   * o que já foi reservado no ledger ou nos buckets é devolvido se outra parte falhar.
+   */
+  private void reservarPedidoDoLote(
+      com.deliverytech.delivery_api.model.Pedido pedido,
+      ProdutosPedido produtos,
+      Map<Long, Produto> alterados) {
+    if (pedido.getItens() == null || pedido.getItens().isEmpty()) {
+      return;
+    }
+    List<ItemPedido> itens = pedido.getItens();
+    Map<Long, Integer> noLedger = new TreeMap<>();
+    Map<Long, Integer> nosBuckets = new TreeMap<>();
+    if (estoqueLedger != null) {
+      itens = separarItens(itens, estoqueLedger::controla, noLedger);
+    }
+    if (estoqueFragmentado != null) {
+      itens = separarItens(itens, estoqueFragmentado::controla, nosBuckets);
+    }
+
+    Map<Long, Integer> noBanco = new TreeMap<>();
+    for (ItemPedido item : itens) {
+      Produto produto = produtos.get(item.getProduto().getId());
+      item.setProduto(produto);
+      noBanco.merge(produto.getId(), item.getQuantidade(), Integer::sum);
+    }
+    noBanco.forEach((produtoId, quantidade) -> validarEstoque(produtos.get(produtoId), quantidade));
+
+    EstoqueLedger.Reserva reserva = null;
+    if (!noLedger.isEmpty()) {
+      verificarDisponiveis(noLedger.keySet(), produtos);
+      reserva = estoqueLedger.reservar(noLedger);
+      if (!reserva.isAceita()) {
+        lancarSemEstoque(List.of(reserva.getProdutoSemEstoque()), produtos);
+      }
+    }
+    if (!nosBuckets.isEmpty()) {
+      try {
+        verificarDisponiveis(nosBuckets.keySet(), produtos);
+        List<Long> semEstoque = estoqueFragmentado.reservar(nosBuckets);
+        if (!semEstoque.isEmpty()) {
+          Map<Long, Integer> baixados = new TreeMap<>(nosBuckets);
+          baixados.keySet().removeAll(semEstoque);
+          estoqueFragmentado.liberar(baixados);
+          lancarSemEstoque(semEstoque, produtos);
+        }
+      } catch (RuntimeException ex) {
+        if (reserva != null) {
+          reserva.desfazer();
+        }
+        throw ex;
+      }
+    }
+
+    noBanco.forEach(
+        (produtoId, quantidade) -> {
+          Produto produto = produtos.get(produtoId);
+          if (!produto.isInfiniteStock()) {
+            produto.reduzirEstoque(quantidade);
+            alterados.put(produtoId, produto);
+          }
+        });
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
   @Transactional
   public void confirmarEstoque(com.deliverytech.delivery_api.model.Pedido pedido) {
     // Confirm stock reduction for all items in the order
@@ -370,28 +648,188 @@ public class ProdutoServiceImpl implements ProdutoService {
   }
 
   @Override
-  @CacheEvict(value = "produtos", allEntries = true)
+  @RetentativaEmBloqueio
   @Transactional
   public void cancelarReservaEstoque(com.deliverytech.delivery_api.model.Pedido pedido) {
+    if (pedido.getItens() == null || pedido.getItens().isEmpty()) {
+      return;
+    }
+    List<ItemPedido> itens = pedido.getItens();
+    invalidarProdutos(itens);
+    if (estoqueLedger != null) {
+      Map<Long, Integer> noLedger = new TreeMap<>();
+      itens = separarItens(itens, estoqueLedger::controla, noLedger);
+      estoqueLedger.liberar(noLedger);
+    }
+    if (estoqueFragmentado != null) {
+      Map<Long, Integer> nosBuckets = new TreeMap<>();
+      itens = separarItens(itens, estoqueFragmentado::controla, nosBuckets);
+      estoqueFragmentado.liberar(nosBuckets);
+    }
+    if (itens.isEmpty()) {
+      return;
+    }
+    ProdutosPedido produtos =
+        new ProdutosPedido(produtoRepository.findAllById(ProdutosPedido.idsDosItens(itens)));
+    bloquearEstoque(itens, produtos);
+
     // Release reserved stock back to available stock
-    for (ItemPedido item : pedido.getItens()) {
-      // Buscar produto com lock pessimista para evitar race conditions
-      Produto produto =
-          produtoRepository
-              .findByIdWithLock(item.getProduto().getId())
-              .orElseThrow(() -> new EntityNotFoundException("Produto", item.getProduto().getId()));
+    Map<Long, Produto> alterados = new LinkedHashMap<>();
+    for (ItemPedido item : itens) {
+      Produto produto = produtos.get(item.getProduto().getId());
 
       // Only restore stock for non-infinite stock products
       if (!produto.isInfiniteStock()) {
         produto.aumentarEstoque(item.getQuantidade());
-        produtoRepository.save(produto);
+        alterados.put(produto.getId(), produto);
+      }
+    }
+    produtoRepository.saveAll(alterados.values());
+  }
+
+  /**
+   * Invalida o cache após uma escrita no produto. As consultas que já o contêm saem pela
+   * dependência do próprio produto; as que podem passar a contê-lo (novo restaurante ou categoria,
+   * produto que voltou a ficar disponível, nome alterado) saem pelo filtro correspondente.
+   */
+  private void invalidarCatalogo(Produto produto, EstadoCatalogo antes) {
+    EstadoCatalogo depois = EstadoCatalogo.de(produto);
+    List<Dependencia> dependencias = new ArrayList<>();
+    if (antes != null) {
+      dependencias.add(Dependencia.produto(produto.getId()));
+    }
+    if (antes == null || !Objects.equals(antes.restauranteId(), depois.restauranteId())) {
+      dependencias.add(Dependencia.restaurante(depois.restauranteId()));
+    }
+    if (antes == null || !Objects.equals(antes.categoria(), depois.categoria())) {
+      dependencias.add(Dependencia.categoria(depois.categoria()));
+    }
+    boolean ficouDisponivel = depois.disponivel() && (antes == null || !antes.disponivel());
+    if (ficouDisponivel) {
+      dependencias.add(Dependencia.DISPONIVEIS);
+    }
+    if (ficouDisponivel || antes == null || !Objects.equals(antes.nome(), depois.nome())) {
+      dependencias.add(Dependencia.BUSCA_POR_NOME);
+    }
+    invalidacaoCache.invalidar(dependencias);
+    versoesCatalogo.produtoAlterado(depois.restauranteId(), depois.categoria());
+    if (antes != null
+        && (!Objects.equals(antes.restauranteId(), depois.restauranteId())
+            || !Objects.equals(antes.categoria(), depois.categoria()))) {
+      versoesCatalogo.produtoAlterado(antes.restauranteId(), antes.categoria());
+    }
+  }
+
+  /**
+   * Mudança só de estoque: nenhuma lista ganha ou perde o produto, basta remover as que o contêm.
+   * As versões do catálogo não mudam, já que as listas com ETag não mostram o estoque.
+   */
+  private void invalidarProdutos(List<ItemPedido> itens) {
+    invalidacaoCache.invalidar(
+        ProdutosPedido.idsDosItens(itens).stream().map(Dependencia::produto).toList());
+  }
+
+  // O produto aparece no cardápio e na categoria, então a versão de ambos avança
+  private void versionar(Produto produto) {
+    EstadoCatalogo estado = EstadoCatalogo.de(produto);
+    versoesCatalogo.produtoAlterado(estado.restauranteId(), estado.categoria());
+  }
+
+  /** O que decide em quais consultas do catálogo o produto aparece. */
+  private record EstadoCatalogo(
+      Long restauranteId, String categoria, boolean disponivel, String nome) {
+    static EstadoCatalogo de(Produto produto) {
+      return new EstadoCatalogo(
+          produto.getRestaurante() != null ? produto.getRestaurante().getId() : null,
+          produto.getCategoria(),
+          Boolean.TRUE.equals(produto.getDisponivel()),
+          produto.getNome());
+    }
+  }
+
+  /**
+   * Um único {@code SELECT ... ORDER BY id FOR UPDATE} para todos os produtos. A ordem crescente
+   * evita deadlock entre pedidos com os mesmos produtos em ordens diferentes; o estoque lido sob
+   * lock substitui o valor carregado antes, que pode estar desatualizado.
+   */
+  private void bloquearEstoque(List<ItemPedido> itens, ProdutosPedido produtos) {
+    List<Long> ids = List.copyOf(ProdutosPedido.idsDosItens(itens));
+    Map<Long, Integer> estoqueAtual = new HashMap<>();
+    for (EstoqueProdutoProjection estoque : produtoRepository.findEstoqueByIdInForUpdate(ids)) {
+      estoqueAtual.put(estoque.getId(), estoque.getQuantidadeEstoque());
+    }
+    for (Long produtoId : ids) {
+      Integer quantidade = estoqueAtual.get(produtoId);
+      if (quantidade == null) {
+        throw new EntityNotFoundException("Produto", produtoId);
       }
+      produtos.get(produtoId).setQuantidadeEstoque(quantidade);
     }
   }
 
+  /**
+   * Separa os itens cujo produto atende {@code controla}, somando a quantidade por produto em
+   * {@code separados}, e devolve os demais itens.
+   */
+  private static List<ItemPedido> separarItens(
+      List<ItemPedido> itens, Predicate<Long> controla, Map<Long, Integer> separados) {
+    List<ItemPedido> restantes = new ArrayList<>();
+    for (ItemPedido item : itens) {
+      Long produtoId = item.getProduto().getId();
+      if (controla.test(produtoId)) {
+        separados.merge(produtoId, item.getQuantidade(), Integer::sum);
+      } else {
+        restantes.add(item);
+      }
+    }
+    return restantes;
+  }
+
+  private boolean estoqueForaDaEntidade(Long produtoId) {
+    return (estoqueLedger != null && estoqueLedger.controla(produtoId))
+        || (estoqueFragmentado != null && estoqueFragmentado.controla(produtoId));
+  }
+
+  /** Saldo do ledger ou soma dos buckets; {@code null} quando a entidade é a fonte do estoque. */
+  private Integer saldoForaDaEntidade(Long produtoId) {
+    if (estoqueLedger != null && estoqueLedger.controla(produtoId)) {
+      return estoqueLedger.disponivel(produtoId);
+    }
+    return estoqueFragmentado != null ? estoqueFragmentado.total(produtoId) : null;
+  }
+
+  /**
+   * Em produtos do ledger o estoque absoluto é gravado por ele, como delta. Em produtos
+   * fragmentados o valor é redistribuído entre os buckets e a coluna segue como espelho da soma.
+   */
+  private void definirEstoque(Produto produto, Integer novaQuantidade) {
+    if (estoqueLedger != null
+        && novaQuantidade != null
+        && estoqueLedger.definir(produto.getId(), novaQuantidade)) {
+      return;
+    }
+    if (estoqueFragmentado != null && novaQuantidade != null) {
+      estoqueFragmentado.definir(produto.getId(), novaQuantidade);
+    }
+    produto.setQuantidadeEstoque(novaQuantidade);
+  }
+
+  /**
+   * Produtos do ledger são lidos com lock: o save grava o estoque absoluto lido, que não pode ser
+   * sobrescrito por um descarregamento concorrente.
+   */
+  private Optional<Produto> buscarParaAtualizar(Long id) {
+    if (estoqueLedger != null && estoqueLedger.controla(id)) {
+      return produtoRepository.findByIdWithLock(id);
+    }
+    return produtoRepository.findById(id);
+  }
+
   @Override
   @Transactional(readOnly = true)
-  @Cacheable(value = "produtos", key = "#nome")
+  @ConsultaEmCache(
+      regiao = RegioesCache.PRODUTOS_POR_NOME,
+      filtro = Dependencia.Tipo.BUSCA_POR_NOME)
   public List<ProdutoResponse> buscarProdutosPorNome(String nome) {
     List<Produto> produtos = produtoRepository.findByNomeContainingIgnoreCaseAndExcluidoFalse(nome);
     return produtos.stream()
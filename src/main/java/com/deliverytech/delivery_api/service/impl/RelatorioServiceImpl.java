@@ -1,90 +1,85 @@
 package com.deliverytech.delivery_api.service.impl;
 
+import com.deliverytech.delivery_api.cache.RelatorioEmCache;
 import com.deliverytech.delivery_api.projection.RelatorioVendas;
 import com.deliverytech.delivery_api.projection.RelatorioVendasClientes;
 import com.deliverytech.delivery_api.projection.RelatorioVendasProdutos;
-import com.deliverytech.delivery_api.repository.ClienteRepository;
-import com.deliverytech.delivery_api.repository.PedidoRepository;
-import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.projection.VendasPorStatusProjection;
 import com.deliverytech.delivery_api.service.RelatorioService;
+import com.deliverytech.delivery_api.service.VendasEmColunas;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Relatórios de períodos encerrados em cache na região {@code relatorios} ({@link
+ * RelatorioEmCache}). Requisições concorrentes para o mesmo relatório ausente esperam uma única
+ * execução, e relatórios perto de expirar são renovados pela primeira leitura em vez de esfriarem.
+ * Um período que inclui o dia corrente não é guardado.
+ *
+ * <p>Os relatórios somam as vendas por dia mantidas por {@link
+ * com.deliverytech.delivery_api.service.VendasDiarias}, com os dias encerrados já em memória em
+ * {@link VendasEmColunas}: o custo cresce com os dias do período, não com a quantidade de pedidos,
+ * e um período novo só vai ao banco pelo dia corrente e pelos dias ainda não carregados.
+ */
 @Service
-@Transactional(readOnly = true)
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 public class RelatorioServiceImpl implements RelatorioService {
-  @Autowired private PedidoRepository pedidoRepository;
-  @Autowired private ProdutoRepository produtoRepository;
-  @Autowired private ClienteRepository clienteRepository;
+  @Autowired private VendasEmColunas vendasEmColunas;
 
   @Override
-  @Cacheable(value = "relatorios", key = "'vendasPorRestaurante:' + #dataInicio + ':' + #dataFim")
+  @RelatorioEmCache("vendasPorRestaurante")
   public List<RelatorioVendas> relatorioVendasPorRestaurante(
       LocalDate dataInicio, LocalDate dataFim) {
-    return pedidoRepository.calcularTotalVendasPorRestaurante(
-        dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59));
+    return vendasEmColunas.vendasPorRestaurante(dataInicio, dataFim);
   }
 
   @Override
-  @Cacheable(
-      value = "relatorios",
-      key = "'produtosMaisVendidos:' + #limite + ':' + #dataInicio + ':' + #dataFim")
+  @RelatorioEmCache("produtosMaisVendidos")
   public List<RelatorioVendasProdutos> relatorioProdutosMaisVendidos(
       int limite, LocalDate dataInicio, LocalDate dataFim) {
-    var pageable = org.springframework.data.domain.PageRequest.of(0, Math.max(1, limite));
-    return produtoRepository.produtosMaisVendidos(
-        dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59), pageable);
+    return vendasEmColunas.vendasPorProduto(dataInicio, dataFim, Math.max(1, limite));
   }
 
   @Override
-  @Cacheable(
-      value = "relatorios",
-      key = "'clientesAtivos:' + #limite + ':' + #dataInicio + ':' + #dataFim")
+  @RelatorioEmCache("clientesAtivos")
   public List<RelatorioVendasClientes> relatorioClientesAtivos(
       int limite, LocalDate dataInicio, LocalDate dataFim) {
-    var pageable = org.springframework.data.domain.PageRequest.of(0, Math.max(1, limite));
-    return clienteRepository.rankingClientesPorPedidos(
-        dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59), pageable);
+    return vendasEmColunas.comprasPorCliente(dataInicio, dataFim, Math.max(1, limite));
   }
 
   @Override
-  @Cacheable(
-      value = "relatorios",
-      key = "'pedidosPorPeriodo:' + #dataInicio + ':' + #dataFim + ':' + #status")
+  @RelatorioEmCache("pedidosPorPeriodo")
   public List<Map<String, Object>> relatorioPedidosPorPeriodo(
       LocalDate dataInicio, LocalDate dataFim, String status) {
-    // Exemplo simplificado: pode ser adaptado para usar consulta customizada
+    String statusPedido = com.deliverytech.delivery_api.model.StatusPedido.valueOf(status).name();
+    long totalPedidos = 0;
+    for (VendasPorStatusProjection vendas : vendasEmColunas.vendasPorStatus(dataInicio, dataFim)) {
+      if (statusPedido.equals(vendas.getStatus())) {
+        totalPedidos = vendas.getQuantidadePedidos();
+      }
+    }
     List<Map<String, Object>> result = new java.util.ArrayList<>();
     Map<String, Object> map = new HashMap<>();
     map.put("periodo", dataInicio + " a " + dataFim);
     map.put("status", status);
-    map.put(
-        "totalPedidos",
-        pedidoRepository
-            .findByStatusAndDataPedidoBetween(
-                com.deliverytech.delivery_api.model.StatusPedido.valueOf(status),
-                dataInicio.atStartOfDay(),
-                dataFim.atTime(23, 59, 59))
-            .size());
+    map.put("totalPedidos", Math.toIntExact(totalPedidos));
     result.add(map);
     return result;
   }
 
   @Override
-  @Cacheable(
-      value = "relatorios",
-      key = "'faturamentoPorCategoria:' + #dataInicio + ':' + #dataFim")
+  @RelatorioEmCache("faturamentoPorCategoria")
   public List<Map<String, Object>> faturamentoPorCategoria(
       LocalDate dataInicio, LocalDate dataFim) {
     List<com.deliverytech.delivery_api.projection.FaturamentoPorCategoriaProjection> dados =
-        produtoRepository.faturamentoPorCategoria(
-            dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59));
+        vendasEmColunas.faturamentoPorCategoria(dataInicio, dataFim);
     List<Map<String, Object>> result = new java.util.ArrayList<>();
     for (com.deliverytech.delivery_api.projection.FaturamentoPorCategoriaProjection row : dados) {
       Map<String, Object> map = new HashMap<>();
@@ -96,21 +91,17 @@ public class RelatorioServiceImpl implements RelatorioService {
   }
 
   @Override
-  @Cacheable(value = "relatorios", key = "'resumoVendas:' + #dataInicio + ':' + #dataFim")
+  @RelatorioEmCache("resumoVendas")
   public Map<String, Object> resumoVendas(LocalDate dataInicio, LocalDate dataFim) {
+    long totalPedidos = 0;
+    BigDecimal valorTotal = BigDecimal.ZERO;
+    for (VendasPorStatusProjection vendas : vendasEmColunas.vendasPorStatus(dataInicio, dataFim)) {
+      totalPedidos += vendas.getQuantidadePedidos();
+      valorTotal = valorTotal.add(vendas.getValorTotal());
+    }
     Map<String, Object> resumo = new HashMap<>();
-    resumo.put(
-        "totalPedidos",
-        pedidoRepository
-            .findByDataPedidoBetween(dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59))
-            .size());
-    resumo.put(
-        "valorTotalVendas",
-        pedidoRepository
-            .findByDataPedidoBetween(dataInicio.atStartOfDay(), dataFim.atTime(23, 59, 59))
-            .stream()
-            .mapToDouble(p -> p.getValorTotal() != null ? p.getValorTotal().doubleValue() : 0.0)
-            .sum());
+    resumo.put("totalPedidos", Math.toIntExact(totalPedidos));
+    resumo.put("valorTotalVendas", valorTotal.doubleValue());
     return resumo;
   }
 }
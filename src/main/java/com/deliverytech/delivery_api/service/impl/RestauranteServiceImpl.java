@@ -1,5 +1,9 @@
 package com.deliverytech.delivery_api.service.impl;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
+import com.deliverytech.delivery_api.cache.Dependencia;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.dto.request.RestauranteRequest;
 import com.deliverytech.delivery_api.dto.response.RestauranteResponse;
 import com.deliverytech.delivery_api.exception.BusinessException;
@@ -20,11 +24,21 @@ import org.springframework.transaction.annotation.Transactional;
 public class RestauranteServiceImpl implements RestauranteService {
   private final RestauranteRepository restauranteRepository;
   private final RestauranteMapper restauranteMapper;
+  private final InvalidacaoCache invalidacaoCache;
+  private final VersoesCatalogo versoesCatalogo;
+  private final AusenciasEmCache ausenciasEmCache;
 
   public RestauranteServiceImpl(
-      RestauranteRepository restauranteRepository, RestauranteMapper restauranteMapper) {
+      RestauranteRepository restauranteRepository,
+      RestauranteMapper restauranteMapper,
+      InvalidacaoCache invalidacaoCache,
+      VersoesCatalogo versoesCatalogo,
+      AusenciasEmCache ausenciasEmCache) {
     this.restauranteRepository = restauranteRepository;
     this.restauranteMapper = restauranteMapper;
+    this.invalidacaoCache = invalidacaoCache;
+    this.versoesCatalogo = versoesCatalogo;
+    this.ausenciasEmCache = ausenciasEmCache;
   }
 
   @Override
@@ -42,7 +56,10 @@ public class RestauranteServiceImpl implements RestauranteService {
     restaurante.setTempoEntregaMinutos(restauranteRequest.getTempoEntregaMinutos());
     restaurante.setAvaliacao(restauranteRequest.getAvaliacao());
     restaurante.setAtivo(true);
-    return restauranteRepository.save(restaurante);
+    Restaurante salvo = restauranteRepository.save(restaurante);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.RESTAURANTE, salvo.getId());
+    invalidacaoCache.invalidar(Dependencia.RESTAURANTES);
+    return salvo;
   }
 
   @Override
@@ -102,7 +119,9 @@ public class RestauranteServiceImpl implements RestauranteService {
               r.setEmail(atualizado.getEmail());
               r.setTempoEntregaMinutos(atualizado.getTempoEntregaMinutos());
               r.setAvaliacao(atualizado.getAvaliacao());
-              return restauranteRepository.save(r);
+              Restaurante salvo = restauranteRepository.save(r);
+              invalidarRestaurante(id);
+              return salvo;
             })
         .orElseThrow(() -> new EntityNotFoundException("Restaurante", id));
   }
@@ -116,6 +135,7 @@ public class RestauranteServiceImpl implements RestauranteService {
               restaurante.setAtivo(false);
               restaurante.setExcluido(true);
               restauranteRepository.save(restaurante);
+              invalidarRestaurante(id);
             },
             () -> {
               throw new EntityNotFoundException("Restaurante", "ID", String.valueOf(id));
@@ -167,7 +187,9 @@ public class RestauranteServiceImpl implements RestauranteService {
             .orElseThrow(
                 () -> new EntityNotFoundException("Restaurante", "ID", String.valueOf(id)));
     restaurante.setAtivo(ativo);
-    return restauranteRepository.save(restaurante);
+    Restaurante salvo = restauranteRepository.save(restaurante);
+    invalidarRestaurante(id);
+    return salvo;
   }
 
   @Override
@@ -212,19 +234,33 @@ public class RestauranteServiceImpl implements RestauranteService {
   public RestauranteResponse cadastrarRestaurante(RestauranteRequest restauranteRequest) {
     Restaurante restaurante = restauranteMapper.toEntity(restauranteRequest);
     Restaurante salvo = restauranteRepository.save(restaurante);
+    ausenciasEmCache.registrarExistente(AusenciasEmCache.Recurso.RESTAURANTE, salvo.getId());
+    invalidacaoCache.invalidar(Dependencia.RESTAURANTES);
     return restauranteMapper.toResponse(salvo);
   }
 
   @Override
   @Transactional(readOnly = true)
   public RestauranteResponse buscarRestaurantePorId(Long id) {
-    Restaurante restaurante =
-        restauranteRepository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Restaurante", id));
+    AusenciasEmCache.Motivo ausencia =
+        ausenciasEmCache.consultar(AusenciasEmCache.Recurso.RESTAURANTE, id);
+    if (ausencia == AusenciasEmCache.Motivo.EXCLUIDO) {
+      throw new BusinessException("Restaurante foi excluído do sistema");
+    }
+    if (ausencia == AusenciasEmCache.Motivo.NAO_ENCONTRADO) {
+      throw new EntityNotFoundException("Restaurante", id);
+    }
+    Restaurante restaurante = restauranteRepository.findById(id).orElse(null);
+    if (restaurante == null) {
+      ausenciasEmCache.registrarAusencia(
+          AusenciasEmCache.Recurso.RESTAURANTE, id, AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+      throw new EntityNotFoundException("Restaurante", id);
+    }
 
-    // Validate not soft deleted
+    // Validate not soft deleted; exclusão não tem volta, então o motivo pode ficar em cache
     if (Boolean.TRUE.equals(restaurante.getExcluido())) {
+      ausenciasEmCache.registrarAusencia(
+          AusenciasEmCache.Recurso.RESTAURANTE, id, AusenciasEmCache.Motivo.EXCLUIDO);
       throw new BusinessException("Restaurante foi excluído do sistema");
     }
 
@@ -285,6 +321,7 @@ public class RestauranteServiceImpl implements RestauranteService {
     existente.setAvaliacao(restauranteRequest.getAvaliacao());
 
     Restaurante atualizado = restauranteRepository.save(existente);
+    invalidarRestaurante(id);
     return restauranteMapper.toResponse(atualizado);
   }
 
@@ -316,4 +353,10 @@ public class RestauranteServiceImpl implements RestauranteService {
       return page.map(restauranteMapper::toResponse);
     }
   }
+
+  // O restaurante alterado e as listagens, que podem ganhar ou perder o restaurante
+  private void invalidarRestaurante(Long id) {
+    invalidacaoCache.invalidar(Dependencia.restaurante(id), Dependencia.RESTAURANTES);
+    versoesCatalogo.restauranteAlterado(id);
+  }
 }
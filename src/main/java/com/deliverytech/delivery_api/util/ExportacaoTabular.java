@@ -0,0 +1,188 @@
+package com.deliverytech.delivery_api.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+/**
+ * Escreve as linhas de um {@link ResultSet} em CSV (RFC 4180, com cabeçalho) ou NDJSON (um objeto
+ * JSON por linha) direto no stream da resposta, à medida que são lidas. Os nomes dos campos são os
+ * rótulos das colunas em minúsculas. A cada {@code flushLinhas} linhas o que já foi escrito segue
+ * para o cliente; o stream não é fechado aqui.
+ *
+ * <p>Datas saem em ISO-8601 e valores decimais sem notação científica.
+ */
+public final class ExportacaoTabular implements ResultSetExtractor<Long> {
+
+  /** Formato da exportação, escolhido pelo parâmetro {@code formato}. */
+  public enum Formato {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extensao;
+
+    Formato(String contentType, String extensao) {
+      this.contentType = contentType;
+      this.extensao = extensao;
+    }
+
+    public String contentType() {
+      return contentType;
+    }
+
+    public String extensao() {
+      return extensao;
+    }
+
+    /** {@code csv} ou {@code ndjson}, sem diferenciar maiúsculas; nulo para outros valores. */
+    public static Formato de(String valor) {
+      for (Formato formato : values()) {
+        if (formato.extensao.equalsIgnoreCase(valor)) {
+          return formato;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final JsonFactory JSON =
+      JsonFactory.builder()
+          .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+          .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+          .build();
+
+  private final Formato formato;
+  private final OutputStream saida;
+  private final int flushLinhas;
+
+  public ExportacaoTabular(Formato formato, OutputStream saida, int flushLinhas) {
+    this.formato = formato;
+    this.saida = saida;
+    this.flushLinhas = Math.max(1, flushLinhas);
+  }
+
+  /** Escreve todas as linhas e devolve quantas foram. */
+  @Override
+  public Long extractData(ResultSet rs) throws SQLException {
+    try {
+      Writer escrita =
+          new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 8192);
+      String[] campos = campos(rs.getMetaData());
+      long linhas = formato == Formato.CSV ? csv(rs, campos, escrita) : ndjson(rs, campos, escrita);
+      escrita.flush();
+      return linhas;
+    } catch (IOException ex) {
+      // Em geral o cliente desistiu do download; o cursor é fechado pelo JdbcTemplate
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private long csv(ResultSet rs, String[] campos, Writer escrita) throws SQLException, IOException {
+    for (int i = 0; i < campos.length; i++) {
+      if (i > 0) {
+        escrita.write(',');
+      }
+      escrita.write(textoCsv(campos[i]));
+    }
+    escrita.write("\r\n");
+    long linhas = 0;
+    while (rs.next()) {
+      for (int i = 0; i < campos.length; i++) {
+        if (i > 0) {
+          escrita.write(',');
+        }
+        Object valor = valor(rs, i + 1);
+        if (valor != null) {
+          escrita.write(
+              textoCsv(valor instanceof BigDecimal d ? d.toPlainString() : valor.toString()));
+        }
+      }
+      escrita.write("\r\n");
+      if (++linhas % flushLinhas == 0) {
+        escrita.flush();
+      }
+    }
+    return linhas;
+  }
+
+  private long ndjson(ResultSet rs, String[] campos, Writer escrita)
+      throws SQLException, IOException {
+    JsonGenerator gerador = JSON.createGenerator(escrita);
+    long linhas = 0;
+    while (rs.next()) {
+      gerador.writeStartObject();
+      for (int i = 0; i < campos.length; i++) {
+        gerador.writeFieldName(campos[i]);
+        Object valor = valor(rs, i + 1);
+        if (valor == null) {
+          gerador.writeNull();
+        } else if (valor instanceof BigDecimal decimal) {
+          gerador.writeNumber(decimal);
+        } else if (valor instanceof Long || valor instanceof Integer || valor instanceof Short) {
+          gerador.writeNumber(((Number) valor).longValue());
+        } else if (valor instanceof Boolean booleano) {
+          gerador.writeBoolean(booleano);
+        } else {
+          gerador.writeString(valor.toString());
+        }
+      }
+      gerador.writeEndObject();
+      gerador.writeRaw('\n');
+      if (++linhas % flushLinhas == 0) {
+        gerador.flush();
+      }
+    }
+    gerador.flush();
+    return linhas;
+  }
+
+  private static String[] campos(ResultSetMetaData metadados) throws SQLException {
+    String[] campos = new String[metadados.getColumnCount()];
+    for (int i = 0; i < campos.length; i++) {
+      // H2 devolve rótulos sem aspas em maiúsculas
+      campos[i] = metadados.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+    }
+    return campos;
+  }
+
+  // Datas e horas como texto ISO (o driver pode devolver java.sql ou java.time)
+  private static Object valor(ResultSet rs, int coluna) throws SQLException {
+    Object valor = rs.getObject(coluna);
+    if (valor instanceof Timestamp timestamp) {
+      return timestamp.toLocalDateTime().toString();
+    }
+    if (valor instanceof java.sql.Date data) {
+      return data.toLocalDate().toString();
+    }
+    if (valor instanceof TemporalAccessor) {
+      return valor.toString();
+    }
+    return valor;
+  }
+
+  private static String textoCsv(String texto) {
+    if (texto.indexOf(',') < 0
+        && texto.indexOf('"') < 0
+        && texto.indexOf('\n') < 0
+        && texto.indexOf('\r') < 0) {
+      return texto;
+    }
+    return '"' + texto.replace("\"", "\"\"") + '"';
+  }
+}
@@ -3,11 +3,22 @@
 
 -- Drop tables if they exist (for clean initialization)
 DROP TABLE IF EXISTS item_pedido;
+DROP TABLE IF EXISTS produto_estoque_shard;
 DROP TABLE IF EXISTS pedido;
 DROP TABLE IF EXISTS produto;
 DROP TABLE IF EXISTS restaurante;
 DROP TABLE IF EXISTS cliente;
 DROP TABLE IF EXISTS usuario;
+DROP TABLE IF EXISTS id_sequencia;
+DROP TABLE IF EXISTS numero_pedido_no;
+DROP TABLE IF EXISTS idempotencia_pedido;
+DROP TABLE IF EXISTS cache_invalidacao;
+DROP TABLE IF EXISTS catalogo_versao;
+DROP TABLE IF EXISTS venda_diaria_restaurante;
+DROP TABLE IF EXISTS venda_diaria_cliente;
+DROP TABLE IF EXISTS venda_diaria_produto;
+DROP TABLE IF EXISTS venda_diaria_pendente;
+DROP TABLE IF EXISTS venda_diaria_versao;
 
 -- Create tables with proper relationships
 
@@ -99,6 +110,102 @@ CREATE TABLE item_pedido (
     FOREIGN KEY (produto_id) REFERENCES produto(id)
 );
 
+-- IdSequencia table: blocos de ids (TableGenerator pooled) de pedido e item_pedido
+CREATE TABLE id_sequencia (
+    nome VARCHAR(64) NOT NULL PRIMARY KEY,
+    proximo_valor BIGINT NOT NULL
+);
+
+-- Nós do gerador de números de pedido: instância dona, última renovação e maior instante (ms) que ela pode usar
+CREATE TABLE numero_pedido_no (
+    no_id INTEGER NOT NULL PRIMARY KEY,
+    dono VARCHAR(36),
+    renovado_em TIMESTAMP(3) NOT NULL,
+    horizonte_ms BIGINT NOT NULL
+);
+
+-- ProdutoEstoqueShard table (depends on produto): estoque de produtos muito disputados dividido em buckets
+CREATE TABLE produto_estoque_shard (
+    produto_id BIGINT NOT NULL,
+    bucket INTEGER NOT NULL,
+    quantidade INTEGER NOT NULL,
+    PRIMARY KEY (produto_id, bucket),
+    FOREIGN KEY (produto_id) REFERENCES produto(id)
+);
+
+-- IdempotenciaPedido table: respostas de POST /api/pedidos por Idempotency-Key (resposta NULL = em processamento)
+CREATE TABLE idempotencia_pedido (
+    chave VARCHAR(200) NOT NULL PRIMARY KEY,
+    impressao VARCHAR(64) NOT NULL,
+    resposta TEXT,
+    criado_em TIMESTAMP NOT NULL,
+    expira_em TIMESTAMP NOT NULL
+);
+
+-- CacheInvalidacao table: invalidações de cache de cada instância, lidas pelas demais (app.cache.invalidacao.transporte=jdbc)
+CREATE TABLE cache_invalidacao (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    origem VARCHAR(36) NOT NULL,
+    tipo VARCHAR(32) NOT NULL,
+    alvo VARCHAR(64),
+    valor VARCHAR(255),
+    criado_em TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+CREATE INDEX idx_cache_invalidacao_criado_em ON cache_invalidacao (criado_em);
+
+-- Versões do catálogo (ETags): RESTAURANTE, CARDAPIO e CATEGORIA por chave, em fatias somadas na leitura
+CREATE TABLE catalogo_versao (
+    agregado VARCHAR(16) NOT NULL,
+    chave VARCHAR(64) NOT NULL,
+    fatia INTEGER NOT NULL,
+    versao BIGINT NOT NULL,
+    PRIMARY KEY (agregado, chave, fatia)
+);
+
+-- Vendas por dia (relatórios): somas por restaurante e status, por cliente e por produto, mantidas por VendasDiarias
+CREATE TABLE venda_diaria_restaurante (
+    dia DATE NOT NULL,
+    restaurante_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    quantidade_pedidos BIGINT NOT NULL,
+    valor_total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (dia, restaurante_id, status)
+);
+
+CREATE TABLE venda_diaria_cliente (
+    dia DATE NOT NULL,
+    cliente_id BIGINT NOT NULL,
+    quantidade_pedidos BIGINT NOT NULL,
+    valor_total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (dia, cliente_id)
+);
+
+CREATE TABLE venda_diaria_produto (
+    dia DATE NOT NULL,
+    produto_id BIGINT NOT NULL,
+    quantidade_itens BIGINT NOT NULL,
+    valor_total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (dia, produto_id)
+);
+
+-- Variações gravadas na transação do pedido, somadas às tabelas acima periodicamente
+CREATE TABLE venda_diaria_pendente (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    dimensao VARCHAR(16) NOT NULL,
+    dia DATE NOT NULL,
+    chave_id BIGINT NOT NULL,
+    status VARCHAR(50),
+    quantidade BIGINT NOT NULL,
+    valor_total DECIMAL(14,2) NOT NULL
+);
+CREATE INDEX idx_venda_diaria_pendente_dia ON venda_diaria_pendente (dimensao, dia);
+
+-- Versão das vendas de cada dia, avançada pela consolidação e pelo recálculo (VendasEmColunas)
+CREATE TABLE venda_diaria_versao (
+    dia DATE NOT NULL PRIMARY KEY,
+    versao BIGINT NOT NULL
+);
+
 -- Insert initial data using standard SQL that works with both MySQL and H2
 -- For idempotent inserts, we'll use a conditional approach
 
@@ -228,6 +335,28 @@ INSERT INTO item_pedido (id, pedido_id, produto_id, quantidade, preco_unitario,
 SELECT 3, 3, 5, 3, 15.00, 45.00 
 WHERE NOT EXISTS (SELECT 1 FROM item_pedido WHERE id = 3);
 
+-- Vendas por dia dos pedidos acima
+INSERT INTO venda_diaria_restaurante (dia, restaurante_id, status, quantidade_pedidos, valor_total)
+SELECT CAST(data_pedido AS DATE), restaurante_id, status, COUNT(*), SUM(valor_total)
+FROM pedido GROUP BY CAST(data_pedido AS DATE), restaurante_id, status;
+
+INSERT INTO venda_diaria_cliente (dia, cliente_id, quantidade_pedidos, valor_total)
+SELECT CAST(data_pedido AS DATE), cliente_id, COUNT(*), SUM(valor_total)
+FROM pedido GROUP BY CAST(data_pedido AS DATE), cliente_id;
+
+INSERT INTO venda_diaria_produto (dia, produto_id, quantidade_itens, valor_total)
+SELECT CAST(p.data_pedido AS DATE), ip.produto_id, COUNT(*), SUM(ip.quantidade * ip.preco_unitario)
+FROM item_pedido ip JOIN pedido p ON p.id = ip.pedido_id GROUP BY CAST(p.data_pedido AS DATE), ip.produto_id;
+
+-- Blocos de ids começam acima dos ids fixos inseridos acima
+INSERT INTO id_sequencia (nome, proximo_valor)
+SELECT 'pedido', 1000
+WHERE NOT EXISTS (SELECT 1 FROM id_sequencia WHERE nome = 'pedido');
+
+INSERT INTO id_sequencia (nome, proximo_valor)
+SELECT 'item_pedido', 1000
+WHERE NOT EXISTS (SELECT 1 FROM id_sequencia WHERE nome = 'item_pedido');
+
 -- ========= Dados adicionais para enriquecer a massa (clientes, restaurantes, usuários, produtos, pedidos históricos) =========
 
 -- -- Clientes adicionais
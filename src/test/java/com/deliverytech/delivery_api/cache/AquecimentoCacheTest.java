@@ -0,0 +1,103 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.service.ProdutoService;
+import com.deliverytech.delivery_api.service.RelatorioService;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+class AquecimentoCacheTest {
+
+  private final ProdutoService produtoService = mock(ProdutoService.class);
+
+  private final RelatorioService relatorioService = mock(RelatorioService.class);
+
+  private final PedidoRepository pedidoRepository = mock(PedidoRepository.class);
+
+  @BeforeEach
+  void setUp() {
+    when(pedidoRepository.findRestauranteIdsComMaisPedidos(any(Pageable.class)))
+        .thenReturn(List.of(3L, 1L));
+  }
+
+  @Test
+  @DisplayName("Deve carregar cardápios dos mais pedidos, disponíveis e relatórios de ontem")
+  void deveCarregarTudoDentroDoOrcamento() {
+    AquecimentoCache aquecimento = aquecimento(5_000L);
+
+    aquecimento.aquecer();
+
+    LocalDate ontem = LocalDate.now().minusDays(1);
+    verify(pedidoRepository).findRestauranteIdsComMaisPedidos(PageRequest.of(0, 2));
+    verify(produtoService).buscarDisponiveis();
+    verify(produtoService).buscarProdutosPorRestaurante(3L);
+    verify(produtoService).buscarProdutosPorRestaurante(1L);
+    verify(relatorioService).resumoVendas(ontem, ontem);
+    verify(relatorioService).relatorioProdutosMaisVendidos(eq(5), eq(ontem), eq(ontem));
+    assertThat(aquecimento.estado()).isEqualTo(AquecimentoCache.Estado.CONCLUIDO);
+    assertThat(aquecimento.situacao())
+        .containsEntry("total", 7)
+        .containsEntry("concluidas", 7)
+        .containsEntry("falhas", 0);
+  }
+
+  @Test
+  @DisplayName(
+      "Carga lenta deve ser cancelada no fim do orçamento e falha não deve parar as demais")
+  void cargaLentaDeveSerCanceladaEFalhaContabilizada() {
+    when(produtoService.buscarProdutosPorRestaurante(3L))
+        .thenAnswer(
+            invocacao -> {
+              Thread.sleep(10_000L);
+              return List.of();
+            });
+    when(produtoService.buscarProdutosPorRestaurante(1L))
+        .thenThrow(new IllegalStateException("banco fora"));
+    AquecimentoCache aquecimento = aquecimento(300L);
+
+    long inicio = System.nanoTime();
+    aquecimento.aquecer();
+
+    assertThat((System.nanoTime() - inicio) / 1_000_000L).isLessThan(5_000L);
+    assertThat(aquecimento.estado()).isEqualTo(AquecimentoCache.Estado.PARCIAL);
+    assertThat(aquecimento.situacao())
+        .containsEntry("total", 7)
+        .containsEntry("concluidas", 5)
+        .containsEntry("falhas", 1)
+        .containsEntry("canceladas", 1);
+  }
+
+  @Test
+  @DisplayName("Aquecer uma região deve repetir só as cargas dela")
+  void aquecerRegiaoDeveRepetirSoAsCargasDela() {
+    AquecimentoCache aquecimento = aquecimento(5_000L);
+
+    var resultado = aquecimento.aquecer(RegioesCache.PRODUTOS_POR_RESTAURANTE);
+
+    verify(produtoService).buscarProdutosPorRestaurante(3L);
+    verify(produtoService).buscarProdutosPorRestaurante(1L);
+    verify(produtoService, never()).buscarDisponiveis();
+    verify(relatorioService, never()).resumoVendas(any(), any());
+    assertThat(resultado).containsEntry("total", 2).containsEntry("concluidas", 2);
+    // O estado da subida não muda
+    assertThat(aquecimento.estado()).isEqualTo(AquecimentoCache.Estado.PENDENTE);
+  }
+
+  private AquecimentoCache aquecimento(long orcamentoMs) {
+    return new AquecimentoCache(
+        produtoService, relatorioService, pedidoRepository, 2, orcamentoMs, 4);
+  }
+}
@@ -0,0 +1,138 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class AusenciasEmCacheTest {
+
+  private final ProdutoRepository produtoRepository = mock(ProdutoRepository.class);
+
+  private final RestauranteRepository restauranteRepository = mock(RestauranteRepository.class);
+
+  private final AtomicLong relogio = new AtomicLong(1_000_000L);
+
+  private AusenciasEmCache ausencias;
+
+  @BeforeEach
+  void setUp() {
+    when(produtoRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 10L));
+    when(restauranteRepository.findAllIds()).thenReturn(List.of(1L));
+    ausencias =
+        new AusenciasEmCache(
+            new ConcurrentMapCacheManager(RegioesCache.AUSENCIAS),
+            produtoRepository,
+            restauranteRepository,
+            60_000L,
+            relogio::get);
+  }
+
+  @Test
+  @DisplayName("Filtro deve recusar só ids até o maior carregado que nunca existiram")
+  void filtroDeveRecusarIdsQueNuncaExistiram() {
+    carregarDuasVezes();
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 5L))
+        .isEqualTo(AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 2L)).isNull();
+    // Acima do maior id carregado pode ser cadastro de outra instância
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 11L)).isNull();
+    assertThat(ausencias.recusadasPeloFiltro()).isEqualTo(1L);
+  }
+
+  @Test
+  @DisplayName("Filtro só deve valer até o maior id de uma carga feita a margem antes")
+  void filtroDeveValerSoAteOLimite() {
+    ausencias.carregar();
+    // Na primeira carga ainda não há limite
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 5L)).isNull();
+
+    // O id 5 foi gerado antes do 10 mas só chegou ao commit depois da primeira carga
+    when(produtoRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 5L, 10L, 12L));
+    relogio.addAndGet(30_000L);
+    ausencias.carregar();
+    // Carga anterior recente demais: continua sem limite
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 4L)).isNull();
+
+    relogio.addAndGet(30_000L);
+    ausencias.carregar();
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 5L)).isNull();
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 4L))
+        .isEqualTo(AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+    // Acima do limite (10), mesmo lido pela carga
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 11L)).isNull();
+  }
+
+  @Test
+  @DisplayName("Sem filtro carregado toda busca sem ausência registrada vai ao banco")
+  void semFiltroDeveConsultarBanco() {
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 5L)).isNull();
+  }
+
+  @Test
+  @DisplayName("Ausência registrada deve valer até o recurso ser cadastrado")
+  void ausenciaDeveSairNoCadastro() {
+    carregarDuasVezes();
+    ausencias.registrarAusencia(
+        AusenciasEmCache.Recurso.PRODUTO, 11L, AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+    ausencias.registrarAusencia(
+        AusenciasEmCache.Recurso.RESTAURANTE, 1L, AusenciasEmCache.Motivo.EXCLUIDO);
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 11L))
+        .isEqualTo(AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.RESTAURANTE, 1L))
+        .isEqualTo(AusenciasEmCache.Motivo.EXCLUIDO);
+    // Mesmo valor de chave, recurso diferente
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.RESTAURANTE, 11L)).isNull();
+
+    ausencias.registrarExistente(AusenciasEmCache.Recurso.PRODUTO, 11L);
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.PRODUTO, 11L)).isNull();
+  }
+
+  @Test
+  @DisplayName("E-mail ausente deve ignorar maiúsculas e sair quando cadastrado")
+  void emailAusenteDeveIgnorarMaiusculas() {
+    ausencias.registrarAusencia(
+        AusenciasEmCache.Recurso.CLIENTE_EMAIL,
+        "Novo@Email.com",
+        AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.CLIENTE_EMAIL, "novo@email.com"))
+        .isEqualTo(AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+
+    ausencias.registrarExistente(AusenciasEmCache.Recurso.CLIENTE_EMAIL, "NOVO@email.com");
+
+    assertThat(ausencias.consultar(AusenciasEmCache.Recurso.CLIENTE_EMAIL, "novo@email.com"))
+        .isNull();
+  }
+
+  private void carregarDuasVezes() {
+    ausencias.carregar();
+    relogio.addAndGet(60_000L);
+    ausencias.carregar();
+  }
+
+  @Test
+  @DisplayName("Filtro de Bloom não deve ter falso negativo e deve respeitar a taxa configurada")
+  void filtroDeBloomDeveRespeitarTaxa() {
+    FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+    LongStream.rangeClosed(1, 10_000).forEach(filtro::adicionar);
+
+    assertThat(LongStream.rangeClosed(1, 10_000).allMatch(filtro::podeConter)).isTrue();
+    long falsosPositivos =
+        LongStream.rangeClosed(10_001, 110_000).filter(filtro::podeConter).count();
+    assertThat(falsosPositivos).isLessThan(2_000L);
+  }
+}
@@ -0,0 +1,189 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
+import com.deliverytech.delivery_api.repository.VersaoCatalogoRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class BarramentoInvalidacaoTest {
+
+  private final List<List<EventoInvalidacao>> enviados = new ArrayList<>();
+
+  // Duas instâncias no mesmo transporte em memória
+  private final TransporteInvalidacaoLocal transporte =
+      new TransporteInvalidacaoLocal() {
+        @Override
+        public void enviar(List<EventoInvalidacao> eventos) {
+          enviados.add(eventos);
+          super.enviar(eventos);
+        }
+      };
+
+  // O banco compartilhado pelas instâncias, sem fatias
+  private final Map<String, Long> versoesNoBanco = new ConcurrentHashMap<>();
+
+  private final VersaoCatalogoRepository versoesRepository =
+      new VersaoCatalogoRepository(null) {
+        @Override
+        public long versao(String agregado, String chave) {
+          return versoesNoBanco.getOrDefault(agregado + ":" + chave, 0L);
+        }
+
+        @Override
+        public void incrementar(String agregado, String chave, int fatia) {
+          versoesNoBanco.merge(agregado + ":" + chave, 1L, Long::sum);
+        }
+      };
+
+  private final Instancia a = new Instancia();
+
+  private final Instancia b = new Instancia();
+
+  @AfterEach
+  void encerrarTransacao() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Invalidação numa instância deve remover a entrada dependente na outra")
+  void invalidacaoDeveChegarNaOutraInstancia() {
+    a.gravarCardapio();
+    b.gravarCardapio();
+
+    a.invalidacao.invalidar(Dependencia.produto(10L));
+
+    assertThat(a.cache.get(ChaveCache.porRestaurante(1L))).isNull();
+    assertThat(b.cache.get(ChaveCache.porRestaurante(1L))).isNull();
+    // Quem aplica o evento recebido não publica de novo
+    assertThat(enviados).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Eventos da transação devem sair juntos após o commit e nunca após rollback")
+  void eventosDevemSairSoAposCommit() {
+    b.gravarCardapio();
+    String etag = b.versoes.etag(VersoesCatalogo.Agregado.RESTAURANTE, 1L);
+
+    TransactionSynchronizationManager.initSynchronization();
+    a.invalidacao.invalidar(Dependencia.produto(10L), Dependencia.produto(10L));
+    a.versoes.restauranteAlterado(1L);
+    assertThat(enviados).isEmpty();
+    assertThat(b.cache.get(ChaveCache.porRestaurante(1L))).isNotNull();
+    concluir(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertThat(enviados).hasSize(1);
+    assertThat(enviados.get(0))
+        .extracting(EventoInvalidacao::tipo)
+        .containsExactly(
+            EventoInvalidacao.Tipo.DEPENDENCIA, EventoInvalidacao.Tipo.VERSAO_RESTAURANTE);
+    assertThat(b.cache.get(ChaveCache.porRestaurante(1L))).isNull();
+    assertThat(b.versoes.etag(VersoesCatalogo.Agregado.RESTAURANTE, 1L)).isNotEqualTo(etag);
+
+    TransactionSynchronizationManager.initSynchronization();
+    a.invalidacao.invalidar(Dependencia.produto(11L));
+    concluir(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    assertThat(enviados).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Cadastro numa instância deve tirar a ausência guardada na outra")
+  void cadastroDeveTirarAusenciaNaOutraInstancia() {
+    b.ausencias.registrarAusencia(
+        AusenciasEmCache.Recurso.CLIENTE_EMAIL,
+        "novo@email.com",
+        AusenciasEmCache.Motivo.NAO_ENCONTRADO);
+
+    a.ausencias.registrarExistente(AusenciasEmCache.Recurso.CLIENTE_EMAIL, "novo@email.com");
+
+    assertThat(b.ausencias.consultar(AusenciasEmCache.Recurso.CLIENTE_EMAIL, "novo@email.com"))
+        .isNull();
+  }
+
+  @Test
+  @DisplayName("Instâncias devem dar o mesmo ETag para a mesma versão")
+  void etagDeveCoincidirEntreInstancias() {
+    assertThat(a.versoes.etag(VersoesCatalogo.Agregado.CATEGORIA, "Pizza"))
+        .isEqualTo(b.versoes.etag(VersoesCatalogo.Agregado.CATEGORIA, "pizza"));
+
+    a.versoes.produtoAlterado(1L, "Pizza");
+
+    assertThat(b.versoes.etag(VersoesCatalogo.Agregado.CATEGORIA, "pizza"))
+        .isEqualTo(a.versoes.etag(VersoesCatalogo.Agregado.CATEGORIA, "pizza"))
+        .isEqualTo("\"C-1.0\"");
+    // Uma instância nova lê a versão do banco, não começa do zero
+    assertThat(new Instancia().versoes.etag(VersoesCatalogo.Agregado.CARDAPIO, 1L))
+        .isEqualTo(a.versoes.etag(VersoesCatalogo.Agregado.CARDAPIO, 1L));
+  }
+
+  @Test
+  @DisplayName("Evento TUDO deve esvaziar os caches e reler as versões do banco")
+  void eventoTudoDeveEsvaziarCaches() {
+    b.gravarCardapio();
+    String etag = b.versoes.etag(VersoesCatalogo.Agregado.CARDAPIO, 1L);
+    // Escrita cujo evento se perdeu
+    versoesRepository.incrementar("CARDAPIO", "1", 0);
+
+    // Como o transporte JDBC faz ao perceber que pode ter perdido eventos
+    transporte.enviar(
+        List.of(new EventoInvalidacao(null, EventoInvalidacao.Tipo.TUDO, null, null)));
+
+    assertThat(b.cache.get(ChaveCache.porRestaurante(1L))).isNull();
+    assertThat(b.invalidacao.tamanho()).isZero();
+    assertThat(b.versoes.etag(VersoesCatalogo.Agregado.CARDAPIO, 1L)).isNotEqualTo(etag);
+  }
+
+  private static void concluir(int status) {
+    List<TransactionSynchronization> sincronizacoes =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+      sincronizacoes.forEach(sincronizacao -> sincronizacao.beforeCommit(false));
+      sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+    }
+    sincronizacoes.forEach(sincronizacao -> sincronizacao.afterCompletion(status));
+  }
+
+  private final class Instancia {
+
+    final InvalidacaoCache invalidacao = new InvalidacaoCache();
+    final VersoesCatalogo versoes = new VersoesCatalogo(versoesRepository);
+    final AusenciasEmCache ausencias;
+    final CaffeineCacheComDependencias cache;
+
+    Instancia() {
+      BarramentoInvalidacao barramento = new BarramentoInvalidacao(transporte);
+      invalidacao.usarBarramento(barramento);
+      versoes.usarBarramento(barramento);
+      cache =
+          new CaffeineCacheComDependencias(
+              RegioesCache.PRODUTOS_POR_RESTAURANTE,
+              Caffeine.newBuilder().build(),
+              true,
+              invalidacao);
+      ausencias =
+          new AusenciasEmCache(
+              new ConcurrentMapCacheManager(RegioesCache.AUSENCIAS), null, null, 0L);
+      ausencias.usarBarramento(barramento);
+    }
+
+    void gravarCardapio() {
+      ProdutoResponse produto = new ProdutoResponse();
+      produto.setId(10L);
+      cache.put(ChaveCache.porRestaurante(1L), List.of(produto));
+    }
+  }
+}
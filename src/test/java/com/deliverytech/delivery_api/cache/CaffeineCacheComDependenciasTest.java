@@ -0,0 +1,174 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+class CaffeineCacheComDependenciasTest {
+
+  private final AtomicLong relogio = new AtomicLong();
+
+  private final InvalidacaoCache invalidacao = new InvalidacaoCache();
+
+  private final CaffeineCacheComDependencias cache =
+      new CaffeineCacheComDependencias(
+          "relatorios",
+          Caffeine.newBuilder()
+              .ticker(relogio::get)
+              .expireAfterWrite(Duration.ofMinutes(10))
+              .build(),
+          true,
+          invalidacao,
+          0.8);
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  private final AtomicInteger cargas = new AtomicInteger();
+
+  @AfterEach
+  void encerrar() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Chamadas concorrentes para a mesma chave ausente devem carregar uma vez")
+  void chamadasConcorrentesDevemCarregarUmaVez() throws Exception {
+    CountDownLatch liberar = new CountDownLatch(1);
+    List<Future<String>> leituras = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      leituras.add(
+          executor.submit(
+              () ->
+                  cache.get(
+                      "maisVendidos",
+                      () -> {
+                        cargas.incrementAndGet();
+                        liberar.await(5, TimeUnit.SECONDS);
+                        return "relatorio";
+                      })));
+    }
+    Thread.sleep(100);
+    liberar.countDown();
+
+    for (Future<String> leitura : leituras) {
+      assertEquals("relatorio", leitura.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, cargas.get());
+    assertEquals(0, cache.cargasEmAndamento());
+  }
+
+  @Test
+  @DisplayName("Falha na carga deve chegar a quem esperava e liberar a chave")
+  void falhaNaCargaDeveChegarAQuemEsperava() throws Exception {
+    CountDownLatch liberar = new CountDownLatch(1);
+    Future<String> primeira =
+        executor.submit(
+            () ->
+                cache.get(
+                    "maisVendidos",
+                    () -> {
+                      liberar.await(5, TimeUnit.SECONDS);
+                      throw new IllegalStateException("banco fora");
+                    }));
+    Thread.sleep(50);
+    CompletableFuture<String> espera =
+        CompletableFuture.supplyAsync(() -> cache.get("maisVendidos", () -> "outro"), executor);
+    Thread.sleep(50);
+    liberar.countDown();
+
+    Exception erro = assertThrows(Exception.class, () -> primeira.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(Cache.ValueRetrievalException.class, erro.getCause());
+    Exception erroEspera = assertThrows(Exception.class, () -> espera.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, erroEspera.getCause().getCause());
+    assertEquals("depois", cache.get("maisVendidos", () -> "depois"));
+  }
+
+  @Test
+  @DisplayName("Entrada perto de expirar deve ser renovada pela leitura")
+  void entradaPertoDeExpirarDeveSerRenovada() {
+    assertEquals("v1", cache.get("menu", () -> "v1"));
+
+    avancar(Duration.ofMinutes(7));
+    assertEquals("v1", cache.get("menu", () -> "v2"));
+
+    avancar(Duration.ofMinutes(2));
+    assertEquals("v2", cache.get("menu", () -> "v2"));
+
+    // A renovação reinicia o prazo: 9 minutos depois da troca ainda não expirou
+    avancar(Duration.ofMinutes(7));
+    assertEquals("v2", cache.get("menu", () -> "v3"));
+  }
+
+  @Test
+  @DisplayName("Falha na renovação deve manter o valor atual")
+  void falhaNaRenovacaoDeveManterValorAtual() {
+    cache.get("menu", () -> "v1");
+    avancar(Duration.ofMinutes(9));
+
+    assertEquals(
+        "v1",
+        cache.get(
+            "menu",
+            () -> {
+              throw new IllegalStateException("banco fora");
+            }));
+  }
+
+  @Test
+  @DisplayName("Carga por chave tipada deve registrar as dependências")
+  void cargaDeveRegistrarDependencias() {
+    ProdutoResponse produto = new ProdutoResponse();
+    produto.setId(10L);
+    ChaveCache menu = ChaveCache.porRestaurante(1L);
+    cache.get(menu, () -> List.of(produto));
+
+    invalidacao.invalidar(Dependencia.produto(10L));
+
+    assertNull(cache.get(menu));
+  }
+
+  @Test
+  @DisplayName("Carga que leu antes de uma invalidação concluída durante ela não deve ficar")
+  void cargaAnteriorAInvalidacaoNaoDeveFicar() {
+    ProdutoResponse produto = new ProdutoResponse();
+    produto.setId(10L);
+    ChaveCache menu = ChaveCache.porRestaurante(1L);
+
+    List<ProdutoResponse> lido =
+        cache.get(
+            menu,
+            () -> {
+              // O commit da escrita e a remoção dele acontecem depois da leitura no banco
+              invalidacao.invalidar(Dependencia.produto(10L));
+              return List.of(produto);
+            });
+
+    assertEquals(List.of(produto), lido);
+    assertNull(cache.get(menu));
+    assertEquals(0, invalidacao.tamanho());
+
+    // Sem invalidação no meio, a próxima carga fica
+    cache.get(menu, () -> List.of(produto));
+    assertNotNull(cache.get(menu));
+  }
+
+  private void avancar(Duration duracao) {
+    relogio.addAndGet(duracao.toNanos());
+  }
+}
@@ -0,0 +1,87 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deliverytech.delivery_api.model.Restaurante;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+class ChaveCacheTest {
+
+  private final GeradorChaveCache gerador = new GeradorChaveCache();
+
+  @Test
+  @DisplayName("Mesmo valor com filtros diferentes não deve colidir")
+  void mesmoValorComFiltrosDiferentesNaoDeveColidir() {
+    assertEquals(ChaveCache.porCliente(5L), ChaveCache.porCliente(5L));
+    assertEquals(ChaveCache.porCliente(5L).hashCode(), ChaveCache.porCliente(5L).hashCode());
+    assertNotEquals(ChaveCache.porCliente(5L), ChaveCache.porRestaurante(5L));
+    assertEquals(Dependencia.cliente(5L), ChaveCache.porCliente(5L).dependencia());
+    assertEquals(Dependencia.BUSCA_POR_NOME, ChaveCache.porNome("pizza").dependencia());
+  }
+
+  @Test
+  @DisplayName("Páginas diferentes devem ter chaves diferentes")
+  void paginasDiferentesDevemTerChavesDiferentes() {
+    ChaveCache primeira = ChaveCache.porCliente(1L, PageRequest.of(0, 10));
+
+    assertEquals(primeira, ChaveCache.porCliente(1L, PageRequest.of(0, 10)));
+    assertNotEquals(primeira, ChaveCache.porCliente(1L, PageRequest.of(1, 10)));
+    assertNotEquals(primeira, ChaveCache.porCliente(1L, PageRequest.of(0, 20)));
+    assertNotEquals(primeira, ChaveCache.porCliente(1L, PageRequest.of(0, 10, Sort.by("id"))));
+    assertNotEquals(primeira, ChaveCache.porCliente(1L));
+    assertEquals(ChaveCache.porCliente(1L), ChaveCache.porCliente(1L, Pageable.unpaged()));
+  }
+
+  @Test
+  @DisplayName("Gerador deve montar a chave pelo filtro da consulta")
+  void geradorDeveMontarChavePeloFiltro() throws Exception {
+    Consultas alvo = new Consultas();
+    Restaurante restaurante = new Restaurante();
+    restaurante.setId(3L);
+    Pageable pagina = PageRequest.of(2, 10);
+
+    assertEquals(
+        ChaveCache.porRestaurante(3L),
+        gerador.generate(alvo, metodo("porRestaurante", Restaurante.class), restaurante));
+    assertEquals(
+        ChaveCache.porCliente(3L, pagina),
+        gerador.generate(alvo, metodo("porCliente", Long.class, Pageable.class), 3L, pagina));
+    Method disponiveis = metodo("disponiveis");
+    assertSame(gerador.generate(alvo, disponiveis), gerador.generate(alvo, disponiveis));
+    assertEquals(ChaveCache.disponiveis(), gerador.generate(alvo, disponiveis));
+    assertThrows(
+        IllegalStateException.class,
+        () -> gerador.generate(alvo, metodo("semConsulta", Long.class), 1L));
+  }
+
+  private static Method metodo(String nome, Class<?>... parametros) throws Exception {
+    return Consultas.class.getDeclaredMethod(nome, parametros);
+  }
+
+  static class Consultas {
+
+    @ConsultaEmCache(regiao = "teste", filtro = Dependencia.Tipo.RESTAURANTE)
+    Object porRestaurante(Restaurante restaurante) {
+      return null;
+    }
+
+    @ConsultaEmCache(regiao = "teste", filtro = Dependencia.Tipo.CLIENTE)
+    Object porCliente(Long clienteId, Pageable pagina) {
+      return null;
+    }
+
+    @ConsultaEmCache(regiao = "teste", filtro = Dependencia.Tipo.DISPONIVEIS)
+    Object disponiveis() {
+      return null;
+    }
+
+    Object semConsulta(Long id) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deliverytech.delivery_api.service.ProdutoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=cachestats")
+@AutoConfigureMockMvc
+@ActiveProfiles("test-unit")
+@WithMockUser(roles = "ADMIN")
+@DisplayName("Endpoint de estatísticas de cache")
+class EstatisticasCacheEndpointTest {
+
+  private static final String REGIAO = RegioesCache.PRODUTOS_POR_RESTAURANTE;
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private EstatisticasCache estatisticas;
+
+  @Autowired private ProdutoService produtoService;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  @AfterEach
+  void limparCaches() {
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+  }
+
+  @Test
+  @DisplayName("Deve contar acertos, faltas e cargas por família e listar as chaves quentes")
+  void deveContarPorFamilia() throws Exception {
+    long acertos = contador("acertos");
+    long faltas = contador("faltas");
+    long cargas = contador("cargas");
+
+    produtoService.buscarProdutosPorRestaurante(1L);
+    produtoService.buscarProdutosPorRestaurante(1L);
+
+    assertThat(contador("acertos")).isEqualTo(acertos + 1);
+    assertThat(contador("faltas")).isEqualTo(faltas + 1);
+    assertThat(contador("cargas")).isEqualTo(cargas + 1);
+    mockMvc
+        .perform(get("/actuator/cachestats/" + REGIAO).param("top", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.entradas").value(1))
+        .andExpect(jsonPath("$.memoriaEstimadaBytes").value(greaterThan(0)))
+        .andExpect(jsonPath("$.familias.restaurante.taxaAcerto").exists())
+        .andExpect(jsonPath("$.chavesMaisQuentes[0].chave").value("restaurante:1"))
+        .andExpect(jsonPath("$.chavesMaisQuentes[0].familia").value("restaurante"));
+    assertThat(
+            meterRegistry
+                .find("cache.familia.gets")
+                .tags("cache", REGIAO, "familia", "restaurante", "result", "hit")
+                .functionCounter())
+        .isNotNull();
+    assertThat(meterRegistry.find("cache.familia.cargas").tag("cache", REGIAO).functionTimer())
+        .isNotNull();
+  }
+
+  @Test
+  @DisplayName("Deve listar as regiões e limpar só a região pedida")
+  void deveLimparRegiao() throws Exception {
+    produtoService.buscarProdutosPorRestaurante(1L);
+    produtoService.buscarDisponiveis();
+
+    mockMvc
+        .perform(get("/actuator/cachestats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.regioes['" + REGIAO + "'].entradas").value(1));
+    mockMvc.perform(delete("/actuator/cachestats/" + REGIAO)).andExpect(status().isOk());
+
+    assertThat(cacheManager.getCache(REGIAO).get(ChaveCache.porRestaurante(1L))).isNull();
+    assertThat(
+            cacheManager.getCache(RegioesCache.PRODUTOS_DISPONIVEIS).get(ChaveCache.disponiveis()))
+        .isNotNull();
+  }
+
+  @Test
+  @DisplayName("Região desconhecida deve dar 404 e aquecimento desligado 503")
+  void regiaoDesconhecidaEAquecimentoDesligado() throws Exception {
+    mockMvc.perform(get("/actuator/cachestats/nao-existe")).andExpect(status().isNotFound());
+    mockMvc.perform(delete("/actuator/cachestats/nao-existe")).andExpect(status().isNotFound());
+    mockMvc
+        .perform(post("/actuator/cachestats/" + REGIAO))
+        .andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  @DisplayName("Família deve vir do tipo da chave, do nome do relatório ou da rota")
+  void familiaDaChave() {
+    assertThat(EstatisticasCache.familia(ChaveCache.porCliente(5L))).isEqualTo("cliente");
+    assertThat(EstatisticasCache.familia("resumoVendas:2026-01-01:2026-01-31"))
+        .isEqualTo("resumoVendas");
+    assertThat(EstatisticasCache.familia("/api/restaurantes/7/produtos?page=1"))
+        .isEqualTo("/api/restaurantes/{id}");
+    assertThat(EstatisticasCache.familia(42L)).isEqualTo("outras");
+  }
+
+  @SuppressWarnings("unchecked")
+  private long contador(String nome) {
+    Map<String, Object> familias =
+        (Map<String, Object>) estatisticas.resumo(REGIAO).get("familias");
+    Map<String, Object> familia = (Map<String, Object>) familias.get("restaurante");
+    return familia != null ? ((Number) familia.get(nome)).longValue() : 0L;
+  }
+}
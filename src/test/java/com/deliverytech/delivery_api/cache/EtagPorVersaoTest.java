@@ -0,0 +1,131 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.service.ProdutoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "app.cache.respostas.gzip-a-partir-de=64")
+@AutoConfigureMockMvc
+@ActiveProfiles("test-unit")
+@WithMockUser(roles = "ADMIN")
+@DisplayName("ETag por versão do catálogo")
+class EtagPorVersaoTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private VersoesCatalogo versoesCatalogo;
+
+  @Autowired private ProdutoService produtoService;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @BeforeEach
+  @AfterEach
+  void limparCaches() {
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+  }
+
+  @Test
+  @DisplayName("If-None-Match com a versão atual deve receber 304 sem corpo")
+  void versaoAtualDeveReceber304() throws Exception {
+    String etag =
+        mockMvc
+            .perform(get("/api/restaurantes/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    mockMvc
+        .perform(get("/api/restaurantes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().bytes(new byte[0]));
+
+    versoesCatalogo.restauranteAlterado(1L);
+
+    String nova =
+        mockMvc
+            .perform(get("/api/restaurantes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertThat(nova).isNotEqualTo(etag);
+    // O cardápio mostra o resumo do restaurante, então também muda de versão
+    assertThat(versoesCatalogo.versao(VersoesCatalogo.Agregado.CARDAPIO, 1L)).isPositive();
+  }
+
+  @Test
+  @DisplayName("Escrita de estoque não deve mudar o ETag da categoria, que não mostra o estoque")
+  void escritaDeEstoqueNaoDeveMudarEtagDaCategoria() throws Exception {
+    Produto produto = produtoRepository.findById(1L).orElseThrow();
+    String url = "/api/produtos/categoria/" + produto.getCategoria();
+    String etag =
+        mockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.items[0].quantidadeEstoque").doesNotExist())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    // Acerto no cache de respostas devolve o mesmo ETag guardado com os bytes
+    mockMvc
+        .perform(get(url))
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "HIT"))
+        .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+    produtoService.atualizarEstoque(1L, produto.getQuantidadeEstoque());
+
+    mockMvc
+        .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+        .andExpect(status().isNotModified());
+
+    versoesCatalogo.produtoAlterado(produto.getRestaurante().getId(), produto.getCategoria());
+
+    mockMvc
+        .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "MISS"));
+  }
+
+  @Test
+  @DisplayName("Resposta de erro não deve levar ETag")
+  void respostaDeErroNaoDeveLevarEtag() throws Exception {
+    mockMvc
+        .perform(get("/api/restaurantes/999999"))
+        .andExpect(status().isNotFound())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("If-None-Match deve aceitar lista, curinga e ETag fraco")
+  void ifNoneMatchDeveAceitarListaCuringaEFraco() {
+    assertThat(EtagPorVersaoInterceptor.coincide("\"a\", W/\"b\"", "\"b\"")).isTrue();
+    assertThat(EtagPorVersaoInterceptor.coincide("*", "\"b\"")).isTrue();
+    assertThat(EtagPorVersaoInterceptor.coincide("\"a\"", "\"b\"")).isFalse();
+    assertThat(EtagPorVersaoInterceptor.coincide(null, "\"b\"")).isFalse();
+  }
+}
@@ -0,0 +1,135 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class InvalidacaoCacheTest {
+
+  private final InvalidacaoCache invalidacao = new InvalidacaoCache();
+
+  private final CaffeineCacheComDependencias produtos = cache("produtos");
+
+  private final CaffeineCacheComDependencias pedidos = cache("pedidos");
+
+  @AfterEach
+  void limparSincronizacao() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve remover só as entradas do restaurante alterado")
+  void deveRemoverSoEntradasDoRestaurante() {
+    ChaveCache menu1 = ChaveCache.porRestaurante(1L);
+    ChaveCache menu2 = ChaveCache.porRestaurante(2L);
+    produtos.put(menu1, List.of(produto(10L)));
+    produtos.put(menu2, List.of(produto(20L)));
+
+    invalidacao.invalidar(Dependencia.restaurante(1L));
+
+    assertNull(produtos.get(menu1));
+    assertNotNull(produtos.get(menu2));
+    assertEquals(1, invalidacao.tamanho());
+  }
+
+  @Test
+  @DisplayName("Deve remover toda entrada que contém o produto alterado")
+  void deveRemoverEntradasQueContemProduto() {
+    ChaveCache menu = ChaveCache.porRestaurante(1L);
+    ChaveCache categoria = ChaveCache.porCategoria("Pizza");
+    ChaveCache disponiveis = ChaveCache.disponiveis();
+    ChaveCache busca = ChaveCache.porNome("lasanha");
+    produtos.put(menu, List.of(produto(10L), produto(11L)));
+    produtos.put(categoria, List.of(produto(11L)));
+    produtos.put(disponiveis, List.of(produto(10L), produto(11L), produto(30L)));
+    produtos.put(busca, List.of(produto(30L)));
+
+    invalidacao.invalidar(Dependencia.produto(10L));
+
+    assertNull(produtos.get(menu));
+    assertNull(produtos.get(disponiveis));
+    assertNotNull(produtos.get(categoria));
+    assertNotNull(produtos.get(busca));
+  }
+
+  @Test
+  @DisplayName("Deve ligar pedidos ao cliente, ao status e aos pedidos do valor")
+  void deveLigarPedidosAoClienteStatusEConteudo() {
+    ChaveCache cliente5 = ChaveCache.porCliente(5L);
+    ChaveCache restaurante5 = ChaveCache.porRestaurante(5L);
+    ChaveCache criados = ChaveCache.porStatus(StatusPedido.CRIADO);
+    pedidos.put(cliente5, List.of(pedido(1L)));
+    pedidos.put(restaurante5, List.of(pedido(2L)));
+    pedidos.put(criados, List.of(pedido(1L), pedido(2L)));
+
+    invalidacao.invalidar(Dependencia.cliente(5L));
+    assertNull(pedidos.get(cliente5));
+    // Cliente 5 e restaurante 5 não se confundem
+    assertNotNull(pedidos.get(restaurante5));
+
+    invalidacao.invalidar(Dependencia.pedido(2L));
+    assertNull(pedidos.get(restaurante5));
+    assertNull(pedidos.get(criados));
+    assertEquals(0, invalidacao.tamanho());
+  }
+
+  @Test
+  @DisplayName("Remoções e limpeza do cache devem manter o índice em dia")
+  void remocoesDevemManterIndiceEmDia() {
+    produtos.put(ChaveCache.porRestaurante(1L), List.of(produto(10L)));
+    produtos.put(ChaveCache.porRestaurante(2L), List.of(produto(20L)));
+    pedidos.put(ChaveCache.porCliente(1L), List.of(pedido(1L)));
+    // Chaves fora do esquema não entram no índice
+    produtos.put("avulsa", List.of(produto(10L)));
+
+    produtos.evict(ChaveCache.porRestaurante(1L));
+    assertEquals(2, invalidacao.tamanho());
+
+    produtos.clear();
+    assertEquals(1, invalidacao.tamanho());
+  }
+
+  @Test
+  @DisplayName("Deve remover de novo após o commit o que foi gravado durante a transação")
+  void deveRemoverDeNovoAposCommit() {
+    ChaveCache menu = ChaveCache.porRestaurante(1L);
+    produtos.put(menu, List.of(produto(10L)));
+    TransactionSynchronizationManager.initSynchronization();
+
+    invalidacao.invalidar(Dependencia.produto(10L));
+    assertNull(produtos.get(menu));
+    // Leitura concorrente grava o estado anterior ao commit
+    produtos.put(menu, List.of(produto(10L)));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertNull(produtos.get(menu));
+  }
+
+  private CaffeineCacheComDependencias cache(String nome) {
+    return new CaffeineCacheComDependencias(nome, Caffeine.newBuilder().build(), true, invalidacao);
+  }
+
+  private static ProdutoResponse produto(Long id) {
+    ProdutoResponse produto = new ProdutoResponse();
+    produto.setId(id);
+    return produto;
+  }
+
+  private static Pedido pedido(Long id) {
+    Pedido pedido = new Pedido();
+    pedido.setId(id);
+    return pedido;
+  }
+}
@@ -0,0 +1,96 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.service.RelatorioService;
+import com.deliverytech.delivery_api.service.VendasEmColunas;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Sem a consolidação agendada: os lançamentos gravados no teste não devem mudar no meio dele
+@SpringBootTest(properties = "app.relatorios.vendas-diarias.consolidar-intervalo-ms=3600000")
+@ActiveProfiles("test-unit")
+@DisplayName("Relatórios em cache só para períodos encerrados")
+class RelatorioEmCacheTest {
+
+  // Dias encerrados sem pedidos do data-test.sql, em meses diferentes
+  private static final LocalDate JANEIRO = LocalDate.of(2001, 1, 20);
+  private static final LocalDate MARCO = LocalDate.of(2001, 3, 10);
+
+  @Autowired private RelatorioService relatorioService;
+
+  @Autowired private VendasEmColunas vendasEmColunas;
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  @AfterEach
+  void limpar() {
+    jdbcTemplate.update(
+        "DELETE FROM venda_diaria_restaurante WHERE dia BETWEEN ? AND ?", JANEIRO, MARCO);
+    jdbcTemplate.update(
+        "DELETE FROM venda_diaria_pendente WHERE dia = ? AND valor_total = 10.00", LocalDate.now());
+    vendasEmColunas.diasAlterados(null);
+    cacheManager.getCache(RegioesCache.RELATORIOS).clear();
+  }
+
+  @Test
+  @DisplayName("Alteração de um dia passado deve tirar só os relatórios do mês dele")
+  void alteracaoDeDiaPassadoDeveTirarSoRelatoriosDoMes() {
+    vender(JANEIRO);
+    vender(MARCO);
+    Cache relatorios = cacheManager.getCache(RegioesCache.RELATORIOS);
+
+    assertThat(relatorioService.resumoVendas(JANEIRO, JANEIRO)).containsEntry("totalPedidos", 1);
+    assertThat(relatorioService.resumoVendas(MARCO, MARCO)).containsEntry("totalPedidos", 1);
+    assertThat(relatorios.get(new ChaveRelatorio("resumoVendas", null, MARCO, MARCO))).isNotNull();
+
+    // Gravado sem passar pela consolidação: o relatório guardado continua valendo
+    jdbcTemplate.update(
+        "UPDATE venda_diaria_restaurante SET quantidade_pedidos = 2 WHERE dia = ?", MARCO);
+    assertThat(relatorioService.resumoVendas(MARCO, MARCO)).containsEntry("totalPedidos", 1);
+
+    vendasEmColunas.diasAlterados(List.of(MARCO));
+
+    assertThat(relatorios.get(new ChaveRelatorio("resumoVendas", null, MARCO, MARCO))).isNull();
+    assertThat(relatorios.get(new ChaveRelatorio("resumoVendas", null, JANEIRO, JANEIRO)))
+        .isNotNull();
+    assertThat(relatorioService.resumoVendas(MARCO, MARCO)).containsEntry("totalPedidos", 2);
+  }
+
+  @Test
+  @DisplayName("Período que inclui hoje não deve ser guardado")
+  void periodoComHojeNaoDeveSerGuardado() {
+    LocalDate hoje = LocalDate.now();
+    int antes = (int) relatorioService.resumoVendas(hoje, hoje).get("totalPedidos");
+
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_pendente (dimensao, dia, chave_id, status, quantidade,"
+            + " valor_total) VALUES ('RESTAURANTE', ?, 1, 'ENTREGUE', 1, 10.00)",
+        hoje);
+
+    assertThat(relatorioService.resumoVendas(hoje, hoje)).containsEntry("totalPedidos", antes + 1);
+    assertThat(
+            cacheManager
+                .getCache(RegioesCache.RELATORIOS)
+                .get(new ChaveRelatorio("resumoVendas", null, hoje, hoje)))
+        .isNull();
+  }
+
+  private void vender(LocalDate dia) {
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante VALUES (?, 1, 'ENTREGUE', 1, 10.00)", dia);
+  }
+}
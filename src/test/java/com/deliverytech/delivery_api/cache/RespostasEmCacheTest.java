@@ -0,0 +1,129 @@
+package com.deliverytech.delivery_api.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest(properties = "app.cache.respostas.gzip-a-partir-de=64")
+@AutoConfigureMockMvc
+@ActiveProfiles("test-unit")
+@WithMockUser(roles = "ADMIN")
+@DisplayName("Cache de respostas de catálogo")
+class RespostasEmCacheTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private InvalidacaoCache invalidacaoCache;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @BeforeEach
+  @AfterEach
+  void limparCaches() {
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+  }
+
+  @Test
+  @DisplayName("Segunda leitura deve vir do cache com o mesmo corpo")
+  void segundaLeituraDeveVirDoCache() throws Exception {
+    MvcResult primeira =
+        mockMvc
+            .perform(get("/api/produtos/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "MISS"))
+            .andExpect(jsonPath("$.data.id").value(1))
+            .andReturn();
+    MvcResult segunda =
+        mockMvc
+            .perform(get("/api/produtos/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "HIT"))
+            .andReturn();
+
+    assertThat(segunda.getResponse().getContentAsByteArray())
+        .isEqualTo(primeira.getResponse().getContentAsByteArray());
+  }
+
+  @Test
+  @DisplayName("Corpo grande deve ir com gzip só para quem aceita")
+  void corpoGrandeDeveIrComGzipParaQuemAceita() throws Exception {
+    String categoria = produtoRepository.findById(1L).orElseThrow().getCategoria();
+    String url = "/api/produtos/categoria/" + categoria;
+    String semGzip =
+        mockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    MvcResult comGzip =
+        mockMvc
+            .perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "HIT"))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(
+                header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andReturn();
+
+    byte[] compactado = comGzip.getResponse().getContentAsByteArray();
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+      assertThat(new String(gzip.readAllBytes(), "UTF-8")).isEqualTo(semGzip);
+    }
+  }
+
+  @Test
+  @DisplayName("Host da requisição não deve mudar a chave nem os links guardados")
+  void hostNaoDeveMudarChaveNemLinks() throws Exception {
+    mockMvc
+        .perform(get("/api/produtos").header(HttpHeaders.HOST, "outro.example:9999"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "MISS"))
+        .andExpect(jsonPath("$.data.links.first").value("/api/produtos?page=0"));
+    mockMvc
+        .perform(get("/api/produtos"))
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "HIT"))
+        .andExpect(jsonPath("$.data.links.first").value("/api/produtos?page=0"));
+  }
+
+  @Test
+  @DisplayName("Invalidação do produto deve tirar as respostas que o contêm")
+  void invalidacaoDoProdutoDeveTirarRespostas() throws Exception {
+    String categoria = produtoRepository.findById(1L).orElseThrow().getCategoria();
+    mockMvc.perform(get("/api/produtos/categoria/" + categoria)).andExpect(status().isOk());
+    mockMvc.perform(get("/api/produtos/1")).andExpect(status().isOk());
+
+    invalidacaoCache.invalidar(Dependencia.produto(1L));
+
+    mockMvc
+        .perform(get("/api/produtos/categoria/" + categoria))
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "MISS"));
+    mockMvc
+        .perform(get("/api/produtos/1"))
+        .andExpect(header().string(RespostasEmCache.CABECALHO_SITUACAO, "MISS"));
+  }
+}
@@ -0,0 +1,82 @@
+package com.deliverytech.delivery_api.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+class CacheConfigTest {
+
+  private final AtomicLong relogio = new AtomicLong();
+
+  @Test
+  @DisplayName("Deve limitar o número de entradas de cada região")
+  void deveLimitarEntradasDaRegiao() {
+    CacheRegioesProperties propriedades = new CacheRegioesProperties();
+    propriedades.getRegioes().get(RegioesCache.PEDIDOS_POR_CLIENTE).setMaxEntradas(10L);
+    CaffeineCacheManager manager =
+        CacheConfig.criarCacheManager(propriedades, relogio::get, new InvalidacaoCache());
+
+    Cache<Object, Object> pedidos = nativo(manager, RegioesCache.PEDIDOS_POR_CLIENTE);
+    for (int i = 0; i < 100; i++) {
+      pedidos.put(i, i);
+    }
+    pedidos.cleanUp();
+
+    assertTrue(pedidos.estimatedSize() <= 10);
+    assertTrue(pedidos.stats().evictionCount() >= 90);
+  }
+
+  @Test
+  @DisplayName("Deve expirar por escrita e por acesso conforme a região")
+  void deveExpirarConformeRegiao() {
+    CaffeineCacheManager manager =
+        CacheConfig.criarCacheManager(
+            new CacheRegioesProperties(), relogio::get, new InvalidacaoCache());
+    Cache<Object, Object> pedidos = nativo(manager, RegioesCache.PEDIDOS_POR_CLIENTE);
+    Cache<Object, Object> produtos = nativo(manager, RegioesCache.PRODUTOS_POR_RESTAURANTE);
+    pedidos.put("a", 1);
+    produtos.put("a", 1);
+
+    // pedidos expira 2 minutos após o último acesso; produtos só 10 minutos após a escrita
+    avancar(Duration.ofMinutes(3));
+    assertNull(pedidos.getIfPresent("a"));
+    assertNotNull(produtos.getIfPresent("a"));
+
+    avancar(Duration.ofMinutes(8));
+    assertNull(produtos.getIfPresent("a"));
+  }
+
+  @Test
+  @DisplayName("Região parcial deve herdar do padrão e cache não declarado deve ser limitado")
+  void regiaoParcialDeveHerdarDoPadrao() {
+    CacheRegioesProperties propriedades = new CacheRegioesProperties();
+    propriedades.getPadrao().setMaxEntradas(5L);
+    propriedades.getRegioes().put("novos", new CacheRegioesProperties.Regiao());
+
+    CacheRegioesProperties.Regiao novos = propriedades.resolver("novos");
+    assertEquals(5L, novos.getMaxEntradas());
+    assertEquals(Duration.ofMinutes(10), novos.getExpirarAposEscrita());
+
+    CaffeineCacheManager manager =
+        CacheConfig.criarCacheManager(propriedades, relogio::get, new InvalidacaoCache());
+    Cache<Object, Object> avulso = nativo(manager, "avulso");
+    assertEquals(5L, avulso.policy().eviction().orElseThrow().getMaximum());
+  }
+
+  private void avancar(Duration duracao) {
+    relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(duracao.toMillis()));
+  }
+
+  private static Cache<Object, Object> nativo(CaffeineCacheManager manager, String nome) {
+    return ((CaffeineCache) manager.getCache(nome)).getNativeCache();
+  }
+}
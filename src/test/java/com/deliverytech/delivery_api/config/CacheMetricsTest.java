@@ -0,0 +1,50 @@
+package com.deliverytech.delivery_api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test-unit")
+@DisplayName("Métricas das regiões de cache")
+class CacheMetricsTest {
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("Deve publicar acertos e falhas de cada região no Micrometer")
+  void devePublicarAcertosEFalhas() {
+    var relatorios = cacheManager.getCache("relatorios");
+    relatorios.get("metricas-teste");
+    relatorios.put("metricas-teste", "valor");
+    relatorios.get("metricas-teste");
+
+    for (String regiao :
+        new String[] {
+          RegioesCache.PRODUTOS_POR_RESTAURANTE,
+          RegioesCache.PEDIDOS_POR_CLIENTE,
+          RegioesCache.PEDIDOS_POR_STATUS,
+          RegioesCache.RELATORIOS
+        }) {
+      assertThat(meterRegistry.find("cache.gets").tag("cache", regiao).meters()).isNotEmpty();
+      assertThat(meterRegistry.find("cache.evictions").tag("cache", regiao).meters()).isNotEmpty();
+    }
+    assertThat(
+            meterRegistry
+                .get("cache.gets")
+                .tag("cache", "relatorios")
+                .tag("result", "hit")
+                .functionCounter()
+                .count())
+        .isGreaterThanOrEqualTo(1);
+  }
+}
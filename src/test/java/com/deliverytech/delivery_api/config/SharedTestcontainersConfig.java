@@ -22,6 +22,8 @@ public class SharedTestcontainersConfig {
             .withDatabaseName(DATABASE_NAME)
             .withUsername(USERNAME)
             .withPassword(PASSWORD)
+            // Lotes JDBC num único INSERT multi-valor em vez de um comando por linha
+            .withUrlParam("rewriteBatchedStatements", "true")
             .withCommand(
                 "--character-set-server=utf8mb4",
                 "--collation-server=utf8mb4_unicode_ci",
@@ -19,6 +19,8 @@ public class TestConfig {
             .withDatabaseName("deliverydb")
             .withUsername("deliveryuser")
             .withPassword("deliverypass")
+            // Lotes JDBC num único INSERT multi-valor em vez de um comando por linha
+            .withUrlParam("rewriteBatchedStatements", "true")
             .withCommand(
                 "--character-set-server=utf8mb4",
                 "--collation-server=utf8mb4_unicode_ci",
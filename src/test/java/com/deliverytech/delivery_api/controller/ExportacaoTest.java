@@ -0,0 +1,140 @@
+package com.deliverytech.delivery_api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Sem a consolidação agendada: as vendas gravadas no teste não devem mudar no meio dele
+@SpringBootTest(
+    properties = {
+      "app.relatorios.vendas-diarias.consolidar-intervalo-ms=3600000",
+      "app.exportacao.flush-linhas=1"
+    })
+@AutoConfigureMockMvc
+@ActiveProfiles("test-unit")
+@WithMockUser(roles = "ADMIN")
+@DisplayName("Exportação de pedidos e vendas por dia")
+class ExportacaoTest {
+
+  // Dia encerrado sem pedidos do data-test.sql
+  private static final LocalDate DIA = LocalDate.of(2001, 3, 10);
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void gravarVendas() {
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante VALUES (?, 1, 'ENTREGUE', 2, 70.00)", DIA);
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_pendente (dimensao, dia, chave_id, status, quantidade,"
+            + " valor_total) VALUES ('RESTAURANTE', ?, 1, 'ENTREGUE', 1, 12.50)",
+        DIA);
+  }
+
+  @AfterEach
+  void removerVendas() {
+    for (String tabela : List.of("venda_diaria_restaurante", "venda_diaria_pendente")) {
+      jdbcTemplate.update("DELETE FROM " + tabela + " WHERE dia = ?", DIA);
+    }
+  }
+
+  @Test
+  @DisplayName("Pedidos em CSV devem trazer cabeçalho e uma linha por pedido")
+  void pedidosEmCsv() throws Exception {
+    LocalDate hoje = LocalDate.now();
+    String corpo =
+        mockMvc
+            .perform(get("/api/pedidos/export").param("inicio", "" + hoje).param("fim", "" + hoje))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+            .andExpect(
+                header()
+                    .string(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"pedidos-" + hoje + "-" + hoje + ".csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+    String[] linhas = corpo.split("\r\n");
+    assertThat(linhas[0])
+        .isEqualTo(
+            "id,numero_pedido,data_pedido,status,cliente_id,cliente,restaurante_id,restaurante,"
+                + "subtotal,desconto,valor_total");
+    assertThat(linhas).anyMatch(l -> l.startsWith("1,PED-TEST-001,"));
+  }
+
+  @Test
+  @DisplayName("Vendas por dia em NDJSON compactado devem somar os lançamentos pendentes")
+  void vendasDiariasEmNdjsonCompactado() throws Exception {
+    byte[] compactado =
+        mockMvc
+            .perform(
+                get("/api/relatorios/export/vendas-diarias/RESTAURANTE")
+                    .param("inicio", "" + DIA)
+                    .param("fim", "" + DIA)
+                    .param("formato", "ndjson")
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    String corpo;
+    try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(compactado))) {
+      corpo = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    String[] linhas = corpo.split("\n");
+    assertThat(linhas).hasSize(1);
+    JsonNode venda = objectMapper.readTree(linhas[0]);
+    assertThat(venda.get("dia").asText()).isEqualTo(DIA.toString());
+    assertThat(venda.get("restaurante_id").asLong()).isEqualTo(1L);
+    assertThat(venda.get("status").asText()).isEqualTo("ENTREGUE");
+    assertThat(venda.get("quantidade_pedidos").asLong()).isEqualTo(3L);
+    assertThat(venda.get("valor_total").decimalValue()).isEqualByComparingTo("82.50");
+  }
+
+  @Test
+  @DisplayName("Formato ou dimensão desconhecidos devem receber 400")
+  void parametrosInvalidosDevemReceber400() throws Exception {
+    mockMvc
+        .perform(
+            get("/api/pedidos/export")
+                .param("inicio", "" + DIA)
+                .param("fim", "" + DIA)
+                .param("formato", "xlsx"))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            get("/api/relatorios/export/vendas-diarias/fornecedor")
+                .param("inicio", "" + DIA)
+                .param("fim", "" + DIA))
+        .andExpect(status().isBadRequest());
+  }
+}
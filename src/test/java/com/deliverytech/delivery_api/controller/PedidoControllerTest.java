@@ -2,6 +2,8 @@ package com.deliverytech.delivery_api.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -11,7 +13,10 @@ import com.deliverytech.delivery_api.dto.request.ItemPedidoRequest;
 import com.deliverytech.delivery_api.dto.request.PedidoRequest;
 import com.deliverytech.delivery_api.dto.request.StatusUpdateRequest;
 import com.deliverytech.delivery_api.dto.response.ItemPedidoResponse;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
 import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.exception.EntityNotFoundException;
 import com.deliverytech.delivery_api.model.*;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.repository.UsuarioRepository;
@@ -23,6 +28,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -236,6 +242,83 @@ public class PedidoControllerTest {
         .andExpect(jsonPath("$.data.id").value(1));
   }
 
+  @Test
+  void criarPedido_DeveRepetirRespostaParaMesmaIdempotencyKey() throws Exception {
+    when(pedidoService.criarPedido(any(PedidoRequest.class))).thenReturn(pedidoResponse);
+    String chave = UUID.randomUUID().toString();
+
+    for (int tentativa = 0; tentativa < 2; tentativa++) {
+      mockMvc
+          .perform(
+              post("/api/pedidos/dto")
+                  .header("Idempotency-Key", chave)
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(pedidoRequest))
+                  .with(csrf()))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.data.id").value(1));
+    }
+
+    verify(pedidoService, times(1)).criarPedido(any(PedidoRequest.class));
+    mockMvc
+        .perform(
+            post("/api/pedidos/dto")
+                .header("Idempotency-Key", chave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pedidoRequest))
+                .with(csrf()))
+        .andExpect(header().string("Idempotent-Replayed", "true"));
+  }
+
+  @Test
+  void criar_DeveRetornar409ParaIdempotencyKeyComOutroCorpo() throws Exception {
+    when(pedidoService.criar(any(Pedido.class))).thenReturn(pedido);
+    String chave = UUID.randomUUID().toString();
+
+    mockMvc
+        .perform(
+            post("/api/pedidos")
+                .header("Idempotency-Key", chave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pedidoRequest))
+                .with(csrf()))
+        .andExpect(status().isCreated())
+        .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+    pedidoRequest.setDesconto(BigDecimal.ONE);
+    mockMvc
+        .perform(
+            post("/api/pedidos")
+                .header("Idempotency-Key", chave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pedidoRequest))
+                .with(csrf()))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.success").value(false));
+  }
+
+  @Test
+  void criarPedidosEmLote_DeveRetornarResultadoPorPedido() throws Exception {
+    when(pedidoService.criarPedidos(any()))
+        .thenReturn(
+            List.of(
+                PedidoLoteResultadoResponse.criado(0, pedidoResponse),
+                PedidoLoteResultadoResponse.recusado(1, "Estoque insuficiente")));
+
+    mockMvc
+        .perform(
+            post("/api/pedidos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(pedidoRequest, pedidoRequest)))
+                .with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("1 pedido(s) criado(s), 1 recusado(s)"))
+        .andExpect(jsonPath("$.data[0].sucesso").value(true))
+        .andExpect(jsonPath("$.data[0].pedido.id").value(1))
+        .andExpect(jsonPath("$.data[1].sucesso").value(false))
+        .andExpect(jsonPath("$.data[1].erro").value("Estoque insuficiente"));
+  }
+
   @Test
   void atualizarStatus_DeveAtualizarStatusComSucesso() throws Exception {
     Pedido pedidoAtualizado = pedido;
@@ -295,6 +378,44 @@ public class PedidoControllerTest {
         .andExpect(jsonPath("$.message").value("Status inválido"));
   }
 
+  @Test
+  void atualizarStatusPatch_DeveRetornar400ParaTransicaoRecusada() throws Exception {
+    when(pedidoService.atualizarStatus(1L, StatusPedido.CONFIRMADO))
+        .thenThrow(new BusinessException("Não é possível alterar status de pedido cancelado"));
+
+    StatusUpdateRequest statusRequest = new StatusUpdateRequest();
+    statusRequest.setStatus("CONFIRMADO");
+
+    mockMvc
+        .perform(
+            patch("/api/pedidos/1/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(statusRequest))
+                .with(csrf()))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.success").value(false))
+        .andExpect(
+            jsonPath("$.message").value("Não é possível alterar status de pedido cancelado"));
+  }
+
+  @Test
+  void atualizarStatusPatch_DeveRetornar404ParaPedidoInexistente() throws Exception {
+    when(pedidoService.atualizarStatus(99L, StatusPedido.CONFIRMADO))
+        .thenThrow(new EntityNotFoundException("Pedido não encontrado: 99"));
+
+    StatusUpdateRequest statusRequest = new StatusUpdateRequest();
+    statusRequest.setStatus("CONFIRMADO");
+
+    mockMvc
+        .perform(
+            patch("/api/pedidos/99/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(statusRequest))
+                .with(csrf()))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Pedido não encontrado"));
+  }
+
   @Test
   void cancelarPedido_DeveCancelarPedidoComSucesso() throws Exception {
     Pedido pedidoCancelado = pedido;
@@ -12,6 +12,7 @@ import com.deliverytech.delivery_api.repository.ClienteRepository;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.service.VendasDiarias;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -31,6 +32,7 @@ class RelatorioControllerIT extends BaseIntegrationTest {
   @Autowired private ProdutoRepository produtoRepository;
   @Autowired private ClienteRepository clienteRepository;
   @Autowired private PedidoRepository pedidoRepository;
+  @Autowired private VendasDiarias vendasDiarias;
 
   @BeforeEach
   void setup() {
@@ -61,6 +63,8 @@ class RelatorioControllerIT extends BaseIntegrationTest {
     p.setDataPedido(LocalDateTime.now());
     p.setValorTotal(new BigDecimal("200.00"));
     pedidoRepository.save(p);
+    // Pedido gravado direto no repositório: as vendas diárias são refeitas a partir da tabela
+    vendasDiarias.recalcular();
     String inicio = LocalDate.now().minusDays(1).toString();
     String fim = LocalDate.now().plusDays(1).toString();
     mockMvc
@@ -43,7 +43,8 @@ import org.springframework.test.web.servlet.MockMvc;
       "spring.datasource.url=jdbc:h2:mem:testdb",
       "spring.datasource.driver-class-name=org.h2.Driver",
       "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
-      "spring.jpa.hibernate.ddl-auto=create-drop"
+      "spring.jpa.hibernate.ddl-auto=create-drop",
+      "app.cache.respostas.habilitado=false"
     })
 @WithMockUser(
     username = "admin",
@@ -0,0 +1,30 @@
+package com.deliverytech.delivery_api.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tabela de transições de StatusPedido")
+class StatusPedidoTest {
+
+  @Test
+  @DisplayName("ENTREGUE e CANCELADO devem ser finais")
+  void entregueECanceladoDevemSerFinais() {
+    for (StatusPedido destino : StatusPedido.values()) {
+      assertFalse(StatusPedido.ENTREGUE.podeIrPara(destino));
+      assertFalse(StatusPedido.CANCELADO.podeIrPara(destino));
+    }
+    assertTrue(StatusPedido.CRIADO.podeIrPara(StatusPedido.CANCELADO));
+  }
+
+  @Test
+  @DisplayName("Pedido só deve avançar no fluxo")
+  void pedidoSoDeveAvancarNoFluxo() {
+    assertTrue(StatusPedido.CRIADO.podeIrPara(StatusPedido.PREPARANDO));
+    assertTrue(StatusPedido.SAIU_PARA_ENTREGA.podeIrPara(StatusPedido.ENTREGUE));
+    assertFalse(StatusPedido.PREPARANDO.podeIrPara(StatusPedido.CONFIRMADO));
+    assertFalse(StatusPedido.CRIADO.podeIrPara(StatusPedido.ENTREGUE));
+    assertFalse(StatusPedido.CONFIRMADO.podeIrPara(StatusPedido.CONFIRMADO));
+  }
+}
@@ -0,0 +1,57 @@
+package com.deliverytech.delivery_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.service.IdempotenciaStore;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "app.pedidos.idempotencia.store=jdbc")
+@ActiveProfiles("test-unit")
+@DisplayName("Idempotency-Key na tabela idempotencia_pedido")
+class IdempotenciaStoreJdbcTest {
+
+  @Autowired private IdempotenciaStore store;
+
+  @Test
+  @DisplayName("Deve reservar, registrar e repetir a resposta gravada")
+  void deveReservarRegistrarERepetir() {
+    String chave = "1:" + UUID.randomUUID();
+    PedidoResponse resposta = new PedidoResponse();
+    resposta.setId(42L);
+    resposta.setStatus(StatusPedido.CRIADO);
+    resposta.setValorTotal(new BigDecimal("59.90"));
+
+    assertThat(store).isInstanceOf(IdempotenciaStoreJdbc.class);
+    assertThat(store.reservar(chave, "h1", 0)).isEmpty();
+    store.concluir(chave, resposta);
+
+    PedidoResponse repetida = store.reservar(chave, "h1", 0).orElseThrow();
+    assertThat(repetida.getId()).isEqualTo(42L);
+    assertThat(repetida.getStatus()).isEqualTo(StatusPedido.CRIADO);
+    assertThat(repetida.getValorTotal()).isEqualByComparingTo("59.90");
+    assertThatThrownBy(() -> store.reservar(chave, "h2", 0)).isInstanceOf(ConflictException.class);
+  }
+
+  @Test
+  @DisplayName("Deve recusar duplicata em andamento e liberar a chave após falha")
+  void deveRecusarEmAndamentoELiberarAposFalha() {
+    String chave = "1:" + UUID.randomUUID();
+
+    assertThat(store.reservar(chave, "h1", 0)).isEmpty();
+    assertThatThrownBy(() -> store.reservar(chave, "h1", 100))
+        .isInstanceOf(ConflictException.class);
+
+    store.liberar(chave);
+    assertThat(store.reservar(chave, "h1", 0)).isEmpty();
+  }
+}
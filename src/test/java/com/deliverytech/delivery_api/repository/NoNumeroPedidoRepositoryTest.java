@@ -0,0 +1,58 @@
+package com.deliverytech.delivery_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test-unit")
+@DisplayName("Concessão de nós dos números de pedido na tabela numero_pedido_no")
+class NoNumeroPedidoRepositoryTest {
+
+  @Autowired private NoNumeroPedidoRepository nos;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void limpar() {
+    jdbcTemplate.update("DELETE FROM numero_pedido_no");
+  }
+
+  @Test
+  @DisplayName("Nó em uso não deve ser concedido a outra instância até vencer ou ser liberado")
+  void noEmUsoNaoDeveSerConcedido() {
+    assertThat(nos.noLivre(60_000)).isZero();
+    assertThat(nos.conceder(0, "a", 60_000)).isZero();
+    assertThat(nos.renovar(0, "a", 1_000)).isTrue();
+
+    assertThat(nos.noLivre(60_000)).isEqualTo(1);
+    assertThat(nos.conceder(0, "b", 60_000)).isNull();
+    assertThat(nos.renovar(0, "b", 2_000)).isFalse();
+
+    nos.liberar(0, "a");
+
+    assertThat(nos.noLivre(60_000)).isZero();
+    assertThat(nos.conceder(0, "b", 60_000)).isEqualTo(1_000L);
+  }
+
+  @Test
+  @DisplayName("Nó vencido deve ir para outra instância com o horizonte do dono anterior")
+  void noVencidoDeveIrParaOutraInstancia() {
+    nos.conceder(3, "a", 60_000);
+    nos.renovar(3, "a", 5_000);
+    // O horizonte nunca diminui
+    nos.renovar(3, "a", 4_000);
+    jdbcTemplate.update(
+        "UPDATE numero_pedido_no SET renovado_em = TIMESTAMPADD(MINUTE, -2, CURRENT_TIMESTAMP(3))");
+
+    assertThat(nos.noLivre(60_000)).isEqualTo(3);
+    assertThat(nos.conceder(3, "b", 60_000)).isEqualTo(5_000L);
+    assertThat(nos.renovar(3, "a", 6_000)).isFalse();
+  }
+}
@@ -0,0 +1,106 @@
+package com.deliverytech.delivery_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.model.ItemPedido;
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "spring.jpa.properties.hibernate.session.events.auto="
+          + "com.deliverytech.delivery_api.repository.PedidoRepositoryBatchInsertTest$ExecucoesJdbc"
+    })
+@Transactional
+@ActiveProfiles("test-unit")
+@DisplayName("Inserção em lote do pedido e itens")
+class PedidoRepositoryBatchInsertTest {
+
+  private static final int ITENS = 30;
+
+  @Autowired private PedidoRepository pedidoRepository;
+
+  @Autowired private ClienteRepository clienteRepository;
+
+  @Autowired private RestauranteRepository restauranteRepository;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  @DisplayName("Deve persistir pedido com 30 itens em lotes, sem um INSERT por item")
+  void devePersistirPedidoGrandeEmLotes() {
+    Produto produto = produtoRepository.findById(1L).orElseThrow();
+    Pedido pedido =
+        Pedido.builder()
+            .cliente(clienteRepository.findById(1L).orElseThrow())
+            .restaurante(restauranteRepository.findById(1L).orElseThrow())
+            .status(StatusPedido.CRIADO)
+            .valorTotal(produto.getPreco().multiply(BigDecimal.valueOf(ITENS)))
+            .build();
+    for (int i = 0; i < ITENS; i++) {
+      pedido.addItem(
+          ItemPedido.builder()
+              .produto(produto)
+              .quantidade(1)
+              .precoUnitario(produto.getPreco())
+              .build());
+    }
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    ExecucoesJdbc.zerar();
+
+    pedidoRepository.save(pedido);
+    entityManager.flush();
+
+    assertThat(statistics.getEntityInsertCount()).isEqualTo(ITENS + 1);
+    // Um executeBatch para o pedido e um para os itens; com IDENTITY seriam 31 INSERTs avulsos.
+    // Os comandos avulsos são só a alocação dos blocos de ids (SELECT + UPDATE em id_sequencia
+    // por tabela). Quantas idas ao MySQL cada lote custa depende de rewriteBatchedStatements=true
+    // na URL, que o H2 não tem como conferir
+    assertThat(ExecucoesJdbc.LOTES.get()).isEqualTo(2);
+    assertThat(ExecucoesJdbc.COMANDOS.get()).isLessThanOrEqualTo(4);
+    assertThat(pedido.getItens()).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+  }
+
+  /** Conta as execuções JDBC da sessão: lotes ({@code executeBatch}) e comandos avulsos. */
+  public static class ExecucoesJdbc implements SessionEventListener {
+
+    static final AtomicInteger LOTES = new AtomicInteger();
+    static final AtomicInteger COMANDOS = new AtomicInteger();
+
+    static void zerar() {
+      LOTES.set(0);
+      COMANDOS.set(0);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+      LOTES.incrementAndGet();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+      COMANDOS.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.deliverytech.delivery_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.model.Pedido;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import java.math.BigDecimal;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test-unit")
+@DisplayName("Troca de status condicional do pedido")
+class PedidoRepositoryStatusTest {
+
+  @Autowired private PedidoRepository pedidoRepository;
+
+  @Autowired private ClienteRepository clienteRepository;
+
+  @Autowired private RestauranteRepository restauranteRepository;
+
+  @Test
+  @DisplayName("Só a primeira troca a partir do status esperado deve alterar a linha")
+  void soPrimeiraTrocaDeveAlterarLinha() {
+    Long id =
+        pedidoRepository
+            .save(
+                Pedido.builder()
+                    .cliente(clienteRepository.findById(1L).orElseThrow())
+                    .restaurante(restauranteRepository.findById(1L).orElseThrow())
+                    .status(StatusPedido.CRIADO)
+                    .valorTotal(BigDecimal.TEN)
+                    .build())
+            .getId();
+
+    int cancelado =
+        pedidoRepository.atualizarStatusSe(id, StatusPedido.CANCELADO, Set.of(StatusPedido.CRIADO));
+    int confirmado =
+        pedidoRepository.atualizarStatusSe(
+            id, StatusPedido.CONFIRMADO, Set.of(StatusPedido.CRIADO));
+
+    assertThat(cancelado).isEqualTo(1);
+    assertThat(confirmado).isZero();
+    assertThat(pedidoRepository.findStatusById(id)).contains(StatusPedido.CANCELADO);
+    assertThat(pedidoRepository.findById(id).orElseThrow().getStatus())
+        .isEqualTo(StatusPedido.CANCELADO);
+  }
+}
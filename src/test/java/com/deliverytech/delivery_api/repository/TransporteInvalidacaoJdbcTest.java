@@ -0,0 +1,134 @@
+package com.deliverytech.delivery_api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.cache.BarramentoInvalidacao;
+import com.deliverytech.delivery_api.cache.ChaveCache;
+import com.deliverytech.delivery_api.cache.EventoInvalidacao;
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import com.deliverytech.delivery_api.cache.TransporteInvalidacao;
+import com.deliverytech.delivery_api.dto.response.ProdutoResponse;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "app.cache.invalidacao.transporte=jdbc")
+@ActiveProfiles("test-unit")
+@DisplayName("Invalidações de cache na tabela cache_invalidacao")
+class TransporteInvalidacaoJdbcTest {
+
+  @Autowired private TransporteInvalidacao transporte;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private CacheManager cacheManager;
+
+  @Autowired private BarramentoInvalidacao barramento;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void limparCaches() {
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+  }
+
+  @Test
+  @DisplayName("Outra instância deve receber cada evento uma vez só, sem o histórico anterior")
+  void outraInstanciaDeveReceberCadaEventoUmaVez() {
+    EventoInvalidacao antigo =
+        new EventoInvalidacao("a", EventoInvalidacao.Tipo.VERSAO_RESTAURANTE, null, "1");
+    EventoInvalidacao novo =
+        new EventoInvalidacao("a", EventoInvalidacao.Tipo.VERSAO_RESTAURANTE, null, "2");
+    transporte.enviar(List.of(antigo));
+
+    List<EventoInvalidacao> recebidos = new ArrayList<>();
+    TransporteInvalidacaoJdbc outra = outraInstancia();
+    outra.assinar(recebidos::addAll);
+    outra.consultar();
+    assertThat(recebidos).isEmpty();
+
+    transporte.enviar(List.of(novo));
+    outra.consultar();
+    outra.consultar();
+
+    assertThat(transporte).isInstanceOf(TransporteInvalidacaoJdbc.class);
+    assertThat(recebidos).containsExactly(novo);
+  }
+
+  @Test
+  @DisplayName("Invalidação publicada por outra instância deve remover a entrada dependente")
+  void invalidacaoDeOutraInstanciaDeveRemoverEntrada() {
+    TransporteInvalidacaoJdbc local = (TransporteInvalidacaoJdbc) transporte;
+    local.consultar();
+    Cache cardapios = cacheManager.getCache(RegioesCache.PRODUTOS_POR_RESTAURANTE);
+    ProdutoResponse produto = new ProdutoResponse();
+    produto.setId(10L);
+    cardapios.put(ChaveCache.porRestaurante(1L), List.of(produto));
+
+    outraInstancia()
+        .enviar(
+            List.of(
+                new EventoInvalidacao(
+                    "outra", EventoInvalidacao.Tipo.DEPENDENCIA, "PRODUTO", "10")));
+    local.consultar();
+
+    assertThat(cardapios.get(ChaveCache.porRestaurante(1L))).isNull();
+  }
+
+  @Test
+  @DisplayName("Eventos devem ser gravados na transação que invalidou, e não após rollback")
+  void eventosDevemSerGravadosNaTransacao() {
+    TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+    int antes = linhas();
+
+    transacao.executeWithoutResult(
+        status -> {
+          barramento.publicar(EventoInvalidacao.Tipo.VERSAO_RESTAURANTE, null, 7L);
+          status.setRollbackOnly();
+        });
+    assertThat(linhas()).isEqualTo(antes);
+
+    transacao.executeWithoutResult(
+        status -> {
+          barramento.publicar(EventoInvalidacao.Tipo.VERSAO_RESTAURANTE, null, 7L);
+          // Ainda não gravado: a linha sai com o commit
+          assertThat(linhas()).isEqualTo(antes);
+        });
+    assertThat(linhas()).isEqualTo(antes + 1);
+  }
+
+  @Test
+  @DisplayName("Expurgo deve usar o relógio do banco e manter as linhas dentro da retenção")
+  void expurgoDeveUsarRelogioDoBanco() {
+    jdbcTemplate.update(
+        "INSERT INTO cache_invalidacao (origem, tipo, valor, criado_em)"
+            + " VALUES ('velha', 'TUDO', NULL, TIMESTAMPADD(MINUTE, -20, CURRENT_TIMESTAMP(3)))");
+    jdbcTemplate.update("INSERT INTO cache_invalidacao (origem, tipo) VALUES ('nova', 'TUDO')");
+
+    outraInstancia().expurgar();
+
+    assertThat(
+            jdbcTemplate.queryForList(
+                "SELECT origem FROM cache_invalidacao WHERE origem IN ('velha', 'nova')",
+                String.class))
+        .containsExactly("nova");
+  }
+
+  private int linhas() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cache_invalidacao", Integer.class);
+  }
+
+  private TransporteInvalidacaoJdbc outraInstancia() {
+    return new TransporteInvalidacaoJdbc(jdbcTemplate, 2000, 600000);
+  }
+}
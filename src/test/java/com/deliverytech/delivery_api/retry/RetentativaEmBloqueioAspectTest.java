@@ -0,0 +1,104 @@
+package com.deliverytech.delivery_api.retry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.deliverytech.delivery_api.metrics.LockRetryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class RetentativaEmBloqueioAspectTest {
+
+  private SimpleMeterRegistry registry;
+  private RetentativaEmBloqueioAspect aspect;
+  private ProceedingJoinPoint joinPoint;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    aspect = new RetentativaEmBloqueioAspect(new LockRetryMetrics(registry), 3, 1, 2);
+    joinPoint = mock(ProceedingJoinPoint.class);
+    Signature signature = mock(Signature.class);
+    when(signature.toShortString()).thenReturn("ProdutoService.reservarEstoque(..)");
+    when(joinPoint.getSignature()).thenReturn(signature);
+  }
+
+  private static RuntimeException deadlock() {
+    return new CannotAcquireLockException(
+        "could not execute statement",
+        new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+  }
+
+  private static RuntimeException lockTimeout() {
+    return new CannotAcquireLockException(
+        "could not execute statement",
+        new SQLException("Lock wait timeout exceeded", "HY000", 1205));
+  }
+
+  @Test
+  @DisplayName("Deve repetir após deadlock e contar a retentativa por motivo")
+  void deveRepetirAposDeadlock() throws Throwable {
+    when(joinPoint.proceed()).thenThrow(deadlock()).thenReturn("ok");
+
+    assertEquals("ok", aspect.executar(joinPoint));
+
+    verify(joinPoint, times(2)).proceed();
+    assertEquals(1.0, registry.get("db.lock.retries").tag("reason", "deadlock").counter().count());
+    assertEquals(
+        0.0, registry.get("db.lock.retries").tag("reason", "lock_timeout").counter().count());
+  }
+
+  @Test
+  @DisplayName("Deve desistir após o número máximo de tentativas")
+  void deveDesistirAposMaximoDeTentativas() throws Throwable {
+    when(joinPoint.proceed()).thenThrow(lockTimeout());
+
+    assertThrows(CannotAcquireLockException.class, () -> aspect.executar(joinPoint));
+
+    verify(joinPoint, times(3)).proceed();
+    assertEquals(
+        2.0, registry.get("db.lock.retries").tag("reason", "lock_timeout").counter().count());
+    assertEquals(
+        1.0,
+        registry.get("db.lock.retries.exhausted").tag("reason", "lock_timeout").counter().count());
+  }
+
+  @Test
+  @DisplayName("Não deve repetir erros que não são de lock")
+  void naoDeveRepetirErroDeNegocio() throws Throwable {
+    when(joinPoint.proceed()).thenThrow(new IllegalStateException("falha"));
+
+    assertThrows(IllegalStateException.class, () -> aspect.executar(joinPoint));
+
+    verify(joinPoint, times(1)).proceed();
+  }
+
+  @Test
+  @DisplayName("Dentro de transação existente deve propagar sem repetir")
+  void naoDeveRepetirDentroDeTransacaoExistente() throws Throwable {
+    when(joinPoint.proceed()).thenThrow(deadlock());
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    try {
+      assertThrows(CannotAcquireLockException.class, () -> aspect.executar(joinPoint));
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    verify(joinPoint, times(1)).proceed();
+  }
+
+  @Test
+  @DisplayName("Deve classificar o motivo pela cadeia de causas")
+  void deveClassificarMotivo() {
+    assertEquals(MotivoRetentativa.DEADLOCK, MotivoRetentativa.de(deadlock()).orElseThrow());
+    assertEquals(MotivoRetentativa.LOCK_TIMEOUT, MotivoRetentativa.de(lockTimeout()).orElseThrow());
+    assertTrue(MotivoRetentativa.de(new RuntimeException("x")).isEmpty());
+  }
+}
@@ -4,7 +4,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import com.deliverytech.delivery_api.projection.RelatorioVendas;
-import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.service.impl.RelatorioServiceImpl;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,7 +16,7 @@ import org.mockito.MockitoAnnotations;
 
 public class CacheTest {
 
-  @Mock private PedidoRepository pedidoRepository;
+  @Mock private VendasEmColunas vendasEmColunas;
 
   @InjectMocks private RelatorioServiceImpl relatorioService;
 
@@ -47,8 +46,7 @@ public class CacheTest {
           }
         };
 
-    when(pedidoRepository.calcularTotalVendasPorRestaurante(any(), any()))
-        .thenReturn(List.of(relatorio));
+    when(vendasEmColunas.vendasPorRestaurante(any(), any())).thenReturn(List.of(relatorio));
 
     // When - Call the method
     List<RelatorioVendas> result =
@@ -59,7 +57,7 @@ public class CacheTest {
     assertThat(result).hasSize(1);
     assertThat(result.get(0).getNomeRestaurante()).isEqualTo("Restaurante Teste");
 
-    // Verify repository method was called
-    verify(pedidoRepository, times(1)).calcularTotalVendasPorRestaurante(any(), any());
+    // Verify report source was called
+    verify(vendasEmColunas, times(1)).vendasPorRestaurante(any(), any());
   }
 }
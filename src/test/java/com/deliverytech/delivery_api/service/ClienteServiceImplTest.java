@@ -7,6 +7,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
 import com.deliverytech.delivery_api.dto.request.ClienteRequest;
 import com.deliverytech.delivery_api.dto.response.ClienteResponse;
 import com.deliverytech.delivery_api.exception.EmailDuplicadoException;
@@ -39,6 +40,8 @@ class ClienteServiceImplTest {
 
   @Mock private ClienteMapper clienteMapper;
 
+  @Mock private AusenciasEmCache ausenciasEmCache;
+
   @InjectMocks private ClienteServiceImpl clienteService;
 
   private Cliente cliente;
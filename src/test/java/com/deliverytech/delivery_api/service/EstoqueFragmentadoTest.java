@@ -0,0 +1,173 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.*;
+
+import com.deliverytech.delivery_api.repository.EstoqueShardRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class EstoqueFragmentadoTest {
+
+  @Mock private EstoqueShardRepository shardRepository;
+
+  @Mock private ProdutoRepository produtoRepository;
+
+  private EstoqueFragmentado estoque;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(shardRepository.contarBucketsPorProduto()).thenReturn(Map.of(7L, 4));
+    estoque =
+        new EstoqueFragmentado(
+            shardRepository,
+            produtoRepository,
+            TransactionOperations.withoutTransaction(),
+            List.of(),
+            4,
+            60_000);
+    estoque.inicializar();
+  }
+
+  @Test
+  @DisplayName("Deve baixar um único bucket sem travar os irmãos")
+  void deveBaixarUmUnicoBucket() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(1, 0, 4, 3));
+    when(shardRepository.decrementar(eq(7L), anyInt(), eq(2))).thenReturn(true);
+
+    assertTrue(estoque.reservar(Map.of(7L, 2)).isEmpty());
+
+    // Só os buckets que atendiam na leitura são candidatos
+    verify(shardRepository).decrementar(eq(7L), intThat(bucket -> bucket >= 2), eq(2));
+    verify(shardRepository, never()).bloquearBuckets(any());
+  }
+
+  @Test
+  @DisplayName("Deve tentar só buckets maiores quando o sorteado foi esvaziado por outro pedido")
+  void deveTentarSoBucketsMaiores() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(0, 0, 5, 5));
+    when(shardRepository.decrementar(7L, 2, 2)).thenReturn(false);
+    when(shardRepository.decrementar(7L, 3, 2)).thenReturn(true);
+
+    assertTrue(estoque.reservar(Map.of(7L, 2)).isEmpty());
+
+    // Sorteado o 2, o 3 vem depois dele; sorteado o 3, a reserva termina nele
+    verify(shardRepository).decrementar(7L, 3, 2);
+    verify(shardRepository, never()).decrementar(eq(7L), intThat(bucket -> bucket < 2), eq(2));
+    verify(shardRepository, never()).bloquearBuckets(any());
+  }
+
+  @Test
+  @DisplayName("Deve falhar para nova tentativa quando todos os candidatos se esgotam na reserva")
+  void deveFalharQuandoCandidatosSeEsgotam() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(0, 0, 0, 6));
+    when(shardRepository.decrementar(eq(7L), anyInt(), eq(5))).thenReturn(false);
+
+    assertThrows(CannotAcquireLockException.class, () -> estoque.reservar(Map.of(7L, 5)));
+
+    verify(shardRepository).decrementar(7L, 3, 5);
+    // Travar os buckets 0..2 depois do 3 inverteria a ordem dos locks
+    verify(shardRepository, never()).bloquearBuckets(any());
+  }
+
+  @Test
+  @DisplayName("Deve juntar o saldo dos irmãos quando nenhum bucket sozinho atende")
+  void deveJuntarSaldoDosIrmaos() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(2, 1, 3, 0));
+    when(shardRepository.bloquearBuckets(7L)).thenReturn(List.of(2, 1, 3, 0));
+
+    assertTrue(estoque.reservar(Map.of(7L, 5)).isEmpty());
+
+    // Nenhum bucket travado antes do lock de todos, em ordem
+    verify(shardRepository, never()).decrementar(any(), anyInt(), anyInt());
+    verify(shardRepository).definirBuckets(7L, List.of(0, 0, 1, 0));
+  }
+
+  @Test
+  @DisplayName("Deve recusar quando a soma dos buckets não atende")
+  void deveRecusarQuandoSomaNaoAtende() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(1, 1, 1, 1));
+    when(shardRepository.bloquearBuckets(7L)).thenReturn(List.of(1, 1, 1, 1));
+
+    assertEquals(List.of(7L), estoque.reservar(Map.of(7L, 5)));
+    verify(shardRepository, never()).definirBuckets(any(), anyList());
+  }
+
+  @Test
+  @DisplayName("Estoque infinito deve deixar de fragmentar o produto só após o commit")
+  void estoqueInfinitoDeveValerAposCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      estoque.definir(7L, -1);
+
+      verify(shardRepository).removerBuckets(7L);
+      assertTrue(estoque.controla(7L));
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      assertFalse(estoque.controla(7L));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve servir a soma dos buckets do cache dentro do TTL")
+  void deveServirSomaDoCache() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(3, 3, 2, 2));
+    when(shardRepository.decrementar(eq(7L), anyInt(), eq(1))).thenReturn(true);
+
+    assertEquals(10, estoque.total(7L));
+    estoque.reservar(Map.of(7L, 1));
+    assertEquals(9, estoque.total(7L));
+
+    // Só a reserva relê os buckets; a soma vem do cache
+    verify(shardRepository, times(2)).buscarBuckets(7L);
+    assertNull(estoque.total(8L));
+  }
+
+  @Test
+  @DisplayName("Rebalanceamento deve redistribuir buckets desequilibrados e espelhar a soma")
+  void rebalanceamentoDeveRedistribuirEEspelhar() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(9, 0, 1, 0));
+    when(shardRepository.bloquearBuckets(7L)).thenReturn(List.of(9, 0, 1, 0));
+
+    estoque.rebalancear();
+
+    verify(shardRepository).definirBuckets(7L, List.of(3, 3, 2, 2));
+    verify(shardRepository).espelharTotal(7L, 10);
+  }
+
+  @Test
+  @DisplayName("Rebalanceamento não deve travar buckets equilibrados")
+  void rebalanceamentoNaoDeveTravarBucketsEquilibrados() {
+    when(shardRepository.buscarBuckets(7L)).thenReturn(List.of(3, 2, 3, 2));
+
+    estoque.rebalancear();
+
+    verify(shardRepository, never()).bloquearBuckets(any());
+    verify(shardRepository).espelharTotal(7L, 10);
+  }
+
+  @Test
+  @DisplayName("Deve distribuir o resto da divisão nos primeiros buckets")
+  void deveDistribuirRestoNosPrimeirosBuckets() {
+    assertEquals(List.of(3, 3, 2, 2), EstoqueFragmentado.distribuir(10, 4));
+    assertEquals(List.of(1, 0, 0), EstoqueFragmentado.distribuir(1, 3));
+  }
+}
@@ -0,0 +1,207 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class EstoqueLedgerTest {
+
+  @Mock private ProdutoRepository produtoRepository;
+
+  private EstoqueLedger ledger;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(produtoRepository.findAllById(Set.of(1L, 2L, 3L)))
+        .thenReturn(
+            List.of(
+                Produto.builder().id(1L).quantidadeEstoque(1000).build(),
+                Produto.builder().id(2L).quantidadeEstoque(5).build(),
+                Produto.builder().id(3L).quantidadeEstoque(-1).build()));
+    ledger =
+        new EstoqueLedger(
+            produtoRepository,
+            TransactionOperations.withoutTransaction(),
+            List.of(1L, 2L, 3L),
+            "local");
+    ledger.carregar();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve carregar saldos do banco ignorando estoque infinito")
+  void deveCarregarSaldosIgnorandoEstoqueInfinito() {
+    assertTrue(ledger.controla(1L));
+    assertEquals(5, ledger.disponivel(2L));
+    assertFalse(ledger.controla(3L));
+    assertNull(ledger.disponivel(3L));
+  }
+
+  @Test
+  @DisplayName("Deve recusar a reserva inteira quando um produto não tem saldo")
+  void deveRecusarReservaInteira() {
+    EstoqueLedger.Reserva reserva = ledger.reservar(Map.of(1L, 10, 2L, 6));
+
+    assertFalse(reserva.isAceita());
+    assertEquals(2L, reserva.getProdutoSemEstoque());
+    assertEquals(1000, ledger.disponivel(1L));
+    assertEquals(5, ledger.disponivel(2L));
+  }
+
+  @Test
+  @DisplayName("Não deve vender além do saldo sob concorrência")
+  void naoDeveVenderAlemDoSaldoSobConcorrencia() throws Exception {
+    int threads = 8;
+    int tentativasPorThread = 200;
+    AtomicInteger aceitas = new AtomicInteger();
+    CountDownLatch largada = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.submit(
+          () -> {
+            largada.await();
+            for (int i = 0; i < tentativasPorThread; i++) {
+              if (ledger.reservar(Map.of(1L, 1)).isAceita()) {
+                aceitas.incrementAndGet();
+              }
+            }
+            return null;
+          });
+    }
+    largada.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1000, aceitas.get());
+    assertEquals(0, ledger.disponivel(1L));
+
+    ledger.descarregar();
+    verify(produtoRepository).aplicarDeltasEstoque(Map.of(1L, -1000));
+  }
+
+  @Test
+  @DisplayName("Deve gravar apenas o delta líquido e nada quando não há mudança")
+  void deveGravarDeltaLiquido() {
+    ledger.reservar(Map.of(2L, 3));
+    ledger.liberar(Map.of(2L, 1));
+
+    ledger.descarregar();
+    ledger.descarregar();
+
+    verify(produtoRepository, times(1)).aplicarDeltasEstoque(anyMap());
+    verify(produtoRepository).aplicarDeltasEstoque(Map.of(2L, -2));
+  }
+
+  @Test
+  @DisplayName("Deve devolver os deltas quando a gravação falha")
+  void deveDevolverDeltasQuandoGravacaoFalha() {
+    ledger.reservar(Map.of(2L, 2));
+    doThrow(new DataAccessResourceFailureException("banco fora"))
+        .doNothing()
+        .when(produtoRepository)
+        .aplicarDeltasEstoque(any());
+
+    ledger.descarregar();
+    ledger.descarregar();
+
+    verify(produtoRepository, times(2)).aplicarDeltasEstoque(Map.of(2L, -2));
+  }
+
+  @Test
+  @DisplayName("Rollback da transação deve devolver o saldo sem gerar delta")
+  void rollbackDeveDevolverSaldo() {
+    TransactionSynchronizationManager.initSynchronization();
+    ledger.reservar(Map.of(2L, 4));
+    assertEquals(1, ledger.disponivel(2L));
+
+    for (TransactionSynchronization sync :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+    ledger.descarregar();
+
+    assertEquals(5, ledger.disponivel(2L));
+    verify(produtoRepository, never()).aplicarDeltasEstoque(any());
+  }
+
+  @Test
+  @DisplayName("Novo saldo absoluto deve virar delta sobre o disponível")
+  void novoSaldoDeveVirarDelta() {
+    ledger.reservar(Map.of(2L, 2));
+
+    assertTrue(ledger.definir(2L, 10));
+    ledger.descarregar();
+
+    assertEquals(10, ledger.disponivel(2L));
+    // -2 da reserva + (10 - 3) do novo saldo: o banco sai de 5 e chega a 10
+    verify(produtoRepository).aplicarDeltasEstoque(Map.of(2L, 5));
+  }
+
+  @Test
+  @DisplayName("Novo saldo não deve contar duas vezes uma reserva em andamento desfeita")
+  void novoSaldoNaoDeveContarReservaDesfeitaDuasVezes() {
+    TransactionSynchronizationManager.initSynchronization();
+    ledger.reservar(Map.of(2L, 2));
+    List<TransactionSynchronization> reserva =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+
+    assertTrue(ledger.definir(2L, 10));
+    // A reserva em andamento sai do novo saldo enquanto não é desfeita
+    assertEquals(8, ledger.disponivel(2L));
+    reserva.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    ledger.descarregar();
+
+    assertEquals(10, ledger.disponivel(2L));
+    verify(produtoRepository).aplicarDeltasEstoque(Map.of(2L, 5));
+  }
+
+  @Test
+  @DisplayName("Não deve subir com invalidação de cache entre instâncias")
+  void naoDeveSubirComVariasInstancias() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            new EstoqueLedger(
+                produtoRepository,
+                TransactionOperations.withoutTransaction(),
+                List.of(1L),
+                "jdbc"));
+  }
+
+  @Test
+  @DisplayName("Estoque infinito deve tirar o produto do ledger")
+  void estoqueInfinitoDeveTirarProdutoDoLedger() {
+    assertFalse(ledger.definir(2L, -1));
+    assertFalse(ledger.controla(2L));
+  }
+}
@@ -0,0 +1,155 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.deliverytech.delivery_api.repository.NoNumeroPedidoRepository;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GeradorNumeroPedidoTest {
+
+  private static final long AGORA = GeradorNumeroPedido.EPOCA + 86_400_000L;
+
+  @Test
+  @DisplayName("Deve gerar números únicos sob concorrência")
+  void deveGerarNumerosUnicosSobConcorrencia() throws Exception {
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(7, System::currentTimeMillis);
+    int threads = 8;
+    int porThread = 250_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Future<?>[] tarefas = new Future<?>[threads];
+      long[][] ids = new long[threads][porThread];
+      for (int t = 0; t < threads; t++) {
+        long[] destino = ids[t];
+        tarefas[t] =
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < porThread; i++) {
+                    destino[i] = gerador.proximoId();
+                  }
+                });
+      }
+      for (Future<?> tarefa : tarefas) {
+        tarefa.get();
+      }
+
+      long[] todos = Arrays.stream(ids).flatMapToLong(Arrays::stream).sorted().toArray();
+      assertEquals(threads * porThread, todos.length);
+      for (int i = 1; i < todos.length; i++) {
+        assertNotEquals(todos[i - 1], todos[i], "id duplicado");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Números devem crescer em ordem alfabética mesmo com a sequência esgotada")
+  void numerosDevemCrescerEmOrdemAlfabetica() {
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(1, () -> AGORA);
+
+    String anterior = gerador.proximo();
+    // Mais de 4096 ids no mesmo milissegundo: o gerador avança para o próximo
+    for (int i = 0; i < 10_000; i++) {
+      String atual = gerador.proximo();
+      assertTrue(atual.compareTo(anterior) > 0, atual + " deveria vir depois de " + anterior);
+      anterior = atual;
+    }
+  }
+
+  @Test
+  @DisplayName("Não deve repetir números quando o relógio anda para trás")
+  void naoDeveRepetirQuandoRelogioVoltar() {
+    AtomicLong relogio = new AtomicLong(AGORA);
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(1, relogio::get);
+
+    long antes = gerador.proximoId();
+    relogio.addAndGet(-5_000);
+    long depois = gerador.proximoId();
+
+    assertTrue(depois > antes);
+  }
+
+  @Test
+  @DisplayName("Nós diferentes não devem colidir no mesmo milissegundo")
+  void nosDiferentesNaoDevemColidir() {
+    GeradorNumeroPedido no1 = new GeradorNumeroPedido(1, () -> AGORA);
+    GeradorNumeroPedido no2 = new GeradorNumeroPedido(2, () -> AGORA);
+
+    long[] ids =
+        IntStream.range(0, 1_000)
+            .mapToLong(i -> i % 2 == 0 ? no1.proximoId() : no2.proximoId())
+            .distinct()
+            .toArray();
+
+    assertEquals(1_000, ids.length);
+  }
+
+  @Test
+  @DisplayName("Número deve ter prefixo e largura fixa")
+  void numeroDeveTerPrefixoELarguraFixa() {
+    String numero = new GeradorNumeroPedido(0, () -> GeradorNumeroPedido.EPOCA).proximo();
+
+    assertTrue(numero.matches("PED-[0-9A-HJKMNP-TV-Z]{13}"), numero);
+    assertEquals("0000000000000", GeradorNumeroPedido.base32(0));
+    assertEquals("000000000000Z", GeradorNumeroPedido.base32(31));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new GeradorNumeroPedido(GeradorNumeroPedido.MAX_NO + 1, () -> AGORA));
+  }
+
+  @Test
+  @DisplayName("Nó concedido deve começar depois do horizonte do dono anterior")
+  void noConcedidoDeveComecarDepoisDoHorizonteAnterior() {
+    NoNumeroPedidoRepository nos = mock(NoNumeroPedidoRepository.class);
+    long horizonteAnterior = AGORA + 30_000;
+    when(nos.noLivre(60_000)).thenReturn(3);
+    when(nos.conceder(eq(3), anyString(), eq(60_000L))).thenReturn(horizonteAnterior);
+    when(nos.renovar(eq(3), anyString(), anyLong())).thenReturn(true);
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(nos, -1, 60_000, () -> AGORA);
+
+    long id = gerador.proximoId();
+
+    assertEquals(3, (id >>> 12) & GeradorNumeroPedido.MAX_NO);
+    assertTrue((id >>> 22) > horizonteAnterior - GeradorNumeroPedido.EPOCA);
+  }
+
+  @Test
+  @DisplayName("Sem renovação, deve parar de gerar números ao chegar no horizonte")
+  void deveParaNoHorizonteSemRenovacao() {
+    NoNumeroPedidoRepository nos = mock(NoNumeroPedidoRepository.class);
+    when(nos.conceder(eq(5), anyString(), eq(60_000L))).thenReturn(0L);
+    when(nos.renovar(eq(5), anyString(), anyLong())).thenReturn(true);
+    AtomicLong relogio = new AtomicLong(AGORA);
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(nos, 5, 60_000, relogio::get);
+    gerador.proximoId();
+
+    relogio.addAndGet(60_001);
+    assertThrows(IllegalStateException.class, gerador::proximoId);
+
+    gerador.renovar();
+    assertDoesNotThrow(gerador::proximoId);
+  }
+
+  @Test
+  @DisplayName("No-id configurado em uso por outra instância deve falhar")
+  void noConfiguradoEmUsoDeveFalhar() {
+    NoNumeroPedidoRepository nos = mock(NoNumeroPedidoRepository.class);
+    when(nos.conceder(eq(5), anyString(), eq(60_000L))).thenReturn(null);
+    GeradorNumeroPedido gerador = new GeradorNumeroPedido(nos, 5, 60_000, () -> AGORA);
+
+    assertThrows(IllegalStateException.class, gerador::proximo);
+  }
+}
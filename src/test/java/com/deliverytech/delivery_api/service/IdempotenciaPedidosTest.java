@@ -0,0 +1,122 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class IdempotenciaPedidosTest {
+
+  @Mock private IdempotenciaStore store;
+
+  private IdempotenciaPedidos idempotencia;
+
+  private final PedidoRequest requisicao = new PedidoRequest();
+
+  private final AtomicInteger execucoes = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    idempotencia = new IdempotenciaPedidos(store, new ObjectMapper(), 1_000);
+    requisicao.setClienteId(7L);
+  }
+
+  @Test
+  @DisplayName("Sem Idempotency-Key deve sempre executar")
+  void semChaveDeveSempreExecutar() {
+    idempotencia.executar(null, requisicao, this::criar);
+    idempotencia.executar(null, requisicao, this::criar);
+
+    assertEquals(2, execucoes.get());
+    verifyNoInteractions(store);
+  }
+
+  @Test
+  @DisplayName("Deve executar e registrar a resposta na chave do cliente")
+  void deveExecutarERegistrarResposta() {
+    when(store.reservar(eq("7:abc"), anyString(), eq(1_000L))).thenReturn(Optional.empty());
+
+    var resultado = idempotencia.executar("abc", requisicao, this::criar);
+
+    assertFalse(resultado.repetida());
+    assertEquals(1, execucoes.get());
+    verify(store).concluir("7:abc", resultado.resposta());
+  }
+
+  @Test
+  @DisplayName("Deve repetir a resposta registrada sem executar")
+  void deveRepetirRespostaRegistrada() {
+    PedidoResponse registrada = new PedidoResponse();
+    when(store.reservar(eq("7:abc"), anyString(), anyLong())).thenReturn(Optional.of(registrada));
+
+    var resultado = idempotencia.executar("abc", requisicao, this::criar);
+
+    assertTrue(resultado.repetida());
+    assertSame(registrada, resultado.resposta());
+    assertEquals(0, execucoes.get());
+  }
+
+  @Test
+  @DisplayName("Deve liberar a chave quando a criação falha")
+  void deveLiberarChaveQuandoCriacaoFalha() {
+    when(store.reservar(eq("7:abc"), anyString(), anyLong())).thenReturn(Optional.empty());
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            idempotencia.executar(
+                "abc",
+                requisicao,
+                () -> {
+                  throw new IllegalStateException("sem estoque");
+                }));
+
+    verify(store).liberar("7:abc");
+    verify(store, never()).concluir(anyString(), any());
+  }
+
+  @Test
+  @DisplayName("Mesma requisição deve gerar a mesma impressão")
+  void mesmaRequisicaoDeveGerarMesmaImpressao() {
+    when(store.reservar(anyString(), anyString(), anyLong())).thenReturn(Optional.empty());
+
+    idempotencia.executar("a", requisicao, this::criar);
+    idempotencia.executar("b", requisicao, this::criar);
+    requisicao.setRestauranteId(3L);
+    idempotencia.executar("c", requisicao, this::criar);
+
+    ArgumentCaptor<String> impressoes = ArgumentCaptor.forClass(String.class);
+    verify(store, times(3)).reservar(anyString(), impressoes.capture(), anyLong());
+    assertEquals(impressoes.getAllValues().get(0), impressoes.getAllValues().get(1));
+    assertNotEquals(impressoes.getAllValues().get(0), impressoes.getAllValues().get(2));
+  }
+
+  @Test
+  @DisplayName("Deve recusar chave vazia ou longa demais")
+  void deveRecusarChaveInvalida() {
+    assertThrows(
+        IllegalArgumentException.class, () -> idempotencia.executar(" ", requisicao, this::criar));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> idempotencia.executar("x".repeat(129), requisicao, this::criar));
+  }
+
+  private PedidoResponse criar() {
+    execucoes.incrementAndGet();
+    return new PedidoResponse();
+  }
+}
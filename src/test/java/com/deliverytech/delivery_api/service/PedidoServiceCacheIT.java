@@ -46,7 +46,7 @@ public class PedidoServiceCacheIT extends com.deliverytech.delivery_api.BaseInte
   @BeforeEach
   void setUp() {
     // Clean up cache before each test
-    cacheManager.getCache("pedidos").clear();
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
 
     // Create test data
     cliente = new Cliente();
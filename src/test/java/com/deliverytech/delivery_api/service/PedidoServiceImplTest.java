@@ -3,6 +3,7 @@ package com.deliverytech.delivery_api.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.service.impl.PedidoServiceImpl;
 import java.util.Optional;
@@ -17,6 +18,9 @@ class PedidoServiceImplTest {
   @Mock private PedidoRepository pedidoRepository;
   @Mock private com.deliverytech.delivery_api.repository.ProdutoRepository produtoRepository;
   @Mock private com.deliverytech.delivery_api.service.ProdutoService produtoService;
+  @Mock private GeradorNumeroPedido geradorNumeroPedido;
+  @Mock private InvalidacaoCache invalidacaoCache;
+  @Mock private VendasDiarias vendasDiarias;
   @InjectMocks private PedidoServiceImpl pedidoService;
 
   @BeforeEach
@@ -30,22 +34,38 @@ class PedidoServiceImplTest {
     var pedido = new com.deliverytech.delivery_api.model.Pedido();
     pedido.setId(10L);
     pedido.setStatus(com.deliverytech.delivery_api.model.StatusPedido.CRIADO);
+    when(pedidoRepository.findStatusById(10L))
+        .thenReturn(Optional.of(com.deliverytech.delivery_api.model.StatusPedido.CRIADO));
+    // O UPDATE condicional altera a linha que o findById relê em seguida
+    when(pedidoRepository.atualizarStatusSe(
+            10L,
+            com.deliverytech.delivery_api.model.StatusPedido.CONFIRMADO,
+            java.util.Set.of(com.deliverytech.delivery_api.model.StatusPedido.CRIADO)))
+        .thenAnswer(
+            invocation -> {
+              pedido.setStatus(invocation.getArgument(1));
+              return 1;
+            });
     when(pedidoRepository.findById(10L)).thenReturn(Optional.of(pedido));
-    when(pedidoRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
     var atualizado =
         pedidoService.atualizarStatus(
             10L, com.deliverytech.delivery_api.model.StatusPedido.CONFIRMADO);
     assertEquals(
         com.deliverytech.delivery_api.model.StatusPedido.CONFIRMADO, atualizado.getStatus());
+    verify(produtoService).confirmarEstoque(pedido);
+    verify(vendasDiarias)
+        .statusAlterado(
+            pedido,
+            com.deliverytech.delivery_api.model.StatusPedido.CRIADO,
+            com.deliverytech.delivery_api.model.StatusPedido.CONFIRMADO);
+    verify(pedidoRepository, never()).save(any());
   }
 
   @Test
   @DisplayName("Deve lançar exceção ao tentar atualizar status de pedido já cancelado")
   void deveLancarExcecaoAoAtualizarStatusPedidoCancelado() {
-    var pedido = new com.deliverytech.delivery_api.model.Pedido();
-    pedido.setId(11L);
-    pedido.setStatus(com.deliverytech.delivery_api.model.StatusPedido.CANCELADO);
-    when(pedidoRepository.findById(11L)).thenReturn(Optional.of(pedido));
+    when(pedidoRepository.findStatusById(11L))
+        .thenReturn(Optional.of(com.deliverytech.delivery_api.model.StatusPedido.CANCELADO));
     var ex =
         assertThrows(
             RuntimeException.class,
@@ -53,17 +73,62 @@ class PedidoServiceImplTest {
                 pedidoService.atualizarStatus(
                     11L, com.deliverytech.delivery_api.model.StatusPedido.CONFIRMADO));
     assertTrue(ex.getMessage().toLowerCase().contains("cancelado"));
+    verifyNoInteractions(produtoService);
   }
 
   @Test
   @DisplayName("Deve lançar exceção ao cancelar pedido já entregue")
   void deveLancarExcecaoAoCancelarPedidoEntregue() {
-    var pedido = new com.deliverytech.delivery_api.model.Pedido();
-    pedido.setId(12L);
-    pedido.setStatus(com.deliverytech.delivery_api.model.StatusPedido.ENTREGUE);
-    when(pedidoRepository.findById(12L)).thenReturn(Optional.of(pedido));
+    when(pedidoRepository.findStatusById(12L))
+        .thenReturn(Optional.of(com.deliverytech.delivery_api.model.StatusPedido.ENTREGUE));
     var ex = assertThrows(RuntimeException.class, () -> pedidoService.cancelar(12L));
     assertTrue(ex.getMessage().toLowerCase().contains("entregue"));
+    verify(produtoService, never()).cancelarReservaEstoque(any());
+  }
+
+  @Test
+  @DisplayName("Deve devolver o estoque só quando o cancelamento altera o pedido")
+  void deveDevolverEstoqueSoQuandoCancelamentoAlteraPedido() {
+    var pedido = new com.deliverytech.delivery_api.model.Pedido();
+    pedido.setId(14L);
+    when(pedidoRepository.findStatusById(14L))
+        .thenReturn(Optional.of(com.deliverytech.delivery_api.model.StatusPedido.CRIADO));
+    when(pedidoRepository.atualizarStatusSe(
+            eq(14L), eq(com.deliverytech.delivery_api.model.StatusPedido.CANCELADO), any()))
+        .thenReturn(1);
+    when(pedidoRepository.findByIdWithItens(14L)).thenReturn(Optional.of(pedido));
+
+    pedidoService.cancelar(14L);
+
+    verify(produtoService).cancelarReservaEstoque(pedido);
+  }
+
+  @Test
+  @DisplayName("Deve recusar transição válida quando outra requisição mudou o status antes")
+  void deveRecusarTransicaoQuandoStatusMudouConcorrentemente() {
+    when(pedidoRepository.findStatusById(15L))
+        .thenReturn(Optional.of(com.deliverytech.delivery_api.model.StatusPedido.CRIADO));
+
+    assertThrows(
+        com.deliverytech.delivery_api.exception.ConflictException.class,
+        () -> pedidoService.cancelar(15L));
+    verify(produtoService, never()).cancelarReservaEstoque(any());
+  }
+
+  @Test
+  @DisplayName("Deve recusar transição fora da tabela de status")
+  void deveRecusarTransicaoForaDaTabela() {
+    when(pedidoRepository.findStatusById(16L))
+        .thenReturn(
+            Optional.of(com.deliverytech.delivery_api.model.StatusPedido.SAIU_PARA_ENTREGA));
+
+    var ex =
+        assertThrows(
+            com.deliverytech.delivery_api.exception.BusinessException.class,
+            () ->
+                pedidoService.atualizarStatus(
+                    16L, com.deliverytech.delivery_api.model.StatusPedido.PREPARANDO));
+    assertTrue(ex.getMessage().contains("SAIU_PARA_ENTREGA -> PREPARANDO"));
   }
 
   @Test
@@ -112,15 +177,20 @@ class PedidoServiceImplTest {
     var pedido = new com.deliverytech.delivery_api.model.Pedido();
     pedido.setItens(java.util.List.of(item));
 
-    when(produtoRepository.findById(1L)).thenReturn(java.util.Optional.of(produto));
+    when(produtoRepository.findAllById(any())).thenReturn(java.util.List.of(produto));
     when(pedidoRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
     // Mock the produtoService validation
     doNothing().when(produtoService).validarEstoque(any(), anyInt());
-    doNothing().when(produtoService).reservarEstoque(any());
+    doNothing().when(produtoService).reservarEstoque(any(), any());
+    when(geradorNumeroPedido.proximo()).thenReturn("PED-00C4N8ZK0G001");
 
     var result = pedidoService.criar(pedido);
     assertNotNull(result);
+    assertEquals("PED-00C4N8ZK0G001", result.getNumeroPedido());
+    // Produtos carregados uma única vez para validação, precificação e reserva
+    verify(produtoRepository, times(1)).findAllById(any());
+    verify(produtoRepository, never()).findById(any());
     assertEquals(java.math.BigDecimal.valueOf(20), result.getValorTotal());
     assertEquals(com.deliverytech.delivery_api.model.StatusPedido.CRIADO, result.getStatus());
   }
@@ -144,7 +214,7 @@ class PedidoServiceImplTest {
     item.setQuantidade(1);
     var pedido = new com.deliverytech.delivery_api.model.Pedido();
     pedido.setItens(java.util.List.of(item));
-    when(produtoRepository.findById(99L)).thenReturn(java.util.Optional.empty());
+    when(produtoRepository.findAllById(any())).thenReturn(java.util.List.of());
     var ex = assertThrows(RuntimeException.class, () -> pedidoService.criar(pedido));
     assertTrue(
         ex.getMessage().contains("Produto não encontrado: ID 99")
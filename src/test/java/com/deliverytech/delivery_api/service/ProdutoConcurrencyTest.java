@@ -1,5 +1,6 @@
 package com.deliverytech.delivery_api.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.deliverytech.delivery_api.model.ItemPedido;
@@ -12,18 +13,24 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -33,6 +40,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 @ActiveProfiles("test")
 public class ProdutoConcurrencyTest {
 
+  private static final Logger log = LoggerFactory.getLogger(ProdutoConcurrencyTest.class);
+
   @Container
   public static final MySQLContainer<?> mysql =
       new MySQLContainer<>("mysql:8.0.34")
@@ -127,4 +136,67 @@ public class ProdutoConcurrencyTest {
         produtoFinal.getQuantidadeEstoque() >= 0,
         "Estoque final não deve ser negativo. Atual: " + produtoFinal.getQuantidadeEstoque());
   }
+
+  @Test
+  public void testContencao200CompradoresPessimistaVersusCondicional() throws Exception {
+    long pessimista = medirContencao(ModoReservaEstoque.PESSIMISTA);
+    long condicional = medirContencao(ModoReservaEstoque.CONDICIONAL);
+    log.info(
+        "200 compradores de um produto: PESSIMISTA={} ms, CONDICIONAL={} ms",
+        TimeUnit.NANOSECONDS.toMillis(pessimista),
+        TimeUnit.NANOSECONDS.toMillis(condicional));
+  }
+
+  private long medirContencao(ModoReservaEstoque modo) throws Exception {
+    Object alvo = AopTestUtils.getTargetObject(produtoService);
+    ReflectionTestUtils.setField(alvo, "modoReserva", modo);
+    try {
+      Restaurante r = restauranteRepository.save(Restaurante.builder().nome("R-" + modo).build());
+      Produto p =
+          produtoRepository.save(
+              Produto.builder()
+                  .nome("Produto Disputado " + modo)
+                  .preco(BigDecimal.TEN)
+                  .restaurante(r)
+                  .quantidadeEstoque(100)
+                  .disponivel(true)
+                  .build());
+
+      int compradores = 200;
+      ExecutorService executor = Executors.newFixedThreadPool(compradores);
+      CountDownLatch largada = new CountDownLatch(1);
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < compradores; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  largada.await();
+                  Pedido pedido = Pedido.builder().build();
+                  pedido.addItem(ItemPedido.builder().produto(p).quantidade(1).build());
+                  try {
+                    produtoService.reservarEstoque(pedido);
+                    return true;
+                  } catch (Exception ex) {
+                    return false;
+                  }
+                }));
+      }
+
+      long inicio = System.nanoTime();
+      largada.countDown();
+      int success = 0;
+      for (Future<Boolean> f : results) {
+        if (f.get()) success++;
+      }
+      long duracao = System.nanoTime() - inicio;
+      executor.shutdownNow();
+
+      assertEquals(100, success, "Modo " + modo + " deve vender exatamente o estoque inicial");
+      assertEquals(
+          0, produtoRepository.findById(p.getId()).orElseThrow().getQuantidadeEstoque().intValue());
+      return duracao;
+    } finally {
+      ReflectionTestUtils.setField(alvo, "modoReserva", ModoReservaEstoque.PESSIMISTA);
+    }
+  }
 }
@@ -38,7 +38,7 @@ public class ProdutoServiceCacheIT extends com.deliverytech.delivery_api.BaseInt
   @BeforeEach
   void setUp() {
     // Clean up cache before each test
-    cacheManager.getCache("produtos").clear();
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
 
     // Create a test restaurant
     restaurante = new Restaurante();
@@ -3,6 +3,9 @@ package com.deliverytech.delivery_api.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.model.Produto;
 import com.deliverytech.delivery_api.model.Restaurante;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
@@ -18,6 +21,12 @@ import org.mockito.MockitoAnnotations;
 class ProdutoServiceImplTest {
   @Mock private ProdutoRepository produtoRepository;
 
+  @Mock private InvalidacaoCache invalidacaoCache;
+
+  @Mock private VersoesCatalogo versoesCatalogo;
+
+  @Mock private AusenciasEmCache ausenciasEmCache;
+
   @InjectMocks private ProdutoServiceImpl produtoService;
 
   @BeforeEach
@@ -3,12 +3,8 @@ package com.deliverytech.delivery_api.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
-import com.deliverytech.delivery_api.model.Pedido;
-// ...existing code...
 import com.deliverytech.delivery_api.projection.RelatorioVendas;
-import com.deliverytech.delivery_api.repository.ClienteRepository;
-import com.deliverytech.delivery_api.repository.PedidoRepository;
-import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.projection.VendasPorStatusProjection;
 import com.deliverytech.delivery_api.service.impl.RelatorioServiceImpl;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,9 +18,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 class RelatorioServiceImplTest {
-  @Mock private PedidoRepository pedidoRepository;
-  @Mock private ProdutoRepository produtoRepository;
-  @Mock private ClienteRepository clienteRepository;
+  @Mock private VendasEmColunas vendasEmColunas;
   @InjectMocks private RelatorioServiceImpl relatorioService;
 
   @BeforeEach
@@ -48,8 +42,7 @@ class RelatorioServiceImplTest {
             return 1L;
           }
         };
-    when(pedidoRepository.calcularTotalVendasPorRestaurante(any(), any()))
-        .thenReturn(List.of(relatorio));
+    when(vendasEmColunas.vendasPorRestaurante(any(), any())).thenReturn(List.of(relatorio));
     List<RelatorioVendas> result =
         relatorioService.relatorioVendasPorRestaurante(LocalDate.now(), LocalDate.now());
     assertThat(result).isNotEmpty();
@@ -58,11 +51,48 @@ class RelatorioServiceImplTest {
 
   @Test
   void testResumoVendas() {
-    Pedido p = new Pedido();
-    p.setValorTotal(new BigDecimal("50.00"));
-    when(pedidoRepository.findByDataPedidoBetween(any(), any())).thenReturn(List.of(p));
+    when(vendasEmColunas.vendasPorStatus(any(), any()))
+        .thenReturn(
+            List.of(
+                vendas("CRIADO", 1L, new BigDecimal("50.00")),
+                vendas("CANCELADO", 2L, new BigDecimal("30.50"))));
     Map<String, Object> resumo = relatorioService.resumoVendas(LocalDate.now(), LocalDate.now());
-    assertThat(resumo.get("totalPedidos")).isEqualTo(1);
-    assertThat((Double) resumo.get("valorTotalVendas")).isEqualTo(50.00);
+    assertThat(resumo.get("totalPedidos")).isEqualTo(3);
+    assertThat((Double) resumo.get("valorTotalVendas")).isEqualTo(80.50);
+  }
+
+  @Test
+  void testPedidosPorPeriodoContaSoOStatusPedido() {
+    when(vendasEmColunas.vendasPorStatus(any(), any()))
+        .thenReturn(
+            List.of(
+                vendas("CRIADO", 1L, new BigDecimal("50.00")),
+                vendas("CANCELADO", 2L, new BigDecimal("30.50"))));
+    List<Map<String, Object>> result =
+        relatorioService.relatorioPedidosPorPeriodo(LocalDate.now(), LocalDate.now(), "CANCELADO");
+    assertThat(result.get(0).get("totalPedidos")).isEqualTo(2);
+    assertThat(
+            relatorioService
+                .relatorioPedidosPorPeriodo(LocalDate.now(), LocalDate.now(), "ENTREGUE")
+                .get(0)
+                .get("totalPedidos"))
+        .isEqualTo(0);
+  }
+
+  private static VendasPorStatusProjection vendas(
+      String status, Long quantidadePedidos, BigDecimal valorTotal) {
+    return new VendasPorStatusProjection() {
+      public String getStatus() {
+        return status;
+      }
+
+      public Long getQuantidadePedidos() {
+        return quantidadePedidos;
+      }
+
+      public BigDecimal getValorTotal() {
+        return valorTotal;
+      }
+    };
   }
 }
@@ -7,6 +7,9 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.dto.request.RestauranteRequest;
 import com.deliverytech.delivery_api.dto.response.RestauranteResponse;
 import com.deliverytech.delivery_api.exception.BusinessException;
@@ -40,6 +43,12 @@ class RestauranteServiceImplTest {
 
   @Mock private RestauranteMapper restauranteMapper;
 
+  @Mock private InvalidacaoCache invalidacaoCache;
+
+  @Mock private VersoesCatalogo versoesCatalogo;
+
+  @Mock private AusenciasEmCache ausenciasEmCache;
+
   @InjectMocks private RestauranteServiceImpl restauranteService;
 
   private Restaurante restaurante;
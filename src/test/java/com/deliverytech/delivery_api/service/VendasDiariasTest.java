@@ -0,0 +1,175 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.dto.request.EnderecoRequest;
+import com.deliverytech.delivery_api.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test-unit")
+@DisplayName("Vendas por dia dos relatórios")
+class VendasDiariasTest {
+
+  private static final LocalDate HOJE = LocalDate.now();
+
+  @Autowired private PedidoService pedidoService;
+
+  @Autowired private VendasDiarias vendasDiarias;
+
+  @Autowired private PedidoRepository pedidoRepository;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @Autowired private ClienteRepository clienteRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  @DisplayName("Relatórios pelas vendas diárias devem bater com as consultas sobre os pedidos")
+  void relatoriosDevemBaterComConsultasSobreOsPedidos() {
+    List<PedidoLoteResultadoResponse> criados =
+        pedidoService.criarPedidos(
+            List.of(
+                pedido(1L, item(1L, 1), item(2L, 1)),
+                pedido(2L, item(1L, 2)),
+                pedido(2L, item(2L, 1))));
+    Long confirmado = criados.get(0).pedido().getId();
+    Long cancelado = criados.get(1).pedido().getId();
+    Long removido = criados.get(2).pedido().getId();
+    pedidoService.confirmar(confirmado);
+    pedidoService.atualizarStatus(confirmado, StatusPedido.PREPARANDO);
+    pedidoService.cancelar(cancelado);
+    pedidoService.adicionarItem(confirmado, 2L, 1);
+    entityManager.flush();
+    pedidoService.deletar(removido);
+    entityManager.flush();
+
+    assertThat(pendentes()).isPositive();
+    conferirRelatorios();
+
+    vendasDiarias.consolidar();
+
+    assertThat(pendentes()).isZero();
+    conferirRelatorios();
+
+    vendasDiarias.recalcular();
+
+    conferirRelatorios();
+  }
+
+  private void conferirRelatorios() {
+    LocalDateTime inicio = HOJE.atStartOfDay();
+    LocalDateTime fim = HOJE.atTime(23, 59, 59);
+    PageRequest todos = PageRequest.of(0, 100);
+    assertThat(pedidoRepository.somarVendasPorRestaurante(HOJE, HOJE)).isNotEmpty();
+
+    assertThat(
+            porChave(
+                pedidoRepository.somarVendasPorRestaurante(HOJE, HOJE),
+                r -> r.getNomeRestaurante(),
+                r -> texto(r.getTotalVendas()) + "/" + r.getQuantidadePedidos()))
+        .isEqualTo(
+            porChave(
+                pedidoRepository.calcularTotalVendasPorRestaurante(inicio, fim),
+                r -> r.getNomeRestaurante(),
+                r -> texto(r.getTotalVendas()) + "/" + r.getQuantidadePedidos()));
+    assertThat(
+            porChave(
+                produtoRepository.somarVendasPorProduto(HOJE, HOJE, todos),
+                p -> p.getNomeProduto(),
+                p -> texto(p.getTotalVendas()) + "/" + p.getQuantidadeItemPedido()))
+        .isEqualTo(
+            porChave(
+                produtoRepository.produtosMaisVendidos(inicio, fim, todos),
+                p -> p.getNomeProduto(),
+                p -> texto(p.getTotalVendas()) + "/" + p.getQuantidadeItemPedido()));
+    assertThat(
+            porChave(
+                produtoRepository.somarFaturamentoPorCategoria(HOJE, HOJE),
+                c -> c.getCategoria(),
+                c -> texto(c.getTotalFaturado())))
+        .isEqualTo(
+            porChave(
+                produtoRepository.faturamentoPorCategoria(inicio, fim),
+                c -> c.getCategoria(),
+                c -> texto(c.getTotalFaturado())));
+    assertThat(
+            porChave(
+                clienteRepository.somarComprasPorCliente(HOJE, HOJE, todos),
+                c -> c.getNomeCliente(),
+                c -> texto(c.getTotalCompras()) + "/" + c.getQuantidadePedidos()))
+        .isEqualTo(
+            porChave(
+                clienteRepository.rankingClientesPorPedidos(inicio, fim, todos),
+                c -> c.getNomeCliente(),
+                c -> texto(c.getTotalCompras()) + "/" + c.getQuantidadePedidos()));
+
+    Map<String, Long> porStatus = new TreeMap<>();
+    pedidoRepository
+        .somarVendasPorStatus(HOJE, HOJE)
+        .forEach(v -> porStatus.merge(v.getStatus(), v.getQuantidadePedidos(), Long::sum));
+    for (StatusPedido status : StatusPedido.values()) {
+      assertThat(porStatus.getOrDefault(status.name(), 0L))
+          .as("pedidos %s", status)
+          .isEqualTo(pedidoRepository.findByStatusAndDataPedidoBetween(status, inicio, fim).size());
+    }
+  }
+
+  private Integer pendentes() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM venda_diaria_pendente", Integer.class);
+  }
+
+  private static <T> Map<String, String> porChave(
+      List<T> linhas,
+      java.util.function.Function<T, String> chave,
+      java.util.function.Function<T, String> valor) {
+    return linhas.stream().collect(Collectors.toMap(chave, valor, (a, b) -> a, TreeMap::new));
+  }
+
+  private static String texto(BigDecimal valor) {
+    return valor.setScale(2, RoundingMode.UNNECESSARY).toPlainString();
+  }
+
+  private static PedidoRequest pedido(Long clienteId, ItemPedidoRequest... itens) {
+    PedidoRequest pedido = new PedidoRequest();
+    pedido.setClienteId(clienteId);
+    pedido.setRestauranteId(1L);
+    pedido.setEnderecoEntrega(
+        new EnderecoRequest("Rua Teste", "123", "Centro", "São Paulo", "SP", "01234567", null));
+    pedido.setItens(List.of(itens));
+    return pedido;
+  }
+
+  private static ItemPedidoRequest item(Long produtoId, int quantidade) {
+    ItemPedidoRequest item = new ItemPedidoRequest();
+    item.setProdutoId(produtoId);
+    item.setQuantidade(quantidade);
+    return item;
+  }
+}
@@ -0,0 +1,213 @@
+package com.deliverytech.delivery_api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.repository.ClienteRepository;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.repository.VendaDiariaRepository;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+// Sem a consolidação agendada: ela descartaria os dias guardados no meio do teste
+@SpringBootTest(properties = "app.relatorios.vendas-diarias.consolidar-intervalo-ms=3600000")
+@ActiveProfiles("test-unit")
+@DisplayName("Vendas por dia em colunas na memória")
+class VendasEmColunasTest {
+
+  // Dias encerrados sem pedidos do data-test.sql
+  private static final LocalDate DIA_0 = LocalDate.of(2001, 1, 20);
+  private static final LocalDate DIA_1 = LocalDate.of(2001, 3, 10);
+  private static final LocalDate DIA_2 = LocalDate.of(2001, 3, 11);
+
+  @Autowired private VendasEmColunas vendasEmColunas;
+
+  @Autowired private PedidoRepository pedidoRepository;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @Autowired private ClienteRepository clienteRepository;
+
+  @Autowired private VendaDiariaRepository vendaDiariaRepository;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void gravarVendasAntigas() {
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante VALUES (?, 1, 'ENTREGUE', 2, 70.00)", DIA_1);
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante VALUES (?, 1, 'CANCELADO', 1, 20.00)", DIA_2);
+    jdbcTemplate.update("INSERT INTO venda_diaria_cliente VALUES (?, 1, 2, 70.00)", DIA_1);
+    jdbcTemplate.update("INSERT INTO venda_diaria_cliente VALUES (?, 2, 1, 20.00)", DIA_2);
+    jdbcTemplate.update("INSERT INTO venda_diaria_produto VALUES (?, 1, 3, 55.00)", DIA_1);
+    jdbcTemplate.update("INSERT INTO venda_diaria_produto VALUES (?, 2, 1, 20.00)", DIA_2);
+    // Item incluído depois num pedido do dia 1, ainda não consolidado
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_pendente (dimensao, dia, chave_id, status, quantidade,"
+            + " valor_total) VALUES ('PRODUTO', ?, 2, NULL, 1, 15.00)",
+        DIA_1);
+  }
+
+  @AfterEach
+  void removerVendasAntigas() {
+    for (String tabela :
+        List.of(
+            "venda_diaria_restaurante",
+            "venda_diaria_cliente",
+            "venda_diaria_produto",
+            "venda_diaria_pendente",
+            "venda_diaria_versao")) {
+      jdbcTemplate.update("DELETE FROM " + tabela + " WHERE dia BETWEEN ? AND ?", DIA_0, DIA_2);
+    }
+    vendasEmColunas.diasAlterados(null);
+  }
+
+  @Test
+  @DisplayName("Relatórios em colunas devem bater com as consultas sobre as vendas por dia")
+  void relatoriosDevemBaterComAsConsultas() {
+    conferir(DIA_1, DIA_2);
+    conferir(DIA_1, LocalDate.now());
+    conferir(DIA_2, DIA_2);
+
+    assertThat(vendasEmColunas.diasEmMemoria()).isGreaterThanOrEqualTo(2);
+    assertThat(vendasEmColunas.vendasPorStatus(DIA_1, DIA_2))
+        .extracting(v -> v.getStatus() + "=" + v.getQuantidadePedidos())
+        .containsExactlyInAnyOrder("ENTREGUE=2", "CANCELADO=1");
+  }
+
+  @Test
+  @DisplayName("Dia alterado pela consolidação deve ser lido de novo")
+  void diaAlteradoDeveSerLidoDeNovo() {
+    conferir(DIA_1, DIA_2);
+
+    jdbcTemplate.update(
+        "UPDATE venda_diaria_produto SET quantidade_itens = 4, valor_total = 70.00"
+            + " WHERE dia = ? AND produto_id = 1",
+        DIA_1);
+    assertThat(vendasEmColunas.vendasPorProduto(DIA_1, DIA_2, 10))
+        .filteredOn(p -> p.getIdProduto() == 1L)
+        .extracting(p -> p.getQuantidadeItemPedido())
+        .containsExactly(3L);
+
+    vendasEmColunas.diasAlterados(List.of(DIA_1));
+
+    conferir(DIA_1, DIA_2);
+    assertThat(vendasEmColunas.vendasPorProduto(DIA_1, DIA_2, 10))
+        .filteredOn(p -> p.getIdProduto() == 1L)
+        .extracting(p -> p.getQuantidadeItemPedido())
+        .containsExactly(4L);
+  }
+
+  @Test
+  @DisplayName("Dia consolidado por outra instância deve ser lido de novo pela versão")
+  void diaConsolidadoPorOutraInstanciaDeveSerLidoDeNovo() {
+    conferir(DIA_1, DIA_2);
+
+    // Consolidação do pendente do dia 1 feita em outra instância: nenhum evento chega aqui
+    jdbcTemplate.update("INSERT INTO venda_diaria_produto VALUES (?, 2, 1, 15.00)", DIA_1);
+    jdbcTemplate.update("DELETE FROM venda_diaria_pendente WHERE dia = ?", DIA_1);
+    vendaDiariaRepository.versionar(List.of(DIA_1));
+
+    conferir(DIA_1, DIA_2);
+    assertThat(vendasEmColunas.vendasPorProduto(DIA_1, DIA_2, 10))
+        .filteredOn(p -> p.getIdProduto() == 2L)
+        .extracting(p -> p.getQuantidadeItemPedido())
+        .containsExactly(2L);
+  }
+
+  @Test
+  @DisplayName("Período de vários meses deve ser lido em partições e bater com as consultas")
+  void periodoDeVariosMesesDeveSerLidoEmParticoes() {
+    jdbcTemplate.update(
+        "INSERT INTO venda_diaria_restaurante VALUES (?, 1, 'ENTREGUE', 1, 30.00)", DIA_0);
+    jdbcTemplate.update("INSERT INTO venda_diaria_cliente VALUES (?, 1, 1, 30.00)", DIA_0);
+    jdbcTemplate.update("INSERT INTO venda_diaria_produto VALUES (?, 1, 2, 30.00)", DIA_0);
+
+    conferir(DIA_0, DIA_2);
+    conferir(DIA_0.withDayOfYear(1), DIA_0.withDayOfYear(365));
+
+    assertThat(vendasEmColunas.vendasPorRestaurante(DIA_0, DIA_2))
+        .filteredOn(r -> r.getNomeRestaurante().equals("Restaurante Teste 1"))
+        .extracting(r -> r.getQuantidadePedidos())
+        .containsExactly(4L);
+  }
+
+  private void conferir(LocalDate inicio, LocalDate fim) {
+    PageRequest todos = PageRequest.of(0, 100);
+    assertThat(
+            porChave(
+                vendasEmColunas.vendasPorRestaurante(inicio, fim),
+                r -> r.getNomeRestaurante(),
+                r -> texto(r.getTotalVendas()) + "/" + r.getQuantidadePedidos()))
+        .isEqualTo(
+            porChave(
+                pedidoRepository.somarVendasPorRestaurante(inicio, fim),
+                r -> r.getNomeRestaurante(),
+                r -> texto(r.getTotalVendas()) + "/" + r.getQuantidadePedidos()));
+    assertThat(
+            porChave(
+                vendasEmColunas.vendasPorStatus(inicio, fim),
+                v -> v.getStatus(),
+                v -> texto(v.getValorTotal()) + "/" + v.getQuantidadePedidos()))
+        .isEqualTo(
+            porChave(
+                pedidoRepository.somarVendasPorStatus(inicio, fim),
+                v -> v.getStatus(),
+                v -> texto(v.getValorTotal()) + "/" + v.getQuantidadePedidos()));
+    assertThat(
+            porChave(
+                vendasEmColunas.vendasPorProduto(inicio, fim, 100),
+                p -> p.getNomeProduto(),
+                p -> texto(p.getTotalVendas()) + "/" + p.getQuantidadeItemPedido()))
+        .isEqualTo(
+            porChave(
+                produtoRepository.somarVendasPorProduto(inicio, fim, todos),
+                p -> p.getNomeProduto(),
+                p -> texto(p.getTotalVendas()) + "/" + p.getQuantidadeItemPedido()));
+    assertThat(
+            porChave(
+                vendasEmColunas.faturamentoPorCategoria(inicio, fim),
+                c -> c.getCategoria(),
+                c -> texto(c.getTotalFaturado())))
+        .isEqualTo(
+            porChave(
+                produtoRepository.somarFaturamentoPorCategoria(inicio, fim),
+                c -> c.getCategoria(),
+                c -> texto(c.getTotalFaturado())));
+    assertThat(
+            porChave(
+                vendasEmColunas.comprasPorCliente(inicio, fim, 100),
+                c -> c.getNomeCliente(),
+                c -> texto(c.getTotalCompras()) + "/" + c.getQuantidadePedidos()))
+        .isEqualTo(
+            porChave(
+                clienteRepository.somarComprasPorCliente(inicio, fim, todos),
+                c -> c.getNomeCliente(),
+                c -> texto(c.getTotalCompras()) + "/" + c.getQuantidadePedidos()));
+  }
+
+  private static <T> Map<String, String> porChave(
+      List<T> linhas, Function<T, String> chave, Function<T, String> valor) {
+    return linhas.stream().collect(Collectors.toMap(chave, valor, (a, b) -> a, TreeMap::new));
+  }
+
+  private static String texto(BigDecimal valor) {
+    return valor.setScale(2, RoundingMode.UNNECESSARY).toPlainString();
+  }
+}
@@ -0,0 +1,142 @@
+package com.deliverytech.delivery_api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.deliverytech.delivery_api.cache.ChaveCache;
+import com.deliverytech.delivery_api.cache.RegioesCache;
+import com.deliverytech.delivery_api.model.Produto;
+import com.deliverytech.delivery_api.model.StatusPedido;
+import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.service.PedidoService;
+import com.deliverytech.delivery_api.service.ProdutoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test-unit")
+@DisplayName("Invalidação seletiva dos caches de produtos e pedidos")
+class CacheInvalidacaoSeletivaTest {
+
+  @Autowired private ProdutoService produtoService;
+
+  @Autowired private PedidoService pedidoService;
+
+  @Autowired private RestauranteRepository restauranteRepository;
+
+  @Autowired private CacheManager cacheManager;
+
+  @BeforeEach
+  @AfterEach
+  void limparCaches() {
+    cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+  }
+
+  @Test
+  @DisplayName("Baixa de estoque deve remover só as listas que contêm o produto")
+  void baixaDeEstoqueDeveRemoverSoListasDoProduto() {
+    produtoService.buscarProdutosPorRestaurante(1L);
+    produtoService.buscarProdutosPorRestaurante(99L);
+    produtoService.buscarProdutosPorNome("inexistente");
+    produtoService.buscarDisponiveis();
+
+    produtoService.ajustarEstoque(1L, -1);
+
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_RESTAURANTE).get(menu(1L))).isNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_DISPONIVEIS).get(ChaveCache.disponiveis())).isNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_RESTAURANTE).get(menu(99L))).isNotNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_NOME).get(ChaveCache.porNome("inexistente")))
+        .isNotNull();
+  }
+
+  @Test
+  @DisplayName("Produto que muda de categoria e nome deve remover as listas de destino")
+  void produtoQueMudaDeCategoriaDeveRemoverListasDeDestino() {
+    produtoService.buscarProdutosPorRestaurante(1L);
+    produtoService.buscarProdutosPorRestaurante(99L);
+    produtoService.buscarProdutosPorCategoria("Sobremesa");
+    produtoService.buscarProdutosPorCategoria("Bebida");
+    produtoService.buscarProdutosPorNome("pudim");
+
+    Produto alterado = new Produto();
+    alterado.setNome("Pudim");
+    alterado.setCategoria("Sobremesa");
+    alterado.setDisponivel(true);
+    alterado.setRestaurante(restauranteRepository.findById(1L).orElseThrow());
+    produtoService.atualizar(2L, alterado);
+
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_RESTAURANTE).get(menu(1L))).isNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_CATEGORIA).get(categoria("Sobremesa"))).isNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_NOME).get(ChaveCache.porNome("pudim"))).isNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_RESTAURANTE).get(menu(99L))).isNotNull();
+    assertThat(regiao(RegioesCache.PRODUTOS_POR_CATEGORIA).get(categoria("Bebida"))).isNotNull();
+  }
+
+  @Test
+  @DisplayName("Cancelamento deve remover só as listas do pedido e a do novo status")
+  void cancelamentoDeveRemoverSoListasDoPedido() {
+    pedidoService.buscarPorCliente(1L);
+    pedidoService.buscarPorCliente(99L);
+    pedidoService.buscarPorStatus(StatusPedido.CANCELADO);
+    pedidoService.buscarPorStatus(StatusPedido.ENTREGUE);
+
+    pedidoService.cancelar(1L);
+
+    assertThat(regiao(RegioesCache.PEDIDOS_POR_CLIENTE).get(ChaveCache.porCliente(1L))).isNull();
+    assertThat(
+            regiao(RegioesCache.PEDIDOS_POR_STATUS)
+                .get(ChaveCache.porStatus(StatusPedido.CANCELADO)))
+        .isNull();
+    assertThat(regiao(RegioesCache.PEDIDOS_POR_CLIENTE).get(ChaveCache.porCliente(99L)))
+        .isNotNull();
+    assertThat(
+            regiao(RegioesCache.PEDIDOS_POR_STATUS)
+                .get(ChaveCache.porStatus(StatusPedido.ENTREGUE)))
+        .isNotNull();
+  }
+
+  @Test
+  @DisplayName("Cada família de consulta deve gravar na sua região, sem colisão entre filtros")
+  void cadaFamiliaDeveGravarNaSuaRegiao() {
+    var pagina = PageRequest.of(0, 5);
+    pedidoService.buscarPorCliente(1L);
+    pedidoService.buscarPorRestaurante(1L);
+    pedidoService.buscarPedidosPorCliente(1L, pagina);
+
+    assertThat(regiao(RegioesCache.PEDIDOS_POR_CLIENTE).get(ChaveCache.porCliente(1L))).isNotNull();
+    assertThat(regiao(RegioesCache.PEDIDOS_POR_RESTAURANTE).get(ChaveCache.porRestaurante(1L)))
+        .isNotNull();
+    assertThat(
+            regiao(RegioesCache.PEDIDOS_POR_CLIENTE_PAGINADO)
+                .get(ChaveCache.porCliente(1L, pagina)))
+        .isNotNull();
+    assertThat(regiao(RegioesCache.PEDIDOS_POR_CLIENTE).get(ChaveCache.porRestaurante(1L)))
+        .isNull();
+    assertThat(
+            regiao(RegioesCache.PEDIDOS_POR_CLIENTE_PAGINADO)
+                .get(ChaveCache.porCliente(1L, PageRequest.of(1, 5))))
+        .isNull();
+    assertThat(regiao("pedidos").get(ChaveCache.porCliente(1L))).isNull();
+  }
+
+  private Cache regiao(String nome) {
+    return cacheManager.getCache(nome);
+  }
+
+  private static ChaveCache menu(Long restauranteId) {
+    return ChaveCache.porRestaurante(restauranteId);
+  }
+
+  private static ChaveCache categoria(String categoria) {
+    return ChaveCache.porCategoria(categoria);
+  }
+}
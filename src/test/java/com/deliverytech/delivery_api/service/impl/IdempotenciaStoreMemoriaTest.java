@@ -0,0 +1,101 @@
+package com.deliverytech.delivery_api.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deliverytech.delivery_api.dto.response.PedidoResponse;
+import com.deliverytech.delivery_api.exception.ConflictException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IdempotenciaStoreMemoriaTest {
+
+  private final AtomicLong relogio = new AtomicLong(1_000);
+
+  private final IdempotenciaStoreMemoria store =
+      new IdempotenciaStoreMemoria(60_000, 3, relogio::get);
+
+  @Test
+  @DisplayName("Deve reservar a chave na primeira vez e repetir a resposta depois")
+  void deveReservarERepetirResposta() {
+    PedidoResponse resposta = resposta(10L);
+
+    assertTrue(store.reservar("1:a", "h1", 0).isEmpty());
+    store.concluir("1:a", resposta);
+
+    assertSame(resposta, store.reservar("1:a", "h1", 0).orElseThrow());
+  }
+
+  @Test
+  @DisplayName("Duplicata concorrente deve esperar a execução em andamento")
+  void duplicataDeveEsperarExecucaoEmAndamento() throws Exception {
+    assertTrue(store.reservar("1:a", "h1", 0).isEmpty());
+
+    CompletableFuture<Optional<PedidoResponse>> duplicata =
+        CompletableFuture.supplyAsync(() -> store.reservar("1:a", "h1", 5_000));
+    Thread.sleep(50);
+    assertFalse(duplicata.isDone());
+
+    store.concluir("1:a", resposta(10L));
+    assertEquals(10L, duplicata.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+  }
+
+  @Test
+  @DisplayName("Duplicata deve assumir a chave quando a execução original falha")
+  void duplicataDeveAssumirChaveAposFalha() throws Exception {
+    assertTrue(store.reservar("1:a", "h1", 0).isEmpty());
+
+    CompletableFuture<Optional<PedidoResponse>> duplicata =
+        CompletableFuture.supplyAsync(() -> store.reservar("1:a", "h1", 5_000));
+    Thread.sleep(50);
+    store.liberar("1:a");
+
+    assertTrue(duplicata.get(5, TimeUnit.SECONDS).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Deve recusar a mesma chave com outra requisição")
+  void deveRecusarMesmaChaveComOutraRequisicao() {
+    store.reservar("1:a", "h1", 0);
+    store.concluir("1:a", resposta(10L));
+
+    assertThrows(ConflictException.class, () -> store.reservar("1:a", "h2", 0));
+  }
+
+  @Test
+  @DisplayName("Deve recusar quando a espera pela execução em andamento se esgota")
+  void deveRecusarQuandoEsperaSeEsgota() {
+    store.reservar("1:a", "h1", 0);
+
+    assertThrows(ConflictException.class, () -> store.reservar("1:a", "h1", 20));
+  }
+
+  @Test
+  @DisplayName("Deve expirar chaves concluídas e manter o limite de tamanho")
+  void deveExpirarChavesEManterLimite() {
+    for (String chave : new String[] {"1:a", "1:b", "1:c"}) {
+      store.reservar(chave, "h", 0);
+      store.concluir(chave, resposta(1L));
+    }
+
+    store.reservar("1:d", "h", 0);
+    assertEquals(3, store.tamanho());
+    // A mais antiga saiu para abrir espaço e pode ser reservada de novo
+    assertTrue(store.reservar("1:a", "h", 0).isEmpty());
+
+    relogio.addAndGet(60_001);
+    store.reservar("1:e", "h", 0);
+    // Concluídas vencidas saem; as em andamento ficam
+    assertEquals(3, store.tamanho());
+    assertThrows(ConflictException.class, () -> store.reservar("1:d", "outra", 0));
+  }
+
+  private static PedidoResponse resposta(Long id) {
+    PedidoResponse resposta = new PedidoResponse();
+    resposta.setId(id);
+    return resposta;
+  }
+}
@@ -0,0 +1,103 @@
+package com.deliverytech.delivery_api.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.deliverytech.delivery_api.dto.request.EnderecoRequest;
+import com.deliverytech.delivery_api.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery_api.dto.request.PedidoRequest;
+import com.deliverytech.delivery_api.dto.response.PedidoLoteResultadoResponse;
+import com.deliverytech.delivery_api.exception.BusinessException;
+import com.deliverytech.delivery_api.repository.PedidoRepository;
+import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.service.PedidoService;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "app.pedidos.lote.max-pedidos=10")
+@Transactional
+@ActiveProfiles("test-unit")
+@DisplayName("Criação de pedidos em lote")
+class PedidoServiceImplLoteTest {
+
+  @Autowired private PedidoService pedidoService;
+
+  @Autowired private PedidoRepository pedidoRepository;
+
+  @Autowired private ProdutoRepository produtoRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  @DisplayName("Deve criar os pedidos válidos e recusar os demais individualmente")
+  void deveCriarValidosERecusarDemais() {
+    long pedidosAntes = pedidoRepository.count();
+    int estoqueProduto1 = produtoRepository.findById(1L).orElseThrow().getQuantidadeEstoque();
+    int estoqueProduto2 = produtoRepository.findById(2L).orElseThrow().getQuantidadeEstoque();
+
+    List<PedidoLoteResultadoResponse> resultados =
+        pedidoService.criarPedidos(
+            List.of(
+                pedido(1L, item(2L, estoqueProduto2 - 2)),
+                pedido(99L, item(1L, 1)),
+                pedido(2L, item(2L, 3)),
+                pedido(2L, item(1L, 2), item(2L, 2)),
+                pedido(1L)));
+
+    assertThat(resultados)
+        .extracting(PedidoLoteResultadoResponse::indice)
+        .containsExactly(0, 1, 2, 3, 4);
+    assertThat(resultados)
+        .extracting(PedidoLoteResultadoResponse::sucesso)
+        .containsExactly(true, false, false, true, false);
+    assertThat(resultados.get(1).erro()).contains("Cliente");
+    assertThat(resultados.get(2).erro()).containsIgnoringCase("estoque");
+    assertThat(resultados.get(4).erro()).contains("itens");
+    assertThat(resultados.get(0).pedido().getId()).isNotNull();
+    assertThat(resultados.get(3).pedido().getItens()).hasSize(2);
+
+    entityManager.flush();
+    entityManager.clear();
+    assertThat(pedidoRepository.count()).isEqualTo(pedidosAntes + 2);
+    assertThat(produtoRepository.findById(1L).orElseThrow().getQuantidadeEstoque())
+        .isEqualTo(estoqueProduto1 - 2);
+    assertThat(produtoRepository.findById(2L).orElseThrow().getQuantidadeEstoque()).isZero();
+  }
+
+  @Test
+  @DisplayName("Deve recusar lote vazio ou acima do limite")
+  void deveRecusarLoteVazioOuAcimaDoLimite() {
+    List<PedidoRequest> grande = new ArrayList<>(Collections.nCopies(11, pedido(1L, item(1L, 1))));
+
+    assertThatThrownBy(() -> pedidoService.criarPedidos(List.of()))
+        .isInstanceOf(BusinessException.class);
+    assertThatThrownBy(() -> pedidoService.criarPedidos(grande))
+        .isInstanceOf(BusinessException.class)
+        .hasMessageContaining("limite");
+  }
+
+  private static PedidoRequest pedido(Long clienteId, ItemPedidoRequest... itens) {
+    PedidoRequest pedido = new PedidoRequest();
+    pedido.setClienteId(clienteId);
+    pedido.setRestauranteId(1L);
+    pedido.setEnderecoEntrega(
+        new EnderecoRequest("Rua Teste", "123", "Centro", "São Paulo", "SP", "01234567", null));
+    pedido.setItens(List.of(itens));
+    return pedido;
+  }
+
+  private static ItemPedidoRequest item(Long produtoId, int quantidade) {
+    ItemPedidoRequest item = new ItemPedidoRequest();
+    item.setProdutoId(produtoId);
+    item.setQuantidade(quantidade);
+    return item;
+  }
+}
@@ -3,6 +3,7 @@ package com.deliverytech.delivery_api.service.impl;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
 import com.deliverytech.delivery_api.exception.EstoqueInsuficienteException;
 import com.deliverytech.delivery_api.mapper.PedidoMapper;
 import com.deliverytech.delivery_api.model.*;
@@ -10,9 +11,10 @@ import com.deliverytech.delivery_api.repository.ClienteRepository;
 import com.deliverytech.delivery_api.repository.PedidoRepository;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
 import com.deliverytech.delivery_api.repository.RestauranteRepository;
+import com.deliverytech.delivery_api.service.GeradorNumeroPedido;
 import com.deliverytech.delivery_api.service.ProdutoService;
+import com.deliverytech.delivery_api.service.VendasDiarias;
 import java.math.BigDecimal;
-import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -33,6 +35,12 @@ public class PedidoServiceImplTest {
 
   @Mock private ProdutoService produtoService;
 
+  @Mock private GeradorNumeroPedido geradorNumeroPedido;
+
+  @Mock private InvalidacaoCache invalidacaoCache;
+
+  @Mock private VendasDiarias vendasDiarias;
+
   @InjectMocks private PedidoServiceImpl pedidoService;
 
   @BeforeEach
@@ -65,7 +73,7 @@ public class PedidoServiceImplTest {
     pedido.setItens(java.util.Arrays.asList(item));
 
     // Configure mocks
-    when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
+    when(produtoRepository.findAllById(any())).thenReturn(java.util.List.of(produto));
     doNothing().when(produtoService).validarEstoque(produto, 3);
 
     // Test the method
@@ -100,7 +108,7 @@ public class PedidoServiceImplTest {
     pedido.setItens(java.util.Arrays.asList(item));
 
     // Configure mocks
-    when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
+    when(produtoRepository.findAllById(any())).thenReturn(java.util.List.of(produto));
     doThrow(new EstoqueInsuficienteException("Estoque insuficiente"))
         .when(produtoService)
         .validarEstoque(produto, 5);
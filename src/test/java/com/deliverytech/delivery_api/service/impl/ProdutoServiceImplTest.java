@@ -3,6 +3,9 @@ package com.deliverytech.delivery_api.service.impl;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.deliverytech.delivery_api.cache.AusenciasEmCache;
+import com.deliverytech.delivery_api.cache.InvalidacaoCache;
+import com.deliverytech.delivery_api.cache.VersoesCatalogo;
 import com.deliverytech.delivery_api.exception.EstoqueInsuficienteException;
 import com.deliverytech.delivery_api.exception.ProdutoIndisponivelException;
 import com.deliverytech.delivery_api.mapper.ProdutoMapper;
@@ -10,8 +13,13 @@ import com.deliverytech.delivery_api.model.ItemPedido;
 import com.deliverytech.delivery_api.model.Pedido;
 import com.deliverytech.delivery_api.model.Produto;
 import com.deliverytech.delivery_api.model.Restaurante;
+import com.deliverytech.delivery_api.projection.EstoqueProdutoProjection;
 import com.deliverytech.delivery_api.repository.ProdutoRepository;
+import com.deliverytech.delivery_api.service.EstoqueFragmentado;
+import com.deliverytech.delivery_api.service.EstoqueLedger;
+import com.deliverytech.delivery_api.service.ModoReservaEstoque;
 import java.math.BigDecimal;
+import java.util.List;
 // Remove the Optional import to avoid conflicts
 // import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +27,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
 
 public class ProdutoServiceImplTest {
 
@@ -26,6 +36,12 @@ public class ProdutoServiceImplTest {
 
   @Mock private ProdutoMapper produtoMapper;
 
+  @Mock private InvalidacaoCache invalidacaoCache;
+
+  @Mock private VersoesCatalogo versoesCatalogo;
+
+  @Mock private AusenciasEmCache ausenciasEmCache;
+
   @InjectMocks private ProdutoServiceImpl produtoService;
 
   @BeforeEach
@@ -157,15 +173,17 @@ public class ProdutoServiceImplTest {
     pedido.setId(1L);
     pedido.setItens(java.util.Arrays.asList(item));
 
-    when(produtoRepository.findByIdWithLock(1L)).thenReturn(java.util.Optional.of(produto));
-    when(produtoRepository.save(produto)).thenReturn(produto);
+    when(produtoRepository.findAllById(any())).thenReturn(List.of(produto));
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L)))
+        .thenReturn(List.of(estoque(1L, 10)));
 
     // Test the method
     produtoService.reservarEstoque(pedido);
 
     // Verify the result
     assertEquals(7, produto.getQuantidadeEstoque());
-    verify(produtoRepository, times(1)).save(produto);
+    verify(produtoRepository, times(1)).saveAll(anyCollection());
+    verify(produtoRepository, never()).findByIdWithLock(any());
   }
 
   @Test
@@ -192,7 +210,9 @@ public class ProdutoServiceImplTest {
     pedido.setId(1L);
     pedido.setItens(java.util.Arrays.asList(item));
 
-    when(produtoRepository.findByIdWithLock(1L)).thenReturn(java.util.Optional.of(produto));
+    when(produtoRepository.findAllById(any())).thenReturn(List.of(produto));
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L)))
+        .thenReturn(List.of(estoque(1L, -1)));
 
     // Test the method
     produtoService.reservarEstoque(pedido);
@@ -226,14 +246,277 @@ public class ProdutoServiceImplTest {
     pedido.setId(1L);
     pedido.setItens(java.util.Arrays.asList(item));
 
-    when(produtoRepository.findByIdWithLock(1L)).thenReturn(java.util.Optional.of(produto));
-    when(produtoRepository.save(produto)).thenReturn(produto);
+    when(produtoRepository.findAllById(any())).thenReturn(List.of(produto));
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L)))
+        .thenReturn(List.of(estoque(1L, 7)));
 
     // Test the method
     produtoService.cancelarReservaEstoque(pedido);
 
     // Verify the result
     assertEquals(10, produto.getQuantidadeEstoque()); // Restored to original
-    verify(produtoRepository, times(1)).save(produto);
+    verify(produtoRepository, times(1)).saveAll(anyCollection());
+    verify(produtoRepository, never()).findByIdWithLock(any());
+  }
+
+  @Test
+  public void testReservarEstoque_UsesStockReadUnderLock_NotStaleLoadedValue() {
+    Produto produto = new Produto();
+    produto.setId(1L);
+    produto.setNome("Produto Teste");
+    produto.setQuantidadeEstoque(10); // valor carregado antes do lock
+    produto.setDisponivel(true);
+
+    ItemPedido item1 = new ItemPedido();
+    item1.setProduto(produto);
+    item1.setQuantidade(2);
+    ItemPedido item2 = new ItemPedido();
+    item2.setProduto(produto);
+    item2.setQuantidade(1);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(java.util.Arrays.asList(item1, item2));
+
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L)))
+        .thenReturn(List.of(estoque(1L, 4)));
+
+    produtoService.reservarEstoque(
+        pedido, new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(produto)));
+
+    assertEquals(1, produto.getQuantidadeEstoque());
+    verify(produtoRepository, times(1)).findEstoqueByIdInForUpdate(List.of(1L));
+    verify(produtoRepository, never()).findAllById(any());
+  }
+
+  @Test
+  public void testReservarEstoque_WithStockTakenConcurrently_ShouldThrow() {
+    Produto produto = new Produto();
+    produto.setId(1L);
+    produto.setNome("Produto Teste");
+    produto.setQuantidadeEstoque(10);
+    produto.setDisponivel(true);
+
+    ItemPedido item = new ItemPedido();
+    item.setProduto(produto);
+    item.setQuantidade(3);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(java.util.Arrays.asList(item));
+
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L)))
+        .thenReturn(List.of(estoque(1L, 2)));
+
+    assertThrows(
+        EstoqueInsuficienteException.class,
+        () ->
+            produtoService.reservarEstoque(
+                pedido,
+                new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(produto))));
+    verify(produtoRepository, never()).saveAll(anyCollection());
+  }
+
+  @Test
+  public void testReservarEstoque_ModoCondicional_ShouldIssueOneBatchWithoutLock() {
+    ReflectionTestUtils.setField(produtoService, "modoReserva", ModoReservaEstoque.CONDICIONAL);
+
+    Produto produto = new Produto();
+    produto.setId(1L);
+    produto.setNome("Produto Teste");
+    produto.setQuantidadeEstoque(10);
+    produto.setDisponivel(true);
+    Produto infinito = new Produto();
+    infinito.setId(2L);
+    infinito.setNome("Produto Infinito");
+    infinito.setQuantidadeEstoque(-1);
+    infinito.setDisponivel(true);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(
+            ItemPedido.builder().produto(produto).quantidade(2).build(),
+            ItemPedido.builder().produto(infinito).quantidade(5).build(),
+            ItemPedido.builder().produto(produto).quantidade(1).build()));
+
+    when(produtoRepository.decrementarEstoqueCondicional(any())).thenReturn(List.of());
+
+    produtoService.reservarEstoque(
+        pedido,
+        new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(produto, infinito)));
+
+    verify(produtoRepository).decrementarEstoqueCondicional(java.util.Map.of(1L, 3));
+    verify(produtoRepository, never()).findEstoqueByIdInForUpdate(any());
+    verify(produtoRepository, never()).saveAll(anyCollection());
+    // A entidade não é alterada em memória para não sobrescrever o UPDATE atômico
+    assertEquals(10, produto.getQuantidadeEstoque());
+  }
+
+  @Test
+  public void testReservarEstoque_ModoCondicional_WithShortAffectedRows_ShouldThrow() {
+    ReflectionTestUtils.setField(produtoService, "modoReserva", ModoReservaEstoque.CONDICIONAL);
+
+    Produto produto = new Produto();
+    produto.setId(1L);
+    produto.setNome("Produto Teste");
+    produto.setQuantidadeEstoque(10);
+    produto.setDisponivel(true);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(ItemPedido.builder().produto(produto).quantidade(3).build()));
+
+    when(produtoRepository.decrementarEstoqueCondicional(any())).thenReturn(List.of(1L));
+
+    EstoqueInsuficienteException exception =
+        assertThrows(
+            EstoqueInsuficienteException.class,
+            () ->
+                produtoService.reservarEstoque(
+                    pedido,
+                    new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(produto))));
+    assertTrue(exception.getMessage().contains("Produto Teste"));
+  }
+
+  @Test
+  public void testReservarEstoque_LocksAllProductsInAscendingIdOrder() {
+    Produto p3 = Produto.builder().id(3L).nome("P3").quantidadeEstoque(5).disponivel(true).build();
+    Produto p1 = Produto.builder().id(1L).nome("P1").quantidadeEstoque(5).disponivel(true).build();
+    Produto p2 = Produto.builder().id(2L).nome("P2").quantidadeEstoque(5).disponivel(true).build();
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(
+            ItemPedido.builder().produto(p3).quantidade(1).build(),
+            ItemPedido.builder().produto(p1).quantidade(1).build(),
+            ItemPedido.builder().produto(p2).quantidade(1).build()));
+
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(1L, 2L, 3L)))
+        .thenReturn(List.of(estoque(1L, 5), estoque(2L, 5), estoque(3L, 5)));
+
+    produtoService.reservarEstoque(
+        pedido, new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(p3, p1, p2)));
+
+    verify(produtoRepository, times(1)).findEstoqueByIdInForUpdate(List.of(1L, 2L, 3L));
+    assertEquals(4, p1.getQuantidadeEstoque());
+    assertEquals(4, p3.getQuantidadeEstoque());
+  }
+
+  @Test
+  public void testReservarEstoque_WithLedgerProduct_ShouldReserveInMemoryAndLockOnlyTheRest() {
+    Produto quente =
+        Produto.builder().id(1L).nome("Quente").quantidadeEstoque(5).disponivel(true).build();
+    Produto comum =
+        Produto.builder().id(2L).nome("Comum").quantidadeEstoque(5).disponivel(true).build();
+    EstoqueLedger ledger = ledgerCom(quente);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(
+            ItemPedido.builder().produto(quente).quantidade(2).build(),
+            ItemPedido.builder().produto(comum).quantidade(1).build()));
+
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(2L)))
+        .thenReturn(List.of(estoque(2L, 5)));
+
+    produtoService.reservarEstoque(
+        pedido, new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(quente, comum)));
+
+    verify(produtoRepository).findEstoqueByIdInForUpdate(List.of(2L));
+    assertEquals(3, ledger.disponivel(1L));
+    // A entidade do produto do ledger só muda no banco, no próximo descarregamento
+    assertEquals(5, quente.getQuantidadeEstoque());
+    assertEquals(4, comum.getQuantidadeEstoque());
+  }
+
+  @Test
+  public void testReservarEstoque_WithLedgerProduct_WhenDatabasePartFails_ShouldUndoReservation() {
+    Produto quente =
+        Produto.builder().id(1L).nome("Quente").quantidadeEstoque(5).disponivel(true).build();
+    Produto comum =
+        Produto.builder().id(2L).nome("Comum").quantidadeEstoque(5).disponivel(true).build();
+    EstoqueLedger ledger = ledgerCom(quente);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(
+            ItemPedido.builder().produto(quente).quantidade(2).build(),
+            ItemPedido.builder().produto(comum).quantidade(9).build()));
+
+    when(produtoRepository.findEstoqueByIdInForUpdate(List.of(2L)))
+        .thenReturn(List.of(estoque(2L, 5)));
+
+    assertThrows(
+        EstoqueInsuficienteException.class,
+        () ->
+            produtoService.reservarEstoque(
+                pedido,
+                new com.deliverytech.delivery_api.service.ProdutosPedido(List.of(quente, comum))));
+    assertEquals(5, ledger.disponivel(1L));
+  }
+
+  @Test
+  public void testValidarEstoque_WithLedgerProduct_ShouldUseInMemoryBalance() {
+    Produto quente =
+        Produto.builder().id(1L).nome("Quente").quantidadeEstoque(5).disponivel(true).build();
+    ledgerCom(quente);
+    // Saldo no banco ainda não alcançou o ledger
+    quente.setQuantidadeEstoque(0);
+
+    assertDoesNotThrow(() -> produtoService.validarEstoque(quente, 5));
+    assertThrows(
+        EstoqueInsuficienteException.class, () -> produtoService.validarEstoque(quente, 6));
+  }
+
+  @Test
+  public void testReservarEstoque_WithShardedProduct_ShouldReserveBucketsAndLockOnlyTheRest() {
+    Produto fragmentado =
+        Produto.builder().id(1L).nome("Fragmentado").quantidadeEstoque(5).disponivel(true).build();
+    Produto comum =
+        Produto.builder().id(2L).nome("Comum").quantidadeEstoque(5).disponivel(true).build();
+    EstoqueFragmentado estoqueFragmentado = mock(EstoqueFragmentado.class);
+    when(estoqueFragmentado.controla(1L)).thenReturn(true);
+    when(estoqueFragmentado.reservar(java.util.Map.of(1L, 3))).thenReturn(List.of(1L));
+    ReflectionTestUtils.setField(produtoService, "estoqueFragmentado", estoqueFragmentado);
+
+    Pedido pedido = new Pedido();
+    pedido.setItens(
+        java.util.Arrays.asList(
+            ItemPedido.builder().produto(fragmentado).quantidade(3).build(),
+            ItemPedido.builder().produto(comum).quantidade(1).build()));
+
+    EstoqueInsuficienteException exception =
+        assertThrows(
+            EstoqueInsuficienteException.class,
+            () ->
+                produtoService.reservarEstoque(
+                    pedido,
+                    new com.deliverytech.delivery_api.service.ProdutosPedido(
+                        List.of(fragmentado, comum))));
+    assertTrue(exception.getMessage().contains("Fragmentado"));
+    verify(produtoRepository, never()).findEstoqueByIdInForUpdate(any());
+  }
+
+  private EstoqueLedger ledgerCom(Produto... produtos) {
+    List<Long> ids = java.util.Arrays.stream(produtos).map(Produto::getId).toList();
+    when(produtoRepository.findAllById(java.util.Set.copyOf(ids))).thenReturn(List.of(produtos));
+    EstoqueLedger ledger =
+        new EstoqueLedger(
+            produtoRepository, TransactionOperations.withoutTransaction(), ids, "local");
+    ledger.carregar();
+    ReflectionTestUtils.setField(produtoService, "estoqueLedger", ledger);
+    return ledger;
+  }
+
+  private static EstoqueProdutoProjection estoque(Long id, Integer quantidade) {
+    return new EstoqueProdutoProjection() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Integer getQuantidadeEstoque() {
+        return quantidade;
+      }
+    };
   }
 }